@@ -1,5 +1,7 @@
 package com.quantor.api;
 
+import com.quantor.domain.journal.AsyncAppender;
+import com.quantor.infrastructure.db.SqliteAccess;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
@@ -12,6 +14,13 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @ConfigurationPropertiesScan(basePackages = "com.quantor")
 public class QuantorApiApplication {
   public static void main(String[] args) {
+    // journals are closed after the context (and every bean that appends) has shut down, then the
+    // SQLite writers commit what is still queued (one handler: the order matters)
+    AsyncAppender.manageLifecycle();
+    SpringApplication.getShutdownHandlers().add(() -> {
+        AsyncAppender.closeAll();
+        SqliteAccess.closeAll();
+    });
     SpringApplication.run(QuantorApiApplication.class, args);
   }
 }
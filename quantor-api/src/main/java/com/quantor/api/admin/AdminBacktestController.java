@@ -0,0 +1,47 @@
+package com.quantor.api.admin;
+
+import com.quantor.api.backtest.BacktestSweepRequest;
+import com.quantor.api.backtest.BacktestSweepService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Research backtest sweeps executed by spare worker capacity.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/backtests")
+public class AdminBacktestController {
+
+  private final BacktestSweepService sweeps;
+
+  public AdminBacktestController(BacktestSweepService sweeps) {
+    this.sweeps = sweeps;
+  }
+
+  @PostMapping("/sweeps")
+  public ResponseEntity<Map<String, Object>> submit(@AuthenticationPrincipal Jwt jwt, @RequestBody BacktestSweepRequest req) {
+    String userId = jwt == null ? null : jwt.getSubject();
+    var res = sweeps.submit(userId, req);
+    return ResponseEntity.ok(Map.of(
+        "status", "ok",
+        "sweepId", res.sweepId().toString(),
+        "chunks", res.chunks(),
+        "paramSets", res.paramSets(),
+        "ts", Instant.now().toString()
+    ));
+  }
+
+  @GetMapping("/sweeps/{sweepId}")
+  public BacktestSweepService.SweepStatus status(
+      @PathVariable UUID sweepId,
+      @RequestParam(defaultValue = "20") int top
+  ) {
+    return sweeps.status(sweepId, top);
+  }
+}
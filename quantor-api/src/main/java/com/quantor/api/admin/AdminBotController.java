@@ -1,5 +1,6 @@
 package com.quantor.api.admin;
 
+import com.quantor.api.engine.BotCommandNotifier;
 import com.quantor.api.tracing.RequestContext;
 import com.quantor.api.tracing.TraceparentUtil;
 import com.quantor.saas.infrastructure.engine.BotCommandEntity;
@@ -22,11 +23,16 @@ public class AdminBotController {
   private final BotInstanceRepository instances;
   private final BotCommandRepository commands;
   private final AdminAuditService audit;
+  private final BotCommandNotifier notifier;
 
-  public AdminBotController(BotInstanceRepository instances, BotCommandRepository commands, AdminAuditService audit) {
+  public AdminBotController(BotInstanceRepository instances,
+                            BotCommandRepository commands,
+                            AdminAuditService audit,
+                            BotCommandNotifier notifier) {
     this.instances = instances;
     this.commands = commands;
     this.audit = audit;
+    this.notifier = notifier;
   }
 
   public record BotRow(
@@ -118,5 +124,6 @@ public class AdminBotController {
     if (traceparent != null && !traceparent.isBlank()) cmd.setTraceparent(traceparent);
 
     commands.save(cmd);
+    notifier.afterCommit(inst.getId());
   }
 }
@@ -8,6 +8,7 @@ import com.quantor.saas.infrastructure.engine.BotCommandEntity;
 import com.quantor.saas.infrastructure.engine.BotCommandRepository;
 import com.quantor.saas.infrastructure.engine.BotInstanceEntity;
 import com.quantor.saas.infrastructure.engine.BotInstanceRepository;
+import com.quantor.saas.infrastructure.engine.BotStatusReadModel;
 import com.quantor.saas.infrastructure.security.UserApiKeyRepository;
 import com.quantor.saas.infrastructure.subscription.SubscriptionEntity;
 import com.quantor.saas.infrastructure.subscription.SubscriptionRepository;
@@ -26,6 +27,7 @@ public class AdminDiagnosticsService {
   private final UserRepository users;
   private final SubscriptionRepository subscriptions;
   private final BotInstanceRepository instances;
+  private final BotStatusReadModel statusCounts;
   private final BotCommandRepository commands;
   private final UserApiKeyRepository apiKeys;
   private final SubscriptionAccessService access;
@@ -35,6 +37,7 @@ public class AdminDiagnosticsService {
       UserRepository users,
       SubscriptionRepository subscriptions,
       BotInstanceRepository instances,
+      BotStatusReadModel statusCounts,
       BotCommandRepository commands,
       UserApiKeyRepository apiKeys,
       SubscriptionAccessService access,
@@ -43,6 +46,7 @@ public class AdminDiagnosticsService {
     this.users = users;
     this.subscriptions = subscriptions;
     this.instances = instances;
+    this.statusCounts = statusCounts;
     this.commands = commands;
     this.apiKeys = apiKeys;
     this.access = access;
@@ -103,8 +107,12 @@ public class AdminDiagnosticsService {
         "advancedStrategies", limits.advancedStrategies()
     ));
 
-    long activeBots = instances.countByUserIdAndStatusIn(userId, List.of("RUNNING", "PAUSED", "PENDING"));
+    Map<String, Long> botCounts = statusCounts.userCounts(userId);
+    long activeBots = botCounts.getOrDefault("RUNNING", 0L)
+        + botCounts.getOrDefault("PAUSED", 0L)
+        + botCounts.getOrDefault("PENDING", 0L);
     details.put("activeBots", activeBots);
+    details.put("botsByStatus", botCounts);
 
     if (activeBots >= limits.maxBots()) {
       reasons.add(new Reason("LIMIT_MAX_BOTS", "Plan limit reached: maxBots=" + limits.maxBots()));
@@ -119,18 +127,21 @@ public class AdminDiagnosticsService {
     }
 
     // Support context: if the user has a bot in ERROR, show the latest FAILED command (with traceparent).
-    instances.findFirstByUserIdAndStatusOrderByUpdatedAtDesc(userId, "ERROR").ifPresent(errBot -> {
-      details.put("latestErrorBot", Map.of(
-          "jobKey", errBot.getJobKey(),
-          "strategyId", errBot.getStrategyId(),
-          "symbol", errBot.getSymbol(),
-          "interval", errBot.getInterval(),
-          "updatedAt", errBot.getUpdatedAt()
-      ));
-
-      commands.findTopByBotInstanceIdAndStatusOrderByCreatedAtDesc(errBot.getId(), "FAILED")
-          .ifPresent(failed -> details.put("latestFailedCommand", toFailedCommandDetails(failed)));
-    });
+    // The counters tell whether there is one at all, so the common case costs no bot_instances lookup.
+    if (botCounts.getOrDefault("ERROR", 0L) > 0) {
+      instances.findFirstByUserIdAndStatusOrderByUpdatedAtDesc(userId, "ERROR").ifPresent(errBot -> {
+        details.put("latestErrorBot", Map.of(
+            "jobKey", errBot.getJobKey(),
+            "strategyId", errBot.getStrategyId(),
+            "symbol", errBot.getSymbol(),
+            "interval", errBot.getInterval(),
+            "updatedAt", errBot.getUpdatedAt()
+        ));
+
+        commands.findTopByBotInstanceIdAndStatusOrderByCreatedAtDesc(errBot.getId(), "FAILED")
+            .ifPresent(failed -> details.put("latestFailedCommand", toFailedCommandDetails(failed)));
+      });
+    }
 
     boolean eligible = reasons.isEmpty();
     return new StartEligibility(eligible, reasons, details);
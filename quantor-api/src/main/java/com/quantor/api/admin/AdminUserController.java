@@ -1,6 +1,6 @@
 package com.quantor.api.admin;
 
-import com.quantor.saas.infrastructure.engine.BotInstanceRepository;
+import com.quantor.saas.infrastructure.engine.BotStatusReadModel;
 import com.quantor.saas.infrastructure.subscription.SubscriptionRepository;
 import com.quantor.saas.infrastructure.user.UserEntity;
 import com.quantor.saas.infrastructure.user.UserRepository;
@@ -16,14 +16,16 @@ import java.util.*;
 @RequestMapping("/api/v1/admin/users")
 public class AdminUserController {
 
+  private static final List<String> ACTIVE = List.of("RUNNING", "PAUSED", "PENDING");
+
   private final UserRepository users;
   private final SubscriptionRepository subscriptions;
-  private final BotInstanceRepository instances;
+  private final BotStatusReadModel statusCounts;
 
-  public AdminUserController(UserRepository users, SubscriptionRepository subscriptions, BotInstanceRepository instances) {
+  public AdminUserController(UserRepository users, SubscriptionRepository subscriptions, BotStatusReadModel statusCounts) {
     this.users = users;
     this.subscriptions = subscriptions;
-    this.instances = instances;
+    this.statusCounts = statusCounts;
   }
 
   public record UserRow(
@@ -42,13 +44,16 @@ public class AdminUserController {
   public List<UserRow> list(@RequestParam(defaultValue = "50") int limit) {
     int size = Math.max(1, Math.min(200, limit));
     var page = users.findAll(PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "createdAt")));
+    // active bot counts for the whole page in one query
+    Map<UUID, Long> activeByUser = statusCounts.countForUsers(
+        page.getContent().stream().map(UserEntity::getId).toList(), ACTIVE);
     List<UserRow> res = new ArrayList<>();
     for (UserEntity u : page.getContent()) {
       var sub = subscriptions.findFirstByUserIdOrderByUpdatedAtDesc(u.getId()).orElse(null);
       boolean frozen = sub != null && sub.isFrozen();
       String plan = sub == null ? "FREE" : String.valueOf(sub.getPlan());
       String st = sub == null ? "NONE" : String.valueOf(sub.getStatus());
-      long active = instances.countByUserIdAndStatusIn(u.getId(), List.of("RUNNING","PAUSED","PENDING"));
+      long active = activeByUser.getOrDefault(u.getId(), 0L);
       res.add(new UserRow(
           u.getId(),
           u.getEmail(),
@@ -71,7 +76,7 @@ public class AdminUserController {
     boolean frozen = sub != null && sub.isFrozen();
     String plan = sub == null ? "FREE" : String.valueOf(sub.getPlan());
     String st = sub == null ? "NONE" : String.valueOf(sub.getStatus());
-    long active = instances.countByUserIdAndStatusIn(u.getId(), List.of("RUNNING","PAUSED","PENDING"));
+    long active = statusCounts.countForUser(u.getId(), ACTIVE);
     return new UserRow(
         u.getId(),
         u.getEmail(),
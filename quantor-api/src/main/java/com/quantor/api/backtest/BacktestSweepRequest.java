@@ -0,0 +1,24 @@
+package com.quantor.api.backtest;
+
+import java.util.List;
+
+/**
+ * Parameter sweep to be split into backtest_jobs chunks.
+ *
+ * strategyType:
+ *  - "ema":       params = [[fast, slow], ...]
+ *  - "threshold": params = [[buyBelow, sellAbove], ...]
+ */
+public record BacktestSweepRequest(
+        String strategyType,
+        String symbol,
+        String interval,
+        Integer candleLimit,
+        List<List<Double>> params,
+        Integer chunkSize,
+        Integer priority,
+        Double positionUSDT,
+        Double feeRate,
+        Double stopLossPct,
+        Double takeProfitPct
+) {}
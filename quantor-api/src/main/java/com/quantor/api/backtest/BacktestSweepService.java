@@ -0,0 +1,137 @@
+package com.quantor.api.backtest;
+
+import com.quantor.application.exchange.MarketSymbol;
+import com.quantor.application.exchange.Timeframes;
+import com.quantor.saas.infrastructure.backtest.BacktestJobEntity;
+import com.quantor.saas.infrastructure.backtest.BacktestJobRepository;
+import com.quantor.saas.infrastructure.backtest.BacktestResultEntity;
+import com.quantor.saas.infrastructure.backtest.BacktestResultRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Splits a parameter sweep into backtest_jobs chunks that idle workers claim and run.
+ * Results are written by workers into backtest_results as each parameter set finishes.
+ */
+@Service
+public class BacktestSweepService {
+
+  private static final int MAX_PARAM_SETS = 100_000;
+  private static final int MAX_CANDLES = 1000; // single klines request on Binance
+
+  private final BacktestJobRepository jobs;
+  private final BacktestResultRepository results;
+
+  public BacktestSweepService(BacktestJobRepository jobs, BacktestResultRepository results) {
+    this.jobs = jobs;
+    this.results = results;
+  }
+
+  public record SweepCreated(UUID sweepId, int chunks, int paramSets) {}
+
+  public record SweepStatus(UUID sweepId, Map<String, Long> chunks, long results, List<ResultRow> top) {}
+
+  public record ResultRow(String params, int trades, int wins, double finalEquity, double pnl, double maxDrawdownPct) {}
+
+  @Transactional
+  public SweepCreated submit(String userId, BacktestSweepRequest req) {
+    if (req == null) throw new IllegalArgumentException("Missing body");
+
+    String type = required(req.strategyType(), "strategyType").toLowerCase(Locale.ROOT);
+    if (!"ema".equals(type) && !"threshold".equals(type)) {
+      throw new IllegalArgumentException("Unsupported strategyType: " + req.strategyType());
+    }
+
+    String symbol = MarketSymbol.parse(required(req.symbol(), "symbol")).asBaseQuote();
+    String interval = Timeframes.parse(required(req.interval(), "interval")).name();
+
+    List<List<Double>> params = req.params();
+    if (params == null || params.isEmpty()) throw new IllegalArgumentException("Missing field: params");
+    if (params.size() > MAX_PARAM_SETS) throw new IllegalArgumentException("Too many param sets (max " + MAX_PARAM_SETS + ")");
+
+    List<String> lines = new ArrayList<>(params.size());
+    for (List<Double> p : params) {
+      if (p == null || p.size() != 2 || p.contains(null)) {
+        throw new IllegalArgumentException("Each param set must have exactly 2 numbers");
+      }
+      lines.add(formatNumber(p.get(0)) + "," + formatNumber(p.get(1)));
+    }
+
+    int candleLimit = req.candleLimit() == null ? 500 : Math.max(50, Math.min(MAX_CANDLES, req.candleLimit()));
+    int chunkSize = req.chunkSize() == null ? 50 : Math.max(1, Math.min(1000, req.chunkSize()));
+    int priority = req.priority() == null ? 0 : req.priority();
+
+    UUID sweepId = UUID.randomUUID();
+    UUID uid = parseUuidOrNull(userId);
+    long dataEndMs = System.currentTimeMillis();
+
+    List<BacktestJobEntity> chunks = new ArrayList<>();
+    for (int from = 0, idx = 0; from < lines.size(); from += chunkSize, idx++) {
+      List<String> part = lines.subList(from, Math.min(lines.size(), from + chunkSize));
+
+      BacktestJobEntity j = new BacktestJobEntity();
+      j.setSweepId(sweepId);
+      j.setUserId(uid);
+      j.setChunkIndex(idx);
+      j.setPriority(priority);
+      j.setStrategyType(type);
+      j.setSymbol(symbol);
+      j.setInterval(interval);
+      j.setCandleLimit(candleLimit);
+      j.setDataEndMs(dataEndMs);
+      j.setPositionUsdt(req.positionUSDT() == null ? 50.0 : req.positionUSDT());
+      j.setFeeRate(req.feeRate() == null ? 0.001 : req.feeRate());
+      j.setStopLossPct(req.stopLossPct() == null ? 0.02 : req.stopLossPct());
+      j.setTakeProfitPct(req.takeProfitPct() == null ? 0.03 : req.takeProfitPct());
+      j.setParamsText(String.join("\n", part));
+      j.setParamCount(part.size());
+      chunks.add(j);
+    }
+
+    jobs.saveAll(chunks);
+    return new SweepCreated(sweepId, chunks.size(), lines.size());
+  }
+
+  @Transactional(readOnly = true)
+  public SweepStatus status(UUID sweepId, int top) {
+    Map<String, Long> byStatus = new LinkedHashMap<>();
+    for (Object[] row : jobs.countByStatusForSweep(sweepId)) {
+      byStatus.put(String.valueOf(row[0]), ((Number) row[1]).longValue());
+    }
+    if (byStatus.isEmpty()) throw new IllegalArgumentException("Sweep not found: " + sweepId);
+
+    int size = Math.max(1, Math.min(500, top));
+    List<ResultRow> rows = new ArrayList<>();
+    for (BacktestResultEntity r : results.findBySweepIdOrderByPnlDesc(sweepId, PageRequest.of(0, size))) {
+      rows.add(new ResultRow(r.getParams(), r.getTrades(), r.getWins(), r.getFinalEquity(), r.getPnl(), r.getMaxDrawdownPct()));
+    }
+
+    return new SweepStatus(sweepId, byStatus, results.countBySweepId(sweepId), rows);
+  }
+
+  private static String formatNumber(double v) {
+    if (v == Math.rint(v) && Math.abs(v) < 1e15) return Long.toString((long) v);
+    return Double.toString(v);
+  }
+
+  private static UUID parseUuidOrNull(String s) {
+    try {
+      return (s == null || s.isBlank()) ? null : UUID.fromString(s.trim());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static String required(String v, String name) {
+    if (v == null || v.isBlank()) throw new IllegalArgumentException("Missing field: " + name);
+    return v.trim();
+  }
+}
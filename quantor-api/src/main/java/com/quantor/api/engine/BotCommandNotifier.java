@@ -0,0 +1,75 @@
+package com.quantor.api.engine;
+
+import com.quantor.saas.infrastructure.engine.BotCommandRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Wakes workers after a bot command is committed (Postgres NOTIFY on BotCommandRepository.NOTIFY_CHANNEL).
+ *
+ * Best-effort: workers keep a slow safety-net poll, so a lost notification only delays a command.
+ * No-op on non-Postgres databases (H2 in tests).
+ */
+@Component
+public class BotCommandNotifier {
+
+  private static final Logger log = LoggerFactory.getLogger(BotCommandNotifier.class);
+
+  private final JdbcTemplate jdbc;
+  private final boolean enabled;
+  private volatile Boolean postgres;
+
+  public BotCommandNotifier(
+      JdbcTemplate jdbc,
+      @Value("${quantor.commands.notify.enabled:true}") boolean enabled
+  ) {
+    this.jdbc = jdbc;
+    this.enabled = enabled;
+  }
+
+  /** Sends the NOTIFY after the surrounding transaction commits (immediately if there is none). */
+  public void afterCommit(UUID botInstanceId) {
+    if (!enabled) return;
+    String payload = botInstanceId == null ? "" : botInstanceId.toString();
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          send(payload);
+        }
+      });
+    } else {
+      send(payload);
+    }
+  }
+
+  private void send(String payload) {
+    try {
+      if (!isPostgres()) return;
+      jdbc.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Object>) rs -> null,
+          BotCommandRepository.NOTIFY_CHANNEL, payload);
+    } catch (Exception e) {
+      log.warn("[ENGINE] command NOTIFY failed (workers fall back to polling): {}", e.getMessage());
+    }
+  }
+
+  private boolean isPostgres() {
+    Boolean p = postgres;
+    if (p == null) {
+      p = Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) c ->
+          c.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres")));
+      postgres = p;
+    }
+    return p;
+  }
+}
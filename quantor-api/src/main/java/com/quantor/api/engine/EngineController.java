@@ -148,6 +148,30 @@ public class EngineController {
     ));
   }
 
+  /** Equity chart of one bot: from/to in epoch ms (default: last 24h), resolution picked by maxPoints. */
+  @GetMapping("/equity")
+  public ResponseEntity<Map<String, Object>> equity(
+      @AuthenticationPrincipal Jwt jwt,
+      @RequestParam("jobKey") String jobKey,
+      @RequestParam(value = "from", required = false) Long from,
+      @RequestParam(value = "to", required = false) Long to,
+      @RequestParam(value = "maxPoints", defaultValue = "300") int maxPoints
+  ) {
+    String userId = jwt == null ? null : jwt.getSubject();
+    long toMs = to == null ? System.currentTimeMillis() : to;
+    long fromMs = from == null ? toMs - 24 * 3_600_000L : from;
+
+    var view = engine.equity(userId, jobKey, fromMs, toMs, Math.max(10, Math.min(maxPoints, 2000)));
+    return ResponseEntity.ok(Map.of(
+        "status", "ok",
+        "jobKey", view.jobKey(),
+        "resolution", view.resolution(),
+        "points", view.points(),
+        "summary", view.summary(),
+        "ts", Instant.now().toString()
+    ));
+  }
+
   private static String safe(String s) {
     if (s == null) return "";
     String t = s.trim();
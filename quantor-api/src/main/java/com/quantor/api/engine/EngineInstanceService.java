@@ -1,6 +1,7 @@
 package com.quantor.api.engine;
 
 import com.quantor.application.execution.ExecutionJob;
+import com.quantor.application.ports.EquitySeriesPort;
 import com.quantor.api.saas.SubscriptionAccessService;
 import com.quantor.api.security.SecurityActor;
 import com.quantor.saas.infrastructure.audit.AuditLogEntity;
@@ -9,12 +10,14 @@ import com.quantor.saas.infrastructure.engine.BotCommandEntity;
 import com.quantor.saas.infrastructure.engine.BotCommandRepository;
 import com.quantor.saas.infrastructure.engine.BotInstanceEntity;
 import com.quantor.saas.infrastructure.engine.BotInstanceRepository;
+import com.quantor.saas.infrastructure.engine.BotStatusReadModel;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -29,32 +32,38 @@ public class EngineInstanceService {
   private final BotInstanceRepository instances;
   private final BotCommandRepository commands;
   private final AuditLogRepository audit;
+  private final BotCommandNotifier notifier;
+  private final EquitySeriesPort equitySeries;
+  private final BotStatusReadModel statusCounts;
 
   public EngineInstanceService(
           SubscriptionAccessService access,
           BotInstanceRepository instances,
           BotCommandRepository commands,
-          AuditLogRepository audit
+          AuditLogRepository audit,
+          BotCommandNotifier notifier,
+          EquitySeriesPort equitySeries,
+          BotStatusReadModel statusCounts
   ) {
     this.access = access;
     this.instances = instances;
     this.commands = commands;
     this.audit = audit;
+    this.notifier = notifier;
+    this.equitySeries = equitySeries;
+    this.statusCounts = statusCounts;
   }
 
+  /** Fleet summary from the aggregated status counts (no bot_instances scan). */
   public String statusText() {
-    List<BotInstanceEntity> all = instances.findAll();
-    long running = all.stream().filter(e -> STATUS_RUNNING.equals(e.getStatus())).count();
-    long paused  = all.stream().filter(e -> STATUS_PAUSED.equals(e.getStatus())).count();
-    long pending = all.stream().filter(e -> STATUS_PENDING.equals(e.getStatus())).count();
-    long stopped = all.stream().filter(e -> STATUS_STOPPED.equals(e.getStatus())).count();
-    long error   = all.stream().filter(e -> "ERROR".equals(e.getStatus())).count();
-    return "bots=" + all.size()
-            + " running=" + running
-            + " paused=" + paused
-            + " pending=" + pending
-            + " stopped=" + stopped
-            + " error=" + error;
+    Map<String, Long> counts = statusCounts.fleetCounts();
+    long total = counts.values().stream().mapToLong(Long::longValue).sum();
+    return "bots=" + total
+            + " running=" + counts.getOrDefault(STATUS_RUNNING, 0L)
+            + " paused=" + counts.getOrDefault(STATUS_PAUSED, 0L)
+            + " pending=" + counts.getOrDefault(STATUS_PENDING, 0L)
+            + " stopped=" + counts.getOrDefault(STATUS_STOPPED, 0L)
+            + " error=" + counts.getOrDefault("ERROR", 0L);
   }
 
   /**
@@ -234,8 +243,26 @@ public class EngineInstanceService {
     return e;
   }
 
+  /**
+   * Equity of one of the user's bots over [fromMs, toMs) from the rollups: the finest resolution
+   * (1m / 1h / 1d) that stays within maxPoints buckets.
+   */
+  public EquityView equity(String userId, String jobKey, long fromMs, long toMs, int maxPoints) {
+    requireAuth(userId);
+    if (jobKey == null || jobKey.isBlank()) throw new IllegalArgumentException("Missing field: jobKey");
+    if (toMs <= fromMs) throw new IllegalArgumentException("Invalid range: to must be after from");
+    requireOwnedInstance(userId, jobKey);
+
+    EquitySeriesPort.Resolution res = EquitySeriesPort.Resolution.forRange(fromMs, toMs, maxPoints);
+    List<EquitySeriesPort.Point> points = equitySeries.range(jobKey, res, fromMs, toMs);
+    return new EquityView(jobKey, res.name(), points, EquitySeriesPort.summarize(points));
+  }
+
   public record EngineActionResult(String action, String jobKey, Long periodMs) {}
 
+  public record EquityView(String jobKey, String resolution, List<EquitySeriesPort.Point> points,
+                           EquitySeriesPort.Summary summary) {}
+
   private static boolean isActiveStatus(String st) {
     return STATUS_PENDING.equals(st) || STATUS_RUNNING.equals(st) || STATUS_PAUSED.equals(st);
   }
@@ -274,6 +301,7 @@ public class EngineInstanceService {
     if (traceparent != null && !traceparent.isBlank()) cmd.setTraceparent(traceparent);
 
     commands.save(cmd);
+    notifier.afterCommit(inst.getId());
 
     var actor = SecurityActor.current();
     audit.save(new AuditLogEntity(
@@ -2,7 +2,10 @@ package com.quantor.api.events;
 
 import com.quantor.saas.infrastructure.events.EventLogEntity;
 import com.quantor.saas.infrastructure.events.EventLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -12,20 +15,32 @@ import java.util.UUID;
 /**
  * Simple idempotency layer backed by DB unique constraint (source,eventId).
  * If the event already exists, returns empty and caller should NOT process it again.
+ *
+ * The unique constraint only covers the hot event_log: finished events are moved to event_log_archive
+ * after quantor.worker.archive.eventsRetentionDays, so the archive is checked as well. The check runs
+ * after the insert: an archiver move committed in between is then visible and the new row is removed.
+ * Dropped archive partitions (archiveRetentionMonths > 0) end deduplication for their events.
+ * Without an event_log_archive table (H2 test profile, V27 not applied yet) only the hot table is checked.
  */
 @Service
 public class IdempotentEventService {
 
+  private static final Logger log = LoggerFactory.getLogger(IdempotentEventService.class);
+
   private final EventLogRepository events;
 
+  // false once event_log_archive turned out to be missing; nothing can have been archived then
+  private volatile boolean archiveAvailable = true;
+
   public IdempotentEventService(EventLogRepository events) {
     this.events = events;
   }
 
   public Optional<EventLogEntity> tryStart(String source, String eventId, String eventType, UUID userId, String payloadJson) {
+    EventLogEntity saved;
     try {
       EventLogEntity e = new EventLogEntity(UUID.randomUUID(), source, eventId, eventType, userId, payloadJson);
-      return Optional.of(events.save(e));
+      saved = events.save(e);
     } catch (DataIntegrityViolationException dup) {
       return Optional.empty();
     } catch (RuntimeException ex) {
@@ -35,6 +50,23 @@ public class IdempotentEventService {
       }
       throw ex;
     }
+    if (isArchived(source, eventId)) {
+      events.deleteById(saved.getId());
+      return Optional.empty();
+    }
+    return Optional.of(saved);
+  }
+
+  private boolean isArchived(String source, String eventId) {
+    if (!archiveAvailable) return false;
+    try {
+      return events.existsArchived(source, eventId);
+    } catch (InvalidDataAccessResourceUsageException e) {
+      // missing relation (BadSqlGrammarException / translated SQLGrammarException): not archived
+      archiveAvailable = false;
+      log.warn("[EVENTS] event_log_archive not readable, deduplicating on event_log only: {}", e.getMessage());
+      return false;
+    }
   }
 
   public void markProcessed(UUID rowId) {
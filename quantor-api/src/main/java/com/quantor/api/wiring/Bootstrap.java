@@ -2,7 +2,7 @@ package com.quantor.api.wiring;
 
 import com.quantor.application.execution.ExecutionJob;
 import com.quantor.application.execution.JobScheduler;
-import com.quantor.application.execution.impl.DefaultJobScheduler;
+import com.quantor.application.execution.impl.JobSchedulers;
 import com.quantor.application.ports.*;
 import com.quantor.application.service.PipelineFactory;
 import com.quantor.application.service.SessionService;
@@ -16,6 +16,7 @@ import com.quantor.domain.strategy.impl.EmaCrossStrategy;
 import com.quantor.domain.strategy.online.OnlineStrategy;
 import com.quantor.exchange.BinanceClient;
 import com.quantor.infrastructure.config.FileConfigService;
+import com.quantor.infrastructure.db.EquitySeriesRepository;
 import com.quantor.infrastructure.exchange.BinanceExchangeAdapter;
 import com.quantor.infrastructure.exchange.UnifiedBinanceExchangeAdapter;
 import com.quantor.infrastructure.journal.SqliteTradeJournalAdapter;
@@ -40,9 +41,7 @@ public final class Bootstrap {
 
         NotifierPort notifier = createNotifier(config);
         TradeJournalPort journal = new SqliteTradeJournalAdapter();
-        JobScheduler scheduler = new DefaultJobScheduler(
-                Math.max(2, Runtime.getRuntime().availableProcessors() / 2)
-        );
+        JobScheduler scheduler = JobSchedulers.fromConfig(config);
 
         // If wiring didn't provide a SubscriptionPort => fail-closed fallback (MVP)
         SubscriptionPort sub = (subscription != null) ? subscription : devSubscription(config);
@@ -120,7 +119,9 @@ public final class Bootstrap {
         };
 
         // IMPORTANT: pass subscription into SessionService (hard gate in start/resume)
-        return new SessionService(factory, scheduler, notifier, config, sub);
+        SessionService sessions = new SessionService(factory, scheduler, notifier, config, sub);
+        sessions.setEquitySeries(new EquitySeriesRepository());
+        return sessions;
     }
 
     /**
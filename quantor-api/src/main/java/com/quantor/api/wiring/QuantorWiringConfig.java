@@ -4,13 +4,16 @@ package com.quantor.api.wiring;
 import com.quantor.api.billing.ForcePaidSubscriptionPort;
 import com.quantor.application.guard.TradePermissionGuard;
 import com.quantor.application.ports.ConfigPort;
+import com.quantor.application.ports.EquitySeriesPort;
 import com.quantor.application.ports.SubscriptionPort;
 import com.quantor.application.ports.TradingSessionRepository;
 import com.quantor.application.service.CoreTradingOrchestrator;
 import com.quantor.application.service.SessionService;
 import com.quantor.db.TradingSessionSqlRepository;
+import com.quantor.domain.journal.AsyncAppender;
 import com.quantor.infrastructure.config.FileConfigService;
 import com.quantor.infrastructure.db.UserSecretsStore;
+import com.quantor.saas.infrastructure.ledger.PostgresEquitySeries;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -42,6 +45,12 @@ public SubscriptionPort subscriptionPort(DataSource dataSource) {
         return Bootstrap.createSessionService(config, subscriptionPort);
     }
 
+    /** Equity rollups written by the workers; the API only reads them (no writer thread is started). */
+    @Bean
+    public EquitySeriesPort equitySeries(DataSource dataSource) {
+        return new PostgresEquitySeries(dataSource, 30, 400, AsyncAppender.Options.defaults());
+    }
+
     @Bean
     public UserSecretsStore userSecretsStore() {
         return new UserSecretsStore();
@@ -0,0 +1,73 @@
+package com.quantor.api.events;
+
+import com.quantor.saas.infrastructure.events.EventLogEntity;
+import com.quantor.saas.infrastructure.events.EventLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotentEventServiceTest {
+
+  private EventLogRepository events;
+  private IdempotentEventService service;
+
+  @BeforeEach
+  void setUp() {
+    events = mock(EventLogRepository.class);
+    when(events.save(any(EventLogEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+    service = new IdempotentEventService(events);
+  }
+
+  @Test
+  void newEventIsStarted() {
+    when(events.existsArchived("LEMONSQUEEZY", "evt-1")).thenReturn(false);
+
+    Optional<EventLogEntity> row = service.tryStart("LEMONSQUEEZY", "evt-1", "order_created", null, "{}");
+
+    assertTrue(row.isPresent());
+    verify(events, never()).deleteById(any());
+  }
+
+  @Test
+  void duplicateOfAnArchivedEventIsRejectedAndItsNewRowRemoved() {
+    when(events.existsArchived("LEMONSQUEEZY", "evt-old")).thenReturn(true);
+
+    Optional<EventLogEntity> row = service.tryStart("LEMONSQUEEZY", "evt-old", "order_created", null, "{}");
+
+    assertFalse(row.isPresent());
+    verify(events).deleteById(any());
+  }
+
+  @Test
+  void duplicateInTheHotTableIsRejectedWithoutArchiveLookup() {
+    when(events.save(any(EventLogEntity.class))).thenThrow(new DataIntegrityViolationException("uk_event_log"));
+
+    assertFalse(service.tryStart("LEMONSQUEEZY", "evt-2", "order_created", null, "{}").isPresent());
+    verify(events, never()).existsArchived(anyString(), anyString());
+  }
+
+  @Test
+  void missingArchiveTableMeansNotArchivedAndIsNotQueriedAgain() {
+    when(events.existsArchived(anyString(), anyString()))
+        .thenThrow(new InvalidDataAccessResourceUsageException("relation \"event_log_archive\" does not exist"));
+
+    assertTrue(service.tryStart("LEMONSQUEEZY", "evt-3", "order_created", null, "{}").isPresent());
+    assertTrue(service.tryStart("LEMONSQUEEZY", "evt-4", "order_created", null, "{}").isPresent());
+
+    verify(events, times(1)).existsArchived(anyString(), anyString());
+    verify(events, never()).deleteById(any());
+  }
+}
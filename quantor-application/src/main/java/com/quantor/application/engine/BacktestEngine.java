@@ -9,7 +9,6 @@ import com.quantor.domain.strategy.Strategy;
 import com.quantor.domain.strategy.online.OnlineModel;
 import com.quantor.domain.strategy.online.OnlineStrategy;
 import com.quantor.domain.trade.Position;
-import com.quantor.db.TradeLogger;
 
 import java.util.List;
 
@@ -23,10 +22,12 @@ import java.util.List;
  *  - OnlineModel training on close (SELL or SL/TP)
  *  - reward shaping: retClose + ret3 + ret5
  *  - training log via TrainLogger (if not null)
- *  - trade log via TradeLogger
+ *  - trade log via TradeSink (in-memory / batched SQLite / no-op)
  *
  * Constructor is tailored for App.java:
  *  (Strategy, RiskManager, kReward, feeRate, TrainLogger, symbol, interval)
+ * The 7-arg constructor records no trades; pass a TradeSink (InMemoryTradeSink, or
+ * BatchedSqliteTradeSink to persist them) to keep the trade list.
  */
 public class BacktestEngine {
 
@@ -43,6 +44,7 @@ public class BacktestEngine {
     private final TrainLogger tlog;
     private final String symbol;
     private final String interval;
+    private final TradeSink sink;
 
     // test parameters
     private final double startCash = 1000.0;
@@ -50,6 +52,8 @@ public class BacktestEngine {
     // if a position remains open at the end, force close it and count it as a trade
     private static final boolean FORCE_EXIT_EOD = true;
 
+    /** @deprecated trades are not recorded; use the constructor with a TradeSink. */
+    @Deprecated
     public BacktestEngine(Strategy strategy,
                           RiskManager rm,
                           double kReward,
@@ -57,6 +61,17 @@ public class BacktestEngine {
                           TrainLogger tlog,
                           String symbol,
                           String interval) {
+        this(strategy, rm, kReward, feeRate, tlog, symbol, interval, NoopTradeSink.INSTANCE);
+    }
+
+    public BacktestEngine(Strategy strategy,
+                          RiskManager rm,
+                          double kReward,
+                          double feeRate,
+                          TrainLogger tlog,
+                          String symbol,
+                          String interval,
+                          TradeSink sink) {
         this.strategy = strategy;
         this.rm = rm;
         this.kReward = kReward;
@@ -64,13 +79,14 @@ public class BacktestEngine {
         this.tlog = tlog;
         this.symbol = symbol;
         this.interval = interval;
+        this.sink = (sink == null) ? NoopTradeSink.INSTANCE : sink;
     }
 
-    public void run(List<Candle> candles) {
+    public BacktestResult run(List<Candle> candles) {
 
         if (candles == null || candles.isEmpty()) {
             System.out.println("❌ Backtest: candles empty.");
-            return;
+            return new BacktestResult(symbol, interval, 0, 0, startCash, startCash, new double[0]);
         }
 
         Position pos = new Position();
@@ -80,6 +96,8 @@ public class BacktestEngine {
         int trades = 0;
         int wins = 0;
 
+        double[] equityCurve = new double[candles.size()];
+
         for (int i = 0; i < candles.size(); i++) {
 
             List<Candle> hist = candles.subList(0, i + 1);
@@ -89,8 +107,8 @@ public class BacktestEngine {
             if (pos.isLongOpen() && assetQty > 0.0) {
                 double entry = pos.getEntryPrice();
 
-                boolean slHit = rm.hitSL(entry, price);
-                boolean tpHit = rm.hitTP(entry, price);
+                boolean slHit = rm.hitSL(price, entry);
+                boolean tpHit = rm.hitTP(price, entry);
 
                 if (slHit || tpHit) {
 
@@ -107,15 +125,7 @@ public class BacktestEngine {
                     if (tradePnl > 0) wins++;
 
                     // ✅ trade log (before zeroing qty)
-                    TradeLogger.log(
-                            "backtest",
-                            "N/A",
-                            slHit ? "EXIT_SL" : "EXIT_TP",
-                            price,
-                            assetQty,
-                            cash,
-                            "Closed by " + (slHit ? "SL" : "TP") + " | pnl=" + String.format("%.6f", tradePnl)
-                    );
+                    sink.onTrade(symbol, slHit ? "EXIT_SL" : "EXIT_TP", i, price, assetQty, cash, tradePnl);
 
                     pos.close();
                     assetQty = 0.0;
@@ -147,15 +157,7 @@ public class BacktestEngine {
                         pos.openLong(price, entryFeat);
 
                         // ✅ BUY log
-                        TradeLogger.log(
-                                "backtest",
-                                "N/A",
-                                "BUY",
-                                price,
-                                qty,
-                                cash,
-                                "Long entry"
-                        );
+                        sink.onTrade(symbol, "BUY", i, price, qty, cash, Double.NaN);
                     }
                 }
             }
@@ -177,19 +179,13 @@ public class BacktestEngine {
                 if (tradePnl > 0) wins++;
 
                 // ✅ SELL log (before zeroing qty)
-                TradeLogger.log(
-                        "backtest",
-                        "N/A",
-                        "SELL",
-                        price,
-                        assetQty,
-                        cash,
-                        "Exit by SELL | pnl=" + String.format("%.6f", tradePnl)
-                );
+                sink.onTrade(symbol, "SELL", i, price, assetQty, cash, tradePnl);
 
                 pos.close();
                 assetQty = 0.0;
             }
+
+            equityCurve[i] = cash + assetQty * price;
         }
 
         // ----- 5) Final position close (if still open) -----
@@ -211,33 +207,21 @@ public class BacktestEngine {
             trades++;
             if (tradePnl > 0) wins++;
 
-            TradeLogger.log(
-                    "backtest",
-                    "N/A",
-                    "FORCE_EXIT_EOD",
-                    exitPrice,
-                    assetQty,
-                    cash,
-                    "Forced close at end of test | pnl=" + String.format("%.6f", tradePnl)
-            );
+            sink.onTrade(symbol, "FORCE_EXIT_EOD", exitIndex, exitPrice, assetQty, cash, tradePnl);
 
             pos.close();
             assetQty = 0.0;
         }
 
+        sink.flush();
+
         // final equity
         double equity = cash + assetQty * lastPrice;
+        equityCurve[equityCurve.length - 1] = equity;
 
-        double winrate = trades > 0 ? (wins * 100.0 / trades) : 0.0;
-
-        System.out.println("========== BACKTEST ==========");
-        System.out.println("Symbol: " + symbol + "  Interval: " + interval);
-        System.out.println("Trades: " + trades);
-        System.out.println("Wins: " + wins);
-        System.out.println("Winrate: " + String.format("%.2f", winrate) + "%");
-        System.out.println("Start cash: " + String.format("%.2f", startCash));
-        System.out.println("Final equity: " + String.format("%.2f", equity));
-        System.out.println("PnL: " + String.format("%.2f", (equity - startCash)));
+        BacktestResult result = new BacktestResult(symbol, interval, trades, wins, startCash, equity, equityCurve);
+        System.out.println(result.summary());
+        return result;
     }
 
     /**
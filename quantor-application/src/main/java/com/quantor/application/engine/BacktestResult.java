@@ -0,0 +1,50 @@
+package com.quantor.application.engine;
+
+/**
+ * Summary of one backtest run.
+ * equityCurve[i] = cash + assetQty * close[i] after bar i was processed.
+ */
+public record BacktestResult(
+        String symbol,
+        String interval,
+        int trades,
+        int wins,
+        double startCash,
+        double finalEquity,
+        double[] equityCurve
+) {
+
+    public double pnl() {
+        return finalEquity - startCash;
+    }
+
+    public double winrate() {
+        return trades > 0 ? (wins * 100.0 / trades) : 0.0;
+    }
+
+    /** Max peak-to-trough drawdown of the equity curve, in percent. */
+    public double maxDrawdownPct() {
+        if (equityCurve == null || equityCurve.length == 0) return 0.0;
+        double peak = equityCurve[0];
+        double maxDd = 0.0;
+        for (double e : equityCurve) {
+            if (e > peak) peak = e;
+            if (peak > 0) {
+                double dd = (peak - e) / peak;
+                if (dd > maxDd) maxDd = dd;
+            }
+        }
+        return maxDd * 100.0;
+    }
+
+    public String summary() {
+        return "========== BACKTEST ==========\n" +
+                "Symbol: " + symbol + "  Interval: " + interval + "\n" +
+                "Trades: " + trades + "\n" +
+                "Wins: " + wins + "\n" +
+                "Winrate: " + String.format("%.2f", winrate()) + "%\n" +
+                "Start cash: " + String.format("%.2f", startCash) + "\n" +
+                "Final equity: " + String.format("%.2f", finalEquity) + "\n" +
+                "PnL: " + String.format("%.2f", pnl());
+    }
+}
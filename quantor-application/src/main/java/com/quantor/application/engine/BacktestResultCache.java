@@ -0,0 +1,258 @@
+package com.quantor.application.engine;
+
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.risk.RiskManager;
+import com.quantor.domain.strategy.Strategy;
+import com.quantor.domain.strategy.StrategyParams;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of backtest results.
+ *
+ * Key = SHA-256 over:
+ *  - strategy class + params (StrategyParams.describe)
+ *  - RiskManager settings (positionUSDT, fee, SL, TP)
+ *  - symbol / interval
+ *  - fingerprint of the candle range (every OHLCV field of every candle)
+ *
+ * Changed candle data => different fingerprint => different key, so stale entries are never served
+ * (they simply age out of the LRU / disk store).
+ *
+ * Layers:
+ *  1) bounded in-memory LRU
+ *  2) one small binary file per key under dir (survives restarts, shared by CLI / tuning runs)
+ *
+ * Used by the CLI backtest command and the worker's backtest_jobs runner. Thread-safe: sweep
+ * threads of one worker share one instance.
+ *
+ * Only stateless strategies are cached (see VectorizedBacktestEngine.supports):
+ * a run of an online-learning strategy depends on its model state, not just on its params.
+ */
+public class BacktestResultCache {
+
+    private static final int MAGIC = 0x51425452; // "QBTR"
+    private static final int VERSION = 1;
+    private static final String EXT = ".bt";
+
+    private final Path dir;
+    private final int maxMemoryEntries;
+    private final int maxDiskEntries;
+
+    private final Map<String, BacktestResult> lru;
+    private final AtomicInteger putsSincePrune = new AtomicInteger();
+
+    public BacktestResultCache(Path dir) {
+        this(dir, 256, 10_000);
+    }
+
+    public BacktestResultCache(Path dir, int maxMemoryEntries, int maxDiskEntries) {
+        this.dir = dir;
+        this.maxMemoryEntries = Math.max(1, maxMemoryEntries);
+        this.maxDiskEntries = Math.max(0, maxDiskEntries);
+        this.lru = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BacktestResult> eldest) {
+                return size() > BacktestResultCache.this.maxMemoryEntries;
+            }
+        };
+    }
+
+    // ===== keys =====
+
+    /** Fingerprint of a candle range. O(n), no allocation per candle. */
+    public static String fingerprint(List<Candle> candles) {
+        if (candles == null || candles.isEmpty()) return "empty";
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < candles.size(); i++) {
+            Candle c = candles.get(i);
+            h = mix(h, c.openTime());
+            h = mix(h, Double.doubleToLongBits(c.open()));
+            h = mix(h, Double.doubleToLongBits(c.high()));
+            h = mix(h, Double.doubleToLongBits(c.low()));
+            h = mix(h, Double.doubleToLongBits(c.close()));
+            h = mix(h, Double.doubleToLongBits(c.volume()));
+            h = mix(h, c.closeTime());
+        }
+        return candles.size() + ":" + candles.get(0).openTime() + ":"
+                + candles.get(candles.size() - 1).closeTime() + ":" + Long.toHexString(h);
+    }
+
+    public static String key(Strategy strategy, RiskManager rm, String symbol, String interval, String dataFingerprint) {
+        String canonical = strategy.getClass().getName() + "\n"
+                + StrategyParams.describe(strategy) + "\n"
+                + "rm=" + rm.getPositionUSDT() + "," + rm.getFeeRate() + ","
+                + rm.getStopLossPct() + "," + rm.getTakeProfitPct() + "\n"
+                + symbol + "|" + interval + "\n"
+                + dataFingerprint;
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 MessageDigest not available", e);
+        }
+    }
+
+    // ===== lookups =====
+
+    /**
+     * Cached result for (strategy, rm, symbol, interval, candles) or compute + store.
+     * Stateful strategies are always computed.
+     */
+    public BacktestResult getOrCompute(Strategy strategy,
+                                       RiskManager rm,
+                                       String symbol,
+                                       String interval,
+                                       List<Candle> candles,
+                                       Supplier<BacktestResult> compute) {
+        if (!VectorizedBacktestEngine.supports(strategy)) return compute.get();
+        return getOrCompute(key(strategy, rm, symbol, interval, fingerprint(candles)), compute);
+    }
+
+    /** Sweeps compute the fingerprint once and build keys with key(...). */
+    public BacktestResult getOrCompute(String key, Supplier<BacktestResult> compute) {
+        BacktestResult hit = get(key);
+        if (hit != null) return hit;
+
+        BacktestResult r = compute.get();
+        if (r != null) put(key, r);
+        return r;
+    }
+
+    public BacktestResult get(String key) {
+        synchronized (lru) {
+            BacktestResult r = lru.get(key);
+            if (r != null) return r;
+        }
+
+        BacktestResult fromDisk = readDisk(key);
+        if (fromDisk != null) {
+            synchronized (lru) {
+                lru.put(key, fromDisk);
+            }
+        }
+        return fromDisk;
+    }
+
+    public void put(String key, BacktestResult result) {
+        synchronized (lru) {
+            lru.put(key, result);
+        }
+        writeDisk(key, result);
+    }
+
+    public int memorySize() {
+        synchronized (lru) {
+            return lru.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (lru) {
+            lru.clear();
+        }
+        if (dir == null || !Files.isDirectory(dir)) return;
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(EXT)).forEach(p -> {
+                try { Files.deleteIfExists(p); } catch (IOException ignore) {}
+            });
+        } catch (IOException e) {
+            System.err.println("[BacktestResultCache] clear error: " + e.getMessage());
+        }
+    }
+
+    // ===== disk store =====
+
+    private BacktestResult readDisk(String key) {
+        if (dir == null || maxDiskEntries == 0) return null;
+        Path file = dir.resolve(key + EXT);
+        if (!Files.exists(file)) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            String symbol = in.readUTF();
+            String interval = in.readUTF();
+            int trades = in.readInt();
+            int wins = in.readInt();
+            double startCash = in.readDouble();
+            double finalEquity = in.readDouble();
+            int n = in.readInt();
+            double[] equity = new double[n];
+            for (int i = 0; i < n; i++) equity[i] = in.readDouble();
+            return new BacktestResult(symbol, interval, trades, wins, startCash, finalEquity, equity);
+        } catch (Exception e) {
+            System.err.println("[BacktestResultCache] read error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, BacktestResult r) {
+        if (dir == null || maxDiskEntries == 0) return;
+        try {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(r.symbol() == null ? "" : r.symbol());
+                out.writeUTF(r.interval() == null ? "" : r.interval());
+                out.writeInt(r.trades());
+                out.writeInt(r.wins());
+                out.writeDouble(r.startCash());
+                out.writeDouble(r.finalEquity());
+                double[] equity = r.equityCurve() == null ? new double[0] : r.equityCurve();
+                out.writeInt(equity.length);
+                for (double e : equity) out.writeDouble(e);
+            }
+            Files.move(tmp, dir.resolve(key + EXT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            System.err.println("[BacktestResultCache] write error: " + e.getMessage());
+            return;
+        }
+
+        // one writer in 64 prunes; concurrent sweep threads share the counter
+        if (putsSincePrune.incrementAndGet() % 64 == 0) pruneDisk();
+    }
+
+    /** Drops the least recently written files above maxDiskEntries. */
+    private void pruneDisk() {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> all = files.filter(p -> p.getFileName().toString().endsWith(EXT)).toList();
+            int excess = all.size() - maxDiskEntries;
+            if (excess <= 0) return;
+
+            all.stream()
+                    .sorted((a, b) -> Long.compare(lastModified(a), lastModified(b)))
+                    .limit(excess)
+                    .forEach(p -> {
+                        try { Files.deleteIfExists(p); } catch (IOException ignore) {}
+                    });
+        } catch (IOException e) {
+            System.err.println("[BacktestResultCache] prune error: " + e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static long mix(long h, long v) {
+        h ^= v;
+        h *= 0x100000001b3L;
+        return h ^ (h >>> 29);
+    }
+}
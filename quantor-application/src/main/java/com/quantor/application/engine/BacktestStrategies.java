@@ -0,0 +1,30 @@
+package com.quantor.application.engine;
+
+import com.quantor.domain.strategy.Strategy;
+import com.quantor.domain.strategy.impl.EmaCrossStrategy;
+import com.quantor.domain.strategy.impl.SimpleStrategy;
+
+/**
+ * Strategies of a parameter sweep, built from one "a,b" param line.
+ * Shared by the worker's backtest_jobs runner and the CLI backtest command.
+ *
+ * Types:
+ *  - ema:       fast,slow  -> EmaCrossStrategy
+ *  - threshold: buy,sell   -> SimpleStrategy
+ */
+public final class BacktestStrategies {
+
+    private BacktestStrategies() {}
+
+    public static Strategy fromParams(String type, String line) {
+        String[] p = line.trim().split(",");
+        if (p.length != 2) throw new IllegalArgumentException("Bad param set: " + line);
+        double a = Double.parseDouble(p[0].trim());
+        double b = Double.parseDouble(p[1].trim());
+        return switch (type) {
+            case "ema" -> new EmaCrossStrategy((int) a, (int) b);
+            case "threshold" -> new SimpleStrategy(a, b);
+            default -> throw new IllegalArgumentException("Unsupported strategyType: " + type);
+        };
+    }
+}
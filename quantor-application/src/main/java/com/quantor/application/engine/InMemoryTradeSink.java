@@ -0,0 +1,95 @@
+package com.quantor.application.engine;
+
+import java.util.Arrays;
+
+/**
+ * Columnar in-memory trade collector.
+ *
+ * Each field is kept in its own primitive array (no per-trade objects),
+ * so a long backtest only pays for an occasional array grow.
+ * Not thread-safe: one sink per engine run.
+ */
+public final class InMemoryTradeSink implements TradeSink {
+
+    private String[] sides;
+    private int[] bars;
+    private double[] prices;
+    private double[] qtys;
+    private double[] cash;
+    private double[] pnls;
+    private int size;
+
+    public InMemoryTradeSink() {
+        this(64);
+    }
+
+    public InMemoryTradeSink(int initialCapacity) {
+        int cap = Math.max(1, initialCapacity);
+        this.sides = new String[cap];
+        this.bars = new int[cap];
+        this.prices = new double[cap];
+        this.qtys = new double[cap];
+        this.cash = new double[cap];
+        this.pnls = new double[cap];
+    }
+
+    @Override
+    public void onTrade(String symbol, String side, int barIndex, double price, double qty, double cashAfter, double pnl) {
+        if (size == bars.length) grow();
+        sides[size] = side;
+        bars[size] = barIndex;
+        prices[size] = price;
+        qtys[size] = qty;
+        cash[size] = cashAfter;
+        pnls[size] = pnl;
+        size++;
+    }
+
+    public int size() { return size; }
+
+    public String side(int i) { return sides[check(i)]; }
+    public int barIndex(int i) { return bars[check(i)]; }
+    public double price(int i) { return prices[check(i)]; }
+    public double qty(int i) { return qtys[check(i)]; }
+    public double cashAfter(int i) { return cash[check(i)]; }
+
+    /** Realized PnL of an exit, {@link Double#NaN} for entries. */
+    public double pnl(int i) { return pnls[check(i)]; }
+
+    /** Number of exits (SELL / SL / TP / EOD). */
+    public int closedTrades() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (!Double.isNaN(pnls[i])) n++;
+        }
+        return n;
+    }
+
+    public int wins() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (pnls[i] > 0) n++;
+        }
+        return n;
+    }
+
+    public void clear() {
+        Arrays.fill(sides, 0, size, null);
+        size = 0;
+    }
+
+    private int check(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        return i;
+    }
+
+    private void grow() {
+        int cap = bars.length * 2;
+        sides = Arrays.copyOf(sides, cap);
+        bars = Arrays.copyOf(bars, cap);
+        prices = Arrays.copyOf(prices, cap);
+        qtys = Arrays.copyOf(qtys, cap);
+        cash = Arrays.copyOf(cash, cap);
+        pnls = Arrays.copyOf(pnls, cap);
+    }
+}
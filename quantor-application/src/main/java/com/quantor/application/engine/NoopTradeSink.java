@@ -0,0 +1,14 @@
+package com.quantor.application.engine;
+
+/** Discards every trade. Used by parameter sweeps where only the summary matters. */
+public final class NoopTradeSink implements TradeSink {
+
+    public static final NoopTradeSink INSTANCE = new NoopTradeSink();
+
+    private NoopTradeSink() {}
+
+    @Override
+    public void onTrade(String symbol, String side, int barIndex, double price, double qty, double cashAfter, double pnl) {
+        // no-op
+    }
+}
@@ -0,0 +1,33 @@
+package com.quantor.application.engine;
+
+/**
+ * Destination for trades produced by {@link BacktestEngine}.
+ *
+ * The engine reports raw values only (no pre-formatted comments),
+ * so an in-memory or no-op sink costs nothing beyond the call itself.
+ * Implementations that buffer must write everything out on {@link #flush()}.
+ *
+ * Side values used by the engine: BUY, SELL, EXIT_SL, EXIT_TP, FORCE_EXIT_EOD.
+ * {@code pnl} is {@link Double#NaN} for entries.
+ */
+@FunctionalInterface
+public interface TradeSink extends AutoCloseable {
+
+    void onTrade(String symbol,
+                 String side,
+                 int barIndex,
+                 double price,
+                 double qty,
+                 double cashAfter,
+                 double pnl);
+
+    /** Pushes buffered trades to the underlying store (if any). */
+    default void flush() {
+        // nothing buffered by default
+    }
+
+    @Override
+    default void close() {
+        flush();
+    }
+}
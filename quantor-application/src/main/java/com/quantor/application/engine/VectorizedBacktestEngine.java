@@ -0,0 +1,164 @@
+package com.quantor.application.engine;
+
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.risk.RiskManager;
+import com.quantor.domain.strategy.Strategy;
+import com.quantor.domain.strategy.VectorizedStrategy;
+import com.quantor.domain.strategy.online.OnlineStrategy;
+
+import java.util.List;
+
+/**
+ * Vectorized backtest for stateless signal strategies (parameter sweeps).
+ *
+ * Works on a plain double[] close series:
+ *  1) strategy.signals(close, sig) fills the whole signal array in one pass
+ *  2) one tight loop derives position / cash / equity from the signals,
+ *     with the same SL/TP, sizing and fee rules as BacktestEngine (RiskManager)
+ *
+ * No per-bar objects, no subList, no console output.
+ * Strategies that are not VectorizedStrategy (OnlineStrategy, DebugStrategy, AI filters)
+ * fall back to the event loop in BacktestEngine.
+ *
+ * Not thread-safe: the signal buffer is reused between runs. Use one engine per sweep thread.
+ */
+public class VectorizedBacktestEngine {
+
+    private final Strategy strategy;
+    private final RiskManager rm;
+    private final String symbol;
+    private final String interval;
+    private final TradeSink sink;
+
+    private final double startCash = 1000.0;
+
+    private byte[] sig = new byte[0];
+
+    public VectorizedBacktestEngine(Strategy strategy, RiskManager rm, String symbol, String interval) {
+        this(strategy, rm, symbol, interval, NoopTradeSink.INSTANCE);
+    }
+
+    public VectorizedBacktestEngine(Strategy strategy,
+                                    RiskManager rm,
+                                    String symbol,
+                                    String interval,
+                                    TradeSink sink) {
+        this.strategy = strategy;
+        this.rm = rm;
+        this.symbol = symbol;
+        this.interval = interval;
+        this.sink = (sink == null) ? NoopTradeSink.INSTANCE : sink;
+    }
+
+    /** True when the strategy can run without the event loop. */
+    public static boolean supports(Strategy strategy) {
+        return strategy instanceof VectorizedStrategy && !(strategy instanceof OnlineStrategy);
+    }
+
+    /** Close prices as a primitive array. Extract once and reuse it across a sweep. */
+    public static double[] closes(List<Candle> candles) {
+        double[] out = new double[candles.size()];
+        for (int i = 0; i < out.length; i++) out[i] = candles.get(i).close();
+        return out;
+    }
+
+    /** Vectorized run when possible, otherwise the BacktestEngine event loop. */
+    public BacktestResult run(List<Candle> candles) {
+        if (!supports(strategy)) {
+            double kReward = (strategy instanceof OnlineStrategy os) ? os.getRewardK() : 5.0;
+            return new BacktestEngine(strategy, rm, kReward, 0.0, null, symbol, interval, sink).run(candles);
+        }
+        if (candles == null || candles.isEmpty()) {
+            return new BacktestResult(symbol, interval, 0, 0, startCash, startCash, new double[0]);
+        }
+        return run(closes(candles));
+    }
+
+    public BacktestResult run(double[] close) {
+        if (!supports(strategy)) {
+            throw new IllegalStateException("Strategy is not vectorizable: " + strategy.getClass().getSimpleName());
+        }
+
+        int n = (close == null) ? 0 : close.length;
+        if (n == 0) {
+            return new BacktestResult(symbol, interval, 0, 0, startCash, startCash, new double[0]);
+        }
+
+        if (sig.length < n) sig = new byte[n];
+        ((VectorizedStrategy) strategy).signals(close, sig);
+
+        double[] equity = new double[n];
+
+        double cash = startCash;
+        double qty = 0.0;
+        double entry = 0.0;
+        int trades = 0;
+        int wins = 0;
+
+        for (int i = 0; i < n; i++) {
+            double price = close[i];
+            byte s = sig[i];
+
+            // 1) SL/TP on close
+            if (qty > 0.0) {
+                boolean slHit = rm.hitSL(price, entry);
+                if (slHit || rm.hitTP(price, entry)) {
+                    double gross = qty * price;
+                    double fee = rm.fee(gross);
+                    cash += gross - fee;
+                    double pnl = (price - entry) * qty - fee;
+                    trades++;
+                    if (pnl > 0) wins++;
+                    sink.onTrade(symbol, slHit ? "EXIT_SL" : "EXIT_TP", i, price, qty, cash, pnl);
+                    qty = 0.0;
+                }
+            }
+
+            // 2) BUY
+            if (qty == 0.0 && s == VectorizedStrategy.BUY) {
+                double q = rm.calcPositionSize(price, rm.calcStopPrice(price), cash);
+                if (q > 0.0) {
+                    double cost = q * price;
+                    double fee = rm.fee(cost);
+                    if (cost + fee <= cash) {
+                        cash -= cost + fee;
+                        qty = q;
+                        entry = price;
+                        sink.onTrade(symbol, "BUY", i, price, q, cash, Double.NaN);
+                    }
+                }
+            }
+
+            // 3) SELL
+            if (qty > 0.0 && s == VectorizedStrategy.SELL) {
+                double gross = qty * price;
+                double fee = rm.fee(gross);
+                cash += gross - fee;
+                double pnl = (price - entry) * qty - fee;
+                trades++;
+                if (pnl > 0) wins++;
+                sink.onTrade(symbol, "SELL", i, price, qty, cash, pnl);
+                qty = 0.0;
+            }
+
+            equity[i] = cash + qty * price;
+        }
+
+        // 4) force exit at the end (same as BacktestEngine.FORCE_EXIT_EOD)
+        if (qty > 0.0) {
+            double price = close[n - 1];
+            double gross = qty * price;
+            double fee = rm.fee(gross);
+            cash += gross - fee;
+            double pnl = (price - entry) * qty - fee;
+            trades++;
+            if (pnl > 0) wins++;
+            sink.onTrade(symbol, "FORCE_EXIT_EOD", n - 1, price, qty, cash, pnl);
+            equity[n - 1] = cash;
+        }
+
+        sink.flush();
+
+        return new BacktestResult(symbol, interval, trades, wins, startCash, equity[n - 1], equity);
+    }
+}
@@ -0,0 +1,82 @@
+package com.quantor.application.engine.tick;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Streams a Binance aggTrades CSV (plain, .gz or single-entry .zip).
+ *
+ * Columns: aggTradeId,price,quantity,firstTradeId,lastTradeId,timestamp,isBuyerMaker[,isBestMatch]
+ * An optional header line is skipped. Microsecond timestamps (newer spot dumps) are converted to millis.
+ *
+ * This is the slow path (text parsing); convert once with TickFiles.convert and replay the
+ * memory-mapped binary file for repeated runs.
+ */
+public final class CsvTickSource implements TickSource {
+
+    private final BufferedReader in;
+
+    private long timeMs;
+    private double price;
+    private double qty;
+
+    public CsvTickSource(Path file) throws IOException {
+        this.in = new BufferedReader(new InputStreamReader(open(file), StandardCharsets.US_ASCII), 1 << 16);
+    }
+
+    static InputStream open(Path file) throws IOException {
+        InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".gz")) return new GZIPInputStream(raw, 1 << 16);
+        if (name.endsWith(".zip")) {
+            ZipInputStream zip = new ZipInputStream(raw);
+            if (zip.getNextEntry() == null) throw new IOException("Empty zip: " + file);
+            return zip;
+        }
+        return raw;
+    }
+
+    @Override
+    public boolean next() {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || !Character.isDigit(line.charAt(0))) continue; // header / blank
+
+                int c1 = line.indexOf(',');
+                int c2 = line.indexOf(',', c1 + 1);
+                int c3 = line.indexOf(',', c2 + 1);
+                int c4 = line.indexOf(',', c3 + 1);
+                int c5 = line.indexOf(',', c4 + 1);
+                int c6 = line.indexOf(',', c5 + 1);
+                if (c5 < 0) continue;
+
+                price = Double.parseDouble(line.substring(c1 + 1, c2));
+                qty = Double.parseDouble(line.substring(c2 + 1, c3));
+                long ts = Long.parseLong(line.substring(c5 + 1, c6 < 0 ? line.length() : c6));
+                timeMs = ts > 100_000_000_000_000L ? ts / 1000 : ts;
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override public long timeMs() { return timeMs; }
+    @Override public double price() { return price; }
+    @Override public double qty() { return qty; }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException ignore) {
+            // ignore
+        }
+    }
+}
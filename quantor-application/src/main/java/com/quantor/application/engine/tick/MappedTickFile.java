@@ -0,0 +1,109 @@
+package com.quantor.application.engine.tick;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped reader for TickFiles binary files.
+ *
+ * Files larger than 2 GB are mapped segment by segment; the OS page cache does the I/O.
+ * next() is a bounds check plus three absolute reads, so the replay loop stays allocation-free.
+ */
+public final class MappedTickFile implements TickSource {
+
+    private static final long SEGMENT_RECORDS = 1L << 27; // ~1.5 GB per mapping
+
+    private final FileChannel ch;
+    private final long count;
+    private final double priceScale;
+
+    private MappedByteBuffer seg;
+    private long segStart;   // index of the first record in seg
+    private int segRecords;  // records in seg
+    private int pos;         // byte offset of the next record in seg
+    private int segIdx;      // record index within seg
+    private long index = -1;
+
+    private long timeMs;
+    private double price;
+    private double qty;
+
+    public MappedTickFile(Path file) throws IOException {
+        this.ch = FileChannel.open(file, StandardOpenOption.READ);
+
+        ByteBuffer h = ByteBuffer.allocate(TickFiles.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (h.hasRemaining() && ch.read(h, h.position()) > 0) { /* fill */ }
+        h.flip();
+        if (h.remaining() < TickFiles.HEADER_BYTES || h.getInt() != TickFiles.MAGIC) {
+            ch.close();
+            throw new IOException("Not a tick file: " + file);
+        }
+        int version = h.getInt();
+        if (version != TickFiles.VERSION) {
+            ch.close();
+            throw new IOException("Unsupported tick file version " + version + ": " + file);
+        }
+        this.count = h.getLong();
+        this.timeMs = h.getLong();
+        this.priceScale = h.getDouble();
+        this.segStart = 0;
+        this.segRecords = 0;
+    }
+
+    public long count() { return count; }
+
+    @Override
+    public boolean next() {
+        if (segIdx == segRecords) {
+            if (!mapNext()) return false;
+        }
+        ByteBuffer b = seg;
+        int p = pos;
+        timeMs += b.getInt(p);
+        price = b.getInt(p + 4) * priceScale;
+        qty = b.getFloat(p + 8);
+        pos = p + TickFiles.RECORD_BYTES;
+        segIdx++;
+        index++;
+        return true;
+    }
+
+    private boolean mapNext() {
+        long nextStart = segStart + segRecords;
+        if (nextStart >= count) return false;
+
+        int n = (int) Math.min(SEGMENT_RECORDS, count - nextStart);
+        try {
+            seg = ch.map(FileChannel.MapMode.READ_ONLY,
+                    TickFiles.HEADER_BYTES + nextStart * TickFiles.RECORD_BYTES,
+                    (long) n * TickFiles.RECORD_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        seg.order(ByteOrder.LITTLE_ENDIAN);
+        segStart = nextStart;
+        segRecords = n;
+        segIdx = 0;
+        pos = 0;
+        return true;
+    }
+
+    @Override public long timeMs() { return timeMs; }
+    @Override public double price() { return price; }
+    @Override public double qty() { return qty; }
+
+    @Override
+    public void close() {
+        try {
+            ch.close();
+        } catch (IOException ignore) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.quantor.application.engine.tick;
+
+import com.quantor.application.engine.BacktestResult;
+import com.quantor.application.engine.NoopTradeSink;
+import com.quantor.application.engine.TradeSink;
+import com.quantor.application.exchange.Timeframe;
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.order.TradeAction;
+import com.quantor.domain.risk.RiskManager;
+import com.quantor.domain.strategy.Strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tick-level replay (aggTrades) with intrabar SL/TP resolution.
+ *
+ * Bar backtests check SL/TP on the close only, so a bar that touches both levels (or wicks through
+ * the stop and recovers) is resolved optimistically. Here every trade print is checked against
+ * SL/TP while a position is open, and the exit happens at the first crossing tick.
+ *
+ * Per tick:
+ *  1) position open -> SL/TP check at the tick price (RiskManager.hitSL / hitTP)
+ *  2) OHLCV bar for the timeframe is built on the fly
+ * On bar close:
+ *  3) Candle appended to a bounded history, strategy.decide(history)
+ *  4) BUY / SELL at the bar close, same sizing and fees as BacktestEngine
+ * End of data: FORCE_EXIT_EOD at the last tick.
+ *
+ * Intervals without prints are closed as flat bars (O=H=L=C = last close, volume 0), like exchange
+ * klines, so the strategy sees one bar per interval and indicator periods keep their time meaning.
+ *
+ * barIndex passed to the TradeSink is the index of the bar the trade happened in.
+ * equityCurve has one point per closed bar (flat bars included).
+ *
+ * The loop allocates one Candle per bar and nothing per tick; throughput is bounded by the source
+ * (use MappedTickFile for repeated runs, CsvTickSource only for one-off conversions).
+ */
+public class TickReplayEngine {
+
+    private final Strategy strategy;
+    private final RiskManager rm;
+    private final long barMs;
+    private final String symbol;
+    private final String interval;
+    private final TradeSink sink;
+    private final int maxHistory;
+
+    private final double startCash = 1000.0;
+
+    private long ticksProcessed;
+
+    public TickReplayEngine(Strategy strategy, RiskManager rm, Timeframe tf, String symbol, String interval) {
+        this(strategy, rm, tf.millis(), symbol, interval, NoopTradeSink.INSTANCE, 2000);
+    }
+
+    public TickReplayEngine(Strategy strategy,
+                            RiskManager rm,
+                            long barMs,
+                            String symbol,
+                            String interval,
+                            TradeSink sink,
+                            int maxHistory) {
+        if (barMs <= 0) throw new IllegalArgumentException("barMs must be > 0");
+        this.strategy = strategy;
+        this.rm = rm;
+        this.barMs = barMs;
+        this.symbol = symbol;
+        this.interval = interval;
+        this.sink = (sink == null) ? NoopTradeSink.INSTANCE : sink;
+        this.maxHistory = Math.max(2, maxHistory);
+    }
+
+    /** Ticks consumed by the last run. */
+    public long ticksProcessed() {
+        return ticksProcessed;
+    }
+
+    public BacktestResult run(TickSource ticks) {
+        ticksProcessed = 0;
+
+        // history is trimmed in halves so removal is amortized O(1) per bar
+        List<Candle> history = new ArrayList<>(maxHistory * 2);
+        double[] equity = new double[1024];
+        int bars = 0;
+
+        double cash = startCash;
+        double qty = 0.0;
+        double entry = 0.0;
+        int trades = 0;
+        int wins = 0;
+
+        long bucket = Long.MIN_VALUE;
+        double o = 0, h = 0, l = 0, c = 0, v = 0;
+        boolean hasBar = false;
+
+        while (ticks.next()) {
+            long t = ticks.timeMs();
+            double price = ticks.price();
+            ticksProcessed++;
+
+            long b = Math.floorDiv(t, barMs);
+
+            // ----- bar boundary: close the previous bar (and flat bars for empty intervals) -----
+            if (hasBar && b != bucket) {
+                while (true) {
+                    long openTime = bucket * barMs;
+                    history.add(new Candle(openTime, o, h, l, c, v, openTime + barMs - 1));
+                    if (history.size() > maxHistory * 2) {
+                        history.subList(0, history.size() - maxHistory).clear();
+                    }
+
+                    TradeAction a = strategy.decide(history.size() > maxHistory
+                            ? history.subList(history.size() - maxHistory, history.size())
+                            : history);
+
+                    if (qty == 0.0 && a == TradeAction.BUY) {
+                        double q = rm.calcPositionSize(c, rm.calcStopPrice(c), cash);
+                        if (q > 0.0) {
+                            double cost = q * c;
+                            double fee = rm.fee(cost);
+                            if (cost + fee <= cash) {
+                                cash -= cost + fee;
+                                qty = q;
+                                entry = c;
+                                sink.onTrade(symbol, "BUY", bars, c, q, cash, Double.NaN);
+                            }
+                        }
+                    } else if (qty > 0.0 && a == TradeAction.SELL) {
+                        double gross = qty * c;
+                        double fee = rm.fee(gross);
+                        cash += gross - fee;
+                        double pnl = (c - entry) * qty - fee;
+                        trades++;
+                        if (pnl > 0) wins++;
+                        sink.onTrade(symbol, "SELL", bars, c, qty, cash, pnl);
+                        qty = 0.0;
+                    }
+
+                    if (bars == equity.length) equity = Arrays.copyOf(equity, bars * 2);
+                    equity[bars++] = cash + qty * c;
+
+                    // no prints in the next interval: flat bar at the last close, zero volume
+                    if (++bucket >= b) break;
+                    o = h = l = c;
+                    v = 0;
+                }
+                hasBar = false;
+            }
+
+            if (!hasBar) {
+                bucket = b;
+                o = h = l = c = price;
+                v = 0;
+                hasBar = true;
+            } else {
+                if (price > h) h = price;
+                if (price < l) l = price;
+                c = price;
+            }
+            v += ticks.qty();
+
+            // ----- intrabar SL/TP on every print -----
+            if (qty > 0.0) {
+                boolean slHit = rm.hitSL(price, entry);
+                if (slHit || rm.hitTP(price, entry)) {
+                    double gross = qty * price;
+                    double fee = rm.fee(gross);
+                    cash += gross - fee;
+                    double pnl = (price - entry) * qty - fee;
+                    trades++;
+                    if (pnl > 0) wins++;
+                    sink.onTrade(symbol, slHit ? "EXIT_SL" : "EXIT_TP", bars, price, qty, cash, pnl);
+                    qty = 0.0;
+                }
+            }
+        }
+
+        // ----- last (partial) bar + force exit -----
+        if (hasBar) {
+            if (qty > 0.0) {
+                double gross = qty * c;
+                double fee = rm.fee(gross);
+                cash += gross - fee;
+                double pnl = (c - entry) * qty - fee;
+                trades++;
+                if (pnl > 0) wins++;
+                sink.onTrade(symbol, "FORCE_EXIT_EOD", bars, c, qty, cash, pnl);
+                qty = 0.0;
+            }
+            if (bars == equity.length) equity = Arrays.copyOf(equity, bars + 1);
+            equity[bars++] = cash;
+        }
+
+        sink.flush();
+
+        double finalEquity = cash;
+        return new BacktestResult(symbol, interval, trades, wins, startCash, finalEquity, Arrays.copyOf(equity, bars));
+    }
+}
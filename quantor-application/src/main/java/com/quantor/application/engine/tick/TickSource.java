@@ -0,0 +1,25 @@
+package com.quantor.application.engine.tick;
+
+/**
+ * Forward-only tick cursor (no per-tick objects).
+ *
+ * Usage:
+ *   while (src.next()) { src.timeMs(); src.price(); src.qty(); }
+ */
+public interface TickSource extends AutoCloseable {
+
+    /** Advances to the next tick. Returns false at end of data. */
+    boolean next();
+
+    /** Trade time in epoch millis. */
+    long timeMs();
+
+    double price();
+
+    double qty();
+
+    @Override
+    default void close() {
+        // nothing to release by default
+    }
+}
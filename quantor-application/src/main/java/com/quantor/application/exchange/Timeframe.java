@@ -6,12 +6,23 @@ package com.quantor.application.exchange;
  * Exchange adapters are responsible for mapping this to native interval strings.
  */
 public enum Timeframe {
-    M1,
-    M3,
-    M5,
-    M15,
-    M30,
-    H1,
-    H4,
-    D1;
+    M1(60_000L),
+    M3(3 * 60_000L),
+    M5(5 * 60_000L),
+    M15(15 * 60_000L),
+    M30(30 * 60_000L),
+    H1(60 * 60_000L),
+    H4(4 * 60 * 60_000L),
+    D1(24 * 60 * 60_000L);
+
+    private final long millis;
+
+    Timeframe(long millis) {
+        this.millis = millis;
+    }
+
+    /** Bar length in milliseconds. */
+    public long millis() {
+        return millis;
+    }
 }
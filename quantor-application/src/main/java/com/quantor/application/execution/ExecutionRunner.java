@@ -2,7 +2,9 @@
 package com.quantor.application.execution;
 
 import com.quantor.application.guard.TradingStoppedException;
+import com.quantor.application.ports.NoopTickMetrics;
 import com.quantor.application.ports.NotifierPort;
+import com.quantor.application.ports.TickMetricsPort;
 import com.quantor.application.usecase.TradingPipeline;
 
 /**
@@ -13,7 +15,7 @@ import com.quantor.application.usecase.TradingPipeline;
  * - Notify observer separately (onTickStop) if supported, otherwise fall back to onTickError.
  *
  * NOTE: We do NOT try to stop scheduling here because scheduler/session management is outside this class.
- * This runner just classifies the outcome correctly.
+ * This runner just classifies the outcome correctly (also as the outcome tag of the tick timer).
  */
 public class ExecutionRunner implements Runnable {
 
@@ -21,25 +23,35 @@ public class ExecutionRunner implements Runnable {
     private final TradingPipeline pipeline;
     private final NotifierPort notifier;
     private final ExecutionObserver observer;
+    private final TickMetricsPort metrics;
 
     public ExecutionRunner(ExecutionJob job, TradingPipeline pipeline, NotifierPort notifier) {
         this(job, pipeline, notifier, null);
     }
 
     public ExecutionRunner(ExecutionJob job, TradingPipeline pipeline, NotifierPort notifier, ExecutionObserver observer) {
+        this(job, pipeline, notifier, observer, null);
+    }
+
+    public ExecutionRunner(ExecutionJob job, TradingPipeline pipeline, NotifierPort notifier, ExecutionObserver observer,
+                           TickMetricsPort metrics) {
         this.job = job;
         this.pipeline = pipeline;
         this.notifier = notifier;
         this.observer = observer;
+        this.metrics = metrics == null ? NoopTickMetrics.INSTANCE : metrics;
     }
 
     @Override
     public void run() {
+        long t0 = System.nanoTime();
+        TickMetricsPort.Outcome outcome = TickMetricsPort.Outcome.OK;
         try {
             pipeline.tick(job.symbol(), job.timeframe(), job.lookback());
             if (observer != null) observer.onTickSuccess(job);
 
         } catch (TradingStoppedException e) {
+            outcome = TickMetricsPort.Outcome.STOP;
             // STOP condition: subscription inactive / kill-switch / risk stop
             if (observer != null) {
                 // If your ExecutionObserver does not have onTickStop, keep onTickError only.
@@ -53,8 +65,14 @@ public class ExecutionRunner implements Runnable {
             try { notifier.send("🛑 RUNNER STOP " + job.key() + ": " + e.getMessage()); } catch (Exception ignore) {}
 
         } catch (Exception e) {
+            outcome = TickMetricsPort.Outcome.ERROR;
             if (observer != null) observer.onTickError(job, e);
             try { notifier.send("❌ RUNNER " + job.key() + ": " + e.getMessage()); } catch (Exception ignore) {}
+
+        } finally {
+            try {
+                metrics.recordTick(job.exchange(), job.timeframe(), outcome, System.nanoTime() - t0);
+            } catch (Exception ignore) {}
         }
     }
 }
@@ -0,0 +1,137 @@
+package com.quantor.application.execution;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rolling tick statistics of one process (all sessions together).
+ *
+ * - tick duration: wall time of one ExecutionRunner run
+ * - scheduler lag: time between the moment a tick was due and the moment its body started
+ * - overruns: ticks that ran past the due time of the next tick of the same job (see OverrunPolicy)
+ *
+ * Both keep the last WINDOW samples (with their wall-clock time) in a lock-free ring; percentiles are
+ * computed on demand (copy + sort, meant for heartbeats / metrics scrapes, not for the hot path).
+ * The maxAgeMs variants ignore older samples, so a load spike stops counting once it is over even when
+ * few new ticks arrive (aligned 1h sessions).
+ */
+public class ExecutionStats {
+
+    /** Receives scheduler lag samples and overruns together with the session key (tagged metrics). */
+    public interface Listener {
+        void onLag(String key, long lagMs);
+
+        default void onOverrun(String key, long missedRuns) {
+        }
+    }
+
+    private static final int WINDOW = 4096;
+
+    private final Ring tickMs = new Ring();
+    private final Ring lagMs = new Ring();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong missedRuns = new AtomicLong();
+    private volatile Listener listener;
+
+    public void recordTick(long durationMs) {
+        tickMs.add(durationMs);
+    }
+
+    public void recordLag(long lagMs) {
+        this.lagMs.add(Math.max(0, lagMs));
+    }
+
+    /** Same as recordLag(lagMs), also forwarded to the lag listener. */
+    public void recordLag(String key, long lagMs) {
+        long lag = Math.max(0, lagMs);
+        this.lagMs.add(lag);
+        Listener l = listener;
+        if (l != null && key != null) {
+            try {
+                l.onLag(key, lag);
+            } catch (Exception ignore) {
+                // telemetry must never fail a tick
+            }
+        }
+    }
+
+    /** One tick of the job ran past the next due time; missedRuns were dropped or merged. */
+    public void recordOverrun(String key, long missedRuns) {
+        overruns.incrementAndGet();
+        this.missedRuns.addAndGet(Math.max(0, missedRuns));
+        Listener l = listener;
+        if (l != null && key != null) {
+            try {
+                l.onOverrun(key, missedRuns);
+            } catch (Exception ignore) {
+                // telemetry must never fail a tick
+            }
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** p-th percentile (0..100) of recent tick durations, 0 when there are no samples. */
+    public long tickPercentileMs(double p) {
+        return tickMs.percentile(p, Long.MAX_VALUE);
+    }
+
+    public long tickPercentileMs(double p, long maxAgeMs) {
+        return tickMs.percentile(p, maxAgeMs);
+    }
+
+    /** p-th percentile (0..100) of recent scheduler lag, 0 when there are no samples. */
+    public long lagPercentileMs(double p) {
+        return lagMs.percentile(p, Long.MAX_VALUE);
+    }
+
+    public long lagPercentileMs(double p, long maxAgeMs) {
+        return lagMs.percentile(p, maxAgeMs);
+    }
+
+    public long ticksRecorded() {
+        return tickMs.count();
+    }
+
+    public long overruns() {
+        return overruns.get();
+    }
+
+    public long missedRuns() {
+        return missedRuns.get();
+    }
+
+    private static final class Ring {
+        private final AtomicLongArray values = new AtomicLongArray(WINDOW);
+        private final AtomicLongArray times = new AtomicLongArray(WINDOW);
+        private final AtomicInteger next = new AtomicInteger();
+
+        void add(long v) {
+            int i = Math.floorMod(next.getAndIncrement(), WINDOW);
+            values.set(i, v);
+            times.set(i, System.currentTimeMillis());
+        }
+
+        long count() {
+            return Integer.toUnsignedLong(next.get());
+        }
+
+        long percentile(double p, long maxAgeMs) {
+            int filled = (int) Math.min(WINDOW, count());
+            long cutoff = maxAgeMs == Long.MAX_VALUE ? Long.MIN_VALUE : System.currentTimeMillis() - maxAgeMs;
+            long[] copy = new long[filled];
+            int n = 0;
+            for (int i = 0; i < filled; i++) {
+                if (times.get(i) >= cutoff) copy[n++] = values.get(i);
+            }
+            if (n == 0) return 0;
+            Arrays.sort(copy, 0, n);
+            int idx = (int) Math.ceil(Math.max(0, Math.min(100, p)) / 100.0 * n) - 1;
+            return copy[Math.max(0, idx)];
+        }
+    }
+}
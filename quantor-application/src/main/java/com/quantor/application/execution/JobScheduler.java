@@ -1,9 +1,36 @@
 package com.quantor.application.execution;
 
+import com.quantor.application.exchange.Timeframe;
+
 /**
  * Schedules execution jobs. Production implementations can be backed by queues,
  * but the app code should not care.
  */
 public interface JobScheduler {
     RunHandle scheduleAtFixedRate(String key, Runnable task, long initialDelayMs, long periodMs);
+
+    /**
+     * Schedules a session tick for a job on the given timeframe.
+     * Default: fixed-rate polling every periodMs. Candle-aware schedulers fire after each candle close instead.
+     */
+    default RunHandle scheduleForTimeframe(String key, Runnable task, Timeframe timeframe, long periodMs) {
+        return scheduleAtFixedRate(key, task, 0, periodMs);
+    }
+
+    /**
+     * Same as above, plus a risk-only task for intrabar fires between candle closes.
+     * Default: the risk task is not scheduled (polling schedulers run the full task every period anyway).
+     */
+    default RunHandle scheduleForTimeframe(String key, Runnable task, Runnable riskTask, Timeframe timeframe, long periodMs) {
+        return scheduleForTimeframe(key, task, timeframe, periodMs);
+    }
+
+    /** True when timeframe sessions fire once per candle close instead of polling every period. */
+    default boolean firesOnCandleClose() {
+        return false;
+    }
+
+    /** Optional: schedulers that know when a tick was due report their lag here. */
+    default void attachStats(ExecutionStats stats) {
+    }
 }
@@ -0,0 +1,103 @@
+package com.quantor.application.execution;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide overload mode driven by scheduler lag.
+ *
+ * Enters when p99 scheduler lag over the last windowMs exceeds enterLagMs and leaves once it drops
+ * below exitLagMs (hysteresis, so the mode does not flap). While overloaded, polling sessions without
+ * an open position only run once idleStretch x min(period, 1 min) has passed since their last run
+ * (their period is effectively widened), which leaves the freed capacity to sessions that hold a
+ * position and need SL/TP/exit decisions on time.
+ *
+ * The stretch is time-based, not a firing count, so a session whose fires are already sparse (slow
+ * period, skipped overruns) is not thinned further. Candle-aligned sessions are not passed through
+ * admit() at all: their single fire per candle close is the decision point and is never stretched.
+ *
+ * Evaluated lazily from the tick path at most once per EVAL_EVERY_MS (the percentile is a copy + sort).
+ */
+public class OverloadGovernor {
+
+    private static final long EVAL_EVERY_MS = 1000;
+    private static final long MAX_STRETCH_UNIT_MS = 60_000;
+
+    private final ExecutionStats stats;
+    private final boolean enabled;
+    private final long enterLagMs;
+    private final long exitLagMs;
+    private final long windowMs;
+    private final int idleStretch;
+
+    private final AtomicLong lastEvalAt = new AtomicLong();
+    private final AtomicLong deferredTicks = new AtomicLong();
+    private volatile boolean overloaded;
+
+    /**
+     * @param enterLagMs  p99 scheduler lag that switches overload mode on
+     * @param exitLagMs   p99 scheduler lag below which it switches off again
+     * @param windowMs    age of the lag samples considered
+     * @param idleStretch idle sessions run at most every idleStretch periods while overloaded (1 = no stretch)
+     */
+    public OverloadGovernor(ExecutionStats stats, boolean enabled, long enterLagMs, long exitLagMs,
+                            long windowMs, int idleStretch) {
+        this.stats = stats;
+        this.enabled = enabled;
+        this.enterLagMs = Math.max(1, enterLagMs);
+        this.exitLagMs = Math.min(this.enterLagMs, Math.max(0, exitLagMs));
+        this.windowMs = Math.max(EVAL_EVERY_MS, windowMs);
+        this.idleStretch = Math.max(1, idleStretch);
+    }
+
+    /** Disabled governor (never overloaded). */
+    public static OverloadGovernor disabled(ExecutionStats stats) {
+        return new OverloadGovernor(stats, false, Long.MAX_VALUE, 0, EVAL_EVERY_MS, 1);
+    }
+
+    public boolean overloaded() {
+        if (!enabled) return false;
+        long now = System.currentTimeMillis();
+        long last = lastEvalAt.get();
+        if (now - last >= EVAL_EVERY_MS && lastEvalAt.compareAndSet(last, now)) {
+            evaluate();
+        }
+        return overloaded;
+    }
+
+    /**
+     * Decides whether a firing of a polling session runs.
+     * Sessions with an open position always run; while overloaded, idle ones run once
+     * idleStretch x min(periodMs, 1 min) has passed since their last run (half a period of scheduling slack).
+     *
+     * @param sinceLastRunMs time since the session's last admitted run (Long.MAX_VALUE before the first)
+     * @param periodMs       polling period of the session
+     */
+    public boolean admit(long sinceLastRunMs, long periodMs, boolean positionOpen) {
+        if (positionOpen || idleStretch == 1 || !overloaded()) return true;
+        long unit = Math.max(1, Math.min(periodMs, MAX_STRETCH_UNIT_MS));
+        if (sinceLastRunMs >= idleStretch * unit - unit / 2) return true;
+        deferredTicks.incrementAndGet();
+        return false;
+    }
+
+    /** Ticks of idle sessions not run because of overload mode. */
+    public long deferredTicks() {
+        return deferredTicks.get();
+    }
+
+    public int idleStretch() {
+        return idleStretch;
+    }
+
+    private void evaluate() {
+        long lagP99 = stats.lagPercentileMs(99, windowMs);
+        if (!overloaded && lagP99 > enterLagMs) {
+            overloaded = true;
+            System.err.println("[OverloadGovernor] overload mode ON: scheduler lag p99=" + lagP99
+                    + "ms > " + enterLagMs + "ms, idle polling sessions stretched x" + idleStretch);
+        } else if (overloaded && lagP99 < exitLagMs) {
+            overloaded = false;
+            System.err.println("[OverloadGovernor] overload mode OFF: scheduler lag p99=" + lagP99 + "ms");
+        }
+    }
+}
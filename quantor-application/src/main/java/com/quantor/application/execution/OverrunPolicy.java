@@ -0,0 +1,54 @@
+package com.quantor.application.execution;
+
+/**
+ * What a scheduler does when a tick runs past the due time of the next one (an overrun).
+ *
+ * - SKIP: drop the missed runs; the next tick fires on the next period boundary after the overrun
+ * - COALESCE: all missed runs collapse into one tick that starts right away; the period restarts from it
+ * - FIXED_DELAY: the next tick is due periodMs after the previous one finished (no grid)
+ *
+ * None of them queue catch-up runs: a session that overran N periods never fires N ticks back to back.
+ */
+public enum OverrunPolicy {
+    SKIP,
+    COALESCE,
+    FIXED_DELAY;
+
+    /**
+     * Next due time of a job after its tick finished.
+     *
+     * @param dueMs     due time of the tick that just finished
+     * @param periodMs  job period
+     * @param nowMs     time the tick finished
+     * @param missed    out: missed[0] = runs dropped or merged because of the overrun (0 = no overrun)
+     */
+    public long nextDue(long dueMs, long periodMs, long nowMs, long[] missed) {
+        long period = Math.max(1, periodMs);
+        long next = dueMs + period;
+        if (this == FIXED_DELAY) {
+            missed[0] = next <= nowMs ? (nowMs - next) / period + 1 : 0;
+            return nowMs + period;
+        }
+        if (next > nowMs) {
+            missed[0] = 0;
+            return next;
+        }
+        long behind = (nowMs - next) / period;  // whole periods between the missed boundary and now
+        if (this == COALESCE) {
+            missed[0] = behind + 1;
+            return nowMs;                        // one merged run right away
+        }
+        missed[0] = behind + 1;
+        return next + (behind + 1) * period;     // SKIP: first boundary after now
+    }
+
+    /** Parses a config value (case-insensitive, '-' allowed for '_'); unknown/blank => fallback. */
+    public static OverrunPolicy parse(String value, OverrunPolicy fallback) {
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
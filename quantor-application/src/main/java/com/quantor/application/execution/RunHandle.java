@@ -8,4 +8,10 @@ public interface RunHandle {
 
     /** Best-effort paused state (local scheduler). */
     default boolean isPaused() { return false; }
+
+    /** Ticks of this job that ran past the due time of the next one. */
+    default long overruns() { return 0; }
+
+    /** Runs dropped or merged because of overruns (see OverrunPolicy). */
+    default long missedRuns() { return 0; }
 }
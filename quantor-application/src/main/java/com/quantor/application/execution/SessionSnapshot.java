@@ -0,0 +1,85 @@
+package com.quantor.application.execution;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serialized runtime state of one session, written during graceful drain and restored by the
+ * worker that claims the session next (before its first tick).
+ *
+ * Format (big-endian): magic "QSS1", capturedAtMs, section count, then per section
+ * name (modified UTF-8) + length + opaque bytes. Sections are owned by the components
+ * (candles, strategy, cooldown, portfolio); unknown sections are ignored on restore.
+ */
+public final class SessionSnapshot {
+
+    private static final int MAGIC = 0x51535331; // "QSS1"
+
+    private final long capturedAtMs;
+    private final Map<String, byte[]> sections;
+
+    public SessionSnapshot(long capturedAtMs, Map<String, byte[]> sections) {
+        this.capturedAtMs = capturedAtMs;
+        this.sections = Collections.unmodifiableMap(new LinkedHashMap<>(sections));
+    }
+
+    public long capturedAtMs() {
+        return capturedAtMs;
+    }
+
+    public Map<String, byte[]> sections() {
+        return sections;
+    }
+
+    public byte[] section(String name) {
+        return sections.get(name);
+    }
+
+    public byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeLong(capturedAtMs);
+            out.writeInt(sections.size());
+            for (Map.Entry<String, byte[]> e : sections.entrySet()) {
+                byte[] data = e.getValue() == null ? new byte[0] : e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeInt(data.length);
+                out.write(data);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Snapshot encode failed", e);
+        }
+    }
+
+    /** @return decoded snapshot, or null if the blob is not a snapshot of this format */
+    public static SessionSnapshot decode(byte[] blob) {
+        if (blob == null || blob.length < 16) return null;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(blob));
+            if (in.readInt() != MAGIC) return null;
+            long capturedAt = in.readLong();
+            int n = in.readInt();
+            Map<String, byte[]> sections = new LinkedHashMap<>();
+            for (int i = 0; i < n; i++) {
+                String name = in.readUTF();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                sections.put(name, data);
+            }
+            return new SessionSnapshot(capturedAt, sections);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[SessionSnapshot] decode error: " + e.getMessage());
+            return null;
+        }
+    }
+}
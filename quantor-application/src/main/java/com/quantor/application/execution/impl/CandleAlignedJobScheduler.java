@@ -0,0 +1,322 @@
+package com.quantor.application.execution.impl;
+
+import com.quantor.application.exchange.Timeframe;
+import com.quantor.application.execution.ExecutionStats;
+import com.quantor.application.execution.JobScheduler;
+import com.quantor.application.execution.RunHandle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Candle-boundary aligned scheduler.
+ *
+ * Instead of polling every periodMs, a session fires once right after each candle of its timeframe
+ * closes (+ settleDelayMs so the exchange has published the closed candle, + a stable per-session
+ * jitter in [0, jitterMs] so sessions on the same timeframe do not hit the exchange in one burst).
+ * A 1h bot wakes 1x per hour instead of 3600x; upstream calls scale with candles, not wall-clock.
+ *
+ * Optional intrabar risk tick: with intrabarRiskTickMs > 0 and a risk task passed to
+ * scheduleForTimeframe, the session additionally runs that risk-only task every intrabarRiskTickMs
+ * between candle closes (SL/TP and kill-switch checks on the forming candle; SessionService passes
+ * one only with trading.riskExits.enabled); the full tick only runs on candle closes. Risk fires and candle fires of one session never overlap: a candle fire that
+ * arrives while a risk tick still runs is not dropped but marked pending and runs right after the
+ * risk body finishes (a candle close is the session's only strategy decision for that candle).
+ *
+ * Timers live in one HierarchicalTimingWheel; tick bodies run on virtual threads with the same
+ * per-session non-overlap rule as VirtualThreadJobScheduler (a firing is skipped while the previous
+ * tick of the job still runs, i.e. OverrunPolicy.SKIP; skipped firings are counted per job as
+ * overruns). The exceptions are the deferred candle fire above, and risk fires, which are skipped
+ * without counting as overruns while a candle fire is pending. Plain scheduleAtFixedRate jobs also
+ * use the wheel.
+ */
+public class CandleAlignedJobScheduler implements JobScheduler {
+
+    private final long settleDelayMs;
+    private final long jitterMs;
+    private final long intrabarRiskTickMs;
+
+    private final HierarchicalTimingWheel wheel;
+    private final ThreadFactory tickThreads;
+    private final Map<String, Handle> handles = new ConcurrentHashMap<>();
+
+    private final AtomicLong candleFires = new AtomicLong();
+    private final AtomicLong riskFires = new AtomicLong();
+    private final AtomicLong ticksSkipped = new AtomicLong();
+    private volatile ExecutionStats stats;
+
+    public CandleAlignedJobScheduler() {
+        this(500, 2000, 0);
+    }
+
+    /**
+     * @param settleDelayMs      delay after the candle boundary before the tick fires
+     * @param jitterMs           max extra per-session delay, stable per session key
+     * @param intrabarRiskTickMs 0 = off; otherwise extra fire interval between candle closes
+     */
+    public CandleAlignedJobScheduler(long settleDelayMs, long jitterMs, long intrabarRiskTickMs) {
+        this.settleDelayMs = Math.max(0, settleDelayMs);
+        this.jitterMs = Math.max(0, jitterMs);
+        this.intrabarRiskTickMs = Math.max(0, intrabarRiskTickMs);
+        this.wheel = new HierarchicalTimingWheel("quantor-timing-wheel");
+        this.tickThreads = Thread.ofVirtual().name("quantor-candle-tick-", 0).factory();
+        this.wheel.start();
+    }
+
+    @Override
+    public RunHandle scheduleAtFixedRate(String key, Runnable task, long initialDelayMs, long periodMs) {
+        return register(new Handle(key, task, null, 0, Math.max(1, periodMs), 0, 0), initialDelayMs);
+    }
+
+    @Override
+    public RunHandle scheduleForTimeframe(String key, Runnable task, Timeframe timeframe, long periodMs) {
+        return scheduleForTimeframe(key, task, null, timeframe, periodMs);
+    }
+
+    @Override
+    public RunHandle scheduleForTimeframe(String key, Runnable task, Runnable riskTask, Timeframe timeframe, long periodMs) {
+        if (timeframe == null) return scheduleAtFixedRate(key, task, 0, periodMs);
+
+        long tfMs = timeframe.millis();
+        long offset = settleDelayMs + jitterFor(key);
+        long risk = (riskTask != null && intrabarRiskTickMs > 0 && intrabarRiskTickMs < tfMs) ? intrabarRiskTickMs : 0;
+
+        // first tick right away (same as the fixed-rate schedulers), then aligned to candle closes
+        return register(new Handle(key, task, riskTask, tfMs, 0, offset, risk), 0);
+    }
+
+    @Override
+    public boolean firesOnCandleClose() {
+        return true;
+    }
+
+    private Handle register(Handle h, long initialDelayMs) {
+        Handle old = handles.put(h.key, h);
+        if (old != null && old != h) old.stop();
+        h.start(System.currentTimeMillis() + Math.max(0, initialDelayMs));
+        return h;
+    }
+
+    /** Next fire time for a candle-aligned job: first boundary + offset strictly after now. */
+    static long nextCandleFire(long nowMs, long tfMs, long offsetMs) {
+        return (Math.floorDiv(nowMs - offsetMs, tfMs) + 1) * tfMs + offsetMs;
+    }
+
+    private long jitterFor(String key) {
+        if (jitterMs == 0 || key == null) return 0;
+        int h = key.hashCode() * 0x9E3779B1;
+        return Math.floorMod(h ^ (h >>> 16), jitterMs + 1);
+    }
+
+    @Override
+    public void attachStats(ExecutionStats stats) {
+        this.stats = stats;
+    }
+
+    public int activeJobs() {
+        return handles.size();
+    }
+
+    /** Fires triggered by a candle close (or fixed-rate period). */
+    public long candleFires() {
+        return candleFires.get();
+    }
+
+    /** Fires triggered by the intrabar risk tick. */
+    public long riskFires() {
+        return riskFires.get();
+    }
+
+    public long ticksSkipped() {
+        return ticksSkipped.get();
+    }
+
+    /** Test hook: runs the firing logic of a job as if its timer expired now. */
+    void fireNow(String key, boolean risk) {
+        Handle h = handles.get(key);
+        if (h != null) h.fire(System.currentTimeMillis(), risk);
+    }
+
+    public void shutdown() {
+        for (Handle h : handles.values()) h.stop();
+        handles.clear();
+        wheel.stop();
+    }
+
+    private final class Handle implements RunHandle {
+        private final String key;
+        private final Runnable task;
+        private final Runnable riskTask;
+        private final long tfMs;       // > 0: candle aligned
+        private final long periodMs;   // > 0: plain fixed rate
+        private final long offsetMs;
+        private final long riskTickMs;
+
+        private final AtomicBoolean inFlight = new AtomicBoolean(false);
+        private final AtomicBoolean candlePending = new AtomicBoolean(false);
+        private volatile boolean riskInFlight = false;
+        private volatile long pendingDueMs;
+        private final AtomicLong overruns = new AtomicLong();
+        private volatile boolean running = false;
+        private volatile boolean paused = false;
+        private volatile Thread current;
+        private volatile HierarchicalTimingWheel.Timeout timeout;
+        private volatile long dueMs;
+
+        private Handle(String key, Runnable task, Runnable riskTask, long tfMs, long periodMs, long offsetMs, long riskTickMs) {
+            this.key = key;
+            this.task = task;
+            this.riskTask = riskTask;
+            this.tfMs = tfMs;
+            this.periodMs = periodMs;
+            this.offsetMs = offsetMs;
+            this.riskTickMs = riskTickMs;
+        }
+
+        private synchronized void start(long firstDeadlineMs) {
+            if (running) return;
+            running = true;
+            timeout = wheel.schedule(firstDeadlineMs, () -> fire(firstDeadlineMs, false));
+        }
+
+        /** Runs on the wheel thread: re-arm first, then hand the body to a virtual thread. */
+        private void fire(long deadlineMs, boolean risk) {
+            if (!running) return;
+            rearm(deadlineMs);
+
+            if (paused) return;
+            if (risk && candlePending.get()) return; // the deferred candle tick covers the risk checks
+            if (!inFlight.compareAndSet(false, true)) {
+                if (!risk && riskInFlight) {
+                    // never lose a candle close to a slow risk tick: run it once the risk body is done
+                    pendingDueMs = deadlineMs;
+                    candlePending.set(true);
+                    runPendingCandle();
+                    return;
+                }
+                ticksSkipped.incrementAndGet();
+                overruns.incrementAndGet();
+                ExecutionStats st = stats;
+                if (st != null) st.recordOverrun(key, 1);
+                return;
+            }
+            dispatch(deadlineMs, risk);
+        }
+
+        /** Caller holds inFlight. */
+        private void dispatch(long deadlineMs, boolean risk) {
+            dueMs = deadlineMs;
+            riskInFlight = risk;
+            try {
+                Runnable body = risk ? riskTask : task;
+                tickThreads.newThread(() -> runTick(body)).start();
+                if (risk) riskFires.incrementAndGet();
+                else candleFires.incrementAndGet();
+            } catch (Throwable t) {
+                inFlight.set(false);
+                System.err.println("[CandleAlignedJobScheduler] dispatch error for " + key + ": " + t.getMessage());
+            }
+        }
+
+        /**
+         * Starts the deferred candle tick if the session is idle. Called both by the candle fire that
+         * deferred and by the finishing risk tick, so whichever comes last dispatches it exactly once.
+         */
+        private void runPendingCandle() {
+            while (candlePending.get() && inFlight.compareAndSet(false, true)) {
+                if (!candlePending.getAndSet(false)) {
+                    inFlight.set(false);
+                    continue;
+                }
+                if (!running || paused) {
+                    inFlight.set(false);
+                    return;
+                }
+                dispatch(pendingDueMs, false);
+                return;
+            }
+        }
+
+        private void rearm(long lastDeadlineMs) {
+            long now = System.currentTimeMillis();
+            long next;
+            boolean risk = false;
+
+            if (tfMs > 0) {
+                next = nextCandleFire(now, tfMs, offsetMs);
+                if (riskTickMs > 0 && now + riskTickMs < next) {
+                    next = now + riskTickMs;
+                    risk = true;
+                }
+            } else {
+                next = lastDeadlineMs + periodMs;
+                if (next <= now) next = now + periodMs; // fell behind: no catch-up burst
+            }
+
+            final long deadline = next;
+            final boolean isRisk = risk;
+            synchronized (this) {
+                if (!running) return;
+                timeout = wheel.schedule(deadline, () -> fire(deadline, isRisk));
+            }
+        }
+
+        private void runTick(Runnable body) {
+            current = Thread.currentThread();
+            ExecutionStats st = stats;
+            if (st != null) st.recordLag(key, System.currentTimeMillis() - dueMs);
+            try {
+                if (running) body.run();
+            } catch (Throwable t) {
+                System.err.println("[CandleAlignedJobScheduler] tick error for " + key + ": " + t.getMessage());
+            } finally {
+                current = null;
+                inFlight.set(false); // riskInFlight needs no reset: it is only read while inFlight is taken
+                runPendingCandle();
+            }
+        }
+
+        @Override
+        public synchronized void stop() {
+            running = false;
+            HierarchicalTimingWheel.Timeout t = timeout;
+            if (t != null) t.cancel();
+            Thread th = current;
+            if (th != null) th.interrupt();
+            handles.remove(key, this);
+        }
+
+        @Override
+        public void pause() {
+            paused = true;
+        }
+
+        @Override
+        public void resume() {
+            paused = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public boolean isPaused() {
+            return paused;
+        }
+
+        @Override
+        public long overruns() {
+            return overruns.get();
+        }
+
+        @Override
+        public long missedRuns() {
+            return overruns.get(); // every overrun drops exactly one firing
+        }
+    }
+}
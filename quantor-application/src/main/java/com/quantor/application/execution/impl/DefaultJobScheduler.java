@@ -1,32 +1,55 @@
 package com.quantor.application.execution.impl;
 
+import com.quantor.application.execution.ExecutionStats;
 import com.quantor.application.execution.JobScheduler;
+import com.quantor.application.execution.OverrunPolicy;
 import com.quantor.application.execution.RunHandle;
 
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * MVP scheduler backed by ScheduledExecutorService.
  * Later replace with a distributed scheduler/queue while keeping the same interface.
+ *
+ * Every job re-arms itself with a one-shot schedule after its tick finished, so the overrun
+ * behaviour is explicit (OverrunPolicy) instead of scheduleAtFixedRate's queued catch-up burst:
+ * a tick that overran N periods is followed by at most one tick, never N.
  */
 public class DefaultJobScheduler implements JobScheduler {
 
     private final ScheduledExecutorService executor;
+    private final OverrunPolicy overrunPolicy;
     private final Map<String, Handle> handles = new ConcurrentHashMap<>();
+    private volatile ExecutionStats stats;
 
     public DefaultJobScheduler(int threads) {
+        this(threads, OverrunPolicy.COALESCE);
+    }
+
+    public DefaultJobScheduler(int threads, OverrunPolicy overrunPolicy) {
         this.executor = Executors.newScheduledThreadPool(Math.max(1, threads));
+        this.overrunPolicy = overrunPolicy == null ? OverrunPolicy.COALESCE : overrunPolicy;
     }
 
     @Override
     public RunHandle scheduleAtFixedRate(String key, Runnable task, long initialDelayMs, long periodMs) {
-        Handle h = new Handle(key, task, initialDelayMs, periodMs);
+        Handle h = new Handle(key, task, initialDelayMs, Math.max(1, periodMs));
         h.start();
         handles.put(key, h);
         return h;
     }
 
+    @Override
+    public void attachStats(ExecutionStats stats) {
+        this.stats = stats;
+    }
+
+    public OverrunPolicy overrunPolicy() {
+        return overrunPolicy;
+    }
+
     public void shutdown() {
         executor.shutdownNow();
     }
@@ -37,6 +60,8 @@ public class DefaultJobScheduler implements JobScheduler {
         private final long initialDelayMs;
         private final long periodMs;
 
+        private final AtomicLong overruns = new AtomicLong();
+        private final AtomicLong missedRuns = new AtomicLong();
         private volatile boolean running = false;
         private volatile boolean paused = false;
         private ScheduledFuture<?> future;
@@ -49,18 +74,49 @@ public class DefaultJobScheduler implements JobScheduler {
         }
 
         private synchronized void start() {
-            if (future != null && !future.isCancelled()) return;
-            future = executor.scheduleAtFixedRate(() -> {
-                if (paused) return;
-                task.run();
-            }, initialDelayMs, periodMs, TimeUnit.MILLISECONDS);
+            if (running) return;
             running = true;
+            arm(System.currentTimeMillis() + Math.max(0, initialDelayMs));
+        }
+
+        private synchronized void arm(long dueMs) {
+            if (!running) return;
+            long delay = Math.max(0, dueMs - System.currentTimeMillis());
+            future = executor.schedule(() -> fire(dueMs), delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void fire(long dueMs) {
+            if (!running) return;
+            ExecutionStats st = stats;
+            if (!paused) {
+                if (st != null) st.recordLag(key, System.currentTimeMillis() - dueMs);
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    // a failing tick must not end the schedule
+                    System.err.println("[DefaultJobScheduler] tick error for " + key + ": " + t.getMessage());
+                }
+            }
+
+            long[] missed = {0};
+            long next = overrunPolicy.nextDue(dueMs, periodMs, System.currentTimeMillis(), missed);
+            if (missed[0] > 0) {
+                overruns.incrementAndGet();
+                missedRuns.addAndGet(missed[0]);
+                if (st != null) st.recordOverrun(key, missed[0]);
+            }
+            try {
+                arm(next);
+            } catch (RejectedExecutionException e) {
+                running = false; // executor shut down
+            }
         }
 
         @Override
         public synchronized void stop() {
-            if (future != null) future.cancel(true);
             running = false;
+            if (future != null) future.cancel(true);
+            handles.remove(key, this);
         }
 
         @Override
@@ -75,12 +131,22 @@ public class DefaultJobScheduler implements JobScheduler {
 
         @Override
         public boolean isRunning() {
-            return running && (future != null) && !future.isCancelled();
+            return running;
         }
 
         @Override
         public boolean isPaused() {
             return paused;
         }
+
+        @Override
+        public long overruns() {
+            return overruns.get();
+        }
+
+        @Override
+        public long missedRuns() {
+            return missedRuns.get();
+        }
     }
 }
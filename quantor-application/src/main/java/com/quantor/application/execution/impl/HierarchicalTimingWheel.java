@@ -0,0 +1,237 @@
+package com.quantor.application.execution.impl;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hierarchical timing wheel (4 levels x 64 slots) driven by one daemon thread.
+ *
+ * With the default 10 ms tick the levels cover 640 ms / 41 s / 44 min / 46 h, so even D1 timeouts
+ * are O(1) to insert and cancel. Thousands of sessions cost one sleeping thread; the thread only
+ * wakes once per tick and touches the slot that is due.
+ *
+ * Deadlines are wall-clock millis (System.currentTimeMillis) because callers align to candle
+ * boundaries. Callbacks run on the wheel thread and must only hand work off (never block).
+ *
+ * Slots are intrusive doubly-linked lists owned by the wheel thread. cancel() queues the timeout and
+ * the wheel thread unlinks it on its next tick, so cancelled far-away timeouts (a stopped D1 session)
+ * do not stay in the wheel until their deadline.
+ */
+public final class HierarchicalTimingWheel {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final long MAX_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    /** Handle of a scheduled callback. */
+    public static final class Timeout {
+        private final HierarchicalTimingWheel wheel;
+        private final long deadlineMs;
+        private final Runnable callback;
+        private volatile boolean cancelled;
+
+        // slot links, wheel thread only
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(HierarchicalTimingWheel wheel, long deadlineMs, Runnable callback) {
+            this.wheel = wheel;
+            this.deadlineMs = deadlineMs;
+            this.callback = callback;
+        }
+
+        public long deadlineMs() {
+            return deadlineMs;
+        }
+
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            wheel.cancelled.add(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /** One slot: FIFO list of timeouts, linked through the timeouts themselves. */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+        private int size;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.prev = tail;
+            if (tail == null) head = t;
+            else tail.next = t;
+            tail = t;
+            size++;
+        }
+
+        void remove(Timeout t) {
+            if (t.prev == null) head = t.next;
+            else t.prev.next = t.next;
+            if (t.next == null) tail = t.prev;
+            else t.next.prev = t.prev;
+            t.bucket = null;
+            t.prev = null;
+            t.next = null;
+            size--;
+        }
+
+        Timeout poll() {
+            Timeout t = head;
+            if (t != null) remove(t);
+            return t;
+        }
+    }
+
+    private final long tickMs;
+    private final String name;
+
+    private final Bucket[][] wheel = new Bucket[LEVELS][SLOTS];
+
+    // new and cancelled timeouts from any thread; drained by the wheel thread every tick
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    private long startMs;
+    private long currentTick;
+
+    public HierarchicalTimingWheel(String name) {
+        this(name, 10);
+    }
+
+    public HierarchicalTimingWheel(String name, long tickMs) {
+        this.name = name;
+        this.tickMs = Math.max(1, tickMs);
+        for (int l = 0; l < LEVELS; l++) {
+            for (int s = 0; s < SLOTS; s++) wheel[l][s] = new Bucket();
+        }
+    }
+
+    public long tickMs() {
+        return tickMs;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        startMs = System.currentTimeMillis();
+        currentTick = 0;
+        thread = new Thread(this::loop, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+    }
+
+    /** Schedules callback at the given wall-clock time (ms). Past deadlines fire on the next tick. */
+    public Timeout schedule(long deadlineMs, Runnable callback) {
+        Timeout t = new Timeout(this, deadlineMs, callback);
+        pending.add(t);
+        return t;
+    }
+
+    private void loop() {
+        while (running) {
+            long nextTickAt = startMs + (currentTick + 1) * tickMs;
+            long sleep = nextTickAt - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                    continue;
+                }
+            }
+            currentTick++;
+            tick();
+        }
+    }
+
+    /** Test hook: fixes the time origin without starting the thread; drive it with advance(). */
+    synchronized void startManual(long startMs) {
+        this.startMs = startMs;
+        this.currentTick = 0;
+    }
+
+    /** Test hook: runs one tick on the calling thread. */
+    void advance() {
+        currentTick++;
+        tick();
+    }
+
+    /** Timeouts currently placed in a slot (excludes not yet drained schedule() calls). Wheel thread / tests only. */
+    int placedCount() {
+        int n = 0;
+        for (Bucket[] level : wheel) {
+            for (Bucket b : level) n += b.size;
+        }
+        return n;
+    }
+
+    private void tick() {
+        long t = currentTick;
+
+        Timeout c;
+        while ((c = cancelled.poll()) != null) {
+            if (c.bucket != null) c.bucket.remove(c);
+        }
+
+        // cascade higher levels first so their timeouts can land in lower slots due this tick
+        for (int l = LEVELS - 1; l >= 1; l--) {
+            long span = 1L << (SLOT_BITS * l);
+            if ((t & (span - 1)) == 0) {
+                Bucket slot = wheel[l][(int) ((t >>> (SLOT_BITS * l)) & MASK)];
+                for (int i = 0, n = slot.size; i < n; i++) place(slot.poll());
+            }
+        }
+
+        Timeout p;
+        while ((p = pending.poll()) != null) place(p);
+
+        Bucket due = wheel[0][(int) (t & MASK)];
+        Timeout x;
+        while ((x = due.poll()) != null) fire(x);
+    }
+
+    private void place(Timeout t) {
+        if (t.cancelled) return;
+
+        long deadlineTick = Math.floorDiv(t.deadlineMs - startMs + tickMs - 1, tickMs);
+        long ticks = deadlineTick - currentTick;
+        if (ticks <= 0) {
+            fire(t);
+            return;
+        }
+        if (ticks >= MAX_TICKS) {
+            // beyond the top level: park in the farthest top slot, re-placed on cascade
+            deadlineTick = currentTick + MAX_TICKS - 1;
+            ticks = MAX_TICKS - 1;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && ticks >= (1L << (SLOT_BITS * (level + 1)))) level++;
+        wheel[level][(int) ((deadlineTick >>> (SLOT_BITS * level)) & MASK)].add(t);
+    }
+
+    private void fire(Timeout t) {
+        if (t.cancelled) return;
+        try {
+            t.callback.run();
+        } catch (Throwable e) {
+            System.err.println("[HierarchicalTimingWheel] callback error: " + e.getMessage());
+        }
+    }
+}
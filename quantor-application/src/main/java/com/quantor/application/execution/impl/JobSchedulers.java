@@ -0,0 +1,41 @@
+package com.quantor.application.execution.impl;
+
+import com.quantor.application.execution.JobScheduler;
+import com.quantor.application.execution.OverrunPolicy;
+import com.quantor.application.ports.ConfigPort;
+
+/**
+ * Builds the JobScheduler selected by config; shared by the cli, worker and api Bootstraps.
+ *
+ * scheduler.mode=pool (default): fixed ScheduledThreadPoolExecutor.
+ * scheduler.mode=virtual: tick bodies on virtual threads, for many I/O-bound sessions.
+ * scheduler.mode=aligned: one tick right after each candle close (+ settle delay / jitter),
+ *   optional intrabar risk-only check (SL/TP, kill-switch) every scheduler.intrabarRiskTickMs
+ *   (with trading.riskExits.enabled).
+ * scheduler.overrunPolicy=skip|coalesce|fixed_delay: what follows a tick longer than its period
+ *   (pool/virtual; default coalesce for pool, skip for virtual; aligned always skips).
+ */
+public final class JobSchedulers {
+
+    private JobSchedulers() {}
+
+    public static JobScheduler fromConfig(ConfigPort config) {
+        String mode = config.get("scheduler.mode", "pool").trim().toLowerCase();
+        if ("virtual".equals(mode)) {
+            return new VirtualThreadJobScheduler(config.getInt("scheduler.timerThreads", 1),
+                    OverrunPolicy.parse(config.get("scheduler.overrunPolicy", ""), OverrunPolicy.SKIP));
+        }
+        if ("aligned".equals(mode)) {
+            return new CandleAlignedJobScheduler(
+                    config.getInt("scheduler.settleDelayMs", 500),
+                    config.getInt("scheduler.jitterMs", 2000),
+                    config.getInt("scheduler.intrabarRiskTickMs", 0)
+            );
+        }
+        if (!"pool".equals(mode)) {
+            System.err.println("[JobSchedulers] unknown scheduler.mode=" + mode + ", using pool");
+        }
+        return new DefaultJobScheduler(Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+                OverrunPolicy.parse(config.get("scheduler.overrunPolicy", ""), OverrunPolicy.COALESCE));
+    }
+}
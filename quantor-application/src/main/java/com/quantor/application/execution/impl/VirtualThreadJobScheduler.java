@@ -0,0 +1,222 @@
+package com.quantor.application.execution.impl;
+
+import com.quantor.application.execution.ExecutionStats;
+import com.quantor.application.execution.JobScheduler;
+import com.quantor.application.execution.OverrunPolicy;
+import com.quantor.application.execution.RunHandle;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduler for I/O-bound sessions: a small timer pool only fires ticks,
+ * every tick body runs on its own virtual thread.
+ *
+ * A tick blocks on klines HTTP, signed orders and Telegram sends. On DefaultJobScheduler that
+ * blocking holds a platform thread, so the pool size caps the number of live sessions.
+ * Here a blocked tick only parks its virtual thread; carrier threads stay at
+ * availableProcessors (tune with -Djdk.virtualThreadScheduler.parallelism / maxPoolSize).
+ *
+ * Per-session serialization: a job is re-armed on the timer only after its tick finished, so ticks
+ * of one job never overlap. When a tick runs past the next due time the OverrunPolicy decides what
+ * follows (skip to the next boundary, one coalesced run, or a fixed delay); the dropped runs are
+ * counted per job and in total. No queued catch-up runs either way.
+ *
+ * Drop-in for SessionService: same JobScheduler / RunHandle semantics as DefaultJobScheduler.
+ */
+public class VirtualThreadJobScheduler implements JobScheduler {
+
+    private final ScheduledExecutorService timer;
+    private final ThreadFactory tickThreads;
+    private final OverrunPolicy overrunPolicy;
+    private final Map<String, Handle> handles = new ConcurrentHashMap<>();
+
+    private final AtomicLong ticksStarted = new AtomicLong();
+    private final AtomicLong ticksSkipped = new AtomicLong();
+    private volatile ExecutionStats stats;
+
+    public VirtualThreadJobScheduler() {
+        this(1);
+    }
+
+    /**
+     * @param timerThreads platform threads that only fire ticks (1 is enough for thousands of sessions)
+     */
+    public VirtualThreadJobScheduler(int timerThreads) {
+        this(timerThreads, OverrunPolicy.SKIP);
+    }
+
+    /**
+     * @param timerThreads  platform threads that only fire ticks
+     * @param overrunPolicy what follows a tick that ran past the next due time
+     */
+    public VirtualThreadJobScheduler(int timerThreads, OverrunPolicy overrunPolicy) {
+        this.overrunPolicy = overrunPolicy == null ? OverrunPolicy.SKIP : overrunPolicy;
+        AtomicLong n = new AtomicLong();
+        this.timer = Executors.newScheduledThreadPool(Math.max(1, timerThreads), r -> {
+            Thread t = new Thread(r, "quantor-tick-timer-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.tickThreads = Thread.ofVirtual().name("quantor-tick-", 0).factory();
+    }
+
+    @Override
+    public RunHandle scheduleAtFixedRate(String key, Runnable task, long initialDelayMs, long periodMs) {
+        Handle h = new Handle(key, task, initialDelayMs, Math.max(1, periodMs));
+        h.start();
+        Handle old = handles.put(key, h);
+        if (old != null && old != h) old.stop();
+        return h;
+    }
+
+    @Override
+    public void attachStats(ExecutionStats stats) {
+        this.stats = stats;
+    }
+
+    public int activeJobs() {
+        return handles.size();
+    }
+
+    /** Ticks that were dispatched to a virtual thread. */
+    public long ticksStarted() {
+        return ticksStarted.get();
+    }
+
+    /** Runs dropped or merged because the previous tick of the same job was still running. */
+    public long ticksSkipped() {
+        return ticksSkipped.get();
+    }
+
+    public OverrunPolicy overrunPolicy() {
+        return overrunPolicy;
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+        for (Handle h : handles.values()) h.stop();
+        handles.clear();
+    }
+
+    private final class Handle implements RunHandle {
+        private final String key;
+        private final Runnable task;
+        private final long initialDelayMs;
+        private final long periodMs;
+
+        private final AtomicLong overruns = new AtomicLong();
+        private final AtomicLong missedRuns = new AtomicLong();
+        private volatile boolean running = false;
+        private volatile boolean paused = false;
+        private volatile Thread current;
+        private ScheduledFuture<?> future;
+
+        private Handle(String key, Runnable task, long initialDelayMs, long periodMs) {
+            this.key = key;
+            this.task = task;
+            this.initialDelayMs = initialDelayMs;
+            this.periodMs = periodMs;
+        }
+
+        private synchronized void start() {
+            if (running) return;
+            running = true;
+            arm(System.currentTimeMillis() + Math.max(0, initialDelayMs));
+        }
+
+        private synchronized void arm(long dueMs) {
+            if (!running) return;
+            long delay = Math.max(0, dueMs - System.currentTimeMillis());
+            try {
+                future = timer.schedule(() -> fire(dueMs), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                running = false; // timer shut down
+            }
+        }
+
+        /** Runs on the timer thread: must never block. */
+        private void fire(long dueMs) {
+            if (!running) return;
+            if (paused) {
+                rearm(dueMs);
+                return;
+            }
+            try {
+                tickThreads.newThread(() -> runTick(dueMs)).start();
+                ticksStarted.incrementAndGet();
+            } catch (Throwable t) {
+                System.err.println("[VirtualThreadJobScheduler] dispatch error for " + key + ": " + t.getMessage());
+                rearm(dueMs);
+            }
+        }
+
+        private void runTick(long dueMs) {
+            current = Thread.currentThread();
+            ExecutionStats st = stats;
+            if (st != null) st.recordLag(key, System.currentTimeMillis() - dueMs);
+            try {
+                if (running) task.run();
+            } catch (Throwable t) {
+                // a failing tick must not cancel the schedule (ScheduledExecutorService would)
+                System.err.println("[VirtualThreadJobScheduler] tick error for " + key + ": " + t.getMessage());
+            } finally {
+                current = null;
+                rearm(dueMs);
+            }
+        }
+
+        private void rearm(long dueMs) {
+            long[] missed = {0};
+            long next = overrunPolicy.nextDue(dueMs, periodMs, System.currentTimeMillis(), missed);
+            if (missed[0] > 0) {
+                overruns.incrementAndGet();
+                missedRuns.addAndGet(missed[0]);
+                ticksSkipped.addAndGet(missed[0]);
+                ExecutionStats st = stats;
+                if (st != null) st.recordOverrun(key, missed[0]);
+            }
+            arm(next);
+        }
+
+        @Override
+        public synchronized void stop() {
+            running = false;
+            if (future != null) future.cancel(false);
+            Thread t = current;
+            if (t != null) t.interrupt();
+            handles.remove(key, this);
+        }
+
+        @Override
+        public void pause() {
+            paused = true;
+        }
+
+        @Override
+        public void resume() {
+            paused = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public boolean isPaused() {
+            return paused;
+        }
+
+        @Override
+        public long overruns() {
+            return overruns.get();
+        }
+
+        @Override
+        public long missedRuns() {
+            return missedRuns.get();
+        }
+    }
+}
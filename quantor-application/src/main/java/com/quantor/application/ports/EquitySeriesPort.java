@@ -0,0 +1,82 @@
+package com.quantor.application.ports;
+
+import java.util.List;
+
+/**
+ * Per-session equity history: one sample per tick, kept as 1m / 1h / 1d rollups (min / max / last)
+ * that are maintained incrementally as samples arrive.
+ *
+ * record() is called from the tick and must not block on storage; range() reads a single resolution,
+ * so a query over months touches at most a few hundred rows.
+ */
+public interface EquitySeriesPort {
+
+    enum Resolution {
+        M1(60_000L), H1(3_600_000L), D1(86_400_000L);
+
+        private final long widthMs;
+
+        Resolution(long widthMs) {
+            this.widthMs = widthMs;
+        }
+
+        public long widthMs() {
+            return widthMs;
+        }
+
+        public long bucketStart(long tsMs) {
+            return Math.floorDiv(tsMs, widthMs) * widthMs;
+        }
+
+        /** Finest resolution with at most maxPoints buckets in [fromMs, toMs); D1 when none fits. */
+        public static Resolution forRange(long fromMs, long toMs, int maxPoints) {
+            long span = Math.max(0, toMs - fromMs);
+            for (Resolution r : values()) {
+                if (span / r.widthMs < Math.max(1, maxPoints)) return r;
+            }
+            return D1;
+        }
+
+        public static long[] widthsMs() {
+            Resolution[] all = values();
+            long[] out = new long[all.length];
+            for (int i = 0; i < all.length; i++) out[i] = all[i].widthMs;
+            return out;
+        }
+    }
+
+    /** One bucket of a resolution (bucketStartMs = start of the bucket, epoch ms). */
+    record Point(long bucketStartMs, double min, double max, double last) {}
+
+    /** first/last = last value of the first/last bucket; maxDrawdownPct >= 0. */
+    record Summary(int points, double first, double last, double min, double max, double maxDrawdownPct) {}
+
+    void record(String sessionKey, long tsMs, double equity);
+
+    /** Buckets of one resolution overlapping [fromMs, toMs), oldest first. */
+    List<Point> range(String sessionKey, Resolution resolution, long fromMs, long toMs);
+
+    default List<Point> range(String sessionKey, long fromMs, long toMs, int maxPoints) {
+        return range(sessionKey, Resolution.forRange(fromMs, toMs, maxPoints), fromMs, toMs);
+    }
+
+    /**
+     * Summary over rollup points. Drawdown runs the peak over bucket maxima against bucket minima,
+     * so inside one bucket it can only overstate (never miss) a drop.
+     */
+    static Summary summarize(List<Point> points) {
+        if (points == null || points.isEmpty()) return new Summary(0, 0, 0, 0, 0, 0);
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double peak = Double.NEGATIVE_INFINITY;
+        double maxDd = 0.0;
+        for (Point p : points) {
+            if (p.max() > peak) peak = p.max();
+            if (peak > 0) maxDd = Math.max(maxDd, (peak - p.min()) / peak);
+            min = Math.min(min, p.min());
+            max = Math.max(max, p.max());
+        }
+        return new Summary(points.size(), points.get(0).last(), points.get(points.size() - 1).last(),
+                min, max, maxDd * 100.0);
+    }
+}
@@ -0,0 +1,19 @@
+package com.quantor.application.ports;
+
+import java.util.List;
+
+/** Safe default when no equity store is wired. */
+public final class NoopEquitySeries implements EquitySeriesPort {
+
+    public static final NoopEquitySeries INSTANCE = new NoopEquitySeries();
+
+    @Override
+    public void record(String sessionKey, long tsMs, double equity) {
+        // no-op
+    }
+
+    @Override
+    public List<Point> range(String sessionKey, Resolution resolution, long fromMs, long toMs) {
+        return List.of();
+    }
+}
@@ -0,0 +1,35 @@
+package com.quantor.application.ports;
+
+import com.quantor.application.exchange.ExchangeId;
+import com.quantor.application.exchange.Timeframe;
+
+/** Safe default when no metrics registry is wired. */
+public final class NoopTickMetrics implements TickMetricsPort {
+
+    public static final NoopTickMetrics INSTANCE = new NoopTickMetrics();
+
+    @Override
+    public void recordStage(Stage stage, ExchangeId exchange, Timeframe timeframe, long nanos) {
+        // no-op
+    }
+
+    @Override
+    public void recordTick(ExchangeId exchange, Timeframe timeframe, Outcome outcome, long nanos) {
+        // no-op
+    }
+
+    @Override
+    public void recordSchedulerLag(ExchangeId exchange, Timeframe timeframe, long lagMs) {
+        // no-op
+    }
+
+    @Override
+    public void recordOverrun(ExchangeId exchange, Timeframe timeframe, long missedRuns) {
+        // no-op
+    }
+
+    @Override
+    public void recordOverloadDeferral(ExchangeId exchange, Timeframe timeframe) {
+        // no-op
+    }
+}
@@ -0,0 +1,13 @@
+package com.quantor.application.ports;
+
+/**
+ * Storage for session handoff snapshots (see SessionSnapshot), keyed by session key.
+ * Implementations live in infrastructure / worker wiring (Postgres in SaaS).
+ */
+public interface SessionSnapshotStore {
+
+    void save(String sessionKey, byte[] snapshot);
+
+    /** Loads and removes the snapshot; null when there is none (or it is too old to trust). */
+    byte[] take(String sessionKey);
+}
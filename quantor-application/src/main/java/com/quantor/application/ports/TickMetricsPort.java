@@ -0,0 +1,40 @@
+package com.quantor.application.ports;
+
+import com.quantor.application.exchange.ExchangeId;
+import com.quantor.application.exchange.Timeframe;
+
+/**
+ * Tick latency telemetry (per pipeline stage, per tick, scheduler lag).
+ *
+ * Dimensions are enums only (stage, exchange, timeframe, outcome), never symbol / user / job key,
+ * so the number of series stays fixed no matter how many sessions run.
+ */
+public interface TickMetricsPort {
+
+    enum Stage {
+        ENTITLEMENT,  // kill-switch + subscription check
+        CANDLES,      // candle fetch
+        DECIDE,       // portfolio read + strategy decision
+        SIZE,         // cooldown + risk sizing
+        ORDER,        // exchange order
+        PORTFOLIO,    // fill applied to the portfolio
+        JOURNAL,      // trade journal write
+        NOTIFY        // notifier send
+    }
+
+    enum Outcome { OK, STOP, ERROR }
+
+    void recordStage(Stage stage, ExchangeId exchange, Timeframe timeframe, long nanos);
+
+    /** Whole tick as seen by ExecutionRunner. */
+    void recordTick(ExchangeId exchange, Timeframe timeframe, Outcome outcome, long nanos);
+
+    /** Time between the moment a tick was due and the moment it started. */
+    void recordSchedulerLag(ExchangeId exchange, Timeframe timeframe, long lagMs);
+
+    /** A tick ran past the next due time; missedRuns were dropped or merged by the OverrunPolicy. */
+    void recordOverrun(ExchangeId exchange, Timeframe timeframe, long missedRuns);
+
+    /** A tick of an idle session was not run because of overload mode. */
+    void recordOverloadDeferral(ExchangeId exchange, Timeframe timeframe);
+}
@@ -1,5 +1,7 @@
 package com.quantor.application.ports;
 
+import java.time.Instant;
+
 /**
  * Application port for persisting executed trades (journal/audit).
  * Implementations live in infrastructure (SQLite, Postgres, CSV, etc.).
@@ -12,4 +14,27 @@ public interface TradeJournalPort {
                   double qty,
                   double balanceAfter,
                   String comment);
+
+    /**
+     * Same trade, recorded with the time it happened instead of now (e.g. fills handed over late by
+     * another journal). The default drops the time and logs it as now.
+     */
+    default void logTradeAt(Instant ts,
+                            String mode,
+                            String symbol,
+                            String side,
+                            double price,
+                            double qty,
+                            double balanceAfter,
+                            String comment) {
+        logTrade(mode, symbol, side, price, qty, balanceAfter, comment);
+    }
+
+    /**
+     * Journal for one trading session (userId + session/job key). Journals that store the owner of
+     * each trade (e.g. the SaaS ledger) return a bound view; the default ignores the identity.
+     */
+    default TradeJournalPort forSession(String userId, String sessionKey) {
+        return this;
+    }
 }
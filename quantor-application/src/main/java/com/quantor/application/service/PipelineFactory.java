@@ -7,6 +7,15 @@ import com.quantor.application.usecase.TradingPipeline;
  * Factory that builds a TradingPipeline for a given job.
  * Implementations live in CLI/bootstrap or infrastructure wiring.
  */
-public interface PipelineFactory {
+public interface PipelineFactory extends AutoCloseable {
     TradingPipeline create(ExecutionJob job);
+
+    /** Called once the job's session is stopped: frees what create() opened for it (e.g. state files). */
+    default void release(ExecutionJob job) {
+    }
+
+    /** Called by SessionService.close(): frees resources shared by every pipeline. */
+    @Override
+    default void close() {
+    }
 }
@@ -4,20 +4,33 @@ package com.quantor.application.service;
 import com.quantor.application.execution.ExecutionJob;
 import com.quantor.application.execution.ExecutionObserver;
 import com.quantor.application.execution.ExecutionRunner;
+import com.quantor.application.execution.ExecutionStats;
 import com.quantor.application.execution.JobScheduler;
+import com.quantor.application.execution.OverloadGovernor;
 import com.quantor.application.execution.RunHandle;
+import com.quantor.application.execution.SessionSnapshot;
 import com.quantor.application.guard.SubscriptionRequiredException;
 import com.quantor.application.ports.ConfigPort;
+import com.quantor.application.ports.EquitySeriesPort;
+import com.quantor.application.ports.NoopEquitySeries;
+import com.quantor.application.ports.NoopTickMetrics;
 import com.quantor.application.ports.NotifierPort;
+import com.quantor.application.ports.SessionSnapshotStore;
 import com.quantor.application.ports.SubscriptionPort;
+import com.quantor.application.ports.TickMetricsPort;
 import com.quantor.application.usecase.TradingPipeline;
 import com.quantor.domain.trading.StopReason;
 import com.quantor.domain.trading.StopReasonCode;
 import com.quantor.domain.trading.UserId;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Starts/stops strategy sessions without UI knowing about engines.
@@ -31,8 +44,29 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Global kill-switch enforced in CORE (start/resume)
  * - Billing gate (optional) enforced here + also inside TradingPipeline (defense-in-depth)
  * - Health/status snapshot
+ *
+ * OVERLOAD:
+ * - overruns (tick longer than its period) are handled by the scheduler's OverrunPolicy and counted per session
+ * - OverloadGovernor (scheduler.overload.*): under sustained scheduler lag, polling sessions without an
+ *   open position run at most every idleStretch periods, sessions holding a position keep their period;
+ *   candle-aligned fires are never stretched
+ *
+ * RISK EXITS:
+ * - trading.riskExits.enabled (default false): SL/TP exits on every tick, in every scheduler mode; the
+ *   candle-aligned scheduler additionally runs them intrabar. Off: positions are closed by the strategy only
+ *
+ * WARM HANDOFF:
+ * - drain() snapshots the session state into SessionSnapshotStore before stopping it (graceful shutdown)
+ * - start() restores a stored snapshot into the new pipeline before the first tick
+ *
+ * LIFECYCLE:
+ * - stop() hands the job back to PipelineFactory.release(); close() stops what is left and closes the factory
+ * - lifecycle calls lock per session key (striped, fixed set of locks), never the whole service: start()
+ *   builds the pipeline (exchange / adapter setup) outside any lock and only registers it under the key
+ *   lock, so a slow START never blocks STOP/PAUSE of other sessions; a stop() that arrives while the same
+ *   key is starting cancels it
  */
-public class SessionService {
+public class SessionService implements AutoCloseable {
 
     private final PipelineFactory pipelineFactory;
     private final JobScheduler scheduler;
@@ -46,6 +80,28 @@ public class SessionService {
     private final Map<String, Instant> lastTick = new ConcurrentHashMap<>();
     private final Map<String, String> lastError = new ConcurrentHashMap<>();
 
+    // tick duration / scheduler lag across all sessions (capacity signals)
+    private final ExecutionStats stats = new ExecutionStats();
+    private final OverloadGovernor governor;
+
+    // per-stage / per-tick / lag telemetry, tagged by exchange + timeframe of the session
+    private volatile TickMetricsPort tickMetrics = NoopTickMetrics.INSTANCE;
+    private final Map<String, ExecutionJob> jobs = new ConcurrentHashMap<>();
+
+    // optional handoff store; pipelines are kept to snapshot them on drain
+    private volatile SessionSnapshotStore snapshotStore;
+    private final Map<String, TradingPipeline> pipelines = new ConcurrentHashMap<>();
+
+    // per-session equity rollups (one sample per tick, series = job key)
+    private volatile EquitySeriesPort equitySeries = NoopEquitySeries.INSTANCE;
+
+    // lifecycle locks striped by session key (fixed size, nothing to clean up when sessions go away; keys
+    // sharing a stripe only serialize their short lifecycle sections, never a pipeline build);
+    // starting = keys whose pipeline is being built (value: cancelled by stop)
+    private static final int LOCK_STRIPES = 256;
+    private final ReentrantLock[] keyLocks = new ReentrantLock[LOCK_STRIPES];
+    private final Map<String, AtomicBoolean> starting = new ConcurrentHashMap<>();
+
     public SessionService(
             PipelineFactory pipelineFactory,
             JobScheduler scheduler,
@@ -58,6 +114,34 @@ public class SessionService {
         this.notifier = notifier;
         this.config = config;
         this.subscription = subscription;
+        for (int i = 0; i < LOCK_STRIPES; i++) keyLocks[i] = new ReentrantLock();
+        this.governor = createGovernor(config, stats);
+        if (scheduler != null) scheduler.attachStats(stats);
+        stats.setListener(new ExecutionStats.Listener() {
+            @Override
+            public void onLag(String key, long lagMs) {
+                ExecutionJob j = jobs.get(key);
+                if (j != null) tickMetrics.recordSchedulerLag(j.exchange(), j.timeframe(), lagMs);
+            }
+
+            @Override
+            public void onOverrun(String key, long missedRuns) {
+                ExecutionJob j = jobs.get(key);
+                if (j != null) tickMetrics.recordOverrun(j.exchange(), j.timeframe(), missedRuns);
+            }
+        });
+    }
+
+    private static OverloadGovernor createGovernor(ConfigPort config, ExecutionStats stats) {
+        if (config == null) return OverloadGovernor.disabled(stats);
+        return new OverloadGovernor(
+                stats,
+                Boolean.parseBoolean(config.get("scheduler.overload.enabled", "true")),
+                config.getInt("scheduler.overload.enterLagMs", 2000),
+                config.getInt("scheduler.overload.exitLagMs", 500),
+                config.getInt("scheduler.overload.windowMs", 30000),
+                config.getInt("scheduler.overload.idleStretch", 4)
+        );
     }
 
     /** Backward-compatible ctor (no subscription gate). */
@@ -136,7 +220,7 @@ public class SessionService {
        Lifecycle
        ========================= */
 
-    public synchronized void start(ExecutionJob job, long periodMs) {
+    public void start(ExecutionJob job, long periodMs) {
         assertTradingEnabledOrThrow();
         assertSubscriptionAllowsTradingOrThrow(job);
 
@@ -147,13 +231,36 @@ public class SessionService {
             );
         }
 
-        RunHandle existing = sessions.get(key);
-        if (existing != null && existing.isRunning()) {
-            safeNotify("⚠ Session already running: " + key);
-            return;
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            RunHandle existing = sessions.get(key);
+            if ((existing != null && existing.isRunning()) || starting.putIfAbsent(key, cancelled) != null) {
+                safeNotify("⚠ Session already running: " + key);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            startReserved(job, key, periodMs, cancelled);
+        } finally {
+            starting.remove(key, cancelled);
         }
+    }
 
+    private void startReserved(ExecutionJob job, String key, long periodMs, AtomicBoolean cancelled) {
+        // slow part (exchange / adapter setup, snapshot read) runs without holding any lock
         TradingPipeline pipeline = pipelineFactory.create(job);
+        pipeline.setMetrics(tickMetrics);
+        pipeline.setEquitySeries(equitySeries, key);
+        boolean riskExits = config != null && Boolean.parseBoolean(config.get("trading.riskExits.enabled", "false"));
+        pipeline.setRiskExits(riskExits);
+        // candle-close fires decide on the candle that just closed, not on the one that just opened
+        pipeline.setClosedCandlesOnly(scheduler.firesOnCandleClose() && job.timeframe() != null);
+        boolean warm = restoreSnapshot(key, pipeline);
 
         ExecutionObserver observer = new ExecutionObserver() {
             @Override
@@ -173,19 +280,101 @@ public class SessionService {
         };
 
         ExecutionRunner runner =
-                new ExecutionRunner(job, pipeline, notifier, observer);
+                new ExecutionRunner(job, pipeline, notifier, observer, tickMetrics);
 
         long safePeriod = Math.max(250, periodMs);
-        RunHandle handle =
-                scheduler.scheduleAtFixedRate(key, runner, 0, safePeriod);
+        boolean stretchable = !scheduler.firesOnCandleClose() || job.timeframe() == null;
+        AtomicLong lastRunAt = new AtomicLong(Long.MIN_VALUE);
+        Runnable timed = () -> {
+            long now = System.currentTimeMillis();
+            long last = lastRunAt.get();
+            long since = last == Long.MIN_VALUE ? Long.MAX_VALUE : now - last;
+            if (stretchable && !governor.admit(since, safePeriod, pipeline.hasOpenPosition())) {
+                tickMetrics.recordOverloadDeferral(job.exchange(), job.timeframe());
+                return;
+            }
+            lastRunAt.set(now);
+            long t0 = System.nanoTime();
+            try {
+                runner.run();
+            } finally {
+                stats.recordTick((System.nanoTime() - t0) / 1_000_000);
+            }
+        };
+        // intrabar fires (aligned scheduler, risk exits on) check SL/TP and the kill-switch, never the whole pipeline
+        Runnable riskCheck = riskExits ? () -> pipeline.riskTick(job.symbol(), job.timeframe()) : null;
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            if (cancelled.get()) {
+                releasePipeline(job);
+                safeNotify("⛔ Session start cancelled: " + key);
+                return;
+            }
+            jobs.put(key, job); // before scheduling: the first tick may fire right away
+            pipelines.put(key, pipeline);
+            RunHandle handle =
+                    scheduler.scheduleForTimeframe(key, timed, riskCheck, job.timeframe(), safePeriod);
+
+            sessions.put(key, handle);
+            lastTick.putIfAbsent(key, Instant.EPOCH);
+        } finally {
+            lock.unlock();
+        }
 
-        sessions.put(key, handle);
-        lastTick.putIfAbsent(key, Instant.EPOCH);
+        safeNotify((warm ? "▶ Session started (warm): " : "▶ Session started: ") + key);
+    }
 
-        safeNotify("▶ Session started: " + key);
+    private ReentrantLock lockFor(String key) {
+        return keyLocks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
     }
 
-    public synchronized void stop(ExecutionJob job) {
+    /**
+     * Graceful handoff: pauses the session, waits for its in-flight tick and closes the pipeline
+     * (snapshotAndClose), saves the snapshot into the store, then stops it. A tick that was already
+     * dispatched cannot apply a fill after the snapshot.
+     * Falls back to a plain stop when no store is wired or the snapshot fails.
+     */
+    public void drain(ExecutionJob job) {
+        String key = job == null ? null : job.key();
+        if (key == null || key.isBlank()) return;
+
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            SessionSnapshotStore store = snapshotStore;
+            RunHandle h = sessions.get(key);
+            TradingPipeline pipeline = pipelines.get(key);
+            if (store != null && h != null && pipeline != null) {
+                h.pause();
+                try {
+                    store.save(key, pipeline.snapshotAndClose().encode());
+                } catch (Exception e) {
+                    System.err.println("[SessionService] snapshot error for " + key + ": " + e.getMessage());
+                }
+            }
+            stop(job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean restoreSnapshot(String key, TradingPipeline pipeline) {
+        SessionSnapshotStore store = snapshotStore;
+        if (store == null) return false;
+        try {
+            SessionSnapshot snapshot = SessionSnapshot.decode(store.take(key));
+            if (snapshot == null) return false;
+            pipeline.restore(snapshot);
+            return true;
+        } catch (Exception e) {
+            // a broken snapshot only costs a cold start
+            System.err.println("[SessionService] restore error for " + key + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void stop(ExecutionJob job) {
         String key = job == null ? null : job.key();
         if (key == null || key.isBlank()) {
             throw new IllegalArgumentException(
@@ -199,32 +388,77 @@ public class SessionService {
             new Exception("STOP_TRACE key=" + key).printStackTrace();
         }
 
-        RunHandle h = sessions.remove(key);
-        if (h != null) {
-            try {
-                h.stop();
-            } finally {
-                lastTick.remove(key);
-                lastError.remove(key);
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            RunHandle h = sessions.remove(key);
+            if (h != null) {
+                try {
+                    h.stop();
+                } finally {
+                    lastTick.remove(key);
+                    lastError.remove(key);
+                    jobs.remove(key);
+                    pipelines.remove(key);
+                    releasePipeline(job);
+                }
+                safeNotify("⛔ Session stopped: " + key);
+            } else {
+                AtomicBoolean pendingStart = starting.get(key);
+                if (pendingStart != null) {
+                    pendingStart.set(true); // start() releases its pipeline instead of scheduling it
+                    safeNotify("⛔ Session stopped while starting: " + key);
+                } else {
+                    safeNotify("⚠ No session: " + key);
+                }
             }
-            safeNotify("⛔ Session stopped: " + key);
-        } else {
-            safeNotify("⚠ No session: " + key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Stops every remaining session, then closes the pipeline factory (shutdown). */
+    @Override
+    public void close() {
+        for (ExecutionJob job : new ArrayList<>(jobs.values())) {
+            stop(job);
+        }
+        for (AtomicBoolean pendingStart : starting.values()) {
+            pendingStart.set(true);
+        }
+        try {
+            pipelineFactory.close();
+        } catch (Exception e) {
+            System.err.println("[SessionService] pipeline factory close error: " + e.getMessage());
+        }
+    }
+
+    private void releasePipeline(ExecutionJob job) {
+        try {
+            pipelineFactory.release(job);
+        } catch (Exception e) {
+            System.err.println("[SessionService] release error for " + job.key() + ": " + e.getMessage());
         }
     }
 
-    public synchronized void pause(ExecutionJob job) {
+    public void pause(ExecutionJob job) {
         String key = job == null ? null : job.key();
         if (key == null || key.isBlank()) return;
 
-        RunHandle h = sessions.get(key);
-        if (h != null) {
-            h.pause();
-            safeNotify("⏸ Paused: " + key);
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            RunHandle h = sessions.get(key);
+            if (h != null) {
+                h.pause();
+                safeNotify("⏸ Paused: " + key);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
-    public synchronized void resume(ExecutionJob job) {
+    public void resume(ExecutionJob job) {
         assertTradingEnabledOrThrow();
         assertSubscriptionAllowsTradingOrThrow(job);
 
@@ -235,12 +469,18 @@ public class SessionService {
             );
         }
 
-        RunHandle h = sessions.get(key);
-        if (h != null) {
-            h.resume();
-            safeNotify("▶ Resumed: " + key);
-        } else {
-            safeNotify("⚠ No session: " + key);
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            RunHandle h = sessions.get(key);
+            if (h != null) {
+                h.resume();
+                safeNotify("▶ Resumed: " + key);
+            } else {
+                safeNotify("⚠ No session: " + key);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -262,12 +502,55 @@ public class SessionService {
         return h != null && h.isPaused();
     }
 
+    /** Wires tick telemetry; applies to sessions started afterwards. */
+    public void setTickMetrics(TickMetricsPort tickMetrics) {
+        this.tickMetrics = tickMetrics == null ? NoopTickMetrics.INSTANCE : tickMetrics;
+    }
+
+    public void setSnapshotStore(SessionSnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+
+    /** Wires the equity time-series store; applies to sessions started afterwards. */
+    public void setEquitySeries(EquitySeriesPort equitySeries) {
+        this.equitySeries = equitySeries == null ? NoopEquitySeries.INSTANCE : equitySeries;
+    }
+
+    public EquitySeriesPort equitySeries() {
+        return equitySeries;
+    }
+
+    /** Sessions currently scheduled (running or paused). */
+    public int activeSessions() {
+        int n = 0;
+        for (RunHandle h : sessions.values()) {
+            if (h != null && h.isRunning()) n++;
+        }
+        return n;
+    }
+
+    public ExecutionStats stats() {
+        return stats;
+    }
+
+    /** True while overload mode stretches idle sessions. */
+    public boolean overloaded() {
+        return governor.overloaded();
+    }
+
+    public OverloadGovernor governor() {
+        return governor;
+    }
+
     /** Human-readable status for Telegram/CLI. */
     public String statusText() {
         if (sessions.isEmpty()) return "No active sessions.";
 
         StringBuilder sb = new StringBuilder();
         sb.append("Active sessions: ").append(sessions.size()).append("\n");
+        if (governor.overloaded()) {
+            sb.append("Overload mode: idle polling sessions stretched x").append(governor.idleStretch()).append("\n");
+        }
 
         for (Map.Entry<String, RunHandle> e : sessions.entrySet()) {
             String key = e.getKey();
@@ -278,7 +561,38 @@ public class SessionService {
             else if (h.isRunning()) state = h.isPaused() ? "PAUSED" : "RUNNING";
             else state = "STOPPED";
 
-            sb.append("- ").append(key).append(" : ").append(state).append("\n");
+            sb.append("- ").append(key).append(" : ").append(state);
+            if (h != null && h.overruns() > 0) {
+                sb.append(" (overruns=").append(h.overruns())
+                        .append(", missed=").append(h.missedRuns()).append(")");
+            }
+            sb.append("\n");
+        }
+        return sb.toString().trim();
+    }
+
+    /** Equity over the last `hours` per active session, from the rollups (Telegram/CLI). */
+    public String equityText(int hours) {
+        if (sessions.isEmpty()) return "No active sessions.";
+
+        long to = System.currentTimeMillis();
+        long from = to - Math.max(1, hours) * 3_600_000L;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Equity, last ").append(Math.max(1, hours)).append("h:\n");
+        for (String key : sessions.keySet()) {
+            List<EquitySeriesPort.Point> points = equitySeries.range(key, from, to, 200);
+            EquitySeriesPort.Summary sum = EquitySeriesPort.summarize(points);
+
+            sb.append("- ").append(key).append(" : ");
+            if (sum.points() == 0) {
+                sb.append("no samples\n");
+                continue;
+            }
+            double change = sum.last() - sum.first();
+            sb.append(String.format("last=%.2f change=%+.2f min=%.2f max=%.2f maxDD=%.2f%%",
+                    sum.last(), change, sum.min(), sum.max(), sum.maxDrawdownPct()));
+            sb.append("\n");
         }
         return sb.toString().trim();
     }
@@ -0,0 +1,118 @@
+package com.quantor.application.usecase;
+
+import com.quantor.application.exchange.ExchangePort;
+import com.quantor.application.exchange.MarketSymbol;
+import com.quantor.application.exchange.Timeframe;
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.session.Snapshottable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Last lookback candles of one session, refreshed incrementally.
+ *
+ * Cold (empty, or too far behind) it fetches the full lookback once; warm it only fetches the
+ * candles since the last known open time plus one of overlap (the forming candle is replaced),
+ * which is 2 candles per tick instead of lookback. The window is part of the session snapshot,
+ * so a session restored on another worker also starts warm.
+ */
+public class CandleWindow implements Snapshottable {
+
+    private static final byte STATE_VERSION = 1;
+
+    // immutable list, replaced per tick (ticks of one session never overlap; snapshots read it from other threads)
+    private volatile List<Candle> candles = List.of();
+
+    public List<Candle> fetch(ExchangePort exchange, MarketSymbol symbol, Timeframe timeframe, int lookback)
+            throws Exception {
+        int missing = missingSinceLast(timeframe, lookback);
+        if (missing >= lookback) {
+            candles = copyOf(exchange.getCandles(symbol, timeframe, lookback), lookback);
+            return candles;
+        }
+
+        List<Candle> fresh = exchange.getCandles(symbol, timeframe, missing);
+        if (fresh == null || fresh.isEmpty()) return candles;
+
+        long firstFresh = fresh.get(0).openTime();
+        List<Candle> window = candles;
+        Candle last = window.get(window.size() - 1);
+        if (firstFresh > last.openTime() + timeframe.millis()) {
+            // gap between the window and the fresh candles: start over
+            candles = copyOf(exchange.getCandles(symbol, timeframe, lookback), lookback);
+            return candles;
+        }
+
+        List<Candle> merged = new ArrayList<>(window.size() + fresh.size());
+        for (Candle c : window) {
+            if (c.openTime() < firstFresh) merged.add(c);
+        }
+        merged.addAll(fresh);
+        candles = copyOf(merged, lookback);
+        return candles;
+    }
+
+    /** Candles to request: full lookback when cold, else the candles since the last open time + 1. */
+    private int missingSinceLast(Timeframe timeframe, int lookback) {
+        List<Candle> window = candles;
+        if (timeframe == null || window.size() < lookback) return lookback;
+        long lastOpen = window.get(window.size() - 1).openTime();
+        long behind = (System.currentTimeMillis() - lastOpen) / timeframe.millis();
+        if (behind < 0 || behind + 2 >= lookback) return lookback;
+        return (int) behind + 2;
+    }
+
+    private static List<Candle> copyOf(List<Candle> list, int max) {
+        if (list == null || list.isEmpty()) return List.of();
+        int from = Math.max(0, list.size() - max);
+        return List.copyOf(list.subList(from, list.size()));
+    }
+
+    @Override
+    public byte[] snapshotState() {
+        List<Candle> window = candles;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + window.size() * 56);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(STATE_VERSION);
+            out.writeInt(window.size());
+            for (Candle c : window) {
+                out.writeLong(c.openTime());
+                out.writeDouble(c.open());
+                out.writeDouble(c.high());
+                out.writeDouble(c.low());
+                out.writeDouble(c.close());
+                out.writeDouble(c.volume());
+                out.writeLong(c.closeTime());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    @Override
+    public void restoreState(byte[] state) {
+        if (state == null || state.length == 0) return;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+            if (in.readByte() != STATE_VERSION) return;
+            int n = in.readInt();
+            List<Candle> list = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                list.add(new Candle(in.readLong(), in.readDouble(), in.readDouble(), in.readDouble(),
+                        in.readDouble(), in.readDouble(), in.readLong()));
+            }
+            candles = List.copyOf(list);
+        } catch (IOException e) {
+            System.err.println("[CandleWindow] restore state error: " + e.getMessage());
+        }
+    }
+}
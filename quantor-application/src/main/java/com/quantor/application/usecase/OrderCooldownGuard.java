@@ -1,10 +1,19 @@
 package com.quantor.application.usecase;
 
+import com.quantor.domain.session.Snapshottable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.time.Instant;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class OrderCooldownGuard {
+public class OrderCooldownGuard implements Snapshottable {
+
+    private static final byte STATE_VERSION = 1;
 
     private final Map<String, Instant> lastOrder = new ConcurrentHashMap<>();
     private final long cooldownSeconds;
@@ -22,4 +31,45 @@ public class OrderCooldownGuard {
         lastOrder.put(key, now);
         return true;
     }
+
+    /** Only entries still inside the cooldown window; older ones no longer suppress anything. */
+    @Override
+    public byte[] snapshotState() {
+        Instant cutoff = Instant.now().minusSeconds(cooldownSeconds);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            Map<String, Instant> live = Map.copyOf(lastOrder);
+            out.writeByte(STATE_VERSION);
+            int n = 0;
+            for (Instant t : live.values()) if (t.isAfter(cutoff)) n++;
+            out.writeInt(n);
+            for (Map.Entry<String, Instant> e : live.entrySet()) {
+                if (!e.getValue().isAfter(cutoff)) continue;
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue().toEpochMilli());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    @Override
+    public void restoreState(byte[] state) {
+        if (state == null || state.length == 0) return;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+            if (in.readByte() != STATE_VERSION) return;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String key = in.readUTF();
+                Instant t = Instant.ofEpochMilli(in.readLong());
+                lastOrder.merge(key, t, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        } catch (IOException e) {
+            System.err.println("[OrderCooldownGuard] restore state error: " + e.getMessage());
+        }
+    }
 }
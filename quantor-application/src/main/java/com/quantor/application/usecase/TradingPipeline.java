@@ -1,13 +1,20 @@
 package com.quantor.application.usecase;
 
+import com.quantor.application.exchange.ExchangeId;
 import com.quantor.application.exchange.ExchangePort;
 import com.quantor.application.exchange.MarketSymbol;
 import com.quantor.application.exchange.Timeframe;
+import com.quantor.application.execution.SessionSnapshot;
 import com.quantor.application.guard.TradingStoppedException;
+import com.quantor.application.ports.EquitySeriesPort;
+import com.quantor.application.ports.NoopEquitySeries;
+import com.quantor.application.ports.NoopTickMetrics;
 import com.quantor.application.ports.NotifierPort;
 import com.quantor.application.ports.PortfolioPort;
 import com.quantor.application.ports.SubscriptionPort;
 import com.quantor.application.ports.SymbolMetaPort;
+import com.quantor.application.ports.TickMetricsPort;
+import com.quantor.application.ports.TickMetricsPort.Stage;
 import com.quantor.application.ports.TradeJournalPort;
 import com.quantor.application.ports.TradingControlPort;
 import com.quantor.domain.market.Candle;
@@ -16,12 +23,16 @@ import com.quantor.domain.portfolio.Fill;
 import com.quantor.domain.portfolio.PortfolioPosition;
 import com.quantor.domain.portfolio.PortfolioSnapshot;
 import com.quantor.domain.risk.RiskManager;
+import com.quantor.domain.session.Snapshottable;
 import com.quantor.domain.strategy.Strategy;
 import com.quantor.domain.trading.UserId;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Unified use-case pipeline: MarketData -> Strategy -> Risk -> Execution -> Portfolio -> Notify.
@@ -32,6 +43,19 @@ import java.util.List;
  * - Anti double-order (MVP): cooldown guard for BUY/SELL.
  * - STOP signal: TradingStoppedException handled separately (no silent swallow).
  *
+ * Telemetry: every stage of a tick is timed into TickMetricsPort (no-op unless set).
+ *
+ * Warm handoff: candle window, strategy, cooldown and portfolio state (where the component is
+ * Snapshottable) are captured by snapshot() between ticks and put back by restore() before the first tick.
+ *
+ * Risk exits (opt-in, setRiskExits): the open position is closed once the latest price hits the
+ * RiskManager stop-loss / take-profit. Off by default, so only the strategy sells. When on, the same rule
+ * applies to every tick in every scheduler mode; candle-aligned sessions additionally check it intrabar
+ * via riskTick().
+ *
+ * Closed candles only (setClosedCandlesOnly, candle-aligned sessions): the strategy decides on the closed
+ * candles; the still-forming candle that the exchange returns last only supplies the current price.
+ *
  * IMPORTANT (P0):
  * - NO dev bypass in core.
  */
@@ -51,6 +75,23 @@ public class TradingPipeline {
     private final OrderCooldownGuard cooldown;
     private final String userId;
 
+    private volatile TickMetricsPort metrics = NoopTickMetrics.INSTANCE;
+    private volatile EquitySeriesPort equitySeries = NoopEquitySeries.INSTANCE;
+    private volatile String seriesKey;
+
+    private final CandleWindow candleWindow = new CandleWindow();
+    // held for the whole tick so a snapshot never sees half-applied state (ReentrantLock: no virtual-thread pinning)
+    private final ReentrantLock tickLock = new ReentrantLock();
+
+    // position state seen by the last tick; unknown (before the first tick) counts as open
+    private volatile boolean positionOpen = true;
+
+    // set by snapshotAndClose(); ticks that were already dispatched become no-ops
+    private volatile boolean closed = false;
+
+    private volatile boolean riskExits = false;
+    private volatile boolean closedCandlesOnly = false;
+
     public TradingPipeline(TradingMode mode,
                            ExchangePort exchange,
                            PortfolioPort portfolio,
@@ -78,7 +119,102 @@ public class TradingPipeline {
         this.userId = userId;
     }
 
+    public void setMetrics(TickMetricsPort metrics) {
+        this.metrics = metrics == null ? NoopTickMetrics.INSTANCE : metrics;
+    }
+
+    /** Records one equity sample per tick into the series `seriesKey` (usually the job key). */
+    public void setEquitySeries(EquitySeriesPort equitySeries, String seriesKey) {
+        this.equitySeries = equitySeries == null ? NoopEquitySeries.INSTANCE : equitySeries;
+        this.seriesKey = seriesKey;
+    }
+
+    /** Opt-in SL/TP exits on every tick (and on intrabar risk ticks). Off: only the strategy closes positions. */
+    public void setRiskExits(boolean riskExits) {
+        this.riskExits = riskExits;
+    }
+
+    /** The strategy sees closed candles only (candle-close fires); the forming candle is left out. */
+    public void setClosedCandlesOnly(boolean closedCandlesOnly) {
+        this.closedCandlesOnly = closedCandlesOnly;
+    }
+
     public PipelineResult tick(MarketSymbol symbol, Timeframe timeframe, int lookback) {
+        tickLock.lock();
+        try {
+            if (closed) return new PipelineResult(symbol, TradeAction.HOLD, false, "Session closed");
+            return doTick(symbol, timeframe, lookback);
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    /**
+     * Intrabar risk check between candle closes (risk exits only): kill-switch, then SL/TP of the open
+     * position against the price of the forming candle. No strategy decision, no candle window update, no
+     * equity sample; a session without a position returns without touching the exchange. Serialized with
+     * tick() on the same lock.
+     */
+    public PipelineResult riskTick(MarketSymbol symbol, Timeframe timeframe) {
+        tickLock.lock();
+        try {
+            if (closed) return new PipelineResult(symbol, TradeAction.HOLD, false, "Session closed");
+            return doRiskTick(symbol, timeframe);
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    /** True while the last tick saw (or opened) a position; overload mode never stretches such sessions. */
+    public boolean hasOpenPosition() {
+        return positionOpen;
+    }
+
+    /** Captures the runtime state between ticks (waits for a running tick to finish). */
+    public SessionSnapshot snapshot() {
+        tickLock.lock();
+        try {
+            Map<String, byte[]> sections = new LinkedHashMap<>();
+            sections.put("candles", candleWindow.snapshotState());
+            if (strategy instanceof Snapshottable s) sections.put("strategy", s.snapshotState());
+            if (cooldown != null) sections.put("cooldown", cooldown.snapshotState());
+            if (portfolio instanceof Snapshottable s) sections.put("portfolio", s.snapshotState());
+            return new SessionSnapshot(System.currentTimeMillis(), sections);
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    /**
+     * Handoff snapshot: waits for a running tick, then closes the pipeline so no tick (not even one the
+     * scheduler already dispatched) can change state after the snapshot was taken.
+     */
+    public SessionSnapshot snapshotAndClose() {
+        tickLock.lock();
+        try {
+            closed = true;
+            return snapshot();
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    /** Puts snapshot state back; call before the first tick. Missing sections leave the component cold. */
+    public void restore(SessionSnapshot snapshot) {
+        if (snapshot == null) return;
+        tickLock.lock();
+        try {
+            candleWindow.restoreState(snapshot.section("candles"));
+            if (strategy instanceof Snapshottable s) s.restoreState(snapshot.section("strategy"));
+            if (cooldown != null) cooldown.restoreState(snapshot.section("cooldown"));
+            if (portfolio instanceof Snapshottable s) s.restoreState(snapshot.section("portfolio"));
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    private PipelineResult doTick(MarketSymbol symbol, Timeframe timeframe, int lookback) {
+        StageClock clock = new StageClock(metrics, exchange.id(), timeframe);
         try {
             // ===== P0: kill-switch + pay-gate in CORE (every tick) =====
             if (control != null && !control.isTradingEnabled()) {
@@ -92,20 +228,37 @@ public class TradingPipeline {
                     throw new TradingStoppedException("Subscription inactive");
                 }
             }
+            clock.lap(Stage.ENTITLEMENT);
 
-            List<Candle> candles = exchange.getCandles(symbol, timeframe, lookback);
-            if (candles == null || candles.size() < 5) {
+            boolean closedOnly = closedCandlesOnly;
+            // one extra candle when the forming one is left out, so the strategy still gets lookback candles
+            List<Candle> candles = candleWindow.fetch(exchange, symbol, timeframe, closedOnly ? lookback + 1 : lookback);
+            clock.lap(Stage.CANDLES);
+            List<Candle> decided = closedOnly ? closedCandles(candles, System.currentTimeMillis()) : candles;
+            if (decided == null || decided.size() < 5) {
                 return new PipelineResult(symbol, TradeAction.HOLD, false, "Not enough candles");
             }
 
             double lastPrice = candles.get(candles.size() - 1).getClose();
             PortfolioSnapshot snap = portfolio.getSnapshot();
             double equity = snap.getEquityQuote().doubleValue();
-
-            TradeAction action = strategy.decide(candles);
+            String series = seriesKey;
+            if (series != null) equitySeries.record(series, System.currentTimeMillis(), equity);
 
             PortfolioPosition pos = portfolio.getPosition(symbol.asBaseQuote());
             double posQty = (pos == null) ? 0.0 : pos.getQtyBase().doubleValue();
+            positionOpen = posQty > 0.0;
+
+            if (riskExits && positionOpen) {
+                PipelineResult exit = riskExit(symbol, pos, posQty, lastPrice);
+                if (exit != null) {
+                    clock.lap(Stage.ORDER);
+                    return exit;
+                }
+            }
+
+            TradeAction action = strategy.decide(decided);
+            clock.lap(Stage.DECIDE);
 
             boolean executed = false;
             String msg = "HOLD";
@@ -117,8 +270,10 @@ public class TradingPipeline {
 
                 double stopPrice = riskManager.calcStopPrice(lastPrice);
                 double qty = riskManager.calcPositionSize(lastPrice, stopPrice, equity);
+                clock.lap(Stage.SIZE);
                 if (qty > 0) {
                     exchange.marketBuy(symbol, qty);
+                    clock.lap(Stage.ORDER);
                     try {
                         portfolio.applyFill(new Fill(symbol.asBaseQuote(), Fill.Side.BUY,
                                 BigDecimal.valueOf(qty),
@@ -126,21 +281,27 @@ public class TradingPipeline {
                                 BigDecimal.ZERO,
                                 Instant.now()));
                     } catch (Exception ignore) {}
+                    clock.lap(Stage.PORTFOLIO);
+                    positionOpen = true;
 
                     executed = true;
                     msg = "BUY qty=" + qty;
                     notifier.send("🟢 " + mode + " " + symbol + " " + msg);
+                    clock.lap(Stage.NOTIFY);
                     try {
                         journal.logTrade(String.valueOf(mode), symbol.asBaseQuote(), "BUY", lastPrice, qty, equity, msg);
                     } catch (Exception ignore) {}
+                    clock.lap(Stage.JOURNAL);
                 }
 
             } else if (action == TradeAction.SELL && posQty > 0.0) {
                 if (cooldown != null && !cooldown.allow(symbol.asBaseQuote() + ":SELL")) {
                     return new PipelineResult(symbol, TradeAction.HOLD, false, "Cooldown: SELL suppressed");
                 }
+                clock.lap(Stage.SIZE);
 
                 exchange.marketSell(symbol, posQty);
+                clock.lap(Stage.ORDER);
                 try {
                     portfolio.applyFill(new Fill(symbol.asBaseQuote(), Fill.Side.SELL,
                             BigDecimal.valueOf(posQty),
@@ -148,24 +309,126 @@ public class TradingPipeline {
                             BigDecimal.ZERO,
                             Instant.now()));
                 } catch (Exception ignore) {}
+                clock.lap(Stage.PORTFOLIO);
+                positionOpen = false;
 
                 executed = true;
                 msg = "SELL qty=" + posQty;
                 notifier.send("🔴 " + mode + " " + symbol + " " + msg);
+                clock.lap(Stage.NOTIFY);
                 try {
                     journal.logTrade(String.valueOf(mode), symbol.asBaseQuote(), "SELL", lastPrice, posQty, equity, msg);
                 } catch (Exception ignore) {}
+                clock.lap(Stage.JOURNAL);
             }
 
             return new PipelineResult(symbol, action, executed, msg);
 
         } catch (TradingStoppedException e) {
+            clock.lap(Stage.ENTITLEMENT);
             try { notifier.send("🛑 STOP " + symbol + ": " + e.getMessage()); } catch (Exception ignore) {}
+            clock.lap(Stage.NOTIFY);
             return new PipelineResult(symbol, TradeAction.HOLD, false, "STOP: " + e.getMessage());
 
         } catch (Exception e) {
+            clock.skip();
             try { notifier.send("❌ PIPELINE " + symbol + ": " + e.getMessage()); } catch (Exception ignore) {}
+            clock.lap(Stage.NOTIFY);
             return new PipelineResult(symbol, TradeAction.HOLD, false, "error: " + e.getMessage());
         }
     }
+
+    private PipelineResult doRiskTick(MarketSymbol symbol, Timeframe timeframe) {
+        if (!riskExits) return new PipelineResult(symbol, TradeAction.HOLD, false, "Risk exits off");
+        if (!positionOpen) return new PipelineResult(symbol, TradeAction.HOLD, false, "No position");
+        try {
+            if (control != null && !control.isTradingEnabled()) {
+                throw new TradingStoppedException(
+                        control.disabledReason() == null ? "Trading disabled" : control.disabledReason()
+                );
+            }
+
+            PortfolioPosition pos = portfolio.getPosition(symbol.asBaseQuote());
+            double posQty = (pos == null) ? 0.0 : pos.getQtyBase().doubleValue();
+            positionOpen = posQty > 0.0;
+            if (!positionOpen) return new PipelineResult(symbol, TradeAction.HOLD, false, "No position");
+
+            List<Candle> last = exchange.getCandles(symbol, timeframe, 1);
+            if (last == null || last.isEmpty()) return new PipelineResult(symbol, TradeAction.HOLD, false, "No price");
+            double price = last.get(last.size() - 1).getClose();
+
+            PipelineResult exit = riskExit(symbol, pos, posQty, price);
+            return exit != null ? exit : new PipelineResult(symbol, TradeAction.HOLD, false, "Risk OK");
+
+        } catch (TradingStoppedException e) {
+            try { notifier.send("🛑 STOP " + symbol + ": " + e.getMessage()); } catch (Exception ignore) {}
+            return new PipelineResult(symbol, TradeAction.HOLD, false, "STOP: " + e.getMessage());
+
+        } catch (Exception e) {
+            try { notifier.send("❌ RISK " + symbol + ": " + e.getMessage()); } catch (Exception ignore) {}
+            return new PipelineResult(symbol, TradeAction.HOLD, false, "error: " + e.getMessage());
+        }
+    }
+
+    /** Sells the whole position when price hits SL/TP of its entry; null when neither is hit. */
+    private PipelineResult riskExit(MarketSymbol symbol, PortfolioPosition pos, double posQty, double price) throws Exception {
+        double entry = pos.getAvgEntryPrice() == null ? 0.0 : pos.getAvgEntryPrice().doubleValue();
+        boolean sl = riskManager.hitSL(price, entry);
+        if (!sl && !riskManager.hitTP(price, entry)) return null;
+
+        exchange.marketSell(symbol, posQty);
+        try {
+            portfolio.applyFill(new Fill(symbol.asBaseQuote(), Fill.Side.SELL,
+                    BigDecimal.valueOf(posQty),
+                    BigDecimal.valueOf(price),
+                    BigDecimal.ZERO,
+                    Instant.now()));
+        } catch (Exception ignore) {}
+        positionOpen = false;
+
+        String msg = (sl ? "EXIT_SL" : "EXIT_TP") + " qty=" + posQty;
+        notifier.send("🔴 " + mode + " " + symbol + " " + msg);
+        try {
+            double equity = portfolio.getSnapshot().getEquityQuote().doubleValue();
+            journal.logTrade(String.valueOf(mode), symbol.asBaseQuote(), sl ? "EXIT_SL" : "EXIT_TP", price, posQty, equity, msg);
+        } catch (Exception ignore) {}
+        return new PipelineResult(symbol, TradeAction.SELL, true, msg);
+    }
+
+    /** Candles closed at nowMs (exchange closeTime = open + timeframe - 1 ms); drops the forming tail. */
+    static List<Candle> closedCandles(List<Candle> candles, long nowMs) {
+        if (candles == null) return null;
+        int end = candles.size();
+        while (end > 0 && candles.get(end - 1).closeTimeMs() >= nowMs) end--;
+        return end == candles.size() ? candles : candles.subList(0, end);
+    }
+
+    /** Times consecutive stages of one tick: lap(stage) records the time since the previous lap. */
+    private static final class StageClock {
+        private final TickMetricsPort metrics;
+        private final ExchangeId exchange;
+        private final Timeframe timeframe;
+        private long last = System.nanoTime();
+
+        private StageClock(TickMetricsPort metrics, ExchangeId exchange, Timeframe timeframe) {
+            this.metrics = metrics;
+            this.exchange = exchange;
+            this.timeframe = timeframe;
+        }
+
+        void lap(Stage stage) {
+            long now = System.nanoTime();
+            try {
+                metrics.recordStage(stage, exchange, timeframe, now - last);
+            } catch (Exception ignore) {
+                // telemetry must never fail a tick
+            }
+            last = now;
+        }
+
+        /** Restarts the clock without recording (the failed stage is unknown). */
+        void skip() {
+            last = System.nanoTime();
+        }
+    }
 }
@@ -1,18 +1,27 @@
 package com.quantor.db;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.nio.file.Files;
+import com.quantor.domain.journal.AsyncAppender;
+import com.quantor.domain.journal.LineFileWriter;
+
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Minimal static trade logger.
  * Writes to console and (best-effort) appends CSV into ./reports/trades.csv
+ *
+ * log() only enqueues; the console line and the CSV row are written by the AsyncAppender flusher.
  */
 public final class TradeLogger {
 
     private TradeLogger() {}
 
+    private record Row(String mode, String symbol, String action, double price, double qty, double cash, String note) {}
+
+    private static final AsyncAppender<Row> APPENDER = new AsyncAppender<>("trade-logger-csv",
+            new ConsoleAndCsv(), AsyncAppender.Options.fromSystemProperties());
+
     public static void log(String mode,
                            String symbol,
                            String action,
@@ -20,31 +29,55 @@ public final class TradeLogger {
                            double qty,
                            double cash,
                            String note) {
+        APPENDER.append(new Row(mode, symbol, action, price, qty, cash, (note == null) ? "" : note));
+    }
 
-        String safeNote = (note == null) ? "" : note;
-        String line = String.format("[%s] %s %s price=%.8f qty=%.8f cash=%.4f | %s",
-                mode, symbol, action, price, qty, cash, safeNote);
-        System.out.println(line);
-
-        // Best-effort CSV
-        try {
-            Path dir = Path.of("reports");
-            if (!Files.exists(dir)) Files.createDirectories(dir);
-            Path file = dir.resolve("trades.csv");
-            boolean exists = Files.exists(file);
-
-            try (BufferedWriter bw = new BufferedWriter(new FileWriter(file.toFile(), true))) {
-                if (!exists) {
-                    bw.write("mode,symbol,action,price,qty,cash,note");
-                    bw.newLine();
-                }
-                bw.write(csv(mode) + "," + csv(symbol) + "," + csv(action) + ","
-                        + price + "," + qty + "," + cash + "," + csv(safeNote));
-                bw.newLine();
+    /** Waits until every logged trade is written. */
+    public static void flush() {
+        APPENDER.flush();
+    }
+
+    private static final class ConsoleAndCsv implements AsyncAppender.BatchWriter<Row> {
+        private final LineFileWriter<Row> csv = new LineFileWriter<>(Path.of("reports", "trades.csv"),
+                "mode,symbol,action,price,qty,cash,note", TradeLogger::csvLine);
+
+        @Override
+        public void write(List<Row> batch) {
+            StringBuilder sb = new StringBuilder(batch.size() * 96);
+            for (Row r : batch) {
+                sb.append('[').append(r.mode()).append("] ").append(r.symbol()).append(' ').append(r.action())
+                        .append(" price=");
+                LineFileWriter.appendFixed(sb, r.price(), 8);
+                sb.append(" qty=");
+                LineFileWriter.appendFixed(sb, r.qty(), 8);
+                sb.append(" cash=");
+                LineFileWriter.appendFixed(sb, r.cash(), 4);
+                sb.append(" | ").append(r.note()).append('\n');
             }
-        } catch (Exception ignore) {
-            // ignore
+            System.out.print(sb);
+
+            try {
+                csv.write(batch);
+            } catch (IOException ignore) {
+                // best-effort CSV
+            }
+        }
+
+        @Override
+        public void sync() throws IOException {
+            csv.sync();
         }
+
+        @Override
+        public void close() throws IOException {
+            csv.close();
+        }
+    }
+
+    private static void csvLine(Row r, StringBuilder out) {
+        out.append(csv(r.mode())).append(',').append(csv(r.symbol())).append(',').append(csv(r.action())).append(',')
+                .append(r.price()).append(',').append(r.qty()).append(',').append(r.cash()).append(',')
+                .append(csv(r.note()));
     }
 
     private static String csv(String s) {
@@ -0,0 +1,112 @@
+package com.quantor.application.engine;
+
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.risk.RiskManager;
+import com.quantor.domain.strategy.impl.EmaCrossStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BacktestResultCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final RiskManager rm = new RiskManager(50.0, 0.001, 0.02, 0.03);
+
+    @Test
+    void computesOnceAndServesFromDiskAfterRestart() {
+        List<Candle> candles = candles(300, 0.0);
+        double[] close = VectorizedBacktestEngine.closes(candles);
+        EmaCrossStrategy strategy = new EmaCrossStrategy(5, 20);
+        String key = BacktestResultCache.key(strategy, rm, "BTCUSDT", "M1", BacktestResultCache.fingerprint(candles));
+        AtomicInteger computed = new AtomicInteger();
+
+        BacktestResultCache cache = new BacktestResultCache(dir);
+        BacktestResult first = cache.getOrCompute(key, () -> {
+            computed.incrementAndGet();
+            return new VectorizedBacktestEngine(strategy, rm, "BTCUSDT", "M1").run(close);
+        });
+        cache.getOrCompute(key, () -> {
+            computed.incrementAndGet();
+            return first;
+        });
+        assertEquals(1, computed.get());
+
+        BacktestResult fromDisk = new BacktestResultCache(dir).getOrCompute(key, () -> {
+            computed.incrementAndGet();
+            return first;
+        });
+        assertEquals(1, computed.get());
+        assertEquals(first.trades(), fromDisk.trades());
+        assertEquals(first.finalEquity(), fromDisk.finalEquity());
+        assertArrayEquals(first.equityCurve(), fromDisk.equityCurve(), 0.0);
+    }
+
+    @Test
+    void keyChangesWithCandlesParamsAndRisk() {
+        List<Candle> candles = candles(300, 0.0);
+        String fp = BacktestResultCache.fingerprint(candles);
+        String base = BacktestResultCache.key(new EmaCrossStrategy(5, 20), rm, "BTCUSDT", "M1", fp);
+
+        assertEquals(base, BacktestResultCache.key(new EmaCrossStrategy(5, 20), rm, "BTCUSDT", "M1", fp));
+        assertNotEquals(base, BacktestResultCache.key(new EmaCrossStrategy(5, 21), rm, "BTCUSDT", "M1", fp));
+        assertNotEquals(base, BacktestResultCache.key(new EmaCrossStrategy(5, 20),
+                new RiskManager(50.0, 0.001, 0.02, 0.04), "BTCUSDT", "M1", fp));
+        assertNotEquals(base, BacktestResultCache.key(new EmaCrossStrategy(5, 20), rm, "BTCUSDT", "M1",
+                BacktestResultCache.fingerprint(candles(300, 1e-9))));
+    }
+
+    @Test
+    void concurrentSweepThreadsShareOneCache() throws Exception {
+        BacktestResultCache cache = new BacktestResultCache(dir, 16, 50);
+        List<Candle> candles = candles(200, 0.0);
+        double[] close = VectorizedBacktestEngine.closes(candles);
+        String fp = BacktestResultCache.fingerprint(candles);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger failures = new AtomicInteger();
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    for (int slow = 10; slow < 60; slow++) {
+                        EmaCrossStrategy s = new EmaCrossStrategy(5, slow);
+                        String key = BacktestResultCache.key(s, rm, "BTCUSDT", "M1", fp);
+                        BacktestResult r = cache.getOrCompute(key,
+                                () -> new VectorizedBacktestEngine(s, rm, "BTCUSDT", "M1").run(close));
+                        if (r == null) failures.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(0, failures.get());
+        assertTrue(cache.memorySize() <= 16);
+    }
+
+    private static List<Candle> candles(int n, double shift) {
+        List<Candle> out = new ArrayList<>(n);
+        long t = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            double p = 100.0 + 5.0 * Math.sin(i / 7.0) + i * 0.01 + shift;
+            out.add(new Candle(t, p, p + 0.2, p - 0.2, p, 1.0, t + 59_999));
+            t += 60_000;
+        }
+        return out;
+    }
+}
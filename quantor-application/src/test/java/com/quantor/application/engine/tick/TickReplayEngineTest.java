@@ -0,0 +1,135 @@
+package com.quantor.application.engine.tick;
+
+import com.quantor.application.engine.BacktestResult;
+import com.quantor.application.engine.NoopTradeSink;
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.order.TradeAction;
+import com.quantor.domain.risk.RiskManager;
+import com.quantor.domain.strategy.Strategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TickReplayEngineTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @TempDir
+    Path dir;
+
+    private final RiskManager rm = new RiskManager(50.0, 0.001, 0.02, 0.03);
+
+    @Test
+    void emptyIntervalsBecomeFlatBars() {
+        List<Candle> seen = new ArrayList<>();
+        Strategy recorder = history -> {
+            seen.add(history.get(history.size() - 1));
+            return TradeAction.HOLD;
+        };
+        // prints in minutes 0 and 3 only
+        ArrayTicks ticks = new ArrayTicks(
+                new long[]{0, 30_000, 3 * MINUTE + 5_000},
+                new double[]{100.0, 101.0, 104.0},
+                new double[]{1.0, 2.0, 1.0});
+
+        BacktestResult r = new TickReplayEngine(recorder, rm, MINUTE, "BTCUSDT", "M1", NoopTradeSink.INSTANCE, 100)
+                .run(ticks);
+
+        // bars 0..2 closed by the minute-3 print, bar 3 is the partial last bar
+        assertEquals(3, seen.size());
+        assertEquals(4, r.equityCurve().length);
+
+        Candle first = seen.get(0);
+        assertEquals(0L, first.openTime());
+        assertEquals(100.0, first.open(), 0.0);
+        assertEquals(101.0, first.close(), 0.0);
+        assertEquals(3.0, first.volume(), 0.0);
+
+        for (int i = 1; i < 3; i++) {
+            Candle flat = seen.get(i);
+            assertEquals(i * MINUTE, flat.openTime());
+            assertEquals(101.0, flat.open(), 0.0);
+            assertEquals(101.0, flat.high(), 0.0);
+            assertEquals(101.0, flat.low(), 0.0);
+            assertEquals(101.0, flat.close(), 0.0);
+            assertEquals(0.0, flat.volume(), 0.0);
+        }
+    }
+
+    @Test
+    void stopIsResolvedIntrabarAtTheCrossingTick() {
+        List<String> sides = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+        Strategy buyOnce = history -> history.size() == 1 ? TradeAction.BUY : TradeAction.HOLD;
+        // bar 0 closes at 100 -> BUY; bar 1 wicks to 97 (below the 2% stop) and recovers to 101
+        ArrayTicks ticks = new ArrayTicks(
+                new long[]{0, MINUTE, MINUTE + 1_000, MINUTE + 2_000},
+                new double[]{100.0, 99.0, 97.0, 101.0},
+                new double[]{1.0, 1.0, 1.0, 1.0});
+
+        BacktestResult r = new TickReplayEngine(buyOnce, rm, MINUTE, "BTCUSDT", "M1",
+                (symbol, side, bar, price, qty, cash, pnl) -> {
+                    sides.add(side);
+                    prices.add(price);
+                }, 100).run(ticks);
+
+        assertEquals(List.of("BUY", "EXIT_SL"), sides);
+        assertEquals(97.0, prices.get(1), 0.0);
+        assertEquals(1, r.trades());
+        assertEquals(0, r.wins());
+    }
+
+    @Test
+    void replaysAMillionMappedTicks() throws Exception {
+        int n = 1_000_000;
+        Path csv = dir.resolve("aggTrades.csv");
+        try (BufferedWriter w = Files.newBufferedWriter(csv)) {
+            long t = 1_699_999_980_000L; // minute-aligned
+            for (int i = 0; i < n; i++) {
+                double price = 30_000.0 + (i % 2_000) * 0.5;
+                w.write(i + "," + price + ",0.01," + i + "," + i + "," + (t + i * 20L) + ",true\n");
+            }
+        }
+        Path qtk = dir.resolve("ticks.qtk");
+        assertEquals(n, TickFiles.convert(csv, qtk, 0.01));
+
+        Strategy hold = history -> TradeAction.HOLD;
+        TickReplayEngine engine = new TickReplayEngine(hold, rm, MINUTE, "BTCUSDT", "M1", NoopTradeSink.INSTANCE, 500);
+
+        BacktestResult r;
+        try (MappedTickFile src = new MappedTickFile(qtk)) {
+            r = engine.run(src);
+        }
+
+        assertEquals(n, engine.ticksProcessed());
+        // 20 ms spacing -> 3000 ticks per minute bar
+        assertEquals((n + 2_999) / 3_000, r.equityCurve().length);
+        assertEquals(0, r.trades());
+    }
+
+    /** In-memory source for hand-written tick sequences. */
+    private static final class ArrayTicks implements TickSource {
+        private final long[] time;
+        private final double[] price;
+        private final double[] qty;
+        private int i = -1;
+
+        ArrayTicks(long[] time, double[] price, double[] qty) {
+            this.time = time;
+            this.price = price;
+            this.qty = qty;
+        }
+
+        @Override public boolean next() { return ++i < time.length; }
+        @Override public long timeMs() { return time[i]; }
+        @Override public double price() { return price[i]; }
+        @Override public double qty() { return qty[i]; }
+    }
+}
@@ -0,0 +1,76 @@
+package com.quantor.application.execution;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OverloadGovernorTest {
+
+    @Test
+    void admitsEverythingWhileNotOverloaded() {
+        OverloadGovernor g = governor(new ExecutionStats());
+
+        assertFalse(g.overloaded());
+        assertTrue(g.admit(0, 1_000, false));
+        assertEquals(0, g.deferredTicks());
+    }
+
+    @Test
+    void stretchesIdlePollingSessionsByTimeSinceTheLastRun() {
+        OverloadGovernor g = governor(laggingStats());
+        assertTrue(g.overloaded());
+
+        // period 1 s, stretch 4: idle sessions run once ~4 s passed (half a period of slack)
+        assertFalse(g.admit(1_000, 1_000, false));
+        assertFalse(g.admit(3_000, 1_000, false));
+        assertTrue(g.admit(3_500, 1_000, false));
+        assertTrue(g.admit(Long.MAX_VALUE, 1_000, false));
+        assertEquals(2, g.deferredTicks());
+    }
+
+    @Test
+    void positionHoldersAreNeverStretched() {
+        OverloadGovernor g = governor(laggingStats());
+
+        assertTrue(g.admit(0, 1_000, true));
+        assertEquals(0, g.deferredTicks());
+    }
+
+    @Test
+    void stretchUnitIsCappedAtOneMinute() {
+        OverloadGovernor g = governor(laggingStats());
+
+        // 1h polling period: the stretch is 4 x 1 min, not 4 h
+        assertFalse(g.admit(60_000, 3_600_000, false));
+        assertTrue(g.admit(4 * 60_000, 3_600_000, false));
+    }
+
+    @Test
+    void sparseFiresAreNotThinnedFurther() {
+        OverloadGovernor g = governor(laggingStats());
+
+        // a session that only got to run every 5 periods (overruns) runs on every fire
+        for (int i = 0; i < 10; i++) assertTrue(g.admit(5_000, 1_000, false));
+        assertEquals(0, g.deferredTicks());
+    }
+
+    @Test
+    void disabledGovernorNeverStretches() {
+        OverloadGovernor g = OverloadGovernor.disabled(laggingStats());
+
+        assertFalse(g.overloaded());
+        assertTrue(g.admit(0, 1_000, false));
+    }
+
+    private static OverloadGovernor governor(ExecutionStats stats) {
+        return new OverloadGovernor(stats, true, 2_000, 500, 30_000, 4);
+    }
+
+    private static ExecutionStats laggingStats() {
+        ExecutionStats stats = new ExecutionStats();
+        for (int i = 0; i < 200; i++) stats.recordLag(5_000);
+        return stats;
+    }
+}
@@ -0,0 +1,60 @@
+package com.quantor.application.execution;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class OverrunPolicyTest {
+
+    private final long[] missed = new long[1];
+
+    @Test
+    void onTimeTickKeepsTheGridForEveryPolicy() {
+        for (OverrunPolicy p : new OverrunPolicy[]{OverrunPolicy.SKIP, OverrunPolicy.COALESCE}) {
+            assertEquals(2_000, p.nextDue(1_000, 1_000, 1_300, missed));
+            assertEquals(0, missed[0]);
+        }
+        assertEquals(2_300, OverrunPolicy.FIXED_DELAY.nextDue(1_000, 1_000, 1_300, missed));
+        assertEquals(0, missed[0]);
+    }
+
+    @Test
+    void skipDropsMissedRunsAndStaysOnTheGrid() {
+        // due 1000, period 1000, finished at 3500: boundaries 2000 and 3000 were missed
+        assertEquals(4_000, OverrunPolicy.SKIP.nextDue(1_000, 1_000, 3_500, missed));
+        assertEquals(2, missed[0]);
+    }
+
+    @Test
+    void skipOnTheExactBoundaryMovesToTheNextOne() {
+        assertEquals(3_000, OverrunPolicy.SKIP.nextDue(1_000, 1_000, 2_000, missed));
+        assertEquals(1, missed[0]);
+    }
+
+    @Test
+    void coalesceRunsOnceRightAway() {
+        assertEquals(3_500, OverrunPolicy.COALESCE.nextDue(1_000, 1_000, 3_500, missed));
+        assertEquals(2, missed[0]);
+    }
+
+    @Test
+    void fixedDelayCountsMissedBoundariesButRestartsFromNow() {
+        assertEquals(4_500, OverrunPolicy.FIXED_DELAY.nextDue(1_000, 1_000, 3_500, missed));
+        assertEquals(2, missed[0]);
+    }
+
+    @Test
+    void nonPositivePeriodIsTreatedAsOneMillisecond() {
+        assertEquals(1_001, OverrunPolicy.SKIP.nextDue(1_000, 0, 500, missed));
+        assertEquals(0, missed[0]);
+    }
+
+    @Test
+    void parseIsLenientAndFallsBack() {
+        assertSame(OverrunPolicy.FIXED_DELAY, OverrunPolicy.parse(" fixed-delay ", OverrunPolicy.SKIP));
+        assertSame(OverrunPolicy.COALESCE, OverrunPolicy.parse("coalesce", OverrunPolicy.SKIP));
+        assertSame(OverrunPolicy.SKIP, OverrunPolicy.parse("", OverrunPolicy.SKIP));
+        assertSame(OverrunPolicy.SKIP, OverrunPolicy.parse("bogus", OverrunPolicy.SKIP));
+    }
+}
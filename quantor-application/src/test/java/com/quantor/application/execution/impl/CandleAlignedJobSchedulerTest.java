@@ -0,0 +1,98 @@
+package com.quantor.application.execution.impl;
+
+import com.quantor.application.exchange.Timeframe;
+import com.quantor.application.execution.RunHandle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CandleAlignedJobSchedulerTest {
+
+    private static final String KEY = "u1:BINANCE:BTCUSDT:H1";
+
+    // risk tick far below H1 but long enough that the wheel never fires one during the test
+    private final CandleAlignedJobScheduler scheduler = new CandleAlignedJobScheduler(0, 0, 30 * 60_000L);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void candleFireIsDeferredNotDroppedWhileRiskTickRuns() throws Exception {
+        Semaphore candleRuns = new Semaphore(0);
+        AtomicInteger candleCount = new AtomicInteger();
+        CountDownLatch riskStarted = new CountDownLatch(1);
+        CountDownLatch releaseRisk = new CountDownLatch(1);
+
+        RunHandle handle = scheduler.scheduleForTimeframe(KEY,
+                () -> {
+                    candleCount.incrementAndGet();
+                    candleRuns.release();
+                },
+                () -> {
+                    riskStarted.countDown();
+                    try {
+                        releaseRisk.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                },
+                Timeframe.H1, 1_000);
+
+        // the first tick runs right away
+        assertTrue(candleRuns.tryAcquire(5, TimeUnit.SECONDS));
+
+        // the in-flight flag clears just after the body returns: retry until the risk tick starts
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (riskStarted.getCount() > 0 && System.nanoTime() < until) {
+            scheduler.fireNow(KEY, true);
+            riskStarted.await(10, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(0, riskStarted.getCount());
+        long overrunsBefore = handle.overruns();
+
+        // candle close arrives while the slow risk tick still runs
+        scheduler.fireNow(KEY, false);
+        assertEquals(1, candleCount.get());
+
+        releaseRisk.countDown();
+        assertTrue(candleRuns.tryAcquire(5, TimeUnit.SECONDS), "deferred candle tick must still run");
+        assertEquals(2, candleCount.get());
+        assertEquals(overrunsBefore, handle.overruns());
+        assertEquals(2, scheduler.candleFires());
+        assertEquals(1, scheduler.riskFires());
+    }
+
+    @Test
+    void candleFireDuringCandleTickIsStillAnOverrun() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        RunHandle handle = scheduler.scheduleForTimeframe(KEY,
+                () -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                },
+                () -> { },
+                Timeframe.H1, 1_000);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        scheduler.fireNow(KEY, false);
+        release.countDown();
+
+        assertEquals(1, handle.overruns());
+        assertEquals(1, scheduler.candleFires());
+    }
+}
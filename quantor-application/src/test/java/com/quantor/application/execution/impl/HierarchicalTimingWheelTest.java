@@ -0,0 +1,119 @@
+package com.quantor.application.execution.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HierarchicalTimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    private HierarchicalTimingWheel wheel;
+    private long tick;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new HierarchicalTimingWheel("test-wheel", TICK_MS);
+        wheel.startManual(0);
+        tick = 0;
+    }
+
+    @Test
+    void firesOnTheDeadlineTickOnEveryLevel() {
+        // level 0 (< 64 ticks), level 1 (< 4096), level 2 (< 262144), level 3, plus exact level edges
+        long[] deadlineTicks = {1, 5, 63, 64, 65, 100, 4_095, 4_096, 4_097, 10_000, 262_143, 262_144, 300_001};
+        long[] firedAt = new long[deadlineTicks.length];
+        for (int i = 0; i < deadlineTicks.length; i++) {
+            int idx = i;
+            wheel.schedule(deadlineTicks[i] * TICK_MS, () -> firedAt[idx] = tick);
+        }
+
+        advanceTo(300_001);
+
+        for (int i = 0; i < deadlineTicks.length; i++) {
+            assertEquals(deadlineTicks[i], firedAt[i], "deadline tick " + deadlineTicks[i]);
+        }
+        assertEquals(0, wheel.placedCount());
+    }
+
+    @Test
+    void deadlinesScheduledMidWayCascadeToTheirTick() {
+        advanceTo(1_000);
+        List<Long> fired = new ArrayList<>();
+        // partial slot distances from a non-aligned current tick
+        for (long d : new long[]{3_100, 5_000, 70_000}) {
+            wheel.schedule(d * TICK_MS, () -> fired.add(tick));
+        }
+
+        advanceTo(70_000);
+
+        assertEquals(List.of(3_100L, 5_000L, 70_000L), fired);
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        advanceTo(500);
+        List<Long> fired = new ArrayList<>();
+        wheel.schedule(10 * TICK_MS, () -> fired.add(tick));
+
+        advanceTo(501);
+
+        assertEquals(List.of(501L), fired);
+    }
+
+    @Test
+    void deadlineBeyondTheTopLevelIsParkedAndStillFiresOnTime() {
+        long beyond = (1L << 24) + 1_000; // more than 4 x 6 slot bits ahead
+        List<Long> fired = new ArrayList<>();
+        wheel.schedule(beyond * TICK_MS, () -> fired.add(tick));
+
+        advanceTo(beyond);
+
+        assertEquals(List.of(beyond), fired);
+    }
+
+    @Test
+    void cancelRemovesTheTimeoutFromItsSlot() {
+        List<Long> fired = new ArrayList<>();
+        HierarchicalTimingWheel.Timeout far = wheel.schedule(200_000 * TICK_MS, () -> fired.add(tick));
+        HierarchicalTimingWheel.Timeout near = wheel.schedule(50 * TICK_MS, () -> fired.add(tick));
+        wheel.schedule(60 * TICK_MS, () -> fired.add(tick));
+
+        advanceTo(1);
+        assertEquals(3, wheel.placedCount());
+
+        far.cancel();
+        near.cancel();
+        assertTrue(far.isCancelled());
+
+        advanceTo(2);
+        assertEquals(1, wheel.placedCount(), "cancelled timeouts are unlinked on the next tick");
+
+        advanceTo(200_000);
+        assertEquals(List.of(60L), fired);
+    }
+
+    @Test
+    void cancelBeforePlacementNeverFires() {
+        List<Long> fired = new ArrayList<>();
+        HierarchicalTimingWheel.Timeout t = wheel.schedule(5 * TICK_MS, () -> fired.add(tick));
+        t.cancel();
+
+        advanceTo(10);
+
+        assertTrue(fired.isEmpty());
+        assertEquals(0, wheel.placedCount());
+    }
+
+    private void advanceTo(long target) {
+        while (tick < target) {
+            tick++;
+            wheel.advance();
+        }
+    }
+}
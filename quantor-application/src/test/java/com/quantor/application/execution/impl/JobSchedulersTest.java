@@ -0,0 +1,71 @@
+package com.quantor.application.execution.impl;
+
+import com.quantor.application.execution.JobScheduler;
+import com.quantor.application.execution.OverrunPolicy;
+import com.quantor.application.ports.ConfigPort;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+public class JobSchedulersTest {
+
+    @Test
+    void poolIsTheDefault() {
+        DefaultJobScheduler s = assertInstanceOf(DefaultJobScheduler.class, create(Map.of()));
+        assertEquals(OverrunPolicy.COALESCE, s.overrunPolicy());
+        s.shutdown();
+    }
+
+    @Test
+    void modeSelectsTheScheduler() {
+        VirtualThreadJobScheduler v = assertInstanceOf(VirtualThreadJobScheduler.class,
+                create(Map.of("scheduler.mode", " Virtual ", "scheduler.overrunPolicy", "coalesce")));
+        assertEquals(OverrunPolicy.COALESCE, v.overrunPolicy());
+        v.shutdown();
+
+        CandleAlignedJobScheduler a = assertInstanceOf(CandleAlignedJobScheduler.class,
+                create(Map.of("scheduler.mode", "aligned")));
+        a.shutdown();
+    }
+
+    @Test
+    void unknownModeFallsBackToPool() {
+        DefaultJobScheduler s = assertInstanceOf(DefaultJobScheduler.class,
+                create(Map.of("scheduler.mode", "turbo")));
+        s.shutdown();
+    }
+
+    private static JobScheduler create(Map<String, String> values) {
+        return JobSchedulers.fromConfig(new ConfigPort() {
+            @Override
+            public String get(String key) {
+                return values.get(key);
+            }
+
+            @Override
+            public String get(String key, String defaultValue) {
+                return values.getOrDefault(key, defaultValue);
+            }
+
+            @Override
+            public int getInt(String key, int defaultValue) {
+                String v = values.get(key);
+                return v == null ? defaultValue : Integer.parseInt(v);
+            }
+
+            @Override
+            public double getDouble(String key, double defaultValue) {
+                String v = values.get(key);
+                return v == null ? defaultValue : Double.parseDouble(v);
+            }
+
+            @Override
+            public String getSecret(String key) {
+                return values.get(key);
+            }
+        });
+    }
+}
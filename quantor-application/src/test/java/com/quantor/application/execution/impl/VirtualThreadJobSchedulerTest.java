@@ -0,0 +1,88 @@
+package com.quantor.application.execution.impl;
+
+import com.quantor.application.execution.OverrunPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The properties bench-scheduler measures, as assertions: blocked ticks do not hold platform threads,
+ * and a slow tick is skipped past instead of overlapping or queueing.
+ */
+public class VirtualThreadJobSchedulerTest {
+
+    private static final int SESSIONS = 2_000;
+
+    private final VirtualThreadJobScheduler scheduler = new VirtualThreadJobScheduler(1, OverrunPolicy.SKIP);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void blockedTicksOfAllSessionsRunAtOnceOnFewPlatformThreads() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int baseline = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        // every first tick blocks until all sessions are inside their tick: only possible when
+        // blocking does not hold a platform thread (a pool of N threads would stall at N)
+        CountDownLatch allInside = new CountDownLatch(SESSIONS);
+        AtomicInteger met = new AtomicInteger();
+        for (int i = 0; i < SESSIONS; i++) {
+            AtomicInteger runs = new AtomicInteger();
+            scheduler.scheduleAtFixedRate("bench-" + i, () -> {
+                if (runs.getAndIncrement() > 0) return;
+                allInside.countDown();
+                try {
+                    if (allInside.await(30, TimeUnit.SECONDS)) met.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 0, 60_000);
+        }
+
+        assertTrue(allInside.await(30, TimeUnit.SECONDS));
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (met.get() < SESSIONS && System.nanoTime() < until) Thread.sleep(10);
+
+        assertEquals(SESSIONS, met.get());
+        assertEquals(SESSIONS, scheduler.activeJobs());
+        int carriers = Runtime.getRuntime().availableProcessors();
+        assertTrue(threads.getPeakThreadCount() <= baseline + carriers + 16,
+                "peak platform threads " + threads.getPeakThreadCount() + " (baseline " + baseline + ")");
+    }
+
+    @Test
+    void slowTickIsSkippedNeverOverlapped() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        CountDownLatch fiveRuns = new CountDownLatch(5);
+
+        // 10 ms period, 50 ms tick: every run overruns several boundaries
+        scheduler.scheduleAtFixedRate("slow", () -> {
+            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inside.decrementAndGet();
+                fiveRuns.countDown();
+            }
+        }, 0, 10);
+
+        assertTrue(fiveRuns.await(10, TimeUnit.SECONDS));
+        assertEquals(1, maxInside.get());
+        assertTrue(scheduler.ticksSkipped() > 0);
+    }
+}
@@ -0,0 +1,48 @@
+package com.quantor.application.usecase;
+
+import com.quantor.domain.market.Candle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TradingPipelineTest {
+
+    private static final long MIN = 60_000;
+
+    @Test
+    void candleCloseFireDropsTheCandleThatJustOpened() {
+        // 1m candles up to 10:00, fired 0.5 s after the 10:00 close: the 10:00 candle is still forming
+        List<Candle> window = candles(0, 10);
+        long now = 9 * MIN + 500;
+
+        List<Candle> closed = TradingPipeline.closedCandles(window, now);
+
+        assertEquals(9, closed.size());
+        assertEquals(8 * MIN, closed.get(closed.size() - 1).openTime());
+    }
+
+    @Test
+    void fullyClosedWindowIsKeptAsIs() {
+        List<Candle> window = candles(0, 10);
+        assertSame(window, TradingPipeline.closedCandles(window, 10 * MIN));
+    }
+
+    @Test
+    void closeTimeInTheSameMillisecondIsStillForming() {
+        List<Candle> window = candles(0, 3);
+        assertEquals(2, TradingPipeline.closedCandles(window, 3 * MIN - 1).size());
+    }
+
+    private static List<Candle> candles(long fromMs, int n) {
+        List<Candle> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            long open = fromMs + i * MIN;
+            out.add(new Candle(open, 100, 101, 99, 100 + i, 1, open + MIN - 1));
+        }
+        return out;
+    }
+}
@@ -182,14 +182,19 @@ public class CliApp {
         int limit = askIntLoop("limit (e.g., 20): ");
 
         try {
-            var list = tradeRepo.list(blankToNull(mode), blankToNull(symbol), limit);
-            if (list.isEmpty()) {
-                System.out.println("(no trades)");
-                return;
-            }
-            for (var t : list) {
-                System.out.println(t.id() + " | " + t.ts() + " | " + t.mode() + " | " + t.symbol() + " | " + t.side()
-                        + " | price=" + t.price() + " qty=" + t.qty() + " bal=" + t.balanceAfter());
+            long beforeId = 0;
+            while (true) {
+                var list = tradeRepo.listPage(blankToNull(mode), blankToNull(symbol), beforeId, limit);
+                if (list.isEmpty()) {
+                    System.out.println(beforeId == 0 ? "(no trades)" : "(no older trades)");
+                    return;
+                }
+                for (var t : list) {
+                    System.out.println(t.id() + " | " + t.ts() + " | " + t.mode() + " | " + t.symbol() + " | " + t.side()
+                            + " | price=" + t.price() + " qty=" + t.qty() + " bal=" + t.balanceAfter());
+                }
+                beforeId = list.get(list.size() - 1).id();
+                if (!ask("older page? (y/N): ").equalsIgnoreCase("y")) return;
             }
         } catch (SQLException e) {
             System.out.println("❌ DB error: " + e.getMessage());
@@ -199,12 +204,13 @@ public class CliApp {
     private void exportMenu() {
         String mode = ask("mode filter (paper/backtest/live) or empty: ");
         String symbol = ask("symbol filter or empty: ");
-        int limit = askIntLoop("limit (e.g., 200): ");
+        int limit = askIntLoop("limit (e.g., 200, 0 = all): ");
+        boolean gzip = ask("gzip? (y/N): ").equalsIgnoreCase("y");
 
-        Path out = Path.of("data", "export_trades.csv");
+        Path out = Path.of("data", gzip ? "export_trades.csv.gz" : "export_trades.csv");
         try {
-            tradeRepo.exportToCsv(blankToNull(mode), blankToNull(symbol), out, limit);
-            System.out.println("✅ Exported: " + out.toAbsolutePath());
+            long rows = tradeRepo.exportToCsv(blankToNull(mode), blankToNull(symbol), out, limit, gzip);
+            System.out.println("✅ Exported " + rows + " trades: " + out.toAbsolutePath());
         } catch (Exception e) {
             System.out.println("❌ Export error: " + e.getMessage());
         }
@@ -8,13 +8,18 @@ import com.quantor.application.exchange.Timeframes;
 import com.quantor.application.ports.ConfigPort;
 import com.quantor.application.service.SessionService;
 import com.quantor.cli.bootstrap.Bootstrap;
+import com.quantor.cli.tools.BacktestTool;
 import com.quantor.cli.tools.ConfigDoctor;
 import com.quantor.cli.tools.ConfigureTool;
 import com.quantor.cli.tools.PreflightTool;
+import com.quantor.cli.tools.SchedulerBenchmark;
 import com.quantor.cli.tools.SecretsEncryptor;
 import com.quantor.cli.tools.SetupWizard;
+import com.quantor.cli.tools.TickReplayTool;
 import com.quantor.cli.tui.QuantorMenuV2;
+import com.quantor.domain.journal.AsyncAppender;
 import com.quantor.infrastructure.config.FileConfigService;
+import com.quantor.infrastructure.db.SqliteAccess;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -81,6 +86,18 @@ public class Main {
                 System.exit(PreflightTool.run(tail));
                 return;
 
+            case "bench-scheduler":
+                System.exit(SchedulerBenchmark.run(tail));
+                return;
+
+            case "backtest":
+                System.exit(BacktestTool.run(tail));
+                return;
+
+            case "replay-ticks":
+                System.exit(TickReplayTool.run(tail));
+                return;
+
             // STOP-FIX: Telegram mode MUST NOT auto-start sessions from CLI.
             case "telegram":
                 System.exit(TelegramRunner.run(tail));
@@ -175,6 +192,9 @@ public class Main {
         } catch (Exception ignore) {}
 
         sessions.stop(job);
+        sessions.close();
+        AsyncAppender.closeAll(); // drain + sync the journals before the JVM exits
+        SqliteAccess.closeAll();  // then commit the SQLite writes still queued
         System.out.println("[Quantor] Stopped.");
     }
 
@@ -306,6 +326,9 @@ public class Main {
         System.out.println("  java -jar quantor-cli.jar validate-config");
         System.out.println("  java -jar quantor-cli.jar doctor");
         System.out.println("  java -jar quantor-cli.jar preflight");
+        System.out.println("  java -jar quantor-cli.jar bench-scheduler [--mode virtual|pool] [--sessions N]");
+        System.out.println("  java -jar quantor-cli.jar backtest [--symbol BTC/USDT] [--interval 1h] [--strategy ema] [--params 12,26]");
+        System.out.println("  java -jar quantor-cli.jar replay-ticks --ticks aggTrades.csv|ticks.qtk [--interval 1m] [--strategy ema] [--params 12,26]");
         System.out.println("  java -jar quantor-cli.jar telegram             (run Telegram command bot)");
         System.out.println("  java -jar quantor-cli.jar <symbol> <interval> <lookback> [--exchange X] [--mode TEST|LIVE]");
         System.out.println("  java -jar quantor-cli.jar run --symbol BTC-USD --interval 1m --lookback 200 --exchange COINBASE");
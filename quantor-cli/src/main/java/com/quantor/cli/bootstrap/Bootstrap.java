@@ -3,7 +3,7 @@ package com.quantor.cli.bootstrap;
 import com.quantor.application.engine.LiveEngine;
 import com.quantor.application.execution.ExecutionJob;
 import com.quantor.application.execution.JobScheduler;
-import com.quantor.application.execution.impl.DefaultJobScheduler;
+import com.quantor.application.execution.impl.JobSchedulers;
 import com.quantor.application.lifecycle.BotStateManager;
 import com.quantor.application.ports.ConfigPort;
 import com.quantor.application.ports.NotifierPort;
@@ -23,6 +23,7 @@ import com.quantor.domain.strategy.impl.EmaCrossStrategy;
 import com.quantor.domain.strategy.online.OnlineStrategy;
 import com.quantor.exchange.BinanceClient;
 import com.quantor.infrastructure.config.FileConfigService;
+import com.quantor.infrastructure.db.EquitySeriesRepository;
 import com.quantor.infrastructure.exchange.BinanceExchangeAdapter;
 import com.quantor.infrastructure.exchange.PaperExchangeAdapter;
 import com.quantor.infrastructure.exchange.SimpleExchangeRegistry;
@@ -34,6 +35,7 @@ import com.quantor.infrastructure.notification.ConsoleNotifier;
 import com.quantor.infrastructure.notification.TelegramNotifier;
 import com.quantor.infrastructure.paper.PaperBrokerState;
 import com.quantor.infrastructure.paper.PaperPortfolioAdapter;
+import com.quantor.infrastructure.paper.PaperStateJournal;
 import com.quantor.infrastructure.paper.SymbolParserMetaAdapter;
 
 import java.io.FileInputStream;
@@ -160,12 +162,15 @@ public final class Bootstrap {
     public static SessionService createSessionService(ConfigPort config) {
         NotifierPort notifier = createNotifier(config);
         TradeJournalPort journal = new SqliteTradeJournalAdapter();
-        JobScheduler scheduler = new DefaultJobScheduler(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        JobScheduler scheduler = JobSchedulers.fromConfig(config);
 
         // IMPORTANT: this flag affects only "mode" label (LIVE/PAPER) and exchange selection behavior.
         boolean realTradingEnabled = Boolean.parseBoolean(first(config, "liveRealTradingEnabled", "binance.testMode", "false"));
 
-        PipelineFactory factory = job -> {
+        // paper.stateDir set: paper balances/positions survive restarts (snapshot + WAL per session)
+        PaperStateJournal paperState = PaperStateJournal.fromConfig(config);
+
+        PipelineFactory create = job -> {
             // Clients
             BinanceClient client = new BinanceClient(config);
             com.quantor.exchange.BybitClient bybitClient = new com.quantor.exchange.BybitClient(config);
@@ -212,7 +217,7 @@ public final class Bootstrap {
 
             // Portfolio/meta
             SymbolMetaPort meta = new SymbolParserMetaAdapter(config);
-            PaperBrokerState brokerState = new PaperBrokerState();
+            PaperBrokerState brokerState = paperState != null ? paperState.open(job.key()) : new PaperBrokerState();
             PortfolioPort portfolio = new PaperPortfolioAdapter(brokerState, config, meta);
 
             // Exchange used by pipeline
@@ -242,7 +247,30 @@ OrderCooldownGuard cooldown = (cooldownSeconds > 0) ? new OrderCooldownGuard(coo
             );
         };
 
-        return new SessionService(factory, scheduler, notifier, config);
+        SessionService sessions = new SessionService(withPaperState(create, paperState), scheduler, notifier, config);
+        sessions.setEquitySeries(new EquitySeriesRepository());
+        return sessions;
+    }
+
+    /** Stopped sessions release their paper state files; SessionService.close() closes the journal. */
+    private static PipelineFactory withPaperState(PipelineFactory delegate, PaperStateJournal paperState) {
+        if (paperState == null) return delegate;
+        return new PipelineFactory() {
+            @Override
+            public TradingPipeline create(ExecutionJob job) {
+                return delegate.create(job);
+            }
+
+            @Override
+            public void release(ExecutionJob job) {
+                paperState.release(job.key());
+            }
+
+            @Override
+            public void close() {
+                paperState.close();
+            }
+        };
     }
 
     private static NotifierPort createNotifier(ConfigPort config) {
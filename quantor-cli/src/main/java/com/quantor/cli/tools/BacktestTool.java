@@ -0,0 +1,114 @@
+package com.quantor.cli.tools;
+
+import com.quantor.application.engine.BacktestResult;
+import com.quantor.application.engine.BacktestResultCache;
+import com.quantor.application.engine.BacktestStrategies;
+import com.quantor.application.engine.NoopTradeSink;
+import com.quantor.application.engine.TradeSink;
+import com.quantor.application.engine.VectorizedBacktestEngine;
+import com.quantor.application.exchange.ExchangePort;
+import com.quantor.application.exchange.MarketSymbol;
+import com.quantor.application.exchange.Timeframe;
+import com.quantor.application.exchange.Timeframes;
+import com.quantor.application.ports.ConfigPort;
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.risk.RiskManager;
+import com.quantor.domain.strategy.Strategy;
+import com.quantor.exchange.BinanceClient;
+import com.quantor.infrastructure.config.FileConfigService;
+import com.quantor.infrastructure.exchange.BinanceExchangeAdapter;
+import com.quantor.infrastructure.exchange.UnifiedBinanceExchangeAdapter;
+import com.quantor.infrastructure.journal.BatchedSqliteTradeSink;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline backtest / parameter sweep over the latest Binance candles.
+ *
+ * Usage:
+ *  backtest [--symbol BTC/USDT] [--interval 1h] [--limit 500] [--strategy ema|threshold]
+ *           [--params 12,26] [--params 9,21 ...] [--trades sqlite|none] [--cache-dir DIR | --no-cache]
+ *
+ * Risk settings (positionUSDT, feeRate, stopLossPct, takeProfitPct) come from config.properties.
+ * The candles are fetched once and every param set runs on the same close array.
+ * --trades sqlite writes the trades into the trades table through BatchedSqliteTradeSink
+ * (default for a single param set); sweeps default to none (summary only).
+ * Results are cached by params + risk settings + candle fingerprint (BacktestResultCache, default
+ * data/backtest-cache): a repeated run on unchanged candles is served from the cache and writes no trades.
+ *
+ * Exit codes:
+ *  0 all param sets ran
+ *  1 bad arguments, candle fetch or trade write failed
+ */
+public final class BacktestTool {
+
+    private BacktestTool() {}
+
+    public static int run(String[] args) {
+        String symbolRaw = "BTC/USDT";
+        String intervalRaw = "1h";
+        int limit = 500;
+        String type = "ema";
+        String trades = null;
+        String cacheDir = "data/backtest-cache";
+        List<String> params = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            boolean hasNext = i + 1 < args.length;
+            if ("--symbol".equalsIgnoreCase(a) && hasNext) symbolRaw = args[++i];
+            else if ("--interval".equalsIgnoreCase(a) && hasNext) intervalRaw = args[++i];
+            else if ("--limit".equalsIgnoreCase(a) && hasNext) limit = Integer.parseInt(args[++i]);
+            else if ("--strategy".equalsIgnoreCase(a) && hasNext) type = args[++i].trim().toLowerCase();
+            else if ("--params".equalsIgnoreCase(a) && hasNext) params.add(args[++i]);
+            else if ("--trades".equalsIgnoreCase(a) && hasNext) trades = args[++i].trim().toLowerCase();
+            else if ("--cache-dir".equalsIgnoreCase(a) && hasNext) cacheDir = args[++i];
+            else if ("--no-cache".equalsIgnoreCase(a)) cacheDir = null;
+        }
+        if (params.isEmpty()) params.add("ema".equals(type) ? "12,26" : "0.5,0.5");
+        if (trades == null) trades = params.size() == 1 ? "sqlite" : "none";
+
+        try {
+            ConfigPort config = FileConfigService.defaultFromWorkingDir();
+            MarketSymbol symbol = MarketSymbol.parse(symbolRaw);
+            Timeframe tf = Timeframes.parse(intervalRaw);
+
+            ExchangePort marketData = new UnifiedBinanceExchangeAdapter(new BinanceExchangeAdapter(new BinanceClient(config)));
+            List<Candle> candles = marketData.getCandles(symbol, tf, Math.max(50, Math.min(1000, limit)));
+            double[] close = VectorizedBacktestEngine.closes(candles);
+            String fingerprint = BacktestResultCache.fingerprint(candles);
+            BacktestResultCache cache = cacheDir == null ? null : new BacktestResultCache(Path.of(cacheDir));
+
+            RiskManager rm = new RiskManager(
+                    config.getDouble("positionUSDT", 50.0),
+                    config.getDouble("feeRate", 0.001),
+                    config.getDouble("stopLossPct", 0.02),
+                    config.getDouble("takeProfitPct", 0.03)
+            );
+
+            System.out.println("[backtest] " + symbol.asBaseQuote() + " " + tf.name() + " candles=" + candles.size()
+                    + " strategy=" + type + " paramSets=" + params.size() + " trades=" + trades);
+
+            try (TradeSink sink = "sqlite".equals(trades) ? new BatchedSqliteTradeSink("backtest", 500) : NoopTradeSink.INSTANCE) {
+                for (String line : params) {
+                    Strategy strategy = BacktestStrategies.fromParams(type, line);
+                    VectorizedBacktestEngine engine =
+                            new VectorizedBacktestEngine(strategy, rm, symbol.asBaseQuote(), tf.name(), sink);
+                    long t0 = System.nanoTime();
+                    BacktestResult r = cache == null
+                            ? engine.run(close)
+                            : cache.getOrCompute(BacktestResultCache.key(strategy, rm, symbol.asBaseQuote(), tf.name(), fingerprint),
+                                    () -> engine.run(close));
+                    System.out.printf("[backtest] params=%s trades=%d winrate=%.2f%% pnl=%.2f maxDD=%.2f%% (%.1f ms)%n",
+                            line, r.trades(), r.winrate(), r.pnl(), r.maxDrawdownPct(), (System.nanoTime() - t0) / 1e6);
+                }
+            }
+            return 0;
+        } catch (Exception e) {
+            System.err.println("[backtest] failed: " + e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.quantor.cli.tools;
+
+import com.quantor.application.exchange.ExchangeId;
+import com.quantor.application.exchange.ExchangePort;
+import com.quantor.application.exchange.MarketSymbol;
+import com.quantor.application.exchange.Timeframe;
+import com.quantor.application.execution.ExecutionJob;
+import com.quantor.application.execution.JobScheduler;
+import com.quantor.application.execution.impl.DefaultJobScheduler;
+import com.quantor.application.execution.impl.VirtualThreadJobScheduler;
+import com.quantor.application.ports.NotifierPort;
+import com.quantor.application.ports.PortfolioPort;
+import com.quantor.application.service.PipelineFactory;
+import com.quantor.application.service.SessionService;
+import com.quantor.application.usecase.TradingMode;
+import com.quantor.application.usecase.TradingPipeline;
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.order.TradeAction;
+import com.quantor.domain.portfolio.Fill;
+import com.quantor.domain.portfolio.PortfolioPosition;
+import com.quantor.domain.portfolio.PortfolioSnapshot;
+import com.quantor.domain.risk.RiskManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduler benchmark: N concurrent sessions through SessionService against a stub exchange
+ * whose calls block for a fixed latency (simulated klines HTTP).
+ *
+ * Usage:
+ *  bench-scheduler [--mode virtual|pool] [--sessions 10000] [--period-ms 1000]
+ *                  [--latency-ms 150] [--seconds 20] [--pool-threads N]
+ *
+ * Reports completed ticks vs the ideal sessions * seconds / period, skipped (overlapping) ticks,
+ * peak platform thread count and heap. Carrier threads can be capped with
+ *  -Djdk.virtualThreadScheduler.parallelism=N -Djdk.virtualThreadScheduler.maxPoolSize=N
+ *
+ * Exit codes:
+ *  0 completed >= 90% of the ideal tick count
+ *  1 below that
+ */
+public final class SchedulerBenchmark {
+
+    private SchedulerBenchmark() {}
+
+    public static int run(String[] args) throws Exception {
+        String mode = "virtual";
+        int sessions = 10_000;
+        long periodMs = 1000;
+        long latencyMs = 150;
+        int seconds = 20;
+        int poolThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            boolean hasNext = i + 1 < args.length;
+            if ("--mode".equalsIgnoreCase(a) && hasNext) mode = args[++i].trim().toLowerCase();
+            else if ("--sessions".equalsIgnoreCase(a) && hasNext) sessions = Integer.parseInt(args[++i]);
+            else if ("--period-ms".equalsIgnoreCase(a) && hasNext) periodMs = Long.parseLong(args[++i]);
+            else if ("--latency-ms".equalsIgnoreCase(a) && hasNext) latencyMs = Long.parseLong(args[++i]);
+            else if ("--seconds".equalsIgnoreCase(a) && hasNext) seconds = Integer.parseInt(args[++i]);
+            else if ("--pool-threads".equalsIgnoreCase(a) && hasNext) poolThreads = Integer.parseInt(args[++i]);
+        }
+
+        JobScheduler scheduler = "pool".equals(mode)
+                ? new DefaultJobScheduler(poolThreads)
+                : new VirtualThreadJobScheduler();
+
+        StubExchange exchange = new StubExchange(latencyMs);
+        NotifierPort notifier = msg -> { };
+        PipelineFactory factory = job -> new TradingPipeline(
+                TradingMode.PAPER,
+                exchange,
+                new FlatPortfolio(),
+                null,
+                history -> TradeAction.HOLD,
+                new RiskManager(),
+                (m, s, side, price, qty, bal, c) -> { },
+                notifier,
+                null,
+                null,
+                null,
+                job.userId()
+        );
+
+        // periodMs below SessionService's 250ms floor would be silently raised
+        periodMs = Math.max(250, periodMs);
+        SessionService service = new SessionService(factory, scheduler, notifier);
+
+        System.out.println("[bench] mode=" + mode + " sessions=" + sessions + " periodMs=" + periodMs
+                + " latencyMs=" + latencyMs + " seconds=" + seconds
+                + ("pool".equals(mode) ? " poolThreads=" + poolThreads : ""));
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        List<ExecutionJob> jobs = new ArrayList<>(sessions);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            ExecutionJob job = new ExecutionJob("bench-" + i, "bench", ExchangeId.PAPER, ExchangeId.PAPER,
+                    MarketSymbol.of("S" + i, "USDT"), Timeframe.M1, 60);
+            service.start(job, periodMs);
+            jobs.add(job);
+        }
+        long startupMs = (System.nanoTime() - t0) / 1_000_000;
+
+        long warmupMs = Math.min(2000, seconds * 500L);
+        Thread.sleep(warmupMs);
+        long before = exchange.calls.get();
+        long m0 = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        long measured = exchange.calls.get() - before;
+        double elapsedSec = (System.nanoTime() - m0) / 1e9;
+
+        for (ExecutionJob job : jobs) service.stop(job);
+        if (scheduler instanceof VirtualThreadJobScheduler v) v.shutdown();
+        if (scheduler instanceof DefaultJobScheduler d) d.shutdown();
+
+        double ideal = sessions * (elapsedSec * 1000.0 / periodMs);
+        double ratio = ideal > 0 ? measured / ideal : 0.0;
+        Runtime rt = Runtime.getRuntime();
+
+        System.out.println("[bench] startup: " + startupMs + " ms");
+        System.out.printf("[bench] ticks: %d in %.1fs (%.0f/s), ideal %.0f -> %.1f%%%n",
+                measured, elapsedSec, measured / elapsedSec, ideal, ratio * 100.0);
+        if (scheduler instanceof VirtualThreadJobScheduler v) {
+            System.out.println("[bench] skipped (previous tick still running): " + v.ticksSkipped());
+        }
+        System.out.println("[bench] peak platform threads: " + threads.getPeakThreadCount());
+        System.out.println("[bench] heap used: " + ((rt.totalMemory() - rt.freeMemory()) / (1024 * 1024)) + " MB");
+
+        return ratio >= 0.9 ? 0 : 1;
+    }
+
+    /** Blocks every call for latencyMs, like a remote REST endpoint. */
+    private static final class StubExchange implements ExchangePort {
+        private final long latencyMs;
+        private final List<Candle> candles;
+        private final AtomicLong calls = new AtomicLong();
+
+        private StubExchange(long latencyMs) {
+            this.latencyMs = latencyMs;
+            List<Candle> list = new ArrayList<>(60);
+            long t = 1_700_000_000_000L;
+            for (int i = 0; i < 60; i++) {
+                double p = 100.0 + i * 0.1;
+                list.add(new Candle(t, p, p + 0.5, p - 0.5, p, 1.0, t + 59_999));
+                t += 60_000;
+            }
+            this.candles = List.copyOf(list);
+        }
+
+        @Override
+        public ExchangeId id() {
+            return ExchangeId.PAPER;
+        }
+
+        @Override
+        public List<Candle> getCandles(MarketSymbol symbol, Timeframe timeframe, int limit) throws Exception {
+            Thread.sleep(latencyMs);
+            calls.incrementAndGet();
+            return candles;
+        }
+
+        @Override
+        public void marketBuy(MarketSymbol symbol, double quantity) throws Exception {
+            Thread.sleep(latencyMs);
+        }
+
+        @Override
+        public void marketSell(MarketSymbol symbol, double quantity) throws Exception {
+            Thread.sleep(latencyMs);
+        }
+    }
+
+    private static final class FlatPortfolio implements PortfolioPort {
+        private final PortfolioSnapshot snapshot =
+                new PortfolioSnapshot(Map.of(), Map.of(), BigDecimal.valueOf(1000), "USDT", Instant.EPOCH);
+
+        @Override
+        public PortfolioSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        @Override
+        public PortfolioPosition getPosition(String symbol) {
+            return null;
+        }
+
+        @Override
+        public void applyFill(Fill fill) {
+        }
+    }
+}
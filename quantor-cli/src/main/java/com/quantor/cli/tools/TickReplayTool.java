@@ -0,0 +1,110 @@
+package com.quantor.cli.tools;
+
+import com.quantor.application.engine.BacktestResult;
+import com.quantor.application.engine.BacktestStrategies;
+import com.quantor.application.engine.NoopTradeSink;
+import com.quantor.application.engine.TradeSink;
+import com.quantor.application.engine.tick.MappedTickFile;
+import com.quantor.application.engine.tick.TickFiles;
+import com.quantor.application.engine.tick.TickReplayEngine;
+import com.quantor.application.exchange.Timeframe;
+import com.quantor.application.exchange.Timeframes;
+import com.quantor.application.ports.ConfigPort;
+import com.quantor.domain.risk.RiskManager;
+import com.quantor.infrastructure.config.FileConfigService;
+import com.quantor.infrastructure.journal.BatchedSqliteTradeSink;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tick-level backtest over a Binance aggTrades dump (intrabar SL/TP, see TickReplayEngine).
+ *
+ * Usage:
+ *  replay-ticks --ticks FILE [--price-scale 0.01] [--symbol BTCUSDT] [--interval 1m]
+ *               [--strategy ema|threshold] [--params 12,26] [--trades sqlite|none]
+ *
+ * FILE is either a binary .qtk tick file or an aggTrades CSV (plain / .gz / .zip). A CSV is converted
+ * once to FILE.qtk (with --price-scale as tick size) and the .qtk is reused while it is newer than the CSV.
+ * Risk settings (positionUSDT, feeRate, stopLossPct, takeProfitPct) come from config.properties.
+ * Prints the result plus ticks processed and replay throughput (conversion time is reported apart).
+ *
+ * Exit codes:
+ *  0 replay completed
+ *  1 bad arguments, unreadable tick file or trade write failed
+ */
+public final class TickReplayTool {
+
+    private TickReplayTool() {}
+
+    public static int run(String[] args) {
+        String ticksRaw = null;
+        double priceScale = 0.01;
+        String symbol = "BTCUSDT";
+        String intervalRaw = "1m";
+        String type = "ema";
+        String params = null;
+        String trades = "none";
+
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            boolean hasNext = i + 1 < args.length;
+            if ("--ticks".equalsIgnoreCase(a) && hasNext) ticksRaw = args[++i];
+            else if ("--price-scale".equalsIgnoreCase(a) && hasNext) priceScale = Double.parseDouble(args[++i]);
+            else if ("--symbol".equalsIgnoreCase(a) && hasNext) symbol = args[++i].trim().toUpperCase();
+            else if ("--interval".equalsIgnoreCase(a) && hasNext) intervalRaw = args[++i];
+            else if ("--strategy".equalsIgnoreCase(a) && hasNext) type = args[++i].trim().toLowerCase();
+            else if ("--params".equalsIgnoreCase(a) && hasNext) params = args[++i];
+            else if ("--trades".equalsIgnoreCase(a) && hasNext) trades = args[++i].trim().toLowerCase();
+        }
+        if (ticksRaw == null) {
+            System.err.println("[replay-ticks] --ticks FILE is required");
+            return 1;
+        }
+        if (params == null) params = "ema".equals(type) ? "12,26" : "0.5,0.5";
+
+        try {
+            ConfigPort config = FileConfigService.defaultFromWorkingDir();
+            Timeframe tf = Timeframes.parse(intervalRaw);
+
+            Path ticks = Path.of(ticksRaw);
+            if (!ticks.getFileName().toString().toLowerCase().endsWith(".qtk")) {
+                Path qtk = ticks.resolveSibling(ticks.getFileName() + ".qtk");
+                if (!Files.exists(qtk) || Files.getLastModifiedTime(qtk).compareTo(Files.getLastModifiedTime(ticks)) < 0) {
+                    long c0 = System.nanoTime();
+                    long n = TickFiles.convert(ticks, qtk, priceScale);
+                    System.out.printf("[replay-ticks] converted %d ticks -> %s (%.1f s)%n",
+                            n, qtk, (System.nanoTime() - c0) / 1e9);
+                }
+                ticks = qtk;
+            }
+
+            RiskManager rm = new RiskManager(
+                    config.getDouble("positionUSDT", 50.0),
+                    config.getDouble("feeRate", 0.001),
+                    config.getDouble("stopLossPct", 0.02),
+                    config.getDouble("takeProfitPct", 0.03)
+            );
+
+            try (TradeSink sink = "sqlite".equals(trades) ? new BatchedSqliteTradeSink("replay", 500) : NoopTradeSink.INSTANCE;
+                 MappedTickFile src = new MappedTickFile(ticks)) {
+                TickReplayEngine engine = new TickReplayEngine(
+                        BacktestStrategies.fromParams(type, params), rm, tf.millis(), symbol, tf.name(), sink, 2000);
+
+                long t0 = System.nanoTime();
+                BacktestResult r = engine.run(src);
+                double sec = (System.nanoTime() - t0) / 1e9;
+
+                System.out.printf("[replay-ticks] %s %s strategy=%s params=%s bars=%d trades=%d winrate=%.2f%% pnl=%.2f maxDD=%.2f%%%n",
+                        symbol, tf.name(), type, params, r.equityCurve().length,
+                        r.trades(), r.winrate(), r.pnl(), r.maxDrawdownPct());
+                System.out.printf("[replay-ticks] ticks=%d in %.2f s (%.1f M ticks/s)%n",
+                        engine.ticksProcessed(), sec, sec > 0 ? engine.ticksProcessed() / sec / 1e6 : 0.0);
+            }
+            return 0;
+        } catch (Exception e) {
+            System.err.println("[replay-ticks] failed: " + e.getMessage());
+            return 1;
+        }
+    }
+}
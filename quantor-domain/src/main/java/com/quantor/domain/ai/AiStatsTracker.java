@@ -1,14 +1,27 @@
 package com.quantor.domain.ai;
 
+import com.quantor.domain.journal.AsyncAppender;
+import com.quantor.domain.journal.LineFileWriter;
+
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
  * Stores trade history and aggregated statistics.
  *
- * File format:
+ * File format (append-only log, one line per event; the last #peak wins, #reset clears):
  *   #peak=1234.56
  *   timestamp;pnl;equityAfter
+ *   #reset
+ *
+ * Each closed trade / new peak appends one line through an AsyncAppender instead of rewriting the
+ * file. Superseded lines (old peaks, everything before a reset) are dropped by a periodic compaction
+ * on the appender thread. Win count, PnL sum, streaks, running peak and max drawdown are kept
+ * incrementally, so every getter is O(1) regardless of history length.
  */
 public class AiStatsTracker {
 
@@ -24,32 +37,63 @@ public class AiStatsTracker {
         }
     }
 
+    private static final double INITIAL_PEAK = 1000.0;
+
+    // superseded lines in the file before it is rewritten
+    private static final int COMPACT_AFTER = 512;
+
+    private enum Kind { TRADE, PEAK, RESET }
+
+    private record LogEntry(Kind kind, long ts, double pnl, double equity) {}
+
     private final List<TradeRecord> trades = new ArrayList<>();
     private final File saveFile;
+    private final AsyncAppender<LogEntry> log;
 
     // Peak equity persists across restarts
-    private double peakEquity = 1000.0;
+    private double peakEquity = INITIAL_PEAK;
+
+    // incremental aggregates over `trades`
+    private int wins;
+    private double pnlSum;
+    private int winStreak;
+    private int lossStreak;
+    private double tradePeak;    // running max of equityAfter (drawdown reference)
+    private double maxDrawdown;
 
     public AiStatsTracker(String filePath) {
+        this(filePath, AsyncAppender.Options.fromSystemProperties());
+    }
+
+    public AiStatsTracker(String filePath, AsyncAppender.Options options) {
         this.saveFile = new File(filePath);
-        load();
+        int superseded = load();
+        if (superseded > COMPACT_AFTER) compact(trades.size(), peakEquity);
+        this.log = new AsyncAppender<>("ai-stats", new LogWriter(), options);
     }
 
     /** Add a closed trade */
     public synchronized void onTradeClosed(double pnl, double equity) {
         updatePeak(equity);
-        trades.add(new TradeRecord(System.currentTimeMillis(), pnl, equity));
-        save();
+        TradeRecord t = new TradeRecord(System.currentTimeMillis(), pnl, equity);
+        add(t);
+        log.append(new LogEntry(Kind.TRADE, t.timestamp, pnl, equity));
     }
 
     public synchronized List<TradeRecord> getTrades() {
         return new ArrayList<>(trades);
     }
 
+    /** Trade by index (0 = oldest), null when out of range. */
+    public synchronized TradeRecord getTrade(int index) {
+        return (index < 0 || index >= trades.size()) ? null : trades.get(index);
+    }
+
     public synchronized void reset() {
         trades.clear();
-        peakEquity = 1000.0;
-        save();
+        peakEquity = INITIAL_PEAK;
+        clearAggregates();
+        log.append(new LogEntry(Kind.RESET, System.currentTimeMillis(), 0, 0));
     }
 
     public synchronized int getTotalTrades() {
@@ -58,44 +102,25 @@ public class AiStatsTracker {
 
     public synchronized double getWinrate() {
         if (trades.isEmpty()) return 0.0;
-        long wins = trades.stream().filter(t -> t.pnl > 0).count();
         return wins * 1.0 / trades.size();
     }
 
     public synchronized double getAvgPnl() {
         if (trades.isEmpty()) return 0.0;
-        return trades.stream().mapToDouble(t -> t.pnl).average().orElse(0);
+        return pnlSum / trades.size();
     }
 
     /** Maximum drawdown in USDT (absolute) */
     public synchronized double getMaxDrawdown() {
-        if (trades.isEmpty()) return 0;
-        double peak = trades.get(0).equityAfter;
-        double maxDD = 0;
-        for (TradeRecord t : trades) {
-            if (t.equityAfter > peak) peak = t.equityAfter;
-            double dd = peak - t.equityAfter;
-            if (dd > maxDD) maxDD = dd;
-        }
-        return maxDD;
+        return maxDrawdown;
     }
 
     public synchronized int getWinStreak() {
-        int streak = 0;
-        for (int i = trades.size() - 1; i >= 0; i--) {
-            if (trades.get(i).pnl > 0) streak++;
-            else break;
-        }
-        return streak;
+        return winStreak;
     }
 
     public synchronized int getLossStreak() {
-        int streak = 0;
-        for (int i = trades.size() - 1; i >= 0; i--) {
-            if (trades.get(i).pnl < 0) streak++;
-            else break;
-        }
-        return streak;
+        return lossStreak;
     }
 
     public synchronized double getPeakEquity() {
@@ -105,7 +130,7 @@ public class AiStatsTracker {
     public synchronized double updatePeak(double equity) {
         if (equity > peakEquity) {
             peakEquity = equity;
-            save();
+            log.append(new LogEntry(Kind.PEAK, System.currentTimeMillis(), 0, equity));
         }
         return peakEquity;
     }
@@ -125,37 +150,73 @@ public class AiStatsTracker {
                 ", lossStreak=" + getLossStreak();
     }
 
-    private synchronized void save() {
-        try {
-            File parent = saveFile.getParentFile();
-            if (parent != null) parent.mkdirs();
+    /** Waits until every change is in the file. */
+    public void flush() {
+        log.flush();
+    }
 
-            try (PrintWriter pw = new PrintWriter(new FileWriter(saveFile))) {
-                pw.println("#peak=" + peakEquity);
-                for (TradeRecord t : trades) {
-                    pw.println(t.timestamp + ";" + t.pnl + ";" + t.equityAfter);
-                }
-            }
-        } catch (Exception ignored) {
+    private void add(TradeRecord t) {
+        if (trades.isEmpty()) tradePeak = t.equityAfter;
+        trades.add(t);
+
+        pnlSum += t.pnl;
+        if (t.pnl > 0) {
+            wins++;
+            winStreak++;
+            lossStreak = 0;
+        } else if (t.pnl < 0) {
+            lossStreak++;
+            winStreak = 0;
+        } else {
+            winStreak = 0;
+            lossStreak = 0;
         }
+
+        if (t.equityAfter > tradePeak) tradePeak = t.equityAfter;
+        double dd = tradePeak - t.equityAfter;
+        if (dd > maxDrawdown) maxDrawdown = dd;
     }
 
-    private synchronized void load() {
-        if (!saveFile.exists()) return;
+    private void clearAggregates() {
+        wins = 0;
+        pnlSum = 0;
+        winStreak = 0;
+        lossStreak = 0;
+        tradePeak = 0;
+        maxDrawdown = 0;
+    }
+
+    /** Reads the log; returns the number of superseded lines (compaction candidates). */
+    private synchronized int load() {
+        if (!saveFile.exists()) return 0;
 
         trades.clear();
+        clearAggregates();
+        int superseded = 0;
+        boolean peakSeen = false;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(saveFile))) {
+        try (BufferedReader br = new BufferedReader(new FileReader(saveFile, StandardCharsets.UTF_8))) {
             String line;
             while ((line = br.readLine()) != null) {
                 line = line.trim();
                 if (line.isEmpty()) continue;
 
+                if (line.equals("#reset")) {
+                    superseded += trades.size() + (peakSeen ? 2 : 1);
+                    trades.clear();
+                    clearAggregates();
+                    peakEquity = INITIAL_PEAK;
+                    peakSeen = false;
+                    continue;
+                }
+
                 if (line.startsWith("#peak=")) {
                     try {
                         peakEquity = Double.parseDouble(
                                 line.substring("#peak=".length()).trim()
                         );
+                        if (peakSeen) superseded++;
+                        peakSeen = true;
                     } catch (Exception ignored) {
                     }
                     continue;
@@ -163,14 +224,104 @@ public class AiStatsTracker {
 
                 String[] p = line.split(";");
                 if (p.length == 3) {
-                    long ts = Long.parseLong(p[0]);
-                    double pnl = Double.parseDouble(p[1]);
-                    double eq = Double.parseDouble(p[2]);
-                    trades.add(new TradeRecord(ts, pnl, eq));
-                    if (eq > peakEquity) peakEquity = eq;
+                    try {
+                        long ts = Long.parseLong(p[0]);
+                        double pnl = Double.parseDouble(p[1]);
+                        double eq = Double.parseDouble(p[2]);
+                        add(new TradeRecord(ts, pnl, eq));
+                        if (eq > peakEquity) peakEquity = eq;
+                    } catch (NumberFormatException ignored) {
+                        superseded++; // torn line from a crash mid-write
+                    }
                 }
             }
         } catch (Exception ignored) {
         }
+        return superseded;
+    }
+
+    /** Rewrites the file as #peak + the first `persistedTrades` trades (tmp file + atomic move). */
+    private void compact(int persistedTrades, double peak) {
+        List<TradeRecord> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(trades.subList(0, Math.min(persistedTrades, trades.size())));
+        }
+        try {
+            Path target = saveFile.toPath();
+            if (target.getParent() != null) Files.createDirectories(target.getParent());
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                w.write("#peak=" + peak);
+                w.newLine();
+                for (TradeRecord t : snapshot) {
+                    w.write(t.timestamp + ";" + t.pnl + ";" + t.equityAfter);
+                    w.newLine();
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            System.err.println("[AiStatsTracker] compaction error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends log lines; runs on the appender thread. Entries arrive in the order they were applied
+     * in memory, so the first `persisted` trades of the list are exactly the ones already in the file.
+     */
+    private final class LogWriter implements AsyncAppender.BatchWriter<LogEntry> {
+        private final LineFileWriter<LogEntry> lines =
+                new LineFileWriter<>(saveFile.toPath(), null, LogWriter::format);
+        private int persisted;
+        private double persistedPeak;
+        private int superseded;
+
+        private LogWriter() {
+            synchronized (AiStatsTracker.this) {
+                persisted = trades.size();
+                persistedPeak = peakEquity;
+            }
+        }
+
+        @Override
+        public void write(List<LogEntry> batch) throws IOException {
+            lines.write(batch);
+            for (LogEntry e : batch) {
+                switch (e.kind()) {
+                    case TRADE -> persisted++;
+                    case PEAK -> {
+                        persistedPeak = e.equity();
+                        superseded++;
+                    }
+                    case RESET -> {
+                        superseded += persisted + 1;
+                        persisted = 0;
+                        persistedPeak = INITIAL_PEAK;
+                    }
+                }
+            }
+            if (superseded > COMPACT_AFTER) {
+                lines.close(); // reopened (append) on the next write
+                compact(persisted, persistedPeak);
+                superseded = 0;
+            }
+        }
+
+        @Override
+        public void sync() throws IOException {
+            lines.sync();
+        }
+
+        @Override
+        public void close() throws IOException {
+            lines.close();
+        }
+
+        private static void format(LogEntry e, StringBuilder out) {
+            switch (e.kind()) {
+                case TRADE -> out.append(e.ts()).append(';').append(e.pnl()).append(';').append(e.equity());
+                case PEAK -> out.append("#peak=").append(e.equity());
+                case RESET -> out.append("#reset");
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,37 +1,40 @@
 package com.quantor.domain.ai;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import com.quantor.domain.journal.AsyncAppender;
+import com.quantor.domain.journal.LineFileWriter;
+
 import java.nio.file.*;
 import java.time.Instant;
 
+/**
+ * CSV log of online-learning updates.
+ * log() only enqueues; formatting and file I/O run on the AsyncAppender flusher.
+ */
 public class TrainLogger {
 
+    private static final String HEADER =
+            "ts_iso;symbol;interval;reason;tick;entry;exit;retClose;ret3;ret5;target;pBefore;pAfter;updates";
+
+    private record Row(long tsMs, String symbol, String interval, String reason, int tick,
+                       double entryPrice, double exitPrice, double retClose, Double ret3, Double ret5,
+                       double target, double pBefore, double pAfter, long updates) {}
+
     private final Path path;
+    private final AsyncAppender<Row> appender;
 
     public TrainLogger(String filePath) {
+        this(filePath, AsyncAppender.Options.fromSystemProperties());
+    }
+
+    public TrainLogger(String filePath, AsyncAppender.Options options) {
         this.path = Paths.get(filePath == null || filePath.isBlank()
                 ? "data/online_train_log.csv"
                 : filePath);
-        ensureHeader();
+        this.appender = new AsyncAppender<>("train-log",
+                new LineFileWriter<>(path, HEADER, TrainLogger::format), options);
     }
 
-    private void ensureHeader() {
-        try {
-            if (path.getParent() != null) Files.createDirectories(path.getParent());
-            if (!Files.exists(path) || Files.size(path) == 0) {
-                try (BufferedWriter bw = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
-                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-                    bw.write("ts_iso;symbol;interval;reason;tick;entry;exit;retClose;ret3;ret5;target;pBefore;pAfter;updates\n");
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("[TrainLogger] ensureHeader error: " + e.getMessage());
-        }
-    }
-
-    public synchronized void log(
+    public void log(
             String symbol,
             String interval,
             String reason,
@@ -46,37 +49,40 @@ public class TrainLogger {
             double pAfter,
             long updates
     ) {
-        String ts = Instant.now().toString();
+        appender.append(new Row(System.currentTimeMillis(), symbol, interval, reason, tick,
+                entryPrice, exitPrice, retClose, ret3, ret5, target, pBefore, pAfter, updates));
+    }
 
-        String line =
-                ts + ";" +
-                        safe(symbol) + ";" +
-                        safe(interval) + ";" +
-                        safe(reason) + ";" +
-                        tick + ";" +
-                        fmt(entryPrice) + ";" +
-                        fmt(exitPrice) + ";" +
-                        fmt(retClose) + ";" +
-                        (ret3 == null ? "" : fmt(ret3)) + ";" +
-                        (ret5 == null ? "" : fmt(ret5)) + ";" +
-                        fmt(target) + ";" +
-                        fmt(pBefore) + ";" +
-                        fmt(pAfter) + ";" +
-                        updates + "\n";
+    /** Waits until every logged row is in the file. */
+    public void flush() {
+        appender.flush();
+    }
 
-        try (BufferedWriter bw = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
-                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-            bw.write(line);
-        } catch (IOException e) {
-            System.err.println("[TrainLogger] write error: " + e.getMessage());
-        }
+    private static void format(Row r, StringBuilder out) {
+        out.append(Instant.ofEpochMilli(r.tsMs())).append(';')
+                .append(safe(r.symbol())).append(';')
+                .append(safe(r.interval())).append(';')
+                .append(safe(r.reason())).append(';')
+                .append(r.tick()).append(';');
+        fmt(r.entryPrice(), out).append(';');
+        fmt(r.exitPrice(), out).append(';');
+        fmt(r.retClose(), out).append(';');
+        if (r.ret3() != null) fmt(r.ret3(), out);
+        out.append(';');
+        if (r.ret5() != null) fmt(r.ret5(), out);
+        out.append(';');
+        fmt(r.target(), out).append(';');
+        fmt(r.pBefore(), out).append(';');
+        fmt(r.pAfter(), out).append(';');
+        out.append(r.updates());
     }
 
     private static String safe(String s) {
         return (s == null) ? "" : s.replace(";", "_");
     }
 
-    private static String fmt(double v) {
-        return String.format(java.util.Locale.US, "%.8f", v);
+    private static StringBuilder fmt(double v, StringBuilder out) {
+        LineFileWriter.appendFixed(out, v, 8);
+        return out;
     }
-}
\ No newline at end of file
+}
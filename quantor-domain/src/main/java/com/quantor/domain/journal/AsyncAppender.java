@@ -0,0 +1,391 @@
+package com.quantor.domain.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Journaling service: producers enqueue records, one background flusher writes them in batches.
+ *
+ * - Lock-free bounded MPSC ring (sequence-stamped slots): append() from a trading thread is one CAS
+ *   and two array stores; formatting and I/O happen on the flusher.
+ * - Group commit: the flusher drains everything queued into one BatchWriter.write() and one sync().
+ * - Durability:
+ *   PER_RECORD  append() returns once its record is written and synced (callers waiting at the
+ *               same time share one sync); a failed write or sync is thrown to the waiting caller
+ *   INTERVAL    written + synced every flushIntervalMs (default)
+ *   ON_SHUTDOWN written every flushIntervalMs, synced only on close / JVM shutdown
+ * - Backpressure: when the ring is full, producers wake the flusher and wait for free slots
+ *   (no record is dropped while the appender is open).
+ * - Records of a batch whose write() throws are counted in dropped(); flush() reports them.
+ *
+ * close() is owned by the application lifecycle (closeAll() after the components that append have
+ * stopped). The JVM shutdown hook is only a fallback: once manageLifecycle() was called it waits for
+ * closeAll() (-Dquantor.journal.shutdownWaitMs, default 30 s) and then closes what is still open.
+ */
+public final class AsyncAppender<T> implements AutoCloseable {
+
+    public enum Durability {
+        PER_RECORD, INTERVAL, ON_SHUTDOWN;
+
+        public static Durability parse(String value, Durability fallback) {
+            if (value == null || value.isBlank()) return fallback;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                return fallback;
+            }
+        }
+    }
+
+    /** Destination of the batches; called on the flusher thread only. */
+    public interface BatchWriter<T> {
+        void write(List<T> batch) throws IOException;
+
+        default void sync() throws IOException {
+        }
+
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * @param capacity        ring slots (rounded up to a power of two)
+     * @param flushIntervalMs max time a record waits in the ring (INTERVAL / ON_SHUTDOWN)
+     */
+    public record Options(int capacity, long flushIntervalMs, Durability durability) {
+
+        public static Options defaults() {
+            return new Options(8192, 200, Durability.INTERVAL);
+        }
+
+        /** -Dquantor.journal.capacity, -Dquantor.journal.flushMs, -Dquantor.journal.durability */
+        public static Options fromSystemProperties() {
+            Options d = defaults();
+            return new Options(
+                    Integer.getInteger("quantor.journal.capacity", d.capacity()),
+                    Long.getLong("quantor.journal.flushMs", d.flushIntervalMs()),
+                    Durability.parse(System.getProperty("quantor.journal.durability"), d.durability())
+            );
+        }
+    }
+
+    private static final Set<AsyncAppender<?>> OPEN = ConcurrentHashMap.newKeySet();
+    private static final CountDownLatch LIFECYCLE_CLOSED = new CountDownLatch(1);
+    private static volatile boolean lifecycleManaged = false;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (lifecycleManaged) {
+                try {
+                    // the application closes its appenders after its own components have stopped
+                    LIFECYCLE_CLOSED.await(Long.getLong("quantor.journal.shutdownWaitMs", 30_000L), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (AsyncAppender<?> a : OPEN) a.close();
+        }, "quantor-journal-shutdown"));
+    }
+
+    /** Tail bit set by close(): no slot can be claimed once it is set. */
+    private static final long CLOSED = 1L << 62;
+    /** Failed ranges kept for waiters (a waiter checks right after its range is published). */
+    private static final int FAILURES_KEPT = 16;
+
+    private final String name;
+    private final BatchWriter<T> writer;
+    private final Durability durability;
+    private final long intervalNanos;
+
+    // ring
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // flusher only
+
+    // records [0, completed) are written (and synced unless ON_SHUTDOWN)
+    private volatile long completed;
+    private final ReentrantLock doneLock = new ReentrantLock();
+    private final Condition done = doneLock.newCondition();
+
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread flusher;
+    private volatile boolean closed = false;
+    private volatile boolean warnedClosed = false;
+
+    // ranges [from, to) that were not written / synced, guarded by doneLock
+    private final long[] failedFrom = new long[FAILURES_KEPT];
+    private final long[] failedTo = new long[FAILURES_KEPT];
+    private final IOException[] failedCause = new IOException[FAILURES_KEPT];
+    private int failures;
+
+    public AsyncAppender(String name, BatchWriter<T> writer, Options options) {
+        Options o = options == null ? Options.defaults() : options;
+        this.name = name;
+        this.writer = writer;
+        this.durability = o.durability() == null ? Durability.INTERVAL : o.durability();
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, o.flushIntervalMs()));
+
+        int cap = Integer.highestOneBit(Math.max(2, o.capacity()) - 1) << 1;
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.sequence = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) sequence.set(i, i);
+        this.slots = new AtomicReferenceArray<>(cap);
+
+        this.flusher = new Thread(this::runFlusher, "quantor-journal-" + name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        OPEN.add(this);
+    }
+
+    /**
+     * Enqueues one record (blocks only while the ring is full, or until synced with PER_RECORD).
+     *
+     * @throws UncheckedIOException with PER_RECORD, when the record could not be written or synced
+     */
+    public void append(T record) {
+        if (record == null) return;
+
+        long pos = enqueue(record);
+        if (pos < 0) {
+            dropped.incrementAndGet();
+            if (!warnedClosed) {
+                warnedClosed = true;
+                System.err.println("[AsyncAppender] " + name + " is closed, dropping records");
+            }
+            return;
+        }
+
+        if (durability == Durability.PER_RECORD) {
+            LockSupport.unpark(flusher);
+            awaitCompleted(pos + 1);
+            IOException failure = completed > pos ? failureWithin(pos, pos + 1) : new IOException("flusher stopped");
+            if (failure != null) throw new UncheckedIOException("journal " + name + " write failed", failure);
+        } else if (pos - completed >= capacity / 2) {
+            LockSupport.unpark(flusher); // half full: do not wait for the interval
+        }
+    }
+
+    /**
+     * Waits until everything appended so far is written (synced unless ON_SHUTDOWN).
+     *
+     * @return false when a record still pending at the call was not written / synced
+     */
+    public boolean flush() {
+        long from = completed;
+        long target = tail.get() & ~CLOSED;
+        if (from >= target) return true;
+        LockSupport.unpark(flusher);
+        awaitCompleted(target);
+        return completed >= target && failureWithin(from, target) == null;
+    }
+
+    /** Closes every open appender; called by the lifecycle that declared manageLifecycle(). */
+    public static void closeAll() {
+        for (AsyncAppender<?> a : OPEN) a.close();
+        LIFECYCLE_CLOSED.countDown();
+    }
+
+    /** The application calls closeAll() itself; the shutdown hook then only closes leftovers. */
+    public static void manageLifecycle() {
+        lifecycleManaged = true;
+    }
+
+    /** Drains the ring, syncs and closes the writer. Later appends are dropped. */
+    @Override
+    public void close() {
+        // setting the bit fails every later slot claim, so the flusher's final drain sees every record
+        if ((tail.getAndUpdate(t -> t | CLOSED) & CLOSED) != 0) return;
+        closed = true;
+        OPEN.remove(this);
+        LockSupport.unpark(flusher);
+        if (Thread.currentThread() == flusher) return;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long backpressureWaits() {
+        return backpressureWaits.get();
+    }
+
+    /** Records not journaled: appended after close, or in a batch whose write failed. */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long pending() {
+        return (tail.get() & ~CLOSED) - completed;
+    }
+
+    public Durability durability() {
+        return durability;
+    }
+
+    /* ---------------- ring ---------------- */
+
+    private long enqueue(T record) {
+        boolean waited = false;
+        while (true) {
+            long pos = tail.get();
+            if ((pos & CLOSED) != 0) return -1;
+            int i = (int) (pos & mask);
+            long dif = sequence.get(i) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(i, record);
+                    sequence.set(i, pos + 1); // publish
+                    return pos;
+                }
+            } else if (dif < 0) {
+                // full: let the flusher make room
+                if (!flusher.isAlive()) return -1;
+                if (!waited) {
+                    waited = true;
+                    backpressureWaits.incrementAndGet();
+                }
+                LockSupport.unpark(flusher);
+                LockSupport.parkNanos(50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private int drainTo(List<T> batch, int max) {
+        int n = 0;
+        while (n < max) {
+            int i = (int) (head & mask);
+            if (sequence.get(i) != head + 1) break; // empty (or slot claimed but not yet published)
+            batch.add(slots.get(i));
+            slots.set(i, null);
+            sequence.set(i, head + capacity); // free for the producer one lap ahead
+            head++;
+            n++;
+        }
+        return n;
+    }
+
+    private void awaitCompleted(long target) {
+        doneLock.lock();
+        try {
+            while (completed < target && flusher.isAlive()) {
+                done.await(intervalNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            doneLock.unlock();
+        }
+    }
+
+    /* ---------------- flusher ---------------- */
+
+    private void runFlusher() {
+        List<T> batch = new ArrayList<>(Math.min(capacity, 1024));
+        long synced = 0;
+        while (true) {
+            boolean stopping = closed;
+
+            long from = head;
+            boolean wrote = false;
+            while (drainTo(batch, 1024) > 0) {
+                try {
+                    writer.write(batch);
+                    wrote = true;
+                } catch (Exception e) {
+                    System.err.println("[AsyncAppender] " + name + " write error, " + batch.size()
+                            + " records dropped: " + e.getMessage());
+                    dropped.addAndGet(batch.size());
+                    fail(head - batch.size(), head, e);
+                }
+                batch.clear();
+            }
+            if (wrote && (durability != Durability.ON_SHUTDOWN || stopping)) {
+                IOException e = sync();
+                if (e != null) fail(from, head, e);
+                synced = head;
+            }
+            publish(head);
+
+            // a slot claimed before close() may still be unpublished: spin until tail == head
+            if (stopping && (tail.get() & ~CLOSED) == head) break;
+            if (!stopping) LockSupport.parkNanos(this, intervalNanos);
+        }
+
+        IOException e = sync();
+        if (e != null && synced < head) fail(synced, head, e);
+        try {
+            writer.close();
+        } catch (Exception ex) {
+            System.err.println("[AsyncAppender] " + name + " close error: " + ex.getMessage());
+        }
+        publish(head);
+    }
+
+    private IOException sync() {
+        try {
+            writer.sync();
+            return null;
+        } catch (Exception e) {
+            System.err.println("[AsyncAppender] " + name + " sync error: " + e.getMessage());
+            return e instanceof IOException io ? io : new IOException(e);
+        }
+    }
+
+    /** Records [from, to) were not written or not synced; visible to waiters before they are published. */
+    private void fail(long from, long to, Exception cause) {
+        if (from >= to) return;
+        doneLock.lock();
+        try {
+            int i = failures++ % FAILURES_KEPT;
+            failedFrom[i] = from;
+            failedTo[i] = to;
+            failedCause[i] = cause instanceof IOException io ? io : new IOException(cause);
+        } finally {
+            doneLock.unlock();
+        }
+    }
+
+    private IOException failureWithin(long from, long to) {
+        doneLock.lock();
+        try {
+            for (int k = 0, n = Math.min(failures, FAILURES_KEPT); k < n; k++) {
+                if (failedFrom[k] < to && from < failedTo[k]) return failedCause[k];
+            }
+            return null;
+        } finally {
+            doneLock.unlock();
+        }
+    }
+
+    private void publish(long upTo) {
+        if (completed == upTo) return;
+        completed = upTo;
+        doneLock.lock();
+        try {
+            done.signalAll();
+        } finally {
+            doneLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.quantor.domain.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * BatchWriter for text journals: formats a batch into one buffer and appends it with a single
+ * write on a FileChannel that stays open (no open/close per record). sync() = force(false).
+ */
+public final class LineFileWriter<T> implements AsyncAppender.BatchWriter<T> {
+
+    /** Appends one record (without the line break) to the buffer. */
+    @FunctionalInterface
+    public interface LineFormat<T> {
+        void format(T record, StringBuilder out);
+    }
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L
+    };
+
+    private final Path path;
+    private final String header;
+    private final LineFormat<T> format;
+    private final StringBuilder buf = new StringBuilder(4096);
+    private FileChannel channel;
+
+    /** @param header first line written when the file is new or empty (null = none) */
+    public LineFileWriter(Path path, String header, LineFormat<T> format) {
+        this.path = path;
+        this.header = header;
+        this.format = format;
+    }
+
+    @Override
+    public void write(List<T> batch) throws IOException {
+        buf.setLength(0);
+        for (T r : batch) {
+            format.format(r, buf);
+            buf.append('\n');
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(buf));
+        FileChannel ch = channel();
+        while (bytes.hasRemaining()) ch.write(bytes);
+        if (buf.capacity() > 1 << 20) { // do not keep a burst-sized buffer forever
+            buf.setLength(0);
+            buf.trimToSize();
+        }
+    }
+
+    @Override
+    public void sync() throws IOException {
+        if (channel != null) channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+        channel = null;
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel != null && channel.isOpen()) return channel;
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (header != null && channel.size() == 0) {
+            ByteBuffer h = StandardCharsets.UTF_8.encode(header + "\n");
+            while (h.hasRemaining()) channel.write(h);
+        }
+        return channel;
+    }
+
+    /**
+     * Appends v with exactly `decimals` fraction digits (same text as String.format(Locale.US, "%.Nf")
+     * for ordinary values), without the Formatter machinery. Falls back to String.format for huge values.
+     */
+    public static void appendFixed(StringBuilder out, double v, int decimals) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            out.append(Double.isNaN(v) ? "NaN" : (v > 0 ? "Infinity" : "-Infinity"));
+            return;
+        }
+        int d = Math.max(0, Math.min(decimals, POW10.length - 1));
+        double scaled = Math.abs(v) * POW10[d];
+        if (scaled >= 9.0e15) { // beyond exact long arithmetic on doubles
+            out.append(String.format(Locale.US, "%." + d + "f", v));
+            return;
+        }
+        long units = Math.round(scaled);
+        if (v < 0) out.append('-');
+        long intPart = units / POW10[d];
+        out.append(intPart);
+        if (d == 0) return;
+        out.append('.');
+        String frac = Long.toString(units % POW10[d]);
+        for (int i = frac.length(); i < d; i++) out.append('0');
+        out.append(frac);
+    }
+}
@@ -26,6 +26,8 @@ public class RiskManager {
     public double getPositionUSDT() { return positionUSDT; }
     public void setPositionUSDT(double positionUSDT) { this.positionUSDT = positionUSDT; }
 
+    public double getFeeRate() { return feeRate; }
+
     public double getStopLossPct() { return stopLossPct; }
     public void setStopLossPct(double stopLossPct) { this.stopLossPct = stopLossPct; }
 
@@ -0,0 +1,15 @@
+package com.quantor.domain.session;
+
+/**
+ * Component with in-memory runtime state that should survive a session handoff between workers
+ * (graceful drain on one worker, restore on the worker that claims the session next).
+ *
+ * The state is an opaque blob owned by the implementation; it starts with its own format version,
+ * and restoreState ignores blobs it does not understand (the component then simply starts cold).
+ */
+public interface Snapshottable {
+
+    byte[] snapshotState();
+
+    void restoreState(byte[] state);
+}
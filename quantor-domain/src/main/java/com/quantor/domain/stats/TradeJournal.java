@@ -1,5 +1,8 @@
 package com.quantor.domain.stats;
 
+import com.quantor.domain.journal.AsyncAppender;
+import com.quantor.domain.journal.LineFileWriter;
+
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
@@ -8,6 +11,10 @@ import java.util.*;
 /**
  * A unified trade journal for backtest/paper/live.
  * Writes CSV and can compute basic metrics.
+ *
+ * append() only enqueues the record; an AsyncAppender formats and writes batches on its own
+ * thread (durability / flush interval from AsyncAppender.Options, by default the
+ * -Dquantor.journal.* system properties).
  */
 public class TradeJournal {
 
@@ -51,8 +58,13 @@ public class TradeJournal {
     }
 
     private final Path csvPath;
+    private final AsyncAppender<Record> appender;
 
     public TradeJournal(String csvFile) {
+        this(csvFile, AsyncAppender.Options.fromSystemProperties());
+    }
+
+    public TradeJournal(String csvFile, AsyncAppender.Options options) {
         this.csvPath = Path.of(csvFile);
         try {
             if (csvPath.getParent() != null) Files.createDirectories(csvPath.getParent());
@@ -63,51 +75,60 @@ public class TradeJournal {
         } catch (Exception e) {
             System.err.println("[TradeJournal] init error: " + e.getMessage());
         }
+        this.appender = new AsyncAppender<>("trade-journal",
+                new LineFileWriter<>(csvPath, null, TradeJournal::formatLine), options);
     }
 
     private String header() {
         return "ts,mode,symbol,interval,side,entryPrice,exitPrice,qty,feeOpen,feeClose,pnl,retClose,ret3,ret5,note";
     }
 
-    public synchronized void append(Record r) {
-        String line = String.join(",",
-                String.valueOf(r.ts),
-                esc(r.mode),
-                esc(r.symbol),
-                esc(r.interval),
-                esc(r.side),
-                fmt(r.entryPrice),
-                fmt(r.exitPrice),
-                fmt(r.qty),
-                fmt(r.feeOpen),
-                fmt(r.feeClose),
-                fmt(r.pnl),
-                fmt(r.retClose),
-                fmt(r.ret3),
-                fmt(r.ret5),
-                esc(r.note)
-        );
+    public void append(Record r) {
+        appender.append(r);
+    }
 
-        try {
-            Files.writeString(csvPath, line + "\n", StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-        } catch (Exception e) {
-            System.err.println("[TradeJournal] append error: " + e.getMessage());
-        }
+    /** Waits until every appended record is in the file. */
+    public void flush() {
+        appender.flush();
+    }
+
+    /** Writes what is queued and releases the file. */
+    public void close() {
+        appender.close();
     }
 
-    private String esc(String s) {
-        if (s == null) return "";
+    private static void formatLine(Record r, StringBuilder out) {
+        out.append(r.ts).append(',');
+        esc(r.mode, out).append(',');
+        esc(r.symbol, out).append(',');
+        esc(r.interval, out).append(',');
+        esc(r.side, out).append(',');
+        fmt(r.entryPrice, out).append(',');
+        fmt(r.exitPrice, out).append(',');
+        fmt(r.qty, out).append(',');
+        fmt(r.feeOpen, out).append(',');
+        fmt(r.feeClose, out).append(',');
+        fmt(r.pnl, out).append(',');
+        fmt(r.retClose, out).append(',');
+        fmt(r.ret3, out).append(',');
+        fmt(r.ret5, out).append(',');
+        esc(r.note, out);
+    }
+
+    private static StringBuilder esc(String s, StringBuilder out) {
+        if (s == null) return out;
         String x = s.replace("\"", "\"\"");
-        if (x.contains(",") || x.contains("\n")) return "\"" + x + "\"";
-        return x;
+        if (x.contains(",") || x.contains("\n")) return out.append('"').append(x).append('"');
+        return out.append(x);
     }
 
-    private String fmt(double v) {
-        return String.format(Locale.US, "%.10f", v);
+    private static StringBuilder fmt(double v, StringBuilder out) {
+        LineFileWriter.appendFixed(out, v, 10);
+        return out;
     }
 
     public synchronized List<Record> readAll() {
+        appender.flush();
         if (!Files.exists(csvPath)) return List.of();
         List<Record> out = new ArrayList<>();
         try (BufferedReader br = Files.newBufferedReader(csvPath, StandardCharsets.UTF_8)) {
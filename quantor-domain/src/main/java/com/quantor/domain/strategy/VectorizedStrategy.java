@@ -0,0 +1,18 @@
+package com.quantor.domain.strategy;
+
+/**
+ * Optional capability for stateless strategies whose signal is a pure function of the close series.
+ *
+ * signals(close, out) must write into out[i] exactly what decide(history[0..i]) would return:
+ * BUY / SELL / HOLD encoded as bytes. No look-ahead: out[i] may only depend on close[0..i].
+ *
+ * Stateful strategies (OnlineStrategy, DebugStrategy, ...) must NOT implement this.
+ */
+public interface VectorizedStrategy extends Strategy {
+
+    byte HOLD = 0;
+    byte BUY = 1;
+    byte SELL = -1;
+
+    void signals(double[] close, byte[] out);
+}
@@ -5,8 +5,9 @@ package com.quantor.domain.strategy.impl;
 import com.quantor.domain.market.Candle;
 import com.quantor.domain.order.TradeAction;
 import com.quantor.domain.strategy.AutoTuner;
-import com.quantor.domain.strategy.Strategy;
+import com.quantor.domain.strategy.VectorizedStrategy;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -15,8 +16,10 @@ import java.util.List;
  * BUY  — fast EMA crosses slow from below.
  * SELL — fast EMA crosses slow from above.
  * HOLD — otherwise.
+ *
+ * Also vectorized: signals() computes both EMA series once over the whole close array.
  */
-public class EmaCrossStrategy implements Strategy {
+public class EmaCrossStrategy implements VectorizedStrategy {
 
     private int fastPeriod;
     private int slowPeriod;
@@ -49,7 +52,7 @@ public class EmaCrossStrategy implements Strategy {
     @Override
     public TradeAction decide(List<Candle> candles) {
 
-        if (candles == null || candles.size() < slowPeriod + 2) {
+        if (candles == null || candles.size() < warmup()) {
             return TradeAction.HOLD;
         }
 
@@ -94,8 +97,70 @@ public class EmaCrossStrategy implements Strategy {
         return TradeAction.HOLD;
     }
 
+    @Override
+    public void signals(double[] close, byte[] out) {
+        int n = close.length;
+        Arrays.fill(out, 0, n, HOLD);
+
+        // first bar for which decide() has warmup() candles
+        int first = warmup() - 1;
+        if (n <= first) return;
+
+        double[] fastEma = calcEmaSeries(close, fastPeriod);
+        double[] slowEma = calcEmaSeries(close, slowPeriod);
+
+        for (int i = first; i < n; i++) {
+            double fastPrev = fastEma[i - 1];
+            double fastLast = fastEma[i];
+            double slowPrev = slowEma[i - 1];
+            double slowLast = slowEma[i];
+
+            if (fastPrev <= slowPrev && fastLast > slowLast) out[i] = BUY;
+            else if (fastPrev >= slowPrev && fastLast < slowLast) out[i] = SELL;
+        }
+    }
+
+    /**
+     * Candles needed before a signal: both EMAs seeded (SMA over their period) at the previous bar.
+     * From there on every EMA value is independent of how much history follows, which is what lets
+     * signals() reproduce decide() on one pass over the whole series.
+     */
+    private int warmup() {
+        return Math.max(fastPeriod, slowPeriod) + 2;
+    }
+
     // ================= EMA ======================
 
+    /** Same as calcEmaSeries(List) but over a primitive array (no boxing). */
+    private static double[] calcEmaSeries(double[] prices, int period) {
+
+        double[] ema = new double[prices.length];
+        if (prices.length == 0) return ema;
+
+        double k = 2.0 / (period + 1.0);
+
+        int start = Math.min(period, prices.length);
+        double sum = 0.0;
+
+        for (int i = 0; i < start; i++) {
+            sum += prices[i];
+        }
+
+        double prevEma = sum / start;
+        ema[start - 1] = prevEma;
+
+        for (int i = start; i < prices.length; i++) {
+            prevEma = prices[i] * k + prevEma * (1 - k);
+            ema[i] = prevEma;
+        }
+
+        for (int i = 0; i < start - 1; i++) {
+            ema[i] = prevEma;
+        }
+
+        return ema;
+    }
+
     /**
      * Calculates EMA for the entire price series.
      */
@@ -3,11 +3,11 @@ package com.quantor.domain.strategy.impl;
 
 import com.quantor.domain.market.Candle;
 import com.quantor.domain.order.TradeAction;
-import com.quantor.domain.strategy.Strategy;
+import com.quantor.domain.strategy.VectorizedStrategy;
 import com.quantor.domain.strategy.impl.SimpleStrategy;
 import java.util.List;
 
-    public class SimpleStrategy implements Strategy {
+    public class SimpleStrategy implements VectorizedStrategy {
 
         private final double someBuyThreshold;
         private final double someSellThreshold;
@@ -30,6 +30,14 @@ import java.util.List;
             }
         }
 
+        @Override
+        public void signals(double[] close, byte[] out) {
+            for (int i = 0; i < close.length; i++) {
+                double p = close[i];
+                out[i] = shouldBuy(p) ? BUY : (shouldSell(p) ? SELL : HOLD);
+            }
+        }
+
         private boolean shouldBuy(double price) {
             return price <= someBuyThreshold;
         }
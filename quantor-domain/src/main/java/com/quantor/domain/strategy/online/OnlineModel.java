@@ -2,6 +2,8 @@ package com.quantor.domain.strategy.online;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.Arrays;
@@ -140,6 +142,28 @@ public class OnlineModel {
         }
     }
 
+    /** Writes weights, bias and update count (session handoff snapshot). */
+    public synchronized void writeState(DataOutput out) throws IOException {
+        out.writeInt(featureSize);
+        for (int i = 0; i < featureSize; i++) out.writeDouble(w[i]);
+        out.writeDouble(b);
+        out.writeLong(updatesCount);
+    }
+
+    /** Counterpart of writeState; returns false (model unchanged) when the feature size differs. */
+    public synchronized boolean readState(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n != featureSize) return false;
+        double[] nw = new double[n];
+        for (int i = 0; i < n; i++) nw[i] = in.readDouble();
+        double nb = in.readDouble();
+        long updates = in.readLong();
+        this.w = nw;
+        this.b = nb;
+        this.updatesCount = updates;
+        return true;
+    }
+
     private void tryLoad() {
         try {
             if (modelPath == null || modelPath.isBlank()) return;
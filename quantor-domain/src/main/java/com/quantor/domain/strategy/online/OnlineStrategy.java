@@ -4,12 +4,19 @@ package com.quantor.domain.strategy.online;
 
 import com.quantor.domain.market.Candle;
 import com.quantor.domain.order.TradeAction;
+import com.quantor.domain.session.Snapshottable;
 import com.quantor.domain.strategy.Strategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
-public class OnlineStrategy implements Strategy {
+public class OnlineStrategy implements Strategy, Snapshottable {
 
     private final double minRetAbs;
     private final double minMomentumToVol;
@@ -37,6 +44,8 @@ public class OnlineStrategy implements Strategy {
 
     private int flatHoldCounterExploration = 0;
 
+    private static final byte STATE_VERSION = 1;
+
     private final String modelPath;
 
     public OnlineStrategy(Properties cfg) {
@@ -140,6 +149,39 @@ public class OnlineStrategy implements Strategy {
         return sb.toString();
     }
 
+    /** Position flag, exploration counter and model weights (weights are otherwise only on local disk). */
+    @Override
+    public byte[] snapshotState() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(STATE_VERSION);
+            out.writeBoolean(inPosition);
+            out.writeInt(flatHoldCounterExploration);
+            model.writeState(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    @Override
+    public void restoreState(byte[] state) {
+        if (state == null || state.length == 0) return;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+            if (in.readByte() != STATE_VERSION) return;
+            boolean pos = in.readBoolean();
+            int counter = in.readInt();
+            model.readState(in);
+            this.inPosition = pos;
+            this.flatHoldCounterExploration = counter;
+        } catch (IOException e) {
+            System.err.println("[OnlineStrategy] restore state error: " + e.getMessage());
+        }
+    }
+
     public double[] extractFeatures(List<Candle> history) {
         if (history == null || history.size() < 2) return null;
         return buildFeatures(history, history.size());
@@ -0,0 +1,186 @@
+package com.quantor.domain.journal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncAppenderTest {
+
+    @Test
+    void perRecordAppendReturnsOnceWrittenAndSynced() {
+        Recorder w = new Recorder();
+        AsyncAppender<Integer> a = appender(w, AsyncAppender.Durability.PER_RECORD, 60_000);
+
+        a.append(1);
+        assertEquals(List.of(1), w.written);
+        assertTrue(w.syncs.get() >= 1);
+
+        a.append(2);
+        assertEquals(List.of(1, 2), w.written);
+        a.close();
+        assertTrue(w.closed.get());
+    }
+
+    @Test
+    void intervalFlushWritesAndSyncs() {
+        Recorder w = new Recorder();
+        AsyncAppender<Integer> a = appender(w, AsyncAppender.Durability.INTERVAL, 60_000);
+
+        for (int i = 0; i < 100; i++) a.append(i);
+        assertTrue(a.flush());
+
+        assertEquals(100, w.written.size());
+        assertTrue(w.syncs.get() >= 1);
+        assertEquals(0, a.pending());
+        a.close();
+    }
+
+    @Test
+    void onShutdownSyncsOnlyOnClose() {
+        Recorder w = new Recorder();
+        AsyncAppender<Integer> a = appender(w, AsyncAppender.Durability.ON_SHUTDOWN, 60_000);
+
+        a.append(1);
+        a.append(2);
+        assertTrue(a.flush());
+        assertEquals(List.of(1, 2), w.written);
+        assertEquals(0, w.syncs.get());
+
+        a.close();
+        assertTrue(w.syncs.get() >= 1);
+        assertTrue(w.closed.get());
+    }
+
+    @Test
+    void failedWriteIsThrownToThePerRecordWaiterAndCountedAsDropped() {
+        Recorder w = new Recorder();
+        AsyncAppender<Integer> a = appender(w, AsyncAppender.Durability.PER_RECORD, 60_000);
+
+        w.failWrites.set(true);
+        assertThrows(UncheckedIOException.class, () -> a.append(1));
+        assertEquals(1, a.dropped());
+
+        w.failWrites.set(false);
+        a.append(2); // the appender keeps working after a failed batch
+        assertEquals(List.of(2), w.written);
+        a.close();
+    }
+
+    @Test
+    void failedSyncIsThrownToThePerRecordWaiter() {
+        Recorder w = new Recorder();
+        AsyncAppender<Integer> a = appender(w, AsyncAppender.Durability.PER_RECORD, 60_000);
+
+        w.failSyncs.set(true);
+        assertThrows(UncheckedIOException.class, () -> a.append(1));
+        assertEquals(0, a.dropped(), "written, only not synced");
+        w.failSyncs.set(false);
+        a.close();
+    }
+
+    @Test
+    void flushReportsAFailedBatch() {
+        Recorder w = new Recorder();
+        AsyncAppender<Integer> a = appender(w, AsyncAppender.Durability.INTERVAL, 60_000);
+
+        w.failWrites.set(true);
+        a.append(1);
+        a.append(2);
+        assertFalse(a.flush());
+        assertEquals(2, a.dropped());
+
+        w.failWrites.set(false);
+        a.append(3);
+        assertTrue(a.flush());
+        a.close();
+    }
+
+    @Test
+    void appendAfterCloseIsDropped() {
+        Recorder w = new Recorder();
+        AsyncAppender<Integer> a = appender(w, AsyncAppender.Durability.INTERVAL, 60_000);
+        a.append(1);
+        a.close();
+
+        a.append(2);
+
+        assertEquals(List.of(1), w.written);
+        assertEquals(1, a.dropped());
+        assertTrue(a.flush());
+    }
+
+    @Test
+    void closeDuringAppendsLosesNoRecordSilently() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Recorder w = new Recorder();
+            // small ring so producers also race close() from the backpressure wait
+            AsyncAppender<Integer> a = new AsyncAppender<>("race", w,
+                    new AsyncAppender.Options(16, 1, AsyncAppender.Durability.INTERVAL));
+
+            int producers = 4;
+            int perProducer = 2_000;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                Thread t = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i++) a.append(i);
+                });
+                t.start();
+                threads.add(t);
+            }
+            start.countDown();
+            Thread.sleep(1);
+            a.close();
+            for (Thread t : threads) t.join();
+
+            assertEquals(producers * perProducer, w.written.size() + a.dropped(), "round " + round);
+            assertEquals(0, a.pending());
+        }
+    }
+
+    private static AsyncAppender<Integer> appender(Recorder w, AsyncAppender.Durability durability, long flushMs) {
+        return new AsyncAppender<>("test", w, new AsyncAppender.Options(64, flushMs, durability));
+    }
+
+    private static final class Recorder implements AsyncAppender.BatchWriter<Integer> {
+        final List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger syncs = new AtomicInteger();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean failWrites = new AtomicBoolean();
+        final AtomicBoolean failSyncs = new AtomicBoolean();
+
+        @Override
+        public void write(List<Integer> batch) throws IOException {
+            if (failWrites.get()) throw new IOException("disk full");
+            written.addAll(batch);
+        }
+
+        @Override
+        public void sync() throws IOException {
+            if (failSyncs.get()) throw new IOException("fsync failed");
+            syncs.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.quantor.domain.strategy.impl;
+
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.order.TradeAction;
+import com.quantor.domain.strategy.VectorizedStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** VectorizedStrategy contract: signals(close)[i] == decide(history[0..i]) for every bar. */
+public class EmaCrossStrategyTest {
+
+    private static final int[][] PERIODS = {
+            {5, 20}, {12, 26}, {1, 3}, {7, 7},
+            {20, 5}, {30, 10}, {11, 10}  // fast > slow
+    };
+
+    @Test
+    void signalsMatchDecideOnEveryBar() {
+        List<Candle> candles = randomWalk(400, 42L);
+        double[] close = new double[candles.size()];
+        for (int i = 0; i < close.length; i++) close[i] = candles.get(i).close();
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // decide() prints every call
+        try {
+            for (int[] p : PERIODS) {
+                EmaCrossStrategy strategy = new EmaCrossStrategy(p[0], p[1]);
+                byte[] sig = new byte[close.length];
+                strategy.signals(close, sig);
+
+                int nonHold = 0;
+                for (int i = 0; i < close.length; i++) {
+                    byte expected = encode(strategy.decide(candles.subList(0, i + 1)));
+                    assertEquals(expected, sig[i], "fast=" + p[0] + " slow=" + p[1] + " bar=" + i);
+                    if (sig[i] != VectorizedStrategy.HOLD) nonHold++;
+                }
+                if (p[0] != p[1]) assertTrue(nonHold > 0, "no crossings for fast=" + p[0] + " slow=" + p[1]);
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    @Test
+    void noSignalBeforeBothEmasAreSeeded() {
+        List<Candle> candles = randomWalk(60, 7L);
+        double[] close = new double[candles.size()];
+        for (int i = 0; i < close.length; i++) close[i] = candles.get(i).close();
+
+        EmaCrossStrategy strategy = new EmaCrossStrategy(30, 10);
+        byte[] sig = new byte[close.length];
+        strategy.signals(close, sig);
+        for (int i = 0; i < 31; i++) assertEquals(VectorizedStrategy.HOLD, sig[i], "bar=" + i);
+    }
+
+    private static byte encode(TradeAction a) {
+        return switch (a) {
+            case BUY -> VectorizedStrategy.BUY;
+            case SELL -> VectorizedStrategy.SELL;
+            default -> VectorizedStrategy.HOLD;
+        };
+    }
+
+    private static List<Candle> randomWalk(int n, long seed) {
+        Random rnd = new Random(seed);
+        List<Candle> out = new ArrayList<>(n);
+        double p = 100.0;
+        long t = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            double next = Math.max(1.0, p + rnd.nextGaussian());
+            out.add(new Candle(t, p, Math.max(p, next) + 0.1, Math.min(p, next) - 0.1, next, 1.0, t + 59_999));
+            p = next;
+            t += 60_000;
+        }
+        return out;
+    }
+}
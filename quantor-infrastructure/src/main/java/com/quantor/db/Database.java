@@ -1,17 +1,28 @@
 package com.quantor.db;
 
+import com.quantor.infrastructure.db.SqliteAccess;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
 
+/**
+ * SQLite database of the desktop/CLI runtime (data/binancebot.db).
+ *
+ * Repositories go through access(): one writer connection with group commit plus pooled readers,
+ * shared by every caller in the process (see SqliteAccess). getConnection() opens a raw
+ * connection and is kept for one-off tools only.
+ */
 public final class Database {
 
     private Database() {}
 
     public static final String DB_URL = "jdbc:sqlite:data/binancebot.db";
 
+    private static volatile boolean schemaReady = false;
+
     public static void ensureDataDir() {
         try {
             Files.createDirectories(Path.of("data"));
@@ -20,6 +31,13 @@ public final class Database {
         }
     }
 
+    /** Process-wide managed access (single writer + reader pool). */
+    public static SqliteAccess access() {
+        ensureDataDir();
+        return SqliteAccess.shared(DB_URL);
+    }
+
+    /** Raw connection with its own PRAGMAs; prefer access() in anything called per trade / per request. */
     public static Connection getConnection() {
         try {
             ensureDataDir();
@@ -36,8 +54,9 @@ public final class Database {
         }
     }
 
-    /** Schema initialization (strategies + trades + indexes). */
+    /** Schema initialization (strategies + trades + indexes); runs once per process. */
     public static void initSchema() {
+        if (schemaReady) return;
         ensureDataDir();
 
         String sql = """
@@ -98,10 +117,16 @@ public final class Database {
 
 CREATE INDEX IF NOT EXISTS idx_trades_mode ON trades(mode);
         CREATE INDEX IF NOT EXISTS idx_trades_symbol ON trades(symbol);
+        CREATE INDEX IF NOT EXISTS idx_trades_mode_symbol_id ON trades(mode, symbol, id);
         """;
 
-        try (Connection c = getConnection(); Statement st = c.createStatement()) {
-            st.executeUpdate(sql);
+        try {
+            access().write(s -> {
+                try (Statement st = s.connection().createStatement()) {
+                    return st.executeUpdate(sql);
+                }
+            });
+            schemaReady = true;
         } catch (Exception e) {
             throw new RuntimeException("initSchema() error", e);
         }
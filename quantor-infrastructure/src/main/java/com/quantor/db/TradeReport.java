@@ -24,36 +24,30 @@ public class TradeReport {
                 "SELECT id, balance_after FROM trades " +
                         "WHERE mode = ? AND balance_after IS NOT NULL ORDER BY id ASC";
 
-        int total = 0;
-        int buys = 0;
-        int sells = 0;
-        int others = 0;
-
+        int[] counts = new int[4]; // total, buys, sells, others
         List<EquityPoint> equitySeries = new ArrayList<>();
 
-        try (Connection conn = Database.getConnection()) {
-
-            try (PreparedStatement ps = conn.prepareStatement(sqlMain)) {
+        try {
+            Database.access().read(s -> {
+                PreparedStatement ps = s.prepare(sqlMain);
                 ps.setString(1, mode);
                 try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) total = rs.getInt("cnt");
+                    if (rs.next()) counts[0] = rs.getInt("cnt");
                 }
-            }
 
-            try (PreparedStatement ps = conn.prepareStatement(sqlSide)) {
+                ps = s.prepare(sqlSide);
                 ps.setString(1, mode);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         String side = rs.getString("side");
                         int c = rs.getInt("cnt");
-                        if ("BUY".equalsIgnoreCase(side)) buys = c;
-                        else if ("SELL".equalsIgnoreCase(side)) sells = c;
-                        else others += c;
+                        if ("BUY".equalsIgnoreCase(side)) counts[1] = c;
+                        else if ("SELL".equalsIgnoreCase(side)) counts[2] = c;
+                        else counts[3] += c;
                     }
                 }
-            }
 
-            try (PreparedStatement ps = conn.prepareStatement(sqlEquity)) {
+                ps = s.prepare(sqlEquity);
                 ps.setString(1, mode);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
@@ -63,12 +57,18 @@ public class TradeReport {
                         ));
                     }
                 }
-            }
+                return null;
+            });
 
         } catch (SQLException e) {
             return "⚠ DB report error: " + e.getMessage();
         }
 
+        int total = counts[0];
+        int buys = counts[1];
+        int sells = counts[2];
+        int others = counts[3];
+
         if (total == 0 || equitySeries.isEmpty()) {
             return "📊 " + mode.toUpperCase() + " | No trades found in the database (mode: " + mode + ").";
         }
@@ -1,44 +1,52 @@
 package com.quantor.db;
 
 import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 public class TradeRepository {
 
     public record TradeRow(long id, String ts, String mode, String symbol, String side,
                            Double price, Double qty, Double balanceAfter, String comment) {}
 
-    public List<TradeRow> list(String mode, String symbol, int limit) throws SQLException {
-        if (limit <= 0) limit = 50;
-
-        StringBuilder sql = new StringBuilder("""
-            SELECT id,ts,mode,symbol,side,price,qty,balance_after,comment
-            FROM trades
-            WHERE 1=1
-        """);
+    /** Rows per keyset page of an export. */
+    public static final int EXPORT_PAGE = 5000;
 
-        List<Object> args = new ArrayList<>();
+    private static final int FETCH_SIZE = 500;
+    private static final int WRITE_BUFFER = 64 * 1024;
 
-        if (mode != null && !mode.isBlank()) {
-            sql.append(" AND mode = ?");
-            args.add(mode.trim());
-        }
-        if (symbol != null && !symbol.isBlank()) {
-            sql.append(" AND symbol = ?");
-            args.add(symbol.trim());
-        }
-
-        sql.append(" ORDER BY id DESC LIMIT ?");
-        args.add(limit);
-
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql.toString())) {
+    /** Newest trades first (first page of listPage). */
+    public List<TradeRow> list(String mode, String symbol, int limit) throws SQLException {
+        return listPage(mode, symbol, 0, limit);
+    }
 
-            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+    /**
+     * One page of trades, newest first, strictly older than beforeId (<= 0 = from the newest).
+     * Keyset pagination: the next page starts before the last id returned, so deep pages cost the
+     * same as the first one (no OFFSET scan).
+     */
+    public List<TradeRow> listPage(String mode, String symbol, long beforeId, int limit) throws SQLException {
+        int pageSize = limit <= 0 ? 50 : limit;
+        String m = trimToNull(mode);
+        String sym = trimToNull(symbol);
+        long before = beforeId <= 0 ? Long.MAX_VALUE : beforeId;
+
+        String query = keysetQuery(m, sym, false);
+        return Database.access().read(s -> {
+            PreparedStatement ps = s.prepare(query);
+            int i = bindFilters(ps, m, sym);
+            ps.setLong(i++, before);
+            ps.setInt(i, pageSize);
 
             List<TradeRow> out = new ArrayList<>();
             try (ResultSet rs = ps.executeQuery()) {
@@ -47,84 +55,157 @@ public class TradeRepository {
                 }
             }
             return out;
-        }
+        });
     }
 
     public int deleteByMode(String mode) throws SQLException {
         String sql = "DELETE FROM trades WHERE mode = ?";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        return Database.access().write(s -> {
+            PreparedStatement ps = s.prepare(sql);
             ps.setString(1, mode);
             return ps.executeUpdate();
-        }
+        });
     }
 
     public int deleteTestTrades() throws SQLException {
         // If needed, the list can be extended
         String sql = "DELETE FROM trades WHERE mode IN ('paper','backtest')";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            return ps.executeUpdate();
-        }
+        return Database.access().write(s -> s.prepare(sql).executeUpdate());
     }
 
     public List<TradeRow> listForExport(String mode, String symbol, int limit) throws SQLException {
-        if (limit <= 0) limit = 200;
-
-        StringBuilder sql = new StringBuilder("""
-        SELECT id,ts,mode,symbol,side,price,qty,balance_after,comment
-        FROM trades
-        WHERE 1=1
-    """);
+        List<TradeRow> out = new ArrayList<>();
+        try {
+            streamForExport(mode, symbol, 0, limit <= 0 ? 200 : limit, rs -> out.add(map(rs)));
+        } catch (IOException e) {
+            throw new SQLException(e); // the sink above does no I/O
+        }
+        return out;
+    }
 
-        List<Object> args = new ArrayList<>();
+    /**
+     * Streams trades in ascending id order (after afterId) to the sink, at most maxRows (<= 0 = all).
+     *
+     * Keyset pages of EXPORT_PAGE rows (WHERE id > last ORDER BY id LIMIT n), each on its own short
+     * read, so memory does not grow with the table and a long export does not pin a reader connection
+     * (and with it the WAL checkpoint) for its whole run. The sink gets the live ResultSet positioned
+     * on the row; it must not keep it.
+     *
+     * @return number of rows streamed
+     */
+    public long streamForExport(String mode, String symbol, long afterId, long maxRows, RowSink sink)
+            throws SQLException, IOException {
+        String m = trimToNull(mode);
+        String sym = trimToNull(symbol);
+        String query = keysetQuery(m, sym, true);
+
+        long remaining = maxRows <= 0 ? Long.MAX_VALUE : maxRows;
+        long lastId = Math.max(0, afterId);
+        long total = 0;
+
+        while (remaining > 0) {
+            int pageSize = (int) Math.min(EXPORT_PAGE, remaining);
+            long from = lastId;
+            long[] page; // {rows, last id}
+            try {
+                page = Database.access().read(s -> {
+                    PreparedStatement ps = s.prepare(query);
+                    ps.setFetchSize(FETCH_SIZE);
+                    int i = bindFilters(ps, m, sym);
+                    ps.setLong(i++, from);
+                    ps.setInt(i, pageSize);
+
+                    long n = 0;
+                    long last = from;
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            last = rs.getLong(1);
+                            sink.accept(rs);
+                            n++;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return new long[]{n, last};
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
 
-        if (mode != null && !mode.isBlank()) {
-            sql.append(" AND mode = ?");
-            args.add(mode.trim());
-        }
-        if (symbol != null && !symbol.isBlank()) {
-            sql.append(" AND symbol = ?");
-            args.add(symbol.trim());
+            total += page[0];
+            remaining -= page[0];
+            lastId = page[1];
+            if (page[0] < pageSize) break;
         }
+        return total;
+    }
 
-        sql.append(" ORDER BY id ASC LIMIT ?");
-        args.add(limit);
-
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql.toString())) {
+    public Path exportToCsv(String mode, String symbol, Path outPath, int limit) throws Exception {
+        String name = outPath.getFileName().toString();
+        exportToCsv(mode, symbol, outPath, limit <= 0 ? 200 : limit, name.endsWith(".gz"));
+        return outPath;
+    }
 
-            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+    /**
+     * Writes matching trades to outPath as CSV, rows copied straight from the ResultSet (no row
+     * objects, no list), optionally gzip-compressed. Memory stays constant for any number of trades.
+     *
+     * @param maxRows <= 0 = all trades
+     * @return number of rows written
+     */
+    public long exportToCsv(String mode, String symbol, Path outPath, long maxRows, boolean gzip) throws Exception {
+        Database.ensureDataDir();
+        if (outPath.getParent() != null) Files.createDirectories(outPath.getParent());
 
-            List<TradeRow> out = new ArrayList<>();
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) out.add(map(rs));
-            }
-            return out;
+        OutputStream file = Files.newOutputStream(outPath);
+        OutputStream out = gzip ? new GZIPOutputStream(file, WRITE_BUFFER) : file;
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER)) {
+            w.write("id,ts,mode,symbol,side,price,qty,balance_after,comment\n");
+            return streamForExport(mode, symbol, 0, maxRows, rs -> writeCsvRow(rs, w));
         }
     }
 
-    public Path exportToCsv(String mode, String symbol, Path outPath, int limit) throws Exception {
-        Database.ensureDataDir();
-        Files.createDirectories(outPath.getParent());
+    /** Receives each streamed row; rs is positioned on it and only valid during the call. */
+    @FunctionalInterface
+    public interface RowSink {
+        void accept(ResultSet rs) throws SQLException, IOException;
+    }
 
-        List<TradeRow> rows = listForExport(mode, symbol, limit);
+    private static String keysetQuery(String mode, String symbol, boolean ascending) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT id,ts,mode,symbol,side,price,qty,balance_after,comment
+            FROM trades
+            WHERE 1=1
+        """);
+        if (mode != null) sql.append(" AND mode = ?");
+        if (symbol != null) sql.append(" AND symbol = ?");
+        sql.append(ascending ? " AND id > ? ORDER BY id ASC LIMIT ?" : " AND id < ? ORDER BY id DESC LIMIT ?");
+        return sql.toString();
+    }
 
-        try (BufferedWriter w = Files.newBufferedWriter(outPath)) {
-            w.write("id,ts,mode,symbol,side,price,qty,balance_after,comment\n");
-            for (TradeRow r : rows) {
-                w.write(r.id + "," +
-                        safe(r.ts) + "," +
-                        safe(r.mode) + "," +
-                        safe(r.symbol) + "," +
-                        safe(r.side) + "," +
-                        safeNum(r.price) + "," +
-                        safeNum(r.qty) + "," +
-                        safeNum(r.balanceAfter) + "," +
-                        csv(safe(r.comment)) + "\n");
-            }
+    /** Binds the mode/symbol filters; returns the next parameter index. */
+    private static int bindFilters(PreparedStatement ps, String mode, String symbol) throws SQLException {
+        int i = 1;
+        if (mode != null) ps.setString(i++, mode);
+        if (symbol != null) ps.setString(i++, symbol);
+        return i;
+    }
+
+    // columns in keysetQuery order: id,ts,mode,symbol,side,price,qty,balance_after,comment
+    private static void writeCsvRow(ResultSet rs, Writer w) throws SQLException, IOException {
+        w.write(Long.toString(rs.getLong(1)));
+        for (int c = 2; c <= 5; c++) {
+            w.write(',');
+            w.write(safe(rs.getString(c)));
         }
-        return outPath;
+        for (int c = 6; c <= 8; c++) {
+            w.write(',');
+            double v = rs.getDouble(c);
+            if (!rs.wasNull()) w.write(Double.toString(v));
+        }
+        w.write(',');
+        w.write(csv(safe(rs.getString(9))));
+        w.write('\n');
     }
 
     private static TradeRow map(ResultSet rs) throws SQLException {
@@ -142,7 +223,10 @@ public class TradeRepository {
     }
 
     private static String safe(String s) { return s == null ? "" : s; }
-    private static String safeNum(Double d) { return d == null ? "" : String.valueOf(d); }
+
+    private static String trimToNull(String s) {
+        return (s == null || s.isBlank()) ? null : s.trim();
+    }
 
     private static String csv(String s) {
         // minimal CSV escaping
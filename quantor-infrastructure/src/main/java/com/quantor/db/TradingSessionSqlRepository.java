@@ -3,9 +3,9 @@ package com.quantor.db;
 import com.quantor.application.ports.TradingSessionRepository;
 import com.quantor.domain.trading.*;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.Optional;
 
@@ -22,13 +22,15 @@ public final class TradingSessionSqlRepository implements TradingSessionReposito
         Database.ensureDataDir();
         Database.initSchema();
         String sql = "SELECT * FROM trading_sessions WHERE id = ?";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, id.value());
-            try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) return Optional.empty();
-                return Optional.of(map(rs));
-            }
+        try {
+            return Database.access().read(s -> {
+                PreparedStatement ps = s.prepare(sql);
+                ps.setString(1, id.value());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return Optional.empty();
+                    return Optional.of(map(rs));
+                }
+            });
         } catch (Exception e) {
             throw new RuntimeException("findById failed: " + id.value(), e);
         }
@@ -40,14 +42,16 @@ public final class TradingSessionSqlRepository implements TradingSessionReposito
         Database.ensureDataDir();
         Database.initSchema();
         String sql = "SELECT * FROM trading_sessions WHERE user_id = ? AND status = ? ORDER BY started_at DESC LIMIT 1";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, userId.value());
-            ps.setString(2, TradingStatus.RUNNING.name());
-            try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) return Optional.empty();
-                return Optional.of(map(rs));
-            }
+        try {
+            return Database.access().read(s -> {
+                PreparedStatement ps = s.prepare(sql);
+                ps.setString(1, userId.value());
+                ps.setString(2, TradingStatus.RUNNING.name());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return Optional.empty();
+                    return Optional.of(map(rs));
+                }
+            });
         } catch (Exception e) {
             throw new RuntimeException("findActiveByUser failed: " + userId.value(), e);
         }
@@ -85,37 +89,39 @@ public final class TradingSessionSqlRepository implements TradingSessionReposito
               updated_at=excluded.updated_at
             """;
 
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try {
+            Database.access().write(s -> {
+                PreparedStatement ps = s.prepare(sql);
 
-            ps.setString(1, session.id().value());
-            ps.setString(2, session.userId().value());
-            ps.setString(3, session.exchangeAccountRef().exchangeId());
-            ps.setString(4, session.exchangeAccountRef().accountId());
-            ps.setString(5, session.strategyId().name());
-            ps.setString(6, session.status().name());
+                ps.setString(1, session.id().value());
+                ps.setString(2, session.userId().value());
+                ps.setString(3, session.exchangeAccountRef().exchangeId());
+                ps.setString(4, session.exchangeAccountRef().accountId());
+                ps.setString(5, session.strategyId().name());
+                ps.setString(6, session.status().name());
 
-            ps.setString(7, session.startedAt() == null ? null : session.startedAt().toString());
-            ps.setString(8, session.stoppedAt() == null ? null : session.stoppedAt().toString());
+                ps.setString(7, session.startedAt() == null ? null : session.startedAt().toString());
+                ps.setString(8, session.stoppedAt() == null ? null : session.stoppedAt().toString());
 
-            StopReason sr = session.stopReason();
-            ps.setString(9, sr == null ? null : sr.code().name());
-            ps.setString(10, sr == null ? null : sr.message());
+                StopReason sr = session.stopReason();
+                ps.setString(9, sr == null ? null : sr.code().name());
+                ps.setString(10, sr == null ? null : sr.message());
 
-            ps.setDouble(11, session.pnl().realized().doubleValue());
-            ps.setDouble(12, session.pnl().unrealized().doubleValue());
-            ps.setString(13, session.pnl().updatedAt() == null ? null : session.pnl().updatedAt().toString());
+                ps.setDouble(11, session.pnl().realized().doubleValue());
+                ps.setDouble(12, session.pnl().unrealized().doubleValue());
+                ps.setString(13, session.pnl().updatedAt() == null ? null : session.pnl().updatedAt().toString());
 
-            ps.setString(14, now); // created_at (kept on insert; ignored on update)
-            ps.setString(15, now);
+                ps.setString(14, now); // created_at (kept on insert; ignored on update)
+                ps.setString(15, now);
 
-            ps.executeUpdate();
+                return ps.executeUpdate();
+            });
         } catch (Exception e) {
             throw new RuntimeException("save failed: " + session.id().value(), e);
         }
     }
 
-    private static TradingSession map(ResultSet rs) throws Exception {
+    private static TradingSession map(ResultSet rs) throws SQLException {
         SessionId id = new SessionId(rs.getString("id"));
         UserId userId = new UserId(rs.getString("user_id"));
 
@@ -27,13 +27,11 @@ public class AiCoach {
 
     /** Review of a specific trade */
     public String reviewTrade(int index) throws Exception {
-        var list = stats.getTrades();
-        if (index < 0 || index >= list.size()) {
+        var t = stats.getTrade(index);
+        if (t == null) {
             return "❌ No trade with this index.";
         }
 
-        var t = list.get(index);
-
         String prompt =
                 "You are a professional trading coach. Analyze the following trade:\n" +
                         "pnl=" + t.pnl + ", equityAfter=" + t.equityAfter + "\n" +
@@ -6,12 +6,21 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
 
+/**
+ * SQLite database of the desktop/CLI runtime (data/binancebot.db).
+ *
+ * Repositories go through access(): one writer connection with group commit plus pooled readers,
+ * shared by every caller in the process (see SqliteAccess). getConnection() opens a raw
+ * connection and is kept for one-off tools only.
+ */
 public final class Database {
 
     private Database() {}
 
     public static final String DB_URL = "jdbc:sqlite:data/binancebot.db";
 
+    private static volatile boolean schemaReady = false;
+
     public static void ensureDataDir() {
         try {
             Files.createDirectories(Path.of("data"));
@@ -20,6 +29,13 @@ public final class Database {
         }
     }
 
+    /** Process-wide managed access (single writer + reader pool). */
+    public static SqliteAccess access() {
+        ensureDataDir();
+        return SqliteAccess.shared(DB_URL);
+    }
+
+    /** Raw connection with its own PRAGMAs; prefer access() in anything called per trade / per request. */
     public static Connection getConnection() {
         try {
             ensureDataDir();
@@ -36,8 +52,9 @@ public final class Database {
         }
     }
 
-    /** Schema initialization (strategies + trades + indexes). */
+    /** Schema initialization (strategies + trades + secrets + equity rollups + indexes); runs once per process. */
     public static void initSchema() {
+        if (schemaReady) return;
         ensureDataDir();
 
         String sql = """
@@ -64,6 +81,7 @@ public final class Database {
 
         CREATE INDEX IF NOT EXISTS idx_trades_mode ON trades(mode);
         CREATE INDEX IF NOT EXISTS idx_trades_symbol ON trades(symbol);
+        CREATE INDEX IF NOT EXISTS idx_trades_mode_symbol_id ON trades(mode, symbol, id);
 
         CREATE TABLE IF NOT EXISTS user_secrets (
           user_id TEXT NOT NULL,
@@ -74,10 +92,28 @@ public final class Database {
         );
 
         CREATE INDEX IF NOT EXISTS idx_user_secrets_user ON user_secrets(user_id);
+
+        CREATE TABLE IF NOT EXISTS equity_rollup (
+          series TEXT NOT NULL,
+          width_ms INTEGER NOT NULL,
+          bucket_ms INTEGER NOT NULL,
+          eq_min REAL NOT NULL,
+          eq_max REAL NOT NULL,
+          eq_last REAL NOT NULL,
+          last_ts INTEGER NOT NULL,
+          PRIMARY KEY (series, width_ms, bucket_ms)
+        ) WITHOUT ROWID;
+
+        CREATE INDEX IF NOT EXISTS idx_equity_rollup_width_bucket ON equity_rollup(width_ms, bucket_ms);
         """;
 
-        try (Connection c = getConnection(); Statement st = c.createStatement()) {
-            st.executeUpdate(sql);
+        try {
+            access().write(s -> {
+                try (Statement st = s.connection().createStatement()) {
+                    return st.executeUpdate(sql);
+                }
+            });
+            schemaReady = true;
         } catch (Exception e) {
             throw new RuntimeException("initSchema() error", e);
         }
@@ -0,0 +1,143 @@
+package com.quantor.infrastructure.db;
+
+import com.quantor.application.ports.EquitySeriesPort;
+import com.quantor.domain.journal.AsyncAppender;
+import com.quantor.domain.stats.EquityBuckets;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Equity time series in SQLite (equity_rollup: one row per session, resolution and bucket).
+ *
+ * record() only enqueues the sample. The appender thread folds each drained batch into its buckets
+ * (EquityBuckets) and upserts them in one write unit; the upsert merges min/max/last into the stored
+ * row, so the 1m / 1h / 1d rollups are always current and no raw samples are kept.
+ *
+ * Retention: 1m buckets for retainMinuteDays, 1h buckets for retainHourDays, 1d forever
+ * (pruned at most once per hour from the writer). The database is opened on first use.
+ */
+public class EquitySeriesRepository implements EquitySeriesPort, AutoCloseable {
+
+    private static final long PRUNE_EVERY_MS = TimeUnit.HOURS.toMillis(1);
+
+    private static final String UPSERT = """
+        INSERT INTO equity_rollup(series, width_ms, bucket_ms, eq_min, eq_max, eq_last, last_ts)
+        VALUES (?,?,?,?,?,?,?)
+        ON CONFLICT(series, width_ms, bucket_ms) DO UPDATE SET
+          eq_min = min(eq_min, excluded.eq_min),
+          eq_max = max(eq_max, excluded.eq_max),
+          eq_last = CASE WHEN excluded.last_ts >= last_ts THEN excluded.eq_last ELSE eq_last END,
+          last_ts = max(last_ts, excluded.last_ts)
+        """;
+
+    private static final String RANGE = """
+        SELECT bucket_ms, eq_min, eq_max, eq_last FROM equity_rollup
+        WHERE series = ? AND width_ms = ? AND bucket_ms >= ? AND bucket_ms < ?
+        ORDER BY bucket_ms ASC
+        """;
+
+    private static final String PRUNE = "DELETE FROM equity_rollup WHERE width_ms = ? AND bucket_ms < ?";
+
+    private final long retainMinuteMs;
+    private final long retainHourMs;
+    private final AsyncAppender<EquityBuckets.Sample> appender;
+
+    private long lastPruneAt; // writer thread only
+
+    public EquitySeriesRepository() {
+        this(30, 400, AsyncAppender.Options.fromSystemProperties());
+    }
+
+    public EquitySeriesRepository(int retainMinuteDays, int retainHourDays, AsyncAppender.Options options) {
+        this.retainMinuteMs = TimeUnit.DAYS.toMillis(Math.max(1, retainMinuteDays));
+        this.retainHourMs = TimeUnit.DAYS.toMillis(Math.max(1, retainHourDays));
+        this.appender = new AsyncAppender<>("equity-series", this::writeBatch, options);
+    }
+
+    @Override
+    public void record(String sessionKey, long tsMs, double equity) {
+        if (sessionKey == null || sessionKey.isBlank() || !Double.isFinite(equity)) return;
+        appender.append(new EquityBuckets.Sample(sessionKey, tsMs, equity));
+    }
+
+    @Override
+    public List<Point> range(String sessionKey, Resolution resolution, long fromMs, long toMs) {
+        long from = resolution.bucketStart(fromMs);
+        try {
+            Database.initSchema();
+            return Database.access().read(s -> {
+                PreparedStatement ps = s.prepare(RANGE);
+                ps.setString(1, sessionKey);
+                ps.setLong(2, resolution.widthMs());
+                ps.setLong(3, from);
+                ps.setLong(4, toMs);
+
+                List<Point> out = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.add(new Point(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4)));
+                    }
+                }
+                return out;
+            });
+        } catch (SQLException e) {
+            System.err.println("[EquitySeriesRepository] range error: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    /** Waits until every recorded sample is in the rollups. */
+    public void flush() {
+        appender.flush();
+    }
+
+    @Override
+    public void close() {
+        appender.close();
+    }
+
+    private void writeBatch(List<EquityBuckets.Sample> batch) throws IOException {
+        List<EquityBuckets.Bucket> buckets = EquityBuckets.fold(batch, Resolution.widthsMs());
+        if (buckets.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        boolean prune = now - lastPruneAt >= PRUNE_EVERY_MS;
+        try {
+            Database.initSchema();
+            Database.access().write(s -> {
+                PreparedStatement ps = s.prepare(UPSERT);
+                for (EquityBuckets.Bucket b : buckets) {
+                    ps.setString(1, b.series());
+                    ps.setLong(2, b.widthMs());
+                    ps.setLong(3, b.startMs());
+                    ps.setDouble(4, b.min());
+                    ps.setDouble(5, b.max());
+                    ps.setDouble(6, b.last());
+                    ps.setLong(7, b.lastTs());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                if (prune) {
+                    PreparedStatement del = s.prepare(PRUNE);
+                    del.setLong(1, Resolution.M1.widthMs());
+                    del.setLong(2, now - retainMinuteMs);
+                    del.executeUpdate();
+                    del.setLong(1, Resolution.H1.widthMs());
+                    del.setLong(2, now - retainHourMs);
+                    del.executeUpdate();
+                }
+                return null;
+            });
+            if (prune) lastPruneAt = now;
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.quantor.infrastructure.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Managed access to one SQLite file: a single writer connection and a small pool of readers.
+ *
+ * SQLite allows one writer at a time; several sessions each opening a connection and writing
+ * end up in SQLITE_BUSY. Here every write is a unit of work queued to one writer thread, which
+ * drains the queue and runs up to maxBatch units in ONE transaction (group commit: one WAL fsync
+ * for the whole batch). Each unit runs inside its own savepoint, so a failing unit is rolled back
+ * alone and only its caller sees the error. write() returns after the batch committed.
+ *
+ * Reads run on up to `readers` connections (PRAGMA query_only) that WAL lets proceed concurrently
+ * with the writer. PRAGMAs are applied once per connection; prepared statements are cached per
+ * connection (SqlSession.prepare, do not close them).
+ *
+ * One instance per database URL per process: shared(url). The application closes them on shutdown
+ * (closeAll(), after the components that write have stopped).
+ */
+public final class SqliteAccess {
+
+    /** Unit of work on a session; statements from s.prepare(..) stay open (cached). */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T apply(SqlSession s) throws SQLException;
+    }
+
+    /** A connection plus its prepared statement cache. Used by one thread at a time. */
+    public static final class SqlSession {
+        private static final int MAX_CACHED = 64;
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= MAX_CACHED) return false;
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+
+        private SqlSession(Connection connection) {
+            this.connection = connection;
+        }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = cache.get(sql);
+            if (ps == null || ps.isClosed()) {
+                ps = connection.prepareStatement(sql);
+                cache.put(sql, ps);
+            }
+            return ps;
+        }
+
+        /** Statement that returns generated keys (INSERT ... AUTOINCREMENT). */
+        public PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+            String key = "#keys#" + sql;
+            PreparedStatement ps = cache.get(key);
+            if (ps == null || ps.isClosed()) {
+                ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                cache.put(key, ps);
+            }
+            return ps;
+        }
+
+        /** Raw connection (multi-statement DDL, metadata). Do not close it or change auto-commit. */
+        public Connection connection() {
+            return connection;
+        }
+
+        private void close() {
+            for (PreparedStatement ps : cache.values()) closeQuietly(ps);
+            cache.clear();
+            try {
+                connection.close();
+            } catch (SQLException ignore) {
+            }
+        }
+
+        private static void closeQuietly(PreparedStatement ps) {
+            try {
+                ps.close();
+            } catch (SQLException ignore) {
+            }
+        }
+    }
+
+    private record WriteJob<T>(SqlWork<T> work, CompletableFuture<T> result) {}
+
+    // queued by close(): everything before it is committed, then the writer exits
+    private static final WriteJob<Void> STOP = new WriteJob<>(s -> null, new CompletableFuture<>());
+    private static final long CLOSE_WAIT_MS = 5_000;
+
+    private static final Map<String, SqliteAccess> SHARED = new ConcurrentHashMap<>();
+
+    private final String url;
+    private final int maxBatch;
+    private final BlockingQueue<WriteJob<?>> writes = new LinkedBlockingQueue<>();
+    private final BlockingQueue<SqlSession> idleReaders = new LinkedBlockingQueue<>();
+    private final Semaphore readerPermits;
+    private final Thread writer;
+
+    private volatile boolean closed = false;
+
+    /** The process-wide access layer for this URL (created on first use). */
+    public static SqliteAccess shared(String url) {
+        return SHARED.computeIfAbsent(url, u -> new SqliteAccess(u, 4, 256));
+    }
+
+    /** Closes every shared instance; called by the application's shutdown path. */
+    public static void closeAll() {
+        for (SqliteAccess a : SHARED.values()) a.close();
+    }
+
+    /**
+     * @param readers  max concurrent read connections
+     * @param maxBatch max write units per transaction
+     */
+    public SqliteAccess(String url, int readers, int maxBatch) {
+        this.url = url;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.readerPermits = new Semaphore(Math.max(1, readers));
+
+        SqlSession session = new SqlSession(open(true));
+        this.writer = new Thread(() -> writeLoop(session), "quantor-sqlite-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Runs work on the writer connection and waits until its batch committed. */
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        if (Thread.currentThread() == writer) {
+            throw new IllegalStateException("nested write() from inside a write unit");
+        }
+        CompletableFuture<T> f = submit(work);
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for SQLite write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException se) throw se;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new SQLException("SQLite write failed", cause);
+        }
+    }
+
+    /** Queues work for the writer without waiting (completes after commit). */
+    public <T> CompletableFuture<T> submit(SqlWork<T> work) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        if (closed) {
+            f.completeExceptionally(new SQLException("SQLite access closed: " + url));
+            return f;
+        }
+        WriteJob<T> job = new WriteJob<>(work, f);
+        writes.add(job);
+        // close() may have raced past the check above and the writer already done its final drain:
+        // whoever removes the job fails it, otherwise the writer owns it (commit or final drain)
+        if (closed && writes.remove(job)) {
+            f.completeExceptionally(new SQLException("SQLite access closed: " + url));
+        }
+        return f;
+    }
+
+    /** Runs work on a pooled read-only connection. */
+    public <T> T read(SqlWork<T> work) throws SQLException {
+        try {
+            readerPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a SQLite reader", e);
+        }
+        SqlSession s = idleReaders.poll();
+        try {
+            if (s == null) s = new SqlSession(open(false));
+            return work.apply(s);
+        } finally {
+            if (s != null) {
+                if (closed || s.connection.isClosed()) s.close();
+                else idleReaders.add(s);
+            }
+            readerPermits.release();
+        }
+    }
+
+    /**
+     * Rejects new writes, lets the writer commit the units already queued (waits up to 5 s), then closes
+     * the readers. Only if the writer is still busy after that it is interrupted and the remaining queued
+     * units fail with an SQLException.
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        writes.add(STOP);
+        try {
+            writer.join(CLOSE_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            System.err.println("[SqliteAccess] writer still busy after " + CLOSE_WAIT_MS + " ms, failing queued writes: " + url);
+            writer.interrupt();
+        }
+        SqlSession s;
+        while ((s = idleReaders.poll()) != null) s.close();
+        SHARED.remove(url, this);
+    }
+
+    private Connection open(boolean forWrite) {
+        try {
+            Connection c = DriverManager.getConnection(url);
+            try (Statement st = c.createStatement()) {
+                st.execute("PRAGMA busy_timeout=5000;");
+                st.execute("PRAGMA foreign_keys=ON;");
+                if (forWrite) {
+                    st.execute("PRAGMA journal_mode=WAL;");
+                    st.execute("PRAGMA synchronous=NORMAL;");
+                } else {
+                    st.execute("PRAGMA query_only=ON;");
+                }
+            }
+            if (forWrite) c.setAutoCommit(false);
+            return c;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to connect to SQLite: " + url, e);
+        }
+    }
+
+    private void writeLoop(SqlSession session) {
+        List<WriteJob<?>> batch = new ArrayList<>(maxBatch);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(writes.take());
+            } catch (InterruptedException e) {
+                if (closed) break;
+                continue;
+            }
+            writes.drainTo(batch, maxBatch - 1);
+            // units queued around close() may sit behind STOP in the same drain; commit them as well
+            stopping = batch.removeIf(j -> j == STOP);
+            if (!batch.isEmpty()) commitBatch(session, batch);
+            batch.clear();
+        }
+        // interrupted by close() or submitted after STOP: fail what is still queued
+        WriteJob<?> j;
+        while ((j = writes.poll()) != null) {
+            if (j != STOP) j.result().completeExceptionally(new SQLException("SQLite access closed: " + url));
+        }
+        session.close();
+    }
+
+    private void commitBatch(SqlSession session, List<WriteJob<?>> batch) {
+        Connection c = session.connection;
+        Object[] results = new Object[batch.size()];
+        Throwable[] errors = new Throwable[batch.size()];
+
+        for (int i = 0; i < batch.size(); i++) {
+            Savepoint sp = null;
+            try {
+                sp = c.setSavepoint();
+                results[i] = batch.get(i).work().apply(session);
+                c.releaseSavepoint(sp);
+            } catch (Throwable t) {
+                errors[i] = t;
+                if (sp != null) {
+                    try {
+                        c.rollback(sp);
+                        c.releaseSavepoint(sp);
+                    } catch (SQLException ignore) {
+                    }
+                }
+            }
+        }
+
+        try {
+            c.commit();
+        } catch (SQLException e) {
+            try {
+                c.rollback();
+            } catch (SQLException ignore) {
+            }
+            System.err.println("[SqliteAccess] group commit of " + batch.size() + " writes failed: " + e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                if (errors[i] == null) errors[i] = e;
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), results[i], errors[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void complete(WriteJob<T> job, Object result, Throwable error) {
+        if (error != null) job.result().completeExceptionally(error);
+        else job.result().complete((T) result);
+    }
+}
@@ -28,8 +28,8 @@ public class StrategyRepository {
             VALUES(?,?,?,?,?)
         """;
 
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        return Database.access().write(s -> {
+            PreparedStatement ps = s.prepareReturningKeys(sql);
 
             ps.setString(1, name.trim());
             ps.setInt(2, enabled ? 1 : 0);
@@ -42,8 +42,8 @@ public class StrategyRepository {
             try (ResultSet rs = ps.getGeneratedKeys()) {
                 if (rs.next()) return rs.getLong(1);
             }
-        }
-        throw new SQLException("Failed to obtain id of the new strategy");
+            throw new SQLException("Failed to obtain id of the new strategy");
+        });
     }
 
     public List<StrategyRow> listAll(boolean includeDisabled) throws SQLException {
@@ -51,28 +51,26 @@ public class StrategyRepository {
                 ? "SELECT id,name,enabled,params_json FROM strategies ORDER BY id"
                 : "SELECT id,name,enabled,params_json FROM strategies WHERE enabled=1 ORDER BY id";
 
-        List<StrategyRow> out = new ArrayList<>();
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                out.add(new StrategyRow(
-                        rs.getLong("id"),
-                        rs.getString("name"),
-                        rs.getInt("enabled") == 1,
-                        rs.getString("params_json")
-                ));
+        return Database.access().read(s -> {
+            List<StrategyRow> out = new ArrayList<>();
+            try (ResultSet rs = s.prepare(sql).executeQuery()) {
+                while (rs.next()) {
+                    out.add(new StrategyRow(
+                            rs.getLong("id"),
+                            rs.getString("name"),
+                            rs.getInt("enabled") == 1,
+                            rs.getString("params_json")
+                    ));
+                }
             }
-        }
-        return out;
+            return out;
+        });
     }
 
     public StrategyRow getById(long id) throws SQLException {
         String sql = "SELECT id,name,enabled,params_json FROM strategies WHERE id=?";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
+        return Database.access().read(s -> {
+            PreparedStatement ps = s.prepare(sql);
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) return null;
@@ -83,18 +81,17 @@ public class StrategyRepository {
                         rs.getString("params_json")
                 );
             }
-        }
+        });
     }
 
     public List<StrategyRow> findByNameLike(String q) throws SQLException {
-        if (q == null) q = "";
+        String like = "%" + (q == null ? "" : q.trim()) + "%";
         String sql = "SELECT id,name,enabled,params_json FROM strategies WHERE name LIKE ? ORDER BY id";
-        List<StrategyRow> out = new ArrayList<>();
-
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
 
-            ps.setString(1, "%" + q.trim() + "%");
+        return Database.access().read(s -> {
+            List<StrategyRow> out = new ArrayList<>();
+            PreparedStatement ps = s.prepare(sql);
+            ps.setString(1, like);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     out.add(new StrategyRow(
@@ -105,8 +102,8 @@ public class StrategyRepository {
                     ));
                 }
             }
-        }
-        return out;
+            return out;
+        });
     }
 
     public void updateParams(long id, String newParamsJson) throws SQLException {
@@ -115,9 +112,8 @@ public class StrategyRepository {
         }
 
         String sql = "UPDATE strategies SET params_json=?, updated_at=? WHERE id=?";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
+        Database.access().write(s -> {
+            PreparedStatement ps = s.prepare(sql);
             ps.setString(1, newParamsJson);
             ps.setString(2, Instant.now().toString());
             ps.setLong(3, id);
@@ -125,14 +121,14 @@ public class StrategyRepository {
             if (ps.executeUpdate() == 0) {
                 throw new SQLException("Strategy not found: id=" + id);
             }
-        }
+            return null;
+        });
     }
 
     public void setEnabled(long id, boolean enabled) throws SQLException {
         String sql = "UPDATE strategies SET enabled=?, updated_at=? WHERE id=?";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
+        Database.access().write(s -> {
+            PreparedStatement ps = s.prepare(sql);
             ps.setInt(1, enabled ? 1 : 0);
             ps.setString(2, Instant.now().toString());
             ps.setLong(3, id);
@@ -140,19 +136,20 @@ public class StrategyRepository {
             if (ps.executeUpdate() == 0) {
                 throw new SQLException("Strategy not found: id=" + id);
             }
-        }
+            return null;
+        });
     }
 
     public void delete(long id) throws SQLException {
         String sql = "DELETE FROM strategies WHERE id=?";
-        try (Connection c = Database.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
+        Database.access().write(s -> {
+            PreparedStatement ps = s.prepare(sql);
             ps.setLong(1, id);
             if (ps.executeUpdate() == 0) {
                 throw new SQLException("Strategy not found: id=" + id);
             }
-        }
+            return null;
+        });
     }
 
     private static void validateName(String name) {
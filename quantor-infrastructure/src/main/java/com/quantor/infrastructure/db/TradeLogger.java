@@ -1,15 +1,34 @@
 package com.quantor.infrastructure.db;
 
-import java.sql.Connection;
+import com.quantor.domain.journal.AsyncAppender;
+
 import java.sql.PreparedStatement;
 import java.sql.Timestamp;
+import java.util.List;
 
+/**
+ * Static trade log into the SQLite trades table.
+ *
+ * log() only enqueues; the AsyncAppender flusher inserts each drained batch as one write unit
+ * on the shared SQLite writer (one executeBatch, one group commit).
+ */
 public class TradeLogger {
 
     static {
         Database.initSchema();
     }
 
+    private static final String SQL = """
+        INSERT INTO trades (ts, mode, symbol, side, price, qty, balance_after, comment)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private record Row(long tsMs, String mode, String symbol, String side,
+                       double price, double qty, double balanceAfter, String comment) {}
+
+    private static final AsyncAppender<Row> APPENDER = new AsyncAppender<>("trade-logger-sqlite",
+            TradeLogger::insert, AsyncAppender.Options.fromSystemProperties());
+
     public static void log(
             String mode,
             String symbol,
@@ -19,27 +38,48 @@ public class TradeLogger {
             double balanceAfter,
             String comment
     ) {
-        String sql = """
-            INSERT INTO trades (ts, mode, symbol, side, price, qty, balance_after, comment)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-        """;
+        log(System.currentTimeMillis(), mode, symbol, side, price, qty, balanceAfter, comment);
+    }
 
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+    /** Trade that happened at tsMs (epoch millis), e.g. a fill spilled from another journal. */
+    public static void log(
+            long tsMs,
+            String mode,
+            String symbol,
+            String side,
+            double price,
+            double qty,
+            double balanceAfter,
+            String comment
+    ) {
+        APPENDER.append(new Row(tsMs, mode, symbol, side, price, qty, balanceAfter, comment));
+    }
 
-            ps.setString(1, new Timestamp(System.currentTimeMillis()).toString());
-            ps.setString(2, mode);
-            ps.setString(3, symbol);
-            ps.setString(4, side);
-            ps.setDouble(5, price);
-            ps.setDouble(6, qty);
-            ps.setDouble(7, balanceAfter);
-            ps.setString(8, comment);
+    /** Waits until every logged trade is committed. */
+    public static void flush() {
+        APPENDER.flush();
+    }
 
-            ps.executeUpdate();
+    private static void insert(List<Row> batch) {
+        try {
+            Database.access().write(s -> {
+                PreparedStatement ps = s.prepare(SQL);
+                for (Row r : batch) {
+                    ps.setString(1, new Timestamp(r.tsMs()).toString());
+                    ps.setString(2, r.mode());
+                    ps.setString(3, r.symbol());
+                    ps.setString(4, r.side());
+                    ps.setDouble(5, r.price());
+                    ps.setDouble(6, r.qty());
+                    ps.setDouble(7, r.balanceAfter());
+                    ps.setString(8, r.comment());
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            });
 
         } catch (Exception e) {
             System.err.println("❌ TradeLogger.log() DB error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package com.quantor.infrastructure.db;
 
 import com.quantor.infrastructure.security.AesGcmCrypto;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Timestamp;
@@ -25,12 +24,15 @@ public class UserSecretsStore {
 
     public String getEncrypted(String userId, String key) {
         String sql = "SELECT secret_value_enc FROM user_secrets WHERE user_id=? AND secret_key=?";
-        try (Connection c = Database.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, userId);
-            ps.setString(2, key);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return rs.getString(1);
-            }
+        try {
+            return Database.access().read(s -> {
+                PreparedStatement ps = s.prepare(sql);
+                ps.setString(1, userId);
+                ps.setString(2, key);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            });
         } catch (Exception e) {
             System.err.println("UserSecretsStore.getEncrypted DB error: " + e.getMessage());
         }
@@ -40,12 +42,16 @@ public class UserSecretsStore {
     public void putEncrypted(String userId, String key, String encryptedPayloadB64) {
         String sql = "INSERT INTO user_secrets(user_id, secret_key, secret_value_enc, updated_at) VALUES(?,?,?,?) " +
                 "ON CONFLICT(user_id, secret_key) DO UPDATE SET secret_value_enc=excluded.secret_value_enc, updated_at=excluded.updated_at";
-        try (Connection c = Database.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, userId);
-            ps.setString(2, key);
-            ps.setString(3, encryptedPayloadB64);
-            ps.setString(4, new Timestamp(System.currentTimeMillis()).toString());
-            ps.executeUpdate();
+        String updatedAt = new Timestamp(System.currentTimeMillis()).toString();
+        try {
+            Database.access().write(s -> {
+                PreparedStatement ps = s.prepare(sql);
+                ps.setString(1, userId);
+                ps.setString(2, key);
+                ps.setString(3, encryptedPayloadB64);
+                ps.setString(4, updatedAt);
+                return ps.executeUpdate();
+            });
         } catch (Exception e) {
             System.err.println("UserSecretsStore.putEncrypted DB error: " + e.getMessage());
         }
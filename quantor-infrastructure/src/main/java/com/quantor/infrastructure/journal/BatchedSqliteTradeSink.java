@@ -0,0 +1,95 @@
+package com.quantor.infrastructure.journal;
+
+import com.quantor.application.engine.TradeSink;
+import com.quantor.infrastructure.db.Database;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TradeSink that writes backtest trades into the SQLite trades table in batches.
+ *
+ * Notes:
+ * - Writes go through the shared SQLite writer (Database.access()), no connection of its own.
+ * - One write unit per {@code batchSize} rows instead of one connection + commit per trade.
+ * - Call close() (or use try-with-resources) so the tail batch is written.
+ * - A failed write keeps the batch (it is retried by the next flush) and throws, so a backtest
+ *   never reports success with trades missing from the table.
+ */
+public class BatchedSqliteTradeSink implements TradeSink {
+
+    private static final String SQL = """
+        INSERT INTO trades (ts, mode, symbol, side, price, qty, balance_after, comment)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private record Row(long ts, String symbol, String side, int barIndex,
+                       double price, double qty, double cashAfter, double pnl) {}
+
+    private final String mode;
+    private final int batchSize;
+    private final List<Row> pending;
+
+    public BatchedSqliteTradeSink() {
+        this("backtest", 500);
+    }
+
+    public BatchedSqliteTradeSink(String mode, int batchSize) {
+        this.mode = (mode == null || mode.isBlank()) ? "backtest" : mode;
+        this.batchSize = Math.max(1, batchSize);
+        this.pending = new ArrayList<>(this.batchSize);
+        Database.initSchema();
+    }
+
+    @Override
+    public void onTrade(String symbol, String side, int barIndex, double price, double qty, double cashAfter, double pnl) {
+        pending.add(new Row(System.currentTimeMillis(), symbol, side, barIndex, price, qty, cashAfter, pnl));
+        if (pending.size() >= batchSize) flush();
+    }
+
+    @Override
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        List<Row> rows = List.copyOf(pending);
+        try {
+            Database.access().write(s -> {
+                PreparedStatement ps = s.prepare(SQL);
+                for (Row r : rows) {
+                    ps.setString(1, new Timestamp(r.ts()).toString());
+                    ps.setString(2, mode);
+                    ps.setString(3, r.symbol());
+                    ps.setString(4, r.side());
+                    ps.setDouble(5, r.price());
+                    ps.setDouble(6, r.qty());
+                    ps.setDouble(7, r.cashAfter());
+                    ps.setString(8, comment(r));
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            });
+        } catch (Exception e) {
+            // rows stay pending: the next flush()/close() retries them
+            throw new IllegalStateException("BatchedSqliteTradeSink: " + rows.size()
+                    + " trades not written (kept for retry): " + e.getMessage(), e);
+        }
+        pending.subList(0, rows.size()).clear();
+    }
+
+    /** Trades buffered and not yet written. */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private static String comment(Row r) {
+        if (Double.isNaN(r.pnl())) return "bar=" + r.barIndex();
+        return "bar=" + r.barIndex() + " | pnl=" + String.format("%.6f", r.pnl());
+    }
+}
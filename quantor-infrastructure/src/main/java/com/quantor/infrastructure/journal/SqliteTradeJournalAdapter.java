@@ -3,6 +3,8 @@ package com.quantor.infrastructure.journal;
 import com.quantor.application.ports.TradeJournalPort;
 import com.quantor.infrastructure.db.TradeLogger;
 
+import java.time.Instant;
+
 /**
  * Simple TradeJournalPort implementation backed by the existing SQLite TradeLogger.
  *
@@ -16,4 +18,9 @@ public class SqliteTradeJournalAdapter implements TradeJournalPort {
     public void logTrade(String mode, String symbol, String side, double price, double qty, double balanceAfter, String comment) {
         TradeLogger.log(mode, symbol, side, price, qty, balanceAfter, comment);
     }
+
+    @Override
+    public void logTradeAt(Instant ts, String mode, String symbol, String side, double price, double qty, double balanceAfter, String comment) {
+        TradeLogger.log(ts.toEpochMilli(), mode, symbol, side, price, qty, balanceAfter, comment);
+    }
 }
@@ -1,28 +1,242 @@
 package com.quantor.infrastructure.paper;
 
 import com.quantor.domain.portfolio.PortfolioPosition;
+import com.quantor.domain.session.Snapshottable;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Thread-safe paper broker state (multi-symbol).
+ * Snapshottable: balances, positions and last prices move with the session on a worker handoff.
+ *
+ * All mutations go through the methods below (the maps are exposed read-only). When the state was
+ * opened through a PaperStateJournal, every mutation also emits its after-image (the new balance, the
+ * whole position, ...) to the journal's write-ahead log, so replaying the log over a snapshot rebuilds
+ * exactly this state. Positions are mutable objects: after changing one, hand it back to putPosition().
  */
-public class PaperBrokerState {
+public class PaperBrokerState implements Snapshottable {
+
+    private static final byte STATE_VERSION = 1;
+
+    // WAL record types (payload = after-image, see apply())
+    static final byte REC_BALANCE = 1;
+    static final byte REC_POSITION = 2;
+    static final byte REC_POSITION_REMOVED = 3;
+    static final byte REC_PRICE = 4;
+    static final byte REC_FULL = 5;
+
+    /** Receives each mutation, in the order it was applied (called under the state's monitor). */
+    interface WalSink {
+        void append(long seq, byte type, byte[] payload);
+    }
 
     private final ConcurrentHashMap<String, BigDecimal> balances = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, PortfolioPosition> positions = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Double> lastPriceBySymbol = new ConcurrentHashMap<>();
 
-    public Map<String, BigDecimal> balances() { return balances; }
-    public Map<String, PortfolioPosition> positions() { return positions; }
+    private WalSink wal;
+    private long walSeq;
+
+    public Map<String, BigDecimal> balances() { return Collections.unmodifiableMap(balances); }
+    public Map<String, PortfolioPosition> positions() { return Collections.unmodifiableMap(positions); }
+
+    public synchronized void setBalance(String asset, BigDecimal amount) {
+        balances.put(asset, amount);
+        logBalance(asset, amount);
+    }
+
+    /** Adds delta to the balance (missing = 0) and returns the new balance. */
+    public synchronized BigDecimal addBalance(String asset, BigDecimal delta) {
+        BigDecimal v = balances.merge(asset, delta, BigDecimal::add);
+        logBalance(asset, v);
+        return v;
+    }
+
+    /** Sets the balance only when the asset has none yet (initial funding; a restored state keeps its own). */
+    public synchronized void initBalance(String asset, BigDecimal amount) {
+        if (balances.putIfAbsent(asset, amount) == null) logBalance(asset, amount);
+    }
+
+    public synchronized void putPosition(PortfolioPosition pos) {
+        positions.put(pos.getSymbol(), pos);
+        if (wal != null) log(REC_POSITION, encodePosition(pos));
+    }
+
+    public synchronized void removePosition(String symbol) {
+        if (positions.remove(symbol) != null && wal != null) log(REC_POSITION_REMOVED, encode(out -> out.writeUTF(symbol)));
+    }
 
-    public void setLastPrice(String symbol, double price) {
+    public synchronized void setLastPrice(String symbol, double price) {
         lastPriceBySymbol.put(symbol, price);
+        if (wal != null) log(REC_PRICE, encode(out -> {
+            out.writeUTF(symbol);
+            out.writeDouble(price);
+        }));
     }
 
     public Double getLastPrice(String symbol) {
         return lastPriceBySymbol.get(symbol);
     }
+
+    @Override
+    public synchronized byte[] snapshotState() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(STATE_VERSION);
+
+            Map<String, BigDecimal> b = new HashMap<>(balances);
+            out.writeInt(b.size());
+            for (Map.Entry<String, BigDecimal> e : b.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeUTF(e.getValue().toPlainString());
+            }
+
+            Map<String, PortfolioPosition> p = new HashMap<>(positions);
+            out.writeInt(p.size());
+            for (Map.Entry<String, PortfolioPosition> e : p.entrySet()) {
+                out.writeUTF(e.getKey());
+                writePosition(out, e.getValue());
+            }
+
+            Map<String, Double> prices = new HashMap<>(lastPriceBySymbol);
+            out.writeInt(prices.size());
+            for (Map.Entry<String, Double> e : prices.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeDouble(e.getValue());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    /** Replaces the current state (the initial balance set up by the portfolio adapter included). */
+    @Override
+    public synchronized void restoreState(byte[] state) {
+        if (load(state) && wal != null) log(REC_FULL, state);
+    }
+
+    // ---- write-ahead log support (PaperStateJournal) ----
+
+    /** Attaches the journal; later mutations are numbered from seq + 1. */
+    synchronized void attach(WalSink sink, long seq) {
+        this.wal = sink;
+        this.walSeq = seq;
+    }
+
+    /** Re-applies one logged after-image (recovery / the journal's shadow copy); not logged again. */
+    synchronized void apply(byte type, byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        switch (type) {
+            case REC_BALANCE -> balances.put(in.readUTF(), new BigDecimal(in.readUTF()));
+            case REC_POSITION -> {
+                in.readUTF(); // map key == symbol
+                PortfolioPosition pos = readPosition(in);
+                positions.put(pos.getSymbol(), pos);
+            }
+            case REC_POSITION_REMOVED -> positions.remove(in.readUTF());
+            case REC_PRICE -> lastPriceBySymbol.put(in.readUTF(), in.readDouble());
+            case REC_FULL -> {
+                if (!load(payload)) throw new IOException("unreadable state image");
+            }
+            default -> throw new IOException("unknown record type " + type);
+        }
+    }
+
+    private boolean load(byte[] state) {
+        if (state == null || state.length == 0) return false;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+            if (in.readByte() != STATE_VERSION) return false;
+
+            Map<String, BigDecimal> b = new HashMap<>();
+            int nb = in.readInt();
+            for (int i = 0; i < nb; i++) b.put(in.readUTF(), new BigDecimal(in.readUTF()));
+
+            Map<String, PortfolioPosition> p = new HashMap<>();
+            int np = in.readInt();
+            for (int i = 0; i < np; i++) {
+                String key = in.readUTF();
+                p.put(key, readPosition(in));
+            }
+
+            Map<String, Double> prices = new HashMap<>();
+            int nl = in.readInt();
+            for (int i = 0; i < nl; i++) prices.put(in.readUTF(), in.readDouble());
+
+            balances.clear();
+            balances.putAll(b);
+            positions.clear();
+            positions.putAll(p);
+            lastPriceBySymbol.clear();
+            lastPriceBySymbol.putAll(prices);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[PaperBrokerState] restore state error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void logBalance(String asset, BigDecimal amount) {
+        if (wal == null) return;
+        log(REC_BALANCE, encode(out -> {
+            out.writeUTF(asset);
+            out.writeUTF(amount.toPlainString());
+        }));
+    }
+
+    private void log(byte type, byte[] payload) {
+        wal.append(++walSeq, type, payload);
+    }
+
+    private static byte[] encodePosition(PortfolioPosition pos) {
+        return encode(out -> {
+            out.writeUTF(pos.getSymbol());
+            writePosition(out, pos);
+        });
+    }
+
+    private static void writePosition(DataOutputStream out, PortfolioPosition pos) throws IOException {
+        out.writeUTF(pos.getSymbol());
+        out.writeUTF(pos.getBaseAsset());
+        out.writeUTF(pos.getQuoteAsset());
+        out.writeUTF(pos.getQtyBase().toPlainString());
+        out.writeUTF(pos.getAvgEntryPrice().toPlainString());
+        out.writeUTF(pos.getRealizedPnlQuote().toPlainString());
+    }
+
+    private static PortfolioPosition readPosition(DataInputStream in) throws IOException {
+        PortfolioPosition pos = new PortfolioPosition(in.readUTF(), in.readUTF(), in.readUTF());
+        pos.setQtyBase(new BigDecimal(in.readUTF()));
+        pos.setAvgEntryPrice(new BigDecimal(in.readUTF()));
+        pos.addRealizedPnlQuote(new BigDecimal(in.readUTF()));
+        return pos;
+    }
+
+    private interface Encoder {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(Encoder encoder) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            encoder.write(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory stream
+        }
+    }
 }
@@ -36,7 +36,7 @@ public class PaperOrderExecutionAdapter implements OrderExecutionPort {
         this.feeBps = new BigDecimal(cfg.get("paper.feeBps", "10"));
         this.slippageBps = new BigDecimal(cfg.get("paper.slippageBps", "5"));
 
-        state.balances().putIfAbsent(quoteAsset, new BigDecimal(cfg.get("paper.initialBalance." + quoteAsset, "1000")));
+        state.initBalance(quoteAsset, new BigDecimal(cfg.get("paper.initialBalance." + quoteAsset, "1000")));
     }
 
     @Override
@@ -62,12 +62,13 @@ public class PaperOrderExecutionAdapter implements OrderExecutionPort {
             if (quoteBal.compareTo(cost) < 0) {
                 throw new IllegalStateException("Insufficient " + quoteAsset + " balance for BUY. Need=" + cost + " have=" + quoteBal);
             }
-            state.balances().put(quoteAsset, quoteBal.subtract(cost));
+            state.setBalance(quoteAsset, quoteBal.subtract(cost));
 
             // credit base asset balance too (optional)
-            state.balances().merge(meta.baseAsset(), qty, BigDecimal::add);
+            state.addBalance(meta.baseAsset(), qty);
 
-            PortfolioPosition pos = state.positions().computeIfAbsent(symbol, s -> new PortfolioPosition(s, meta.baseAsset(), meta.quoteAsset()));
+            PortfolioPosition pos = state.positions().get(symbol);
+            if (pos == null) pos = new PortfolioPosition(symbol, meta.baseAsset(), meta.quoteAsset());
             // update avg entry price (VWAP)
             BigDecimal oldQty = pos.getQtyBase();
             BigDecimal newQty = oldQty.add(qty);
@@ -77,6 +78,7 @@ public class PaperOrderExecutionAdapter implements OrderExecutionPort {
                 pos.setAvgEntryPrice(newCost.divide(newQty, 12, RoundingMode.HALF_UP));
             }
             pos.setQtyBase(newQty);
+            state.putPosition(pos);
         }
     }
 
@@ -104,8 +106,8 @@ public class PaperOrderExecutionAdapter implements OrderExecutionPort {
             }
 
             // update balances
-            state.balances().merge(quoteAsset, proceeds, BigDecimal::add);
-            state.balances().merge(meta.baseAsset(), qty.negate(), BigDecimal::add);
+            state.addBalance(quoteAsset, proceeds);
+            state.addBalance(meta.baseAsset(), qty.negate());
 
             // realized pnl
             BigDecimal pnl = price.subtract(pos.getAvgEntryPrice()).multiply(qty).subtract(fee);
@@ -116,7 +118,9 @@ public class PaperOrderExecutionAdapter implements OrderExecutionPort {
 
             if (newQty.compareTo(BigDecimal.ZERO) <= 0) {
                 // close position
-                state.positions().remove(symbol);
+                state.removePosition(symbol);
+            } else {
+                state.putPosition(pos);
             }
         }
     }
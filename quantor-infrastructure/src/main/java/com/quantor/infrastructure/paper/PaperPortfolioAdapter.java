@@ -7,6 +7,7 @@ import com.quantor.domain.portfolio.AssetBalance;
 import com.quantor.domain.portfolio.Fill;
 import com.quantor.domain.portfolio.PortfolioPosition;
 import com.quantor.domain.portfolio.PortfolioSnapshot;
+import com.quantor.domain.session.Snapshottable;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -16,7 +17,7 @@ import java.util.Map;
 /**
  * Portfolio adapter for paper broker (multi-symbol).
  */
-public class PaperPortfolioAdapter implements PortfolioPort {
+public class PaperPortfolioAdapter implements PortfolioPort, Snapshottable {
 
     private final PaperBrokerState state;
     private final ConfigPort config;
@@ -30,7 +31,7 @@ public class PaperPortfolioAdapter implements PortfolioPort {
         this.quoteAsset = config.get("paper.quoteAsset", "USDT").trim();
 
         // init quote balance if missing
-        state.balances().putIfAbsent(quoteAsset, new BigDecimal(config.get("paper.initialBalance." + quoteAsset, "1000")));
+        state.initBalance(quoteAsset, new BigDecimal(config.get("paper.initialBalance." + quoteAsset, "1000")));
     }
 
     @Override
@@ -70,39 +71,46 @@ public class PaperPortfolioAdapter implements PortfolioPort {
             BigDecimal price = fill.getPrice();
             BigDecimal fee = fill.getFeeQuote() == null ? BigDecimal.ZERO : fill.getFeeQuote();
 
-            // Ensure balances exist
-            state.balances().putIfAbsent(base, BigDecimal.ZERO);
-            state.balances().putIfAbsent(quote, BigDecimal.ZERO);
-
-            BigDecimal baseBal = state.balances().get(base);
-            BigDecimal quoteBal = state.balances().get(quote);
             BigDecimal cost = qty.multiply(price);
 
-            if (fill.getSide() == Fill.Side.BUY) {
-                // Spend quote, receive base
-                state.balances().put(quote, quoteBal.subtract(cost).subtract(fee));
-                state.balances().put(base, baseBal.add(qty));
-            } else {
-                // Spend base, receive quote
-                state.balances().put(base, baseBal.subtract(qty));
-                state.balances().put(quote, quoteBal.add(cost).subtract(fee));
+            synchronized (state) {
+                if (fill.getSide() == Fill.Side.BUY) {
+                    // Spend quote, receive base
+                    state.addBalance(quote, cost.add(fee).negate());
+                    state.addBalance(base, qty);
+                } else {
+                    // Spend base, receive quote
+                    state.addBalance(base, qty.negate());
+                    state.addBalance(quote, cost.subtract(fee));
+                }
+
+                // Update position snapshot for the symbol
+                PortfolioPosition current = state.positions().get(fill.getSymbol());
+                BigDecimal posQty = (current == null) ? BigDecimal.ZERO : current.getQtyBase();
+
+                BigDecimal newQty = (fill.getSide() == Fill.Side.BUY) ? posQty.add(qty) : posQty.subtract(qty);
+                PortfolioPosition updated = (current == null)
+                        ? new PortfolioPosition(fill.getSymbol(), base, quote)
+                        : current;
+                updated.setQtyBase(newQty);
+                state.putPosition(updated);
+
+                // Update last price cache for equity calculation
+                state.setLastPrice(fill.getSymbol(), price.doubleValue());
             }
-
-            // Update position snapshot for the symbol
-            PortfolioPosition current = state.positions().get(fill.getSymbol());
-            BigDecimal posQty = (current == null) ? BigDecimal.ZERO : current.getQtyBase();
-
-            BigDecimal newQty = (fill.getSide() == Fill.Side.BUY) ? posQty.add(qty) : posQty.subtract(qty);
-            PortfolioPosition updated = (current == null)
-                    ? new PortfolioPosition(fill.getSymbol(), base, quote)
-                    : current;
-            updated.setQtyBase(newQty);
-            state.positions().put(fill.getSymbol(), updated);
-
-            // Update last price cache for equity calculation
-            state.setLastPrice(fill.getSymbol(), price.doubleValue());
         } catch (Exception ignore) {
             // best-effort
         }
     }
+
+    /** The broker state is shared with the paper order adapter, so restoring it here restores both. */
+    @Override
+    public byte[] snapshotState() {
+        return state.snapshotState();
+    }
+
+    @Override
+    public void restoreState(byte[] snapshot) {
+        state.restoreState(snapshot);
+    }
 }
@@ -0,0 +1,349 @@
+package com.quantor.infrastructure.paper;
+
+import com.quantor.application.ports.ConfigPort;
+import com.quantor.domain.journal.AsyncAppender;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Durable paper accounts: per-session snapshot + binary write-ahead log under one directory.
+ *
+ * Files per session (key sanitized): {key}.snap and {key}.wal
+ *   WAL record:  int length | long seq | byte type | payload | int crc32(seq..payload)
+ *   snapshot:    int magic | long seq | int length | PaperBrokerState image | int crc32(image)
+ *
+ * open(key) loads the snapshot, replays the WAL records after its seq (stopping at the first torn or
+ * corrupt record) and returns a state whose every mutation appends its after-image to the log. The
+ * tick only enqueues into an AsyncAppender; the appender thread writes each drained batch with one
+ * write + one fsync per touched session (durability per AsyncAppender.Options).
+ *
+ * The writer keeps a shadow copy of each state by applying the records it writes, so snapshots are
+ * taken on the writer thread without touching the live state: every snapshotEvery records, when a
+ * session is opened, and on close. A snapshot is written to a temp file, moved atomically, and only
+ * then is the WAL truncated; a crash in between leaves records that replay skips by seq.
+ * release(key) (session stopped) snapshots that session and closes its WAL channel.
+ *
+ * The directory is local to the process: a worker only recovers the paper accounts it wrote itself.
+ * When a session moves to another worker (lease handoff) the paper account travels in the session
+ * snapshot (session_snapshots); this journal only covers restarts of the same worker on the same
+ * disk, unless paper.stateDir points at storage shared by the workers.
+ */
+public class PaperStateJournal implements AutoCloseable {
+
+    private static final int SNAPSHOT_MAGIC = 0x51505331; // "QPS1"
+    private static final int RECORD_OVERHEAD = 4 + 8 + 1 + 4;
+    private static final byte OPENED = 0; // writer-only entry: payload is the recovered image
+    private static final byte RELEASED = -1; // writer-only entry: session stopped
+
+    /** One mutation of `state` (records of a state replaced by a later open() are ignored). */
+    private record Entry(String key, long seq, byte type, byte[] payload, PaperBrokerState state) {}
+
+    private final Path dir;
+    private final int snapshotEvery;
+    private final AsyncAppender<Entry> appender;
+
+    public PaperStateJournal(Path dir, int snapshotEvery, AsyncAppender.Options options) {
+        this.dir = dir;
+        this.snapshotEvery = Math.max(16, snapshotEvery);
+        this.appender = new AsyncAppender<>("paper-state", new WalWriter(), options);
+    }
+
+    /**
+     * paper.stateDir (empty = paper accounts stay in memory, returns null; relative paths resolve
+     * against the working directory of this process), paper.snapshotEvery.
+     */
+    public static PaperStateJournal fromConfig(ConfigPort config) {
+        String dir = config.get("paper.stateDir", "").trim();
+        if (dir.isEmpty()) return null;
+        return new PaperStateJournal(Paths.get(dir), config.getInt("paper.snapshotEvery", 1000),
+                AsyncAppender.Options.fromSystemProperties());
+    }
+
+    /**
+     * Paper state of one session, recovered from disk (empty when the session has no files yet).
+     * Opening a key again replaces the previous state's journaling; only one live state per key.
+     */
+    public PaperBrokerState open(String sessionKey) {
+        String key = fileKey(sessionKey);
+        appender.flush(); // an earlier state of this key may still have records queued
+
+        PaperBrokerState state = new PaperBrokerState();
+        long seq = recover(key, state);
+        appender.append(new Entry(key, seq, OPENED, state.snapshotState(), state));
+        state.attach((s, type, payload) -> appender.append(new Entry(key, s, type, payload, state)), seq);
+        return state;
+    }
+
+    /**
+     * Session stopped: its queued records are written, it is snapshotted and its WAL channel closed.
+     * Mutations of its state after this call are not journaled (open() the key again to resume).
+     */
+    public void release(String sessionKey) {
+        appender.append(new Entry(fileKey(sessionKey), 0, RELEASED, null, null));
+    }
+
+    /** Waits until every queued mutation is written (and synced unless ON_SHUTDOWN). */
+    public void flush() {
+        appender.flush();
+    }
+
+    /** Snapshots every open session and closes the log files. */
+    @Override
+    public void close() {
+        appender.close();
+    }
+
+    // ---- recovery ----
+
+    private long recover(String key, PaperBrokerState state) {
+        long started = System.nanoTime();
+        long seq = 0;
+        int replayed = 0;
+        try {
+            ByteBuffer snap = readAll(snapshotPath(key));
+            if (snap != null) seq = loadSnapshot(snap, state);
+
+            ByteBuffer wal = readAll(walPath(key));
+            while (wal != null && wal.remaining() >= RECORD_OVERHEAD) {
+                int len = wal.getInt(wal.position());
+                if (len < 9 || len > wal.remaining() - 8) break; // torn tail
+                int start = wal.position() + 4;
+                if (crc(wal, start, len) != wal.getInt(start + len)) break;
+
+                wal.position(start);
+                long recSeq = wal.getLong();
+                byte type = wal.get();
+                byte[] payload = new byte[len - 9];
+                wal.get(payload);
+                wal.getInt();
+                if (recSeq <= seq) continue; // already in the snapshot
+                state.apply(type, payload);
+                seq = recSeq;
+                replayed++;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[PaperStateJournal] recover " + key + " error: " + e.getMessage());
+        }
+        if (seq > 0) {
+            System.err.println("[PaperStateJournal] " + key + " recovered at seq " + seq + " (" + replayed
+                    + " WAL records) in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+        }
+        return seq;
+    }
+
+    private static long loadSnapshot(ByteBuffer snap, PaperBrokerState state) throws IOException {
+        if (snap.remaining() < 20 || snap.getInt() != SNAPSHOT_MAGIC) throw new IOException("bad snapshot header");
+        long seq = snap.getLong();
+        int len = snap.getInt();
+        if (len < 0 || len > snap.remaining() - 4) throw new IOException("truncated snapshot");
+        if (crc(snap, snap.position(), len) != snap.getInt(snap.position() + len)) throw new IOException("snapshot checksum mismatch");
+        byte[] image = new byte[len];
+        snap.get(image);
+        state.apply(PaperBrokerState.REC_FULL, image);
+        return seq;
+    }
+
+    private static ByteBuffer readAll(Path p) throws IOException {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(p));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static int crc(ByteBuffer buf, int offset, int len) {
+        CRC32 crc = new CRC32();
+        crc.update(buf.slice(offset, len));
+        return (int) crc.getValue();
+    }
+
+    private Path snapshotPath(String key) {
+        return dir.resolve(key + ".snap");
+    }
+
+    private Path walPath(String key) {
+        return dir.resolve(key + ".wal");
+    }
+
+    private static String fileKey(String sessionKey) {
+        String k = sessionKey == null || sessionKey.isBlank() ? "default" : sessionKey.trim();
+        return k.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    // ---- writer (appender thread) ----
+
+    /** Per-session log: open WAL channel + shadow state mirroring what is on disk. */
+    private static final class SessionLog {
+        final String key;
+        final PaperBrokerState owner;
+        final PaperBrokerState shadow = new PaperBrokerState();
+        FileChannel wal;
+        long seq;
+        int sinceSnapshot;
+        boolean dirty;
+
+        SessionLog(String key, PaperBrokerState owner) {
+            this.key = key;
+            this.owner = owner;
+        }
+    }
+
+    private final class WalWriter implements AsyncAppender.BatchWriter<Entry> {
+        private final Map<String, SessionLog> logs = new HashMap<>();
+        private ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+
+        @Override
+        public void write(List<Entry> batch) throws IOException {
+            Map<String, List<Entry>> byKey = new LinkedHashMap<>();
+            for (Entry e : batch) byKey.computeIfAbsent(e.key(), k -> new ArrayList<>()).add(e);
+
+            // one session's failing file must not hold back the others
+            for (Map.Entry<String, List<Entry>> e : byKey.entrySet()) {
+                try {
+                    write(e.getKey(), e.getValue());
+                } catch (IOException ex) {
+                    System.err.println("[PaperStateJournal] write " + e.getKey() + " error: " + ex.getMessage());
+                }
+            }
+        }
+
+        private void write(String key, List<Entry> entries) throws IOException {
+            SessionLog log = logs.get(key);
+            buf.clear();
+            for (Entry e : entries) {
+                if (e.type() == RELEASED) {
+                    flushBuffer(log);
+                    if (log != null) {
+                        if (log.sinceSnapshot > 0) snapshot(log);
+                        closeQuietly(log);
+                        logs.remove(key);
+                    }
+                    log = null;
+                    continue;
+                }
+                if (e.type() == OPENED) {
+                    // (re)opened: the image is what recovery produced; snapshot it and start an empty WAL
+                    flushBuffer(log);
+                    if (log != null) closeQuietly(log);
+                    log = new SessionLog(key, e.state());
+                    log.shadow.apply(PaperBrokerState.REC_FULL, e.payload());
+                    log.seq = e.seq();
+                    logs.put(key, log);
+                    snapshot(log);
+                    continue;
+                }
+                if (log == null || log.owner != e.state() || e.seq() <= log.seq) continue;
+
+                int len = 8 + 1 + e.payload().length;
+                ensure(4 + len + 4);
+                int start = buf.position();
+                buf.putInt(len).putLong(e.seq()).put(e.type()).put(e.payload());
+                buf.putInt(crc(buf, start + 4, len));
+
+                log.shadow.apply(e.type(), e.payload());
+                log.seq = e.seq();
+                log.sinceSnapshot++;
+            }
+            flushBuffer(log);
+            if (log != null && log.sinceSnapshot >= snapshotEvery) snapshot(log);
+        }
+
+        private void flushBuffer(SessionLog log) throws IOException {
+            if (buf.position() == 0 || log == null) {
+                buf.clear();
+                return;
+            }
+            buf.flip();
+            FileChannel ch = channel(log);
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+            log.dirty = true;
+        }
+
+        /** Snapshot of the shadow (temp + atomic move), then the WAL starts empty. */
+        private void snapshot(SessionLog log) throws IOException {
+            byte[] image = log.shadow.snapshotState();
+            ByteBuffer out = ByteBuffer.allocate(4 + 8 + 4 + image.length + 4);
+            out.putInt(SNAPSHOT_MAGIC).putLong(log.seq).putInt(image.length).put(image);
+            out.putInt(crc(out, 16, image.length));
+            out.flip();
+
+            Files.createDirectories(dir);
+            Path tmp = dir.resolve(log.key + ".snap.tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (out.hasRemaining()) ch.write(out);
+                ch.force(true);
+            }
+            Files.move(tmp, snapshotPath(log.key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            channel(log).truncate(0);
+            log.dirty = true;
+            log.sinceSnapshot = 0;
+        }
+
+        private FileChannel channel(SessionLog log) throws IOException {
+            if (log.wal == null) {
+                Files.createDirectories(dir);
+                log.wal = FileChannel.open(walPath(log.key), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                log.wal.position(log.wal.size());
+            }
+            return log.wal;
+        }
+
+        private void ensure(int bytes) {
+            if (buf.remaining() >= bytes) return;
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + bytes));
+            buf.flip();
+            bigger.put(buf);
+            buf = bigger;
+        }
+
+        @Override
+        public void sync() throws IOException {
+            for (SessionLog log : logs.values()) {
+                if (log.dirty && log.wal != null) {
+                    log.wal.force(false);
+                    log.dirty = false;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (SessionLog log : logs.values()) {
+                try {
+                    if (log.sinceSnapshot > 0) snapshot(log);
+                } catch (IOException ex) {
+                    System.err.println("[PaperStateJournal] snapshot " + log.key + " error: " + ex.getMessage());
+                }
+                closeQuietly(log);
+            }
+            logs.clear();
+        }
+
+        private void closeQuietly(SessionLog log) {
+            if (log.wal == null) return;
+            try {
+                log.wal.force(false);
+                log.wal.close();
+            } catch (IOException ignored) {
+            }
+            log.wal = null;
+        }
+    }
+}
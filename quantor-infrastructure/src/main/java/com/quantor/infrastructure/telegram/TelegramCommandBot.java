@@ -33,6 +33,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *  /stop    - stop default session
  *  /status  - show registry status
  *  /health  - health snapshot (last tick/error)
+ *  /equity  - equity last 24h per session (from the rollups)
  *  /setkeys - store Binance keys securely in DB (encrypted)
  *  /config  - show effective config snapshot (NO SECRETS)
  *  /upgrade - show checkout link for PRO subscription
@@ -90,7 +91,7 @@ public class TelegramCommandBot {
 
     public void start() {
         if (!running.compareAndSet(false, true)) return;
-        safeSend("✅ Quantor Telegram bot started. Use /start /pause /resume /stop /status /health /setkeys /config /upgrade");
+        safeSend("✅ Quantor Telegram bot started. Use /start /pause /resume /stop /status /health /equity /setkeys /config /upgrade");
 
         while (running.get()) {
             try {
@@ -162,11 +163,12 @@ public class TelegramCommandBot {
             case "/stop" -> stopDefault();
             case "/status" -> safeSend(sessions.statusText());
             case "/health" -> safeSend(sessions.healthText());
+            case "/equity" -> safeSend(sessions.equityText(24));
             case "/setkeys" -> startSetKeys();
             case "/cancel" -> cancelFlow();
             case "/config" -> safeSend(configSnapshot());
             case "/upgrade" -> sendUpgradeLink();
-            default -> safeSend("Unknown command: " + cmd + "\nUse /start /pause /resume /stop /status /health /setkeys /config /upgrade");
+            default -> safeSend("Unknown command: " + cmd + "\nUse /start /pause /resume /stop /status /health /equity /setkeys /config /upgrade");
         }
     }
 
@@ -0,0 +1,131 @@
+package com.quantor.infrastructure.paper;
+
+import com.quantor.domain.journal.AsyncAppender;
+import com.quantor.domain.portfolio.PortfolioPosition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PaperStateJournalTest {
+
+    private static final String KEY = "u1|BTC/USDT|1h";
+    private static final String FILE_KEY = "u1_BTC_USDT_1h";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void walReplayRecoversMutationsAfterACrash() throws Exception {
+        PaperStateJournal journal = journal(dir.resolve("live"));
+        PaperBrokerState state = journal.open(KEY);
+        state.setBalance("USDT", new BigDecimal("1000"));
+        state.addBalance("USDT", new BigDecimal("-250"));
+        PortfolioPosition pos = new PortfolioPosition("BTCUSDT", "BTC", "USDT");
+        pos.setQtyBase(new BigDecimal("0.01"));
+        pos.setAvgEntryPrice(new BigDecimal("25000"));
+        state.putPosition(pos);
+        state.setLastPrice("BTCUSDT", 25_100.5);
+        journal.flush();
+
+        // files as a crash leaves them: open-time snapshot + WAL, no close-time snapshot
+        Path crashed = copyOf(dir.resolve("live"));
+        assertTrue(Files.size(crashed.resolve(FILE_KEY + ".wal")) > 0);
+
+        PaperBrokerState recovered = journal(crashed).open(KEY);
+        assertEquals(new BigDecimal("750"), recovered.balances().get("USDT"));
+        assertEquals(new BigDecimal("0.01"), recovered.positions().get("BTCUSDT").getQtyBase());
+        assertEquals(new BigDecimal("25000"), recovered.positions().get("BTCUSDT").getAvgEntryPrice());
+        assertEquals(25_100.5, recovered.getLastPrice("BTCUSDT"), 0.0);
+        journal.close();
+    }
+
+    @Test
+    void tornTailAndCorruptRecordStopTheReplay() throws Exception {
+        PaperStateJournal journal = journal(dir.resolve("live"));
+        PaperBrokerState state = journal.open(KEY);
+        state.setBalance("USDT", new BigDecimal("100"));
+        state.setBalance("USDT", new BigDecimal("200"));
+        journal.flush();
+
+        // half-written record after the last complete one
+        Path torn = copyOf(dir.resolve("live"));
+        try (var ch = Files.newByteChannel(torn.resolve(FILE_KEY + ".wal"), StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.allocate(7).putInt(40).put((byte) 1).flip());
+        }
+        assertEquals(new BigDecimal("200"), journal(torn).open(KEY).balances().get("USDT"));
+
+        // checksum of the last record broken: replay keeps everything before it
+        Path corrupt = copyOf(dir.resolve("live"));
+        Path wal = corrupt.resolve(FILE_KEY + ".wal");
+        byte[] bytes = Files.readAllBytes(wal);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(wal, bytes);
+        assertEquals(new BigDecimal("100"), journal(corrupt).open(KEY).balances().get("USDT"));
+        journal.close();
+    }
+
+    @Test
+    void closeSnapshotsAndTruncatesTheWal() throws Exception {
+        Path live = dir.resolve("live");
+        PaperStateJournal journal = journal(live);
+        journal.open(KEY).setBalance("USDT", new BigDecimal("42"));
+        journal.close();
+
+        assertEquals(0, Files.size(live.resolve(FILE_KEY + ".wal")));
+        assertEquals(new BigDecimal("42"), journal(live).open(KEY).balances().get("USDT"));
+    }
+
+    @Test
+    void releaseSnapshotsTheStoppedSessionAndStopsJournalingIt() throws Exception {
+        Path live = dir.resolve("live");
+        PaperStateJournal journal = journal(live);
+        PaperBrokerState state = journal.open(KEY);
+        state.setBalance("USDT", new BigDecimal("10"));
+
+        journal.release(KEY);
+        state.setBalance("USDT", new BigDecimal("11")); // session already stopped
+        journal.flush();
+
+        assertEquals(0, Files.size(live.resolve(FILE_KEY + ".wal")));
+        assertEquals(new BigDecimal("10"), journal(copyOf(live)).open(KEY).balances().get("USDT"));
+
+        // the key can be opened again on the same journal
+        PaperBrokerState reopened = journal.open(KEY);
+        assertEquals(new BigDecimal("10"), reopened.balances().get("USDT"));
+        reopened.setBalance("USDT", new BigDecimal("12"));
+        journal.close();
+        assertEquals(new BigDecimal("12"), journal(live).open(KEY).balances().get("USDT"));
+    }
+
+    @Test
+    void unknownSessionStartsEmpty() {
+        PaperStateJournal journal = journal(dir.resolve("live"));
+        PaperBrokerState state = journal.open("fresh");
+        assertTrue(state.balances().isEmpty());
+        assertNull(state.getLastPrice("BTCUSDT"));
+        journal.close();
+    }
+
+    private static PaperStateJournal journal(Path stateDir) {
+        return new PaperStateJournal(stateDir, 1000, new AsyncAppender.Options(1024, 10, AsyncAppender.Durability.INTERVAL));
+    }
+
+    private Path copyOf(Path src) throws IOException {
+        Path dst = Files.createTempDirectory(dir, "copy");
+        try (Stream<Path> files = Files.list(src)) {
+            for (Path f : (Iterable<Path>) files::iterator) Files.copy(f, dst.resolve(f.getFileName()));
+        }
+        return dst;
+    }
+}
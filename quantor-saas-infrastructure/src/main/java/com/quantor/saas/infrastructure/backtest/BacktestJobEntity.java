@@ -0,0 +1,167 @@
+package com.quantor.saas.infrastructure.backtest;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One chunk of a backtest sweep: a fixed candle range + a list of parameter sets.
+ * Claimed by workers the same way as bot_commands (FOR UPDATE SKIP LOCKED).
+ */
+@Entity
+@Table(name = "backtest_jobs")
+public class BacktestJobEntity {
+
+  @Id
+  @Column(columnDefinition = "uuid")
+  private UUID id;
+
+  @Column(name = "sweep_id", nullable = false, columnDefinition = "uuid")
+  private UUID sweepId;
+
+  @Column(name = "user_id", columnDefinition = "uuid")
+  private UUID userId;
+
+  @Column(name = "chunk_index", nullable = false)
+  private int chunkIndex;
+
+  @Column(nullable = false, length = 16)
+  private String status; // PENDING|PROCESSING|DONE|FAILED
+
+  @Column(nullable = false)
+  private int priority;
+
+  @Column(name = "strategy_type", nullable = false, length = 32)
+  private String strategyType; // ema|threshold
+
+  @Column(nullable = false, length = 64)
+  private String symbol;
+
+  @Column(nullable = false, length = 32)
+  private String interval;
+
+  @Column(name = "candle_limit", nullable = false)
+  private int candleLimit;
+
+  /** Candles closing after this instant are ignored, so every chunk of a sweep sees the same range. */
+  @Column(name = "data_end_ms", nullable = false)
+  private long dataEndMs;
+
+  @Column(name = "position_usdt", nullable = false)
+  private double positionUsdt;
+
+  @Column(name = "fee_rate", nullable = false)
+  private double feeRate;
+
+  @Column(name = "stop_loss_pct", nullable = false)
+  private double stopLossPct;
+
+  @Column(name = "take_profit_pct", nullable = false)
+  private double takeProfitPct;
+
+  /** One parameter set per line, comma-separated numbers (e.g. "12,26"). */
+  @Column(name = "params_text", nullable = false, columnDefinition = "text")
+  private String paramsText;
+
+  @Column(name = "param_count", nullable = false)
+  private int paramCount;
+
+  @Column(name = "worker_id", length = 64)
+  private String workerId;
+
+  @Column(name = "locked_at")
+  private Instant lockedAt;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  @Column(name = "next_run_at")
+  private Instant nextRunAt;
+
+  @Column(name = "error_message", length = 512)
+  private String errorMessage;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  @Column(name = "processed_at")
+  private Instant processedAt;
+
+  public BacktestJobEntity() {}
+
+  @PrePersist
+  void prePersist() {
+    if (id == null) id = UUID.randomUUID();
+    if (createdAt == null) createdAt = Instant.now();
+    if (status == null) status = "PENDING";
+  }
+
+  public UUID getId() { return id; }
+
+  public UUID getSweepId() { return sweepId; }
+  public void setSweepId(UUID sweepId) { this.sweepId = sweepId; }
+
+  public UUID getUserId() { return userId; }
+  public void setUserId(UUID userId) { this.userId = userId; }
+
+  public int getChunkIndex() { return chunkIndex; }
+  public void setChunkIndex(int chunkIndex) { this.chunkIndex = chunkIndex; }
+
+  public String getStatus() { return status; }
+  public void setStatus(String status) { this.status = status; }
+
+  public int getPriority() { return priority; }
+  public void setPriority(int priority) { this.priority = priority; }
+
+  public String getStrategyType() { return strategyType; }
+  public void setStrategyType(String strategyType) { this.strategyType = strategyType; }
+
+  public String getSymbol() { return symbol; }
+  public void setSymbol(String symbol) { this.symbol = symbol; }
+
+  public String getInterval() { return interval; }
+  public void setInterval(String interval) { this.interval = interval; }
+
+  public int getCandleLimit() { return candleLimit; }
+  public void setCandleLimit(int candleLimit) { this.candleLimit = candleLimit; }
+
+  public long getDataEndMs() { return dataEndMs; }
+  public void setDataEndMs(long dataEndMs) { this.dataEndMs = dataEndMs; }
+
+  public double getPositionUsdt() { return positionUsdt; }
+  public void setPositionUsdt(double positionUsdt) { this.positionUsdt = positionUsdt; }
+
+  public double getFeeRate() { return feeRate; }
+  public void setFeeRate(double feeRate) { this.feeRate = feeRate; }
+
+  public double getStopLossPct() { return stopLossPct; }
+  public void setStopLossPct(double stopLossPct) { this.stopLossPct = stopLossPct; }
+
+  public double getTakeProfitPct() { return takeProfitPct; }
+  public void setTakeProfitPct(double takeProfitPct) { this.takeProfitPct = takeProfitPct; }
+
+  public String getParamsText() { return paramsText; }
+  public void setParamsText(String paramsText) { this.paramsText = paramsText; }
+
+  public int getParamCount() { return paramCount; }
+  public void setParamCount(int paramCount) { this.paramCount = paramCount; }
+
+  public String getWorkerId() { return workerId; }
+  public void setWorkerId(String workerId) { this.workerId = workerId; }
+
+  public Instant getLockedAt() { return lockedAt; }
+  public void setLockedAt(Instant lockedAt) { this.lockedAt = lockedAt; }
+
+  public int getAttempts() { return attempts; }
+  public void setAttempts(int attempts) { this.attempts = attempts; }
+
+  public Instant getNextRunAt() { return nextRunAt; }
+  public void setNextRunAt(Instant nextRunAt) { this.nextRunAt = nextRunAt; }
+
+  public String getErrorMessage() { return errorMessage; }
+  public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+  public Instant getCreatedAt() { return createdAt; }
+  public Instant getProcessedAt() { return processedAt; }
+  public void setProcessedAt(Instant processedAt) { this.processedAt = processedAt; }
+}
@@ -0,0 +1,152 @@
+package com.quantor.saas.infrastructure.backtest;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface BacktestJobRepository extends JpaRepository<BacktestJobEntity, UUID> {
+
+  @Query(
+      value = """
+          SELECT count(*)
+          FROM backtest_jobs
+          WHERE status = 'PENDING'
+            AND (next_run_at IS NULL OR next_run_at <= now())
+          """,
+      nativeQuery = true)
+  long countDuePending();
+
+  /** Rows of (status, count) for one sweep. */
+  @Query(
+      value = """
+          SELECT status, count(*)
+          FROM backtest_jobs
+          WHERE sweep_id = :sweepId
+          GROUP BY status
+          """,
+      nativeQuery = true)
+  List<Object[]> countByStatusForSweep(@Param("sweepId") UUID sweepId);
+
+  /**
+   * Atomically claims up to :limit PENDING chunks (highest priority first).
+   * Same locking pattern as BotCommandRepository.claimBatch.
+   */
+  @Modifying(clearAutomatically = true, flushAutomatically = true)
+  @Transactional
+  @Query(
+      value = """
+          WITH cte AS (
+            SELECT id
+            FROM backtest_jobs
+            WHERE status = 'PENDING'
+              AND (next_run_at IS NULL OR next_run_at <= now())
+            ORDER BY priority DESC, created_at ASC
+            FOR UPDATE SKIP LOCKED
+            LIMIT :limit
+          )
+          UPDATE backtest_jobs bj
+          SET status = 'PROCESSING',
+              worker_id = :workerId,
+              locked_at = now()
+          FROM cte
+          WHERE bj.id = cte.id
+          RETURNING bj.*
+          """,
+      nativeQuery = true)
+  List<BacktestJobEntity> claimBatch(@Param("workerId") String workerId, @Param("limit") int limit);
+
+  /**
+   * Re-queues chunks whose worker died mid-run. A lost run counts as an attempt: a chunk that keeps
+   * crashing its worker is FAILED once it has used :maxAttempts runs instead of being re-queued forever.
+   */
+  @Modifying(clearAutomatically = true, flushAutomatically = true)
+  @Transactional
+  @Query(
+      value = """
+          UPDATE backtest_jobs
+          SET attempts = attempts + 1,
+              status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END,
+              processed_at = CASE WHEN attempts + 1 >= :maxAttempts THEN now() ELSE NULL END,
+              error_message = 'worker lost while processing (attempt ' || (attempts + 1) || ')',
+              worker_id = NULL,
+              locked_at = NULL
+          WHERE status = 'PROCESSING'
+            AND locked_at IS NOT NULL
+            AND locked_at < :deadline
+          """,
+      nativeQuery = true)
+  int requeueStuck(@Param("deadline") Instant deadline, @Param("maxAttempts") int maxAttempts);
+
+  /** Keeps a long chunk from being re-queued while its worker is still alive. */
+  @Modifying(clearAutomatically = true, flushAutomatically = true)
+  @Transactional
+  @Query(
+      value = """
+          UPDATE backtest_jobs
+          SET locked_at = now()
+          WHERE id = :id
+            AND status = 'PROCESSING'
+            AND worker_id = :workerId
+          """,
+      nativeQuery = true)
+  int touch(@Param("id") UUID id, @Param("workerId") String workerId);
+
+  /**
+   * Terminal updates and retries only apply while :workerId still owns the chunk: a worker whose claim
+   * was re-queued (and maybe re-claimed) in the meantime cannot overwrite the new owner's outcome.
+   */
+  @Modifying(clearAutomatically = true, flushAutomatically = true)
+  @Transactional
+  @Query(
+      value = """
+          UPDATE backtest_jobs
+          SET status = 'DONE',
+              processed_at = now(),
+              error_message = NULL
+          WHERE id = :id
+            AND status = 'PROCESSING'
+            AND worker_id = :workerId
+          """,
+      nativeQuery = true)
+  int markDone(@Param("id") UUID id, @Param("workerId") String workerId);
+
+  @Modifying(clearAutomatically = true, flushAutomatically = true)
+  @Transactional
+  @Query(
+      value = """
+          UPDATE backtest_jobs
+          SET status = 'FAILED',
+              processed_at = now(),
+              error_message = left(:error, 512)
+          WHERE id = :id
+            AND status = 'PROCESSING'
+            AND worker_id = :workerId
+          """,
+      nativeQuery = true)
+  int markFailed(@Param("id") UUID id, @Param("workerId") String workerId, @Param("error") String error);
+
+  @Modifying(clearAutomatically = true, flushAutomatically = true)
+  @Transactional
+  @Query(
+      value = """
+          UPDATE backtest_jobs
+          SET attempts = attempts + 1,
+              status = 'PENDING',
+              next_run_at = :nextRunAt,
+              worker_id = NULL,
+              locked_at = NULL,
+              error_message = left(:error, 512)
+          WHERE id = :id
+            AND status = 'PROCESSING'
+            AND worker_id = :workerId
+          """,
+      nativeQuery = true)
+  int scheduleRetry(@Param("id") UUID id, @Param("workerId") String workerId,
+                    @Param("nextRunAt") Instant nextRunAt, @Param("error") String error);
+}
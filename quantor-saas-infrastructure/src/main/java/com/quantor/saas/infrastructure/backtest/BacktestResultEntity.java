@@ -0,0 +1,55 @@
+package com.quantor.saas.infrastructure.backtest;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+/** Result of one parameter set within a backtest sweep (read side; workers insert via JDBC batches). */
+@Entity
+@Table(name = "backtest_results")
+public class BacktestResultEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "job_id", nullable = false, columnDefinition = "uuid")
+  private UUID jobId;
+
+  @Column(name = "sweep_id", nullable = false, columnDefinition = "uuid")
+  private UUID sweepId;
+
+  @Column(nullable = false, length = 256)
+  private String params;
+
+  @Column(nullable = false)
+  private int trades;
+
+  @Column(nullable = false)
+  private int wins;
+
+  @Column(name = "final_equity", nullable = false)
+  private double finalEquity;
+
+  @Column(nullable = false)
+  private double pnl;
+
+  @Column(name = "max_drawdown_pct", nullable = false)
+  private double maxDrawdownPct;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  protected BacktestResultEntity() {}
+
+  public Long getId() { return id; }
+  public UUID getJobId() { return jobId; }
+  public UUID getSweepId() { return sweepId; }
+  public String getParams() { return params; }
+  public int getTrades() { return trades; }
+  public int getWins() { return wins; }
+  public double getFinalEquity() { return finalEquity; }
+  public double getPnl() { return pnl; }
+  public double getMaxDrawdownPct() { return maxDrawdownPct; }
+  public Instant getCreatedAt() { return createdAt; }
+}
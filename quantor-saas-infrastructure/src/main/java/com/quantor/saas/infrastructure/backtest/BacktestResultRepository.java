@@ -0,0 +1,14 @@
+package com.quantor.saas.infrastructure.backtest;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface BacktestResultRepository extends JpaRepository<BacktestResultEntity, Long> {
+
+  List<BacktestResultEntity> findBySweepIdOrderByPnlDesc(UUID sweepId, Pageable pageable);
+
+  long countBySweepId(UUID sweepId);
+}
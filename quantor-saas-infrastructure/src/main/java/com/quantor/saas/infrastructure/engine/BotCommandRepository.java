@@ -13,6 +13,9 @@ import java.util.UUID;
 
 public interface BotCommandRepository extends JpaRepository<BotCommandEntity, UUID> {
 
+  /** Postgres NOTIFY channel signalled after a command is committed (payload = bot instance id). */
+  String NOTIFY_CHANNEL = "quantor_bot_commands";
+
   java.util.Optional<BotCommandEntity> findTopByBotInstanceIdAndStatusOrderByCreatedAtDesc(UUID botInstanceId, String status);
 
   List<BotCommandEntity> findByStatusOrderByCreatedAtDesc(String status, Pageable pageable);
@@ -49,6 +49,10 @@ public class BotInstanceEntity {
   @Column(name = "lease_until")
   private Instant leaseUntil;
 
+  // Higher = kept longer when an overloaded worker sheds sessions
+  @Column(nullable = false)
+  private int priority;
+
   public BotInstanceEntity() {}
 
   public UUID getId() { return id; }
@@ -90,6 +94,9 @@ public class BotInstanceEntity {
   public Instant getLeaseUntil() { return leaseUntil; }
   public void setLeaseUntil(Instant leaseUntil) { this.leaseUntil = leaseUntil; }
 
+  public int getPriority() { return priority; }
+  public void setPriority(int priority) { this.priority = priority; }
+
   @PrePersist
   void prePersist() {
     Instant now = Instant.now();
@@ -1,6 +1,7 @@
 package com.quantor.saas.infrastructure.engine;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,6 +12,9 @@ import java.util.UUID;
  * - A bot instance in desired status RUNNING/PAUSED should have a lease_owner and lease_until.
  * - Workers claim expired/unowned leases using SELECT ... FOR UPDATE SKIP LOCKED.
  * - Workers periodically renew leases they own.
+ *
+ * The *Rows variants are single set-based UPDATE ... RETURNING statements (Postgres);
+ * they return the desired state of every affected row so callers can diff it in memory.
  */
 public interface BotInstanceRepositoryCustom {
 
@@ -25,9 +29,58 @@ public interface BotInstanceRepositoryCustom {
   /** Counts bot instances currently leased by this worker and not expired (for metrics). */
   long countActiveLeasesByOwner(String workerId);
 
-  /** Renews leases for all currently leased instances owned by this worker. */
-  int renewLeases(String workerId, Duration leaseTtl);
+  /**
+   * Renews this worker's leases that are past half their TTL (or expired less than {@code renewGrace} ago).
+   * Returns the number of rows written.
+   */
+  int renewLeases(String workerId, Duration leaseTtl, Duration renewGrace);
 
   /** Clears lease ownership for an instance (best-effort). */
   int releaseLease(UUID botInstanceId, String workerId);
+
+  /** Claims up to {@code limit} due leases in one statement and returns the claimed rows. */
+  List<LeaseRow> claimDueLeaseRows(String workerId, Duration leaseTtl, int limit);
+
+  /**
+   * Renews this worker's leases in one statement and returns every live lease of this worker.
+   * Only leases past half their TTL are written; a lease that expired less than {@code renewGrace} ago
+   * (and was not claimed by another worker meanwhile) is still renewed and returned.
+   */
+  List<LeaseRow> renewLeaseRows(String workerId, Duration leaseTtl, Duration renewGrace);
+
+  /** Releases every lease held by this worker in one statement and returns the released rows. */
+  List<LeaseRow> releaseLeaseRows(String workerId);
+
+  /**
+   * Shard-aware claim: only due bots whose rendezvous owner (highest hash of placement key + worker id
+   * over live quantor_workers) is this worker. Bots due for longer than {@code orphanGrace} are claimable
+   * by anyone, so a stuck shard owner cannot strand its bots.
+   */
+  List<LeaseRow> claimShardLeaseRows(String workerId, Duration leaseTtl, int limit,
+                                     Duration liveWindow, Duration orphanGrace);
+
+  /**
+   * Rebalance: up to {@code limit} leases of this worker whose rendezvous owner is another live, accepting
+   * worker (after a join / recovery). Read-only; the caller drains the sessions, then calls
+   * {@link #handOffLeaseRows}. Only those bots move; everything else stays put.
+   */
+  List<LeaseRow> findForeignShardRows(String workerId, Duration liveWindow, int limit);
+
+  /**
+   * Releases the given leases of this worker (ids it no longer holds are skipped) so their shard owner
+   * claims them right away. Returns the released rows.
+   */
+  List<LeaseRow> handOffLeaseRows(String workerId, Collection<UUID> ids);
+
+  /**
+   * Load shedding: up to {@code limit} of this worker's lowest-priority leases, or none while no other
+   * accepting live worker exists. Read-only; the caller drains the sessions, then calls {@link #shedLeaseRows}.
+   */
+  List<LeaseRow> findShedRows(String workerId, int limit, Duration liveWindow);
+
+  /**
+   * Releases the given leases of this worker so accepting live peers pick them up, and marks this worker
+   * as not accepting in the same statement. Returns the released rows.
+   */
+  List<LeaseRow> shedLeaseRows(String workerId, Collection<UUID> ids);
 }
@@ -7,6 +7,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,36 +18,233 @@ public class BotInstanceRepositoryImpl implements BotInstanceRepositoryCustom {
   @PersistenceContext
   private EntityManager em;
 
+  private static final String LEASE_COLUMNS =
+      "bi.id, bi.user_id, bi.strategy_id, bi.symbol, bi.\"interval\", bi.lookback, bi.period_ms, bi.status";
+
   @Override
   @Transactional
   public List<UUID> claimDueLeases(String workerId, Duration leaseTtl, int limit) {
-    // Select candidates and lock them so concurrent workers can skip.
-    List<UUID> ids = em.createNativeQuery(
-        "SELECT id FROM bot_instances " +
-            "WHERE status IN ('RUNNING','PAUSED') " +
-            "AND (lease_until IS NULL OR lease_until < now()) " +
-            "ORDER BY updated_at ASC " +
-            "LIMIT :limit " +
-            "FOR UPDATE SKIP LOCKED"
+    return claimDueLeaseRows(workerId, leaseTtl, limit).stream().map(LeaseRow::id).toList();
+  }
+
+  @Override
+  @Transactional
+  public List<LeaseRow> claimDueLeaseRows(String workerId, Duration leaseTtl, int limit) {
+    // Lock candidates (concurrent workers skip them) and take the lease in the same statement.
+    List<Object[]> rows = em.createNativeQuery(
+        "WITH cte AS (" +
+            "  SELECT id FROM bot_instances " +
+            "  WHERE status IN ('RUNNING','PAUSED') " +
+            "  AND (lease_until IS NULL OR lease_until < now()) " +
+            "  ORDER BY updated_at ASC " +
+            "  LIMIT :limit " +
+            "  FOR UPDATE SKIP LOCKED" +
+            ") " +
+            "UPDATE bot_instances bi SET lease_owner = :workerId, lease_until = :until " +
+            "FROM cte WHERE bi.id = cte.id " +
+            "RETURNING " + LEASE_COLUMNS
     )
         .setParameter("limit", limit)
+        .setParameter("workerId", workerId)
+        .setParameter("until", Instant.now().plus(leaseTtl))
         .getResultList();
+    return toLeaseRows(rows);
+  }
 
-    if (ids.isEmpty()) return ids;
+  @Override
+  @Transactional
+  public List<LeaseRow> renewLeaseRows(String workerId, Duration leaseTtl, Duration renewGrace) {
+    // Only leases past half their TTL are written (one row write per bot every ~ttl/2, not every cycle);
+    // the SELECT reads the pre-update snapshot, so it still returns every live lease of this worker.
+    List<Object[]> rows = em.createNativeQuery(
+        "WITH renewed AS (" +
+            "  UPDATE bot_instances SET lease_until = :until " +
+            "  WHERE status IN ('RUNNING','PAUSED') " +
+            "  AND lease_owner = :workerId " +
+            "  AND (lease_until IS NULL OR (lease_until >= now() - (:graceMs * interval '1 millisecond') " +
+            "       AND lease_until < now() + (:renewAheadMs * interval '1 millisecond'))) " +
+            "  RETURNING id" +
+            ") " +
+            "SELECT " + LEASE_COLUMNS + " FROM bot_instances bi " +
+            "WHERE bi.status IN ('RUNNING','PAUSED') " +
+            "AND bi.lease_owner = :workerId " +
+            "AND (bi.lease_until IS NULL OR bi.lease_until >= now() - (:graceMs * interval '1 millisecond'))"
+    )
+        .setParameter("until", Instant.now().plus(leaseTtl))
+        .setParameter("workerId", workerId)
+        .setParameter("graceMs", renewGrace.toMillis())
+        .setParameter("renewAheadMs", leaseTtl.toMillis() / 2)
+        .getResultList();
+    return toLeaseRows(rows);
+  }
 
-    Instant until = Instant.now().plus(leaseTtl);
-    // Update row-by-row to avoid JDBC array binding differences across drivers.
-    for (UUID id : ids) {
-      em.createNativeQuery(
-          "UPDATE bot_instances SET lease_owner = :workerId, lease_until = :until WHERE id = :id"
-      )
-          .setParameter("workerId", workerId)
-          .setParameter("until", until)
-          .setParameter("id", id)
-          .executeUpdate();
+  @Override
+  @Transactional
+  public List<LeaseRow> releaseLeaseRows(String workerId) {
+    List<Object[]> rows = em.createNativeQuery(
+        "UPDATE bot_instances bi SET lease_owner = NULL, lease_until = NULL " +
+            "WHERE bi.lease_owner = :workerId " +
+            "RETURNING " + LEASE_COLUMNS
+    )
+        .setParameter("workerId", workerId)
+        .getResultList();
+    return toLeaseRows(rows);
+  }
+
+  /*
+   * Rendezvous (highest random weight) placement on (exchange, symbol):
+   * every bot goes to the live worker with the highest hash(placement key | worker id).
+   * A join / leave only moves the bots whose winner changed; same-symbol bots share one worker.
+   * bot_instances has no exchange column yet (all jobs run on BINANCE), hence the constant prefix.
+   * Workers over their capacity budget publish accepting = false and drop out of placement.
+   */
+  private static final String LIVE_WORKERS =
+      "live AS (" +
+          "  SELECT worker_id FROM quantor_workers " +
+          "  WHERE last_heartbeat_at >= now() - (:liveSeconds * interval '1 second') " +
+          "  AND accepting" +
+          ")";
+
+  private static String shardOwner(String botAlias) {
+    return "(SELECT l.worker_id FROM live l " +
+        "ORDER BY hashtextextended('BINANCE|' || upper(replace(" + botAlias + ".symbol, '/', '')) || '|' || l.worker_id, 0) DESC, " +
+        "l.worker_id " +
+        "LIMIT 1)";
+  }
+
+  @Override
+  @Transactional
+  public List<LeaseRow> claimShardLeaseRows(String workerId, Duration leaseTtl, int limit,
+                                            Duration liveWindow, Duration orphanGrace) {
+    List<Object[]> rows = em.createNativeQuery(
+        "WITH " + LIVE_WORKERS + ", " +
+            "cte AS (" +
+            "  SELECT b.id FROM bot_instances b " +
+            "  WHERE b.status IN ('RUNNING','PAUSED') " +
+            "  AND (b.lease_until IS NULL OR b.lease_until < now()) " +
+            "  AND (" + shardOwner("b") + " = :workerId " +
+            "       OR COALESCE(b.lease_until, b.updated_at) < now() - (:orphanSeconds * interval '1 second')) " +
+            "  ORDER BY b.updated_at ASC " +
+            "  LIMIT :limit " +
+            "  FOR UPDATE OF b SKIP LOCKED" +
+            ") " +
+            "UPDATE bot_instances bi SET lease_owner = :workerId, lease_until = :until " +
+            "FROM cte WHERE bi.id = cte.id " +
+            "RETURNING " + LEASE_COLUMNS
+    )
+        .setParameter("liveSeconds", liveWindow.toSeconds())
+        .setParameter("orphanSeconds", orphanGrace.toSeconds())
+        .setParameter("limit", limit)
+        .setParameter("workerId", workerId)
+        .setParameter("until", Instant.now().plus(leaseTtl))
+        .getResultList();
+    return toLeaseRows(rows);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<LeaseRow> findForeignShardRows(String workerId, Duration liveWindow, int limit) {
+    // no lock: the rows stay leased by this worker until handOffLeaseRows, nobody else can claim them
+    List<Object[]> rows = em.createNativeQuery(
+        "WITH " + LIVE_WORKERS + ", " +
+            "moves AS (" +
+            "  SELECT b.id, " + shardOwner("b") + " AS target FROM bot_instances b " +
+            "  WHERE b.lease_owner = :workerId " +
+            "  AND b.status IN ('RUNNING','PAUSED') " +
+            "  AND EXISTS (SELECT 1 FROM live WHERE worker_id = :workerId)" +
+            ") " +
+            "SELECT " + LEASE_COLUMNS + " FROM moves m " +
+            "JOIN bot_instances bi ON bi.id = m.id " +
+            // the new owner must be live and accepting right now, otherwise the bot stays here
+            "JOIN live t ON t.worker_id = m.target " +
+            "WHERE m.target <> :workerId " +
+            "ORDER BY bi.updated_at ASC " +
+            "LIMIT :limit"
+    )
+        .setParameter("liveSeconds", liveWindow.toSeconds())
+        .setParameter("workerId", workerId)
+        .setParameter("limit", limit)
+        .getResultList();
+    return toLeaseRows(rows);
+  }
+
+  @Override
+  @Transactional
+  public List<LeaseRow> handOffLeaseRows(String workerId, Collection<UUID> ids) {
+    if (ids.isEmpty()) return List.of();
+    List<Object[]> rows = em.createNativeQuery(
+        // lease_until = now(): expired for the new owner, but starts the orphan grace period
+        "UPDATE bot_instances bi SET lease_owner = NULL, lease_until = now() " +
+            "WHERE bi.id IN (:ids) " +
+            "AND bi.lease_owner = :workerId " +
+            "RETURNING " + LEASE_COLUMNS
+    )
+        .setParameter("ids", ids)
+        .setParameter("workerId", workerId)
+        .getResultList();
+    return toLeaseRows(rows);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<LeaseRow> findShedRows(String workerId, int limit, Duration liveWindow) {
+    List<Object[]> rows = em.createNativeQuery(
+        "WITH " + LIVE_WORKERS + " " +
+            "SELECT " + LEASE_COLUMNS + " FROM bot_instances bi " +
+            "WHERE bi.lease_owner = :workerId " +
+            "AND bi.status IN ('RUNNING','PAUSED') " +
+            // only shed when a peer can take the bots, otherwise they would just come back as orphans
+            "AND EXISTS (SELECT 1 FROM live WHERE worker_id <> :workerId) " +
+            "ORDER BY bi.priority ASC, bi.updated_at DESC " +
+            "LIMIT :limit"
+    )
+        .setParameter("liveSeconds", liveWindow.toSeconds())
+        .setParameter("workerId", workerId)
+        .setParameter("limit", limit)
+        .getResultList();
+    return toLeaseRows(rows);
+  }
+
+  @Override
+  @Transactional
+  public List<LeaseRow> shedLeaseRows(String workerId, Collection<UUID> ids) {
+    if (ids.isEmpty()) return List.of();
+    List<Object[]> rows = em.createNativeQuery(
+        // leave placement in the same commit, so peers become rendezvous owners of the shed bots
+        // before the next heartbeat and claim them right away
+        "WITH mark AS (UPDATE quantor_workers SET accepting = false WHERE worker_id = :workerId) " +
+            "UPDATE bot_instances bi SET lease_owner = NULL, lease_until = now() " +
+            "WHERE bi.id IN (:ids) " +
+            "AND bi.lease_owner = :workerId " +
+            "RETURNING " + LEASE_COLUMNS
+    )
+        .setParameter("workerId", workerId)
+        .setParameter("ids", ids)
+        .getResultList();
+    return toLeaseRows(rows);
+  }
+
+  private static List<LeaseRow> toLeaseRows(List<Object[]> rows) {
+    List<LeaseRow> out = new ArrayList<>(rows.size());
+    for (Object[] r : rows) {
+      out.add(new LeaseRow(
+          uuid(r[0]),
+          uuid(r[1]),
+          (String) r[2],
+          (String) r[3],
+          (String) r[4],
+          ((Number) r[5]).intValue(),
+          ((Number) r[6]).longValue(),
+          (String) r[7]
+      ));
     }
+    return out;
+  }
 
-    return ids;
+  private static UUID uuid(Object v) {
+    if (v == null) return null;
+    if (v instanceof UUID u) return u;
+    return UUID.fromString(v.toString());
   }
 
   @Override
@@ -81,16 +280,19 @@ public class BotInstanceRepositoryImpl implements BotInstanceRepositoryCustom {
 
   @Override
   @Transactional
-  public int renewLeases(String workerId, Duration leaseTtl) {
+  public int renewLeases(String workerId, Duration leaseTtl, Duration renewGrace) {
     Instant until = Instant.now().plus(leaseTtl);
     return em.createNativeQuery(
         "UPDATE bot_instances SET lease_until = :until " +
             "WHERE status IN ('RUNNING','PAUSED') " +
             "AND lease_owner = :workerId " +
-            "AND (lease_until IS NULL OR lease_until >= now() - interval '10 seconds')"
+            "AND (lease_until IS NULL OR (lease_until >= now() - (:graceMs * interval '1 millisecond') " +
+            "     AND lease_until < now() + (:renewAheadMs * interval '1 millisecond')))"
     )
         .setParameter("until", until)
         .setParameter("workerId", workerId)
+        .setParameter("graceMs", renewGrace.toMillis())
+        .setParameter("renewAheadMs", leaseTtl.toMillis() / 2)
         .executeUpdate();
   }
 
@@ -0,0 +1,126 @@
+package com.quantor.saas.infrastructure.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Aggregated bot status counts for status pages and admin views.
+ *
+ * Reads bot_status_counts (V26), which triggers keep in step with bot_instances inside the writing
+ * transaction: a user's counts are a primary-key lookup, fleet totals sum one row per (user, status)
+ * and never touch bot_instances. Where the counter table does not exist (H2 dev / tests without
+ * Flyway) the same answers come from GROUP BY status over bot_instances.
+ */
+@Repository
+public class BotStatusReadModel {
+
+  private static final Logger log = LoggerFactory.getLogger(BotStatusReadModel.class);
+
+  private static final String FLEET =
+      "SELECT status, SUM(n) FROM bot_status_counts WHERE n > 0 GROUP BY status";
+  private static final String FLEET_SCAN =
+      "SELECT status, COUNT(*) FROM bot_instances GROUP BY status";
+
+  private static final String USER =
+      "SELECT status, n FROM bot_status_counts WHERE user_id = ? AND n > 0";
+  private static final String USER_SCAN =
+      "SELECT status, COUNT(*) FROM bot_instances WHERE user_id = ? GROUP BY status";
+
+  private static final String USERS =
+      "SELECT user_id, SUM(n) FROM bot_status_counts " +
+          "WHERE user_id IN (:users) AND status IN (:statuses) GROUP BY user_id";
+  private static final String USERS_SCAN =
+      "SELECT user_id, COUNT(*) FROM bot_instances " +
+          "WHERE user_id IN (:users) AND status IN (:statuses) GROUP BY user_id";
+
+  private final JdbcTemplate jdbc;
+  private final NamedParameterJdbcTemplate named;
+
+  private volatile boolean countersAvailable = true;
+
+  public BotStatusReadModel(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+    this.named = new NamedParameterJdbcTemplate(jdbc);
+  }
+
+  /** Bots per status over the whole fleet (sorted by status). */
+  public Map<String, Long> fleetCounts() {
+    if (countersAvailable) {
+      try {
+        return statusCounts(FLEET);
+      } catch (BadSqlGrammarException e) {
+        countersUnavailable(e);
+      }
+    }
+    return statusCounts(FLEET_SCAN);
+  }
+
+  /** Bots of one user per status (sorted by status). */
+  public Map<String, Long> userCounts(UUID userId) {
+    if (countersAvailable) {
+      try {
+        return statusCounts(USER, userId);
+      } catch (BadSqlGrammarException e) {
+        countersUnavailable(e);
+      }
+    }
+    return statusCounts(USER_SCAN, userId);
+  }
+
+  /** Bots of one user in any of the given statuses. */
+  public long countForUser(UUID userId, Collection<String> statuses) {
+    Map<String, Long> counts = userCounts(userId);
+    long n = 0;
+    for (String s : statuses) n += counts.getOrDefault(s, 0L);
+    return n;
+  }
+
+  /** Bots in any of the given statuses for each user, in one query (users without such bots are absent). */
+  public Map<UUID, Long> countForUsers(Collection<UUID> userIds, Collection<String> statuses) {
+    Map<UUID, Long> out = new HashMap<>();
+    if (userIds.isEmpty() || statuses.isEmpty()) return out;
+
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("users", userIds)
+        .addValue("statuses", statuses);
+    if (countersAvailable) {
+      try {
+        named.query(USERS, params, rs -> {
+          out.put(rs.getObject(1, UUID.class), rs.getLong(2));
+        });
+        return out;
+      } catch (BadSqlGrammarException e) {
+        countersUnavailable(e);
+        out.clear();
+      }
+    }
+    named.query(USERS_SCAN, params, rs -> {
+      out.put(rs.getObject(1, UUID.class), rs.getLong(2));
+    });
+    return out;
+  }
+
+  private Map<String, Long> statusCounts(String sql, Object... args) {
+    Map<String, Long> out = new TreeMap<>();
+    jdbc.query(sql, rs -> {
+      out.put(rs.getString(1), rs.getLong(2));
+    }, args);
+    return out;
+  }
+
+  private void countersUnavailable(BadSqlGrammarException e) {
+    countersAvailable = false;
+    log.warn("[BOT-STATUS] bot_status_counts not readable, counting bot_instances instead: {}", e.getMessage());
+  }
+}
@@ -0,0 +1,18 @@
+package com.quantor.saas.infrastructure.engine;
+
+import java.util.UUID;
+
+/**
+ * Lease-relevant columns of bot_instances, returned by the set-based lease statements
+ * (UPDATE ... RETURNING) so the reconciler never has to load and save full entities.
+ */
+public record LeaseRow(
+    UUID id,
+    UUID userId,
+    String strategyId,
+    String symbol,
+    String interval,
+    int lookback,
+    long periodMs,
+    String status
+) {}
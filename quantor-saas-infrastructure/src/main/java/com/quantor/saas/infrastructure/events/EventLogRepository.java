@@ -1,10 +1,23 @@
 package com.quantor.saas.infrastructure.events;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
 
 public interface EventLogRepository extends JpaRepository<EventLogEntity, UUID> {
   Optional<EventLogEntity> findBySourceAndEventId(String source, String eventId);
+
+  /** Finished events older than the hot retention live in event_log_archive (HistoryArchiver). */
+  @Query(
+      value = """
+          SELECT EXISTS (
+            SELECT 1 FROM event_log_archive
+            WHERE source = :source AND event_id = :eventId
+          )
+          """,
+      nativeQuery = true)
+  boolean existsArchived(@Param("source") String source, @Param("eventId") String eventId);
 }
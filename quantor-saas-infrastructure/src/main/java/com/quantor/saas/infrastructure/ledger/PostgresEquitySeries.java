@@ -0,0 +1,150 @@
+package com.quantor.saas.infrastructure.ledger;
+
+import com.quantor.application.ports.EquitySeriesPort;
+import com.quantor.domain.journal.AsyncAppender;
+import com.quantor.domain.stats.EquityBuckets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Equity time series in Postgres (equity_rollups), written by workers and read by dashboards.
+ *
+ * Same model as the SQLite EquitySeriesRepository: samples are queued on an AsyncAppender, each drained
+ * batch is folded into its 1m / 1h / 1d buckets and upserted in one JDBC batch whose ON CONFLICT
+ * merges min / max / last into the stored row. Reads hit exactly one resolution through the primary key.
+ *
+ * The appender is started on the first record(), so read-only users (the API) run no writer thread.
+ * 1m / 1h buckets older than their retention are pruned at most once per hour by the writer.
+ */
+public class PostgresEquitySeries implements EquitySeriesPort, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(PostgresEquitySeries.class);
+
+  private static final long PRUNE_EVERY_MS = TimeUnit.HOURS.toMillis(1);
+
+  private static final String UPSERT =
+      "INSERT INTO equity_rollups (series, width_ms, bucket_start, eq_min, eq_max, eq_last, last_ts) " +
+          "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+          "ON CONFLICT (series, width_ms, bucket_start) DO UPDATE SET " +
+          "eq_min = LEAST(equity_rollups.eq_min, EXCLUDED.eq_min), " +
+          "eq_max = GREATEST(equity_rollups.eq_max, EXCLUDED.eq_max), " +
+          "eq_last = CASE WHEN EXCLUDED.last_ts >= equity_rollups.last_ts THEN EXCLUDED.eq_last ELSE equity_rollups.eq_last END, " +
+          "last_ts = GREATEST(equity_rollups.last_ts, EXCLUDED.last_ts)";
+
+  private static final String RANGE =
+      "SELECT bucket_start, eq_min, eq_max, eq_last FROM equity_rollups " +
+          "WHERE series = ? AND width_ms = ? AND bucket_start >= ? AND bucket_start < ? " +
+          "ORDER BY bucket_start ASC";
+
+  private static final String PRUNE = "DELETE FROM equity_rollups WHERE width_ms = ? AND bucket_start < ?";
+
+  private final DataSource dataSource;
+  private final long retainMinuteMs;
+  private final long retainHourMs;
+  private final AsyncAppender.Options options;
+
+  private volatile AsyncAppender<EquityBuckets.Sample> appender;
+  private long lastPruneAt; // writer thread only
+
+  public PostgresEquitySeries(DataSource dataSource, int retainMinuteDays, int retainHourDays,
+                              AsyncAppender.Options options) {
+    this.dataSource = dataSource;
+    this.retainMinuteMs = TimeUnit.DAYS.toMillis(Math.max(1, retainMinuteDays));
+    this.retainHourMs = TimeUnit.DAYS.toMillis(Math.max(1, retainHourDays));
+    this.options = options;
+  }
+
+  @Override
+  public void record(String sessionKey, long tsMs, double equity) {
+    if (sessionKey == null || sessionKey.isBlank() || !Double.isFinite(equity)) return;
+    appender().append(new EquityBuckets.Sample(sessionKey, tsMs, equity));
+  }
+
+  @Override
+  public List<Point> range(String sessionKey, Resolution resolution, long fromMs, long toMs) {
+    List<Point> out = new ArrayList<>();
+    try (Connection c = dataSource.getConnection(); PreparedStatement ps = c.prepareStatement(RANGE)) {
+      ps.setString(1, sessionKey);
+      ps.setLong(2, resolution.widthMs());
+      ps.setTimestamp(3, new Timestamp(resolution.bucketStart(fromMs)));
+      ps.setTimestamp(4, new Timestamp(toMs));
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          out.add(new Point(rs.getTimestamp(1).getTime(), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4)));
+        }
+      }
+    } catch (SQLException e) {
+      log.warn("[EQUITY] range failed series={} res={}: {}", sessionKey, resolution, e.getMessage());
+      return List.of();
+    }
+    return out;
+  }
+
+  /** Waits until every recorded sample is in the rollups. */
+  public void flush() {
+    AsyncAppender<EquityBuckets.Sample> a = appender;
+    if (a != null) a.flush();
+  }
+
+  @Override
+  public void close() {
+    AsyncAppender<EquityBuckets.Sample> a = appender;
+    if (a != null) a.close();
+  }
+
+  private AsyncAppender<EquityBuckets.Sample> appender() {
+    AsyncAppender<EquityBuckets.Sample> a = appender;
+    if (a != null) return a;
+    synchronized (this) {
+      if (appender == null) appender = new AsyncAppender<>("equity-rollups", this::writeBatch, options);
+      return appender;
+    }
+  }
+
+  private void writeBatch(List<EquityBuckets.Sample> batch) throws IOException {
+    List<EquityBuckets.Bucket> buckets = EquityBuckets.fold(batch, Resolution.widthsMs());
+    if (buckets.isEmpty()) return;
+
+    long now = System.currentTimeMillis();
+    boolean prune = now - lastPruneAt >= PRUNE_EVERY_MS;
+    try (Connection c = dataSource.getConnection()) {
+      try (PreparedStatement ps = c.prepareStatement(UPSERT)) {
+        for (EquityBuckets.Bucket b : buckets) {
+          ps.setString(1, b.series());
+          ps.setLong(2, b.widthMs());
+          ps.setTimestamp(3, new Timestamp(b.startMs()));
+          ps.setDouble(4, b.min());
+          ps.setDouble(5, b.max());
+          ps.setDouble(6, b.last());
+          ps.setTimestamp(7, new Timestamp(b.lastTs()));
+          ps.addBatch();
+        }
+        ps.executeBatch();
+      }
+      if (prune) {
+        try (PreparedStatement del = c.prepareStatement(PRUNE)) {
+          del.setLong(1, Resolution.M1.widthMs());
+          del.setTimestamp(2, new Timestamp(now - retainMinuteMs));
+          del.executeUpdate();
+          del.setLong(1, Resolution.H1.widthMs());
+          del.setTimestamp(2, new Timestamp(now - retainHourMs));
+          del.executeUpdate();
+        }
+        lastPruneAt = now;
+      }
+    } catch (SQLException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package com.quantor.saas.infrastructure.ledger;
+
+import com.quantor.application.ports.TradeJournalPort;
+import com.quantor.domain.journal.AsyncAppender;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fleet-wide trade/fill ledger in Postgres (trade_fills, range-partitioned by month on ts).
+ *
+ * logTrade() only enqueues the fill into an AsyncAppender ring, so the tick never waits on the
+ * database. The appender thread drains whatever is queued and writes it with one COPY into a
+ * per-connection temp stage, then one INSERT ... SELECT that resolves bot_id from bot_instances.job_key
+ * (one round trip per batch instead of one INSERT per fill).
+ *
+ * Monthly partitions are created ahead (current month + PARTITIONS_AHEAD) from the writer thread when
+ * a batch reaches a month not prepared yet; trade_fills_default only catches rows outside that range.
+ *
+ * A batch that still fails after RETRY_BACKOFF_MS attempts is handed to the fallback journal (the
+ * worker-local SQLite journal), bound to each fill's session and with the fill's own time, so fills are
+ * never silently lost while Postgres is unavailable.
+ *
+ * Fills need a session identity: pipelines get a bound view through forSession(userId, jobKey).
+ * Calls without one (or with a non-UUID user) go straight to the fallback.
+ */
+public class PostgresTradeLedger implements TradeJournalPort, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(PostgresTradeLedger.class);
+
+  private static final int PARTITIONS_AHEAD = 2;
+  private static final long[] RETRY_BACKOFF_MS = {100, 500, 2000};
+
+  private static final String STAGE_DDL =
+      "CREATE TEMP TABLE IF NOT EXISTS trade_fills_stage (" +
+          "ts TIMESTAMPTZ, user_id UUID, job_key VARCHAR(255), worker_id VARCHAR(64), mode VARCHAR(16), " +
+          "symbol VARCHAR(64), side VARCHAR(8), price DOUBLE PRECISION, qty DOUBLE PRECISION, " +
+          "balance_after DOUBLE PRECISION, comment TEXT" +
+          ") ON COMMIT DELETE ROWS";
+
+  private static final String STAGE_COPY =
+      "COPY trade_fills_stage (ts, user_id, job_key, worker_id, mode, symbol, side, price, qty, balance_after, comment) " +
+          "FROM STDIN WITH (FORMAT csv)";
+
+  private static final String STAGE_MOVE =
+      "INSERT INTO trade_fills (ts, user_id, bot_id, job_key, worker_id, mode, symbol, side, price, qty, balance_after, comment) " +
+          "SELECT s.ts, s.user_id, b.id, s.job_key, s.worker_id, s.mode, s.symbol, s.side, s.price, s.qty, " +
+          "s.balance_after, s.comment " +
+          "FROM trade_fills_stage s LEFT JOIN bot_instances b ON b.job_key = s.job_key";
+
+  /** One executed fill as journaled by a trading session. */
+  public record Fill(Instant ts, UUID userId, String jobKey, String mode, String symbol, String side,
+                     double price, double qty, double balanceAfter, String comment) {}
+
+  private final DataSource dataSource;
+  private final String workerId;
+  private final TradeJournalPort fallback;
+  private final AsyncAppender<Fill> appender;
+
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong spilled = new AtomicLong();
+
+  // last month with a partition prepared by this ledger
+  private volatile YearMonth preparedUntil;
+
+  public PostgresTradeLedger(DataSource dataSource, String workerId, TradeJournalPort fallback,
+                             AsyncAppender.Options options) {
+    this.dataSource = dataSource;
+    this.workerId = workerId;
+    this.fallback = fallback;
+    this.appender = new AsyncAppender<>("trade-ledger", new CopyWriter(), options);
+  }
+
+  /** Journal bound to one session; its fills carry the user and the bot's job key. */
+  @Override
+  public TradeJournalPort forSession(String userId, String sessionKey) {
+    UUID uid = toUuid(userId);
+    if (uid == null || sessionKey == null || sessionKey.isBlank()) return fallback.forSession(userId, sessionKey);
+    return (mode, symbol, side, price, qty, balanceAfter, comment) -> appender.append(
+        new Fill(Instant.now(), uid, sessionKey, mode, symbol, side, price, qty, balanceAfter, comment));
+  }
+
+  /** Unbound call (no session identity): kept on the local journal. */
+  @Override
+  public void logTrade(String mode, String symbol, String side, double price, double qty, double balanceAfter,
+                       String comment) {
+    fallback.logTrade(mode, symbol, side, price, qty, balanceAfter, comment);
+  }
+
+  /** Waits until every queued fill is in Postgres (or spilled to the fallback). */
+  public void flush() {
+    appender.flush();
+  }
+
+  public long written() {
+    return written.get();
+  }
+
+  /** Fills handed to the fallback journal because Postgres rejected their batch. */
+  public long spilled() {
+    return spilled.get();
+  }
+
+  public long pending() {
+    return appender.pending();
+  }
+
+  @Override
+  public void close() {
+    appender.close();
+  }
+
+  /**
+   * Creates the monthly partitions from the current month through PARTITIONS_AHEAD months after
+   * `upTo` (idempotent; names and bounds match V24__trade_fills_ledger.sql).
+   */
+  public void ensurePartitions(YearMonth upTo) throws SQLException {
+    YearMonth from = YearMonth.now(ZoneOffset.UTC);
+    YearMonth last = upTo.plusMonths(PARTITIONS_AHEAD);
+    try (Connection c = dataSource.getConnection(); Statement st = c.createStatement()) {
+      for (YearMonth m = from; !m.isAfter(last); m = m.plusMonths(1)) {
+        st.execute("CREATE TABLE IF NOT EXISTS " + partitionName(m) + " PARTITION OF trade_fills " +
+            "FOR VALUES FROM ('" + m.atDay(1) + " 00:00:00+00') TO ('" + m.plusMonths(1).atDay(1) + " 00:00:00+00')");
+      }
+    }
+    preparedUntil = last;
+  }
+
+  static String partitionName(YearMonth m) {
+    return String.format("trade_fills_%04d_%02d", m.getYear(), m.getMonthValue());
+  }
+
+  private static UUID toUuid(String s) {
+    if (s == null || s.isBlank()) return null;
+    try {
+      return UUID.fromString(s.trim());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /** Runs on the appender thread: one COPY + one INSERT ... SELECT per drained batch. */
+  private final class CopyWriter implements AsyncAppender.BatchWriter<Fill> {
+    private final StringBuilder csv = new StringBuilder(64 * 1024);
+
+    @Override
+    public void write(List<Fill> batch) throws IOException {
+      if (batch.isEmpty()) return;
+      encode(batch);
+
+      SQLException last = null;
+      for (int attempt = 0; attempt <= RETRY_BACKOFF_MS.length; attempt++) {
+        if (attempt > 0) sleep(RETRY_BACKOFF_MS[attempt - 1]);
+        try {
+          preparePartitions(batch);
+          copy(batch.size());
+          written.addAndGet(batch.size());
+          return;
+        } catch (SQLException e) {
+          last = e;
+        }
+      }
+
+      log.warn("[LEDGER] {} fills not written to Postgres, spilling to the local journal: {}",
+          batch.size(), last.getMessage());
+      for (Fill f : batch) {
+        fallback.forSession(f.userId().toString(), f.jobKey())
+            .logTradeAt(f.ts(), f.mode(), f.symbol(), f.side(), f.price(), f.qty(), f.balanceAfter(), f.comment());
+      }
+      spilled.addAndGet(batch.size());
+    }
+
+    private void preparePartitions(List<Fill> batch) throws SQLException {
+      YearMonth newest = null;
+      for (Fill f : batch) {
+        YearMonth m = YearMonth.from(f.ts().atOffset(ZoneOffset.UTC));
+        if (newest == null || m.isAfter(newest)) newest = m;
+      }
+      if (preparedUntil == null || newest.isAfter(preparedUntil.minusMonths(1))) ensurePartitions(newest);
+    }
+
+    private void copy(int rows) throws SQLException {
+      try (Connection c = dataSource.getConnection()) {
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+        try (Statement st = c.createStatement()) {
+          st.execute(STAGE_DDL);
+          long copied = c.unwrap(PGConnection.class).getCopyAPI().copyIn(STAGE_COPY, new StringReader(csv.toString()));
+          if (copied != rows) throw new SQLException("COPY staged " + copied + " of " + rows + " fills");
+          st.executeUpdate(STAGE_MOVE);
+          c.commit();
+        } catch (SQLException | IOException e) {
+          c.rollback();
+          throw e instanceof SQLException se ? se : new SQLException("COPY failed", e);
+        } finally {
+          c.setAutoCommit(autoCommit);
+        }
+      }
+    }
+
+    private void encode(List<Fill> batch) {
+      csv.setLength(0);
+      if (csv.capacity() > 1 << 20) csv.trimToSize(); // do not keep a burst-sized buffer forever
+      for (Fill f : batch) {
+        csv.append(f.ts()).append(',')
+            .append(f.userId()).append(',');
+        quoted(f.jobKey());
+        csv.append(',');
+        quoted(workerId);
+        csv.append(',');
+        quoted(f.mode());
+        csv.append(',');
+        quoted(f.symbol());
+        csv.append(',');
+        quoted(f.side());
+        csv.append(',').append(f.price())
+            .append(',').append(f.qty())
+            .append(',').append(f.balanceAfter())
+            .append(',');
+        quoted(f.comment());
+        csv.append('\n');
+      }
+    }
+
+    // CSV: an unquoted empty field is NULL, a quoted one is a string
+    private void quoted(String s) {
+      if (s == null) return;
+      csv.append('"');
+      for (int i = 0; i < s.length(); i++) {
+        char ch = s.charAt(i);
+        if (ch == '"') csv.append('"');
+        csv.append(ch);
+      }
+      csv.append('"');
+    }
+
+    private void sleep(long ms) {
+      try {
+        Thread.sleep(ms);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+-- Backtest sweep queue (research jobs executed by spare worker capacity)
+CREATE TABLE IF NOT EXISTS backtest_jobs (
+  id UUID PRIMARY KEY,
+  sweep_id UUID NOT NULL,
+  user_id UUID REFERENCES users(id) ON DELETE CASCADE,
+  chunk_index INT NOT NULL,
+  status VARCHAR(16) NOT NULL,
+  priority INT NOT NULL DEFAULT 0,
+  strategy_type VARCHAR(32) NOT NULL,
+  symbol VARCHAR(64) NOT NULL,
+  interval VARCHAR(32) NOT NULL,
+  candle_limit INT NOT NULL,
+  data_end_ms BIGINT NOT NULL,
+  position_usdt DOUBLE PRECISION NOT NULL,
+  fee_rate DOUBLE PRECISION NOT NULL,
+  stop_loss_pct DOUBLE PRECISION NOT NULL,
+  take_profit_pct DOUBLE PRECISION NOT NULL,
+  params_text TEXT NOT NULL,
+  param_count INT NOT NULL,
+  worker_id VARCHAR(64),
+  locked_at TIMESTAMPTZ,
+  attempts INT NOT NULL DEFAULT 0,
+  next_run_at TIMESTAMPTZ,
+  error_message VARCHAR(512),
+  created_at TIMESTAMPTZ NOT NULL,
+  processed_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_backtest_jobs_pending_due
+  ON backtest_jobs(priority DESC, created_at)
+  WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_backtest_jobs_sweep
+  ON backtest_jobs(sweep_id, status);
+
+-- One row per evaluated parameter set; written by workers while a chunk runs
+CREATE TABLE IF NOT EXISTS backtest_results (
+  id BIGSERIAL PRIMARY KEY,
+  job_id UUID NOT NULL REFERENCES backtest_jobs(id) ON DELETE CASCADE,
+  sweep_id UUID NOT NULL,
+  params VARCHAR(256) NOT NULL,
+  trades INT NOT NULL,
+  wins INT NOT NULL,
+  final_equity DOUBLE PRECISION NOT NULL,
+  pnl DOUBLE PRECISION NOT NULL,
+  max_drawdown_pct DOUBLE PRECISION NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- chunk retries overwrite instead of duplicating
+CREATE UNIQUE INDEX IF NOT EXISTS uk_backtest_results_job_params
+  ON backtest_results(job_id, params);
+
+CREATE INDEX IF NOT EXISTS idx_backtest_results_sweep_pnl
+  ON backtest_results(sweep_id, pnl DESC);
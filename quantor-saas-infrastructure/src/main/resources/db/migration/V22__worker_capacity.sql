@@ -0,0 +1,16 @@
+-- Worker capacity signals (published with the heartbeat) for lease admission control
+ALTER TABLE quantor_workers
+  ADD COLUMN IF NOT EXISTS active_sessions INT NOT NULL DEFAULT 0,
+  ADD COLUMN IF NOT EXISTS tick_p99_ms DOUBLE PRECISION,
+  ADD COLUMN IF NOT EXISTS scheduler_lag_p99_ms DOUBLE PRECISION,
+  ADD COLUMN IF NOT EXISTS cpu_load DOUBLE PRECISION,
+  ADD COLUMN IF NOT EXISTS heap_used_mb INT,
+  ADD COLUMN IF NOT EXISTS heap_max_mb INT,
+  ADD COLUMN IF NOT EXISTS accepting BOOLEAN NOT NULL DEFAULT true;
+
+-- Shedding order: an overloaded worker hands off its lowest-priority bots first
+ALTER TABLE bot_instances
+  ADD COLUMN IF NOT EXISTS priority INT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_bot_instances_owner_priority
+  ON bot_instances (lease_owner, priority);
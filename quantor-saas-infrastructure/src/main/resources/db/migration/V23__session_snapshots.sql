@@ -0,0 +1,10 @@
+-- Warm session handoff: runtime state written on graceful drain, taken by the next worker before its first tick
+CREATE TABLE IF NOT EXISTS session_snapshots (
+  job_key VARCHAR(255) PRIMARY KEY,
+  worker_id VARCHAR(64) NOT NULL,
+  payload BYTEA NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_session_snapshots_created
+  ON session_snapshots (created_at);
@@ -0,0 +1,46 @@
+-- Fleet-wide trade/fill ledger written by workers (PostgresTradeLedger, batched COPY).
+-- Range-partitioned by month on ts; the ledger creates upcoming months itself, the default
+-- partition only catches rows outside the prepared range.
+CREATE SEQUENCE IF NOT EXISTS trade_fills_id_seq;
+
+CREATE TABLE IF NOT EXISTS trade_fills (
+  id BIGINT NOT NULL DEFAULT nextval('trade_fills_id_seq'),
+  ts TIMESTAMPTZ NOT NULL,
+  user_id UUID NOT NULL,
+  bot_id UUID NULL,
+  job_key VARCHAR(255) NOT NULL,
+  worker_id VARCHAR(64) NULL,
+  mode VARCHAR(16) NOT NULL,
+  symbol VARCHAR(64) NOT NULL,
+  side VARCHAR(8) NOT NULL,
+  price DOUBLE PRECISION NOT NULL,
+  qty DOUBLE PRECISION NOT NULL,
+  balance_after DOUBLE PRECISION NULL,
+  comment TEXT NULL,
+  PRIMARY KEY (id, ts)
+) PARTITION BY RANGE (ts);
+
+ALTER SEQUENCE trade_fills_id_seq OWNED BY trade_fills.id;
+
+CREATE TABLE IF NOT EXISTS trade_fills_default PARTITION OF trade_fills DEFAULT;
+
+-- Reads: a bot's fills over time, a user's fills over time (partition-local indexes)
+CREATE INDEX IF NOT EXISTS idx_trade_fills_user_bot_ts ON trade_fills (user_id, bot_id, ts);
+CREATE INDEX IF NOT EXISTS idx_trade_fills_user_ts ON trade_fills (user_id, ts);
+
+-- Current month + 2 ahead (UTC months, same names/bounds as PostgresTradeLedger.ensurePartitions)
+DO $$
+DECLARE
+  m DATE := date_trunc('month', now() AT TIME ZONE 'UTC')::date;
+  lo DATE;
+BEGIN
+  FOR i IN 0..2 LOOP
+    lo := (m + make_interval(months => i))::date;
+    EXECUTE format(
+      'CREATE TABLE IF NOT EXISTS %I PARTITION OF trade_fills FOR VALUES FROM (%L) TO (%L)',
+      'trade_fills_' || to_char(lo, 'YYYY_MM'),
+      lo::text || ' 00:00:00+00',
+      (lo + interval '1 month')::date::text || ' 00:00:00+00'
+    );
+  END LOOP;
+END $$;
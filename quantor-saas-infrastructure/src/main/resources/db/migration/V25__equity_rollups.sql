@@ -0,0 +1,16 @@
+-- Per-session equity time series as 1m / 1h / 1d rollups (PostgresEquitySeries).
+-- series = session job key, width_ms = bucket width; rows are merged in place by upsert.
+CREATE TABLE IF NOT EXISTS equity_rollups (
+  series VARCHAR(255) NOT NULL,
+  width_ms BIGINT NOT NULL,
+  bucket_start TIMESTAMPTZ NOT NULL,
+  eq_min DOUBLE PRECISION NOT NULL,
+  eq_max DOUBLE PRECISION NOT NULL,
+  eq_last DOUBLE PRECISION NOT NULL,
+  last_ts TIMESTAMPTZ NOT NULL,
+  PRIMARY KEY (series, width_ms, bucket_start)
+);
+
+-- Retention deletes of old 1m / 1h buckets
+CREATE INDEX IF NOT EXISTS idx_equity_rollups_width_bucket
+  ON equity_rollups (width_ms, bucket_start);
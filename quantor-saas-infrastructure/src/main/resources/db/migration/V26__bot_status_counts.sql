@@ -0,0 +1,61 @@
+-- Aggregated bot status read model (BotStatusReadModel): live count of bot_instances per (user, status).
+-- Maintained by triggers in the same transaction as every insert / delete / status or owner change,
+-- so status pages and admin diagnostics never scan bot_instances.
+CREATE TABLE IF NOT EXISTS bot_status_counts (
+  user_id UUID NOT NULL,
+  status VARCHAR(32) NOT NULL,
+  n BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (user_id, status)
+);
+
+CREATE OR REPLACE FUNCTION bot_status_counts_bump(p_user UUID, p_status VARCHAR, p_delta BIGINT)
+RETURNS void AS $$
+BEGIN
+  INSERT INTO bot_status_counts (user_id, status, n) VALUES (p_user, p_status, p_delta)
+  ON CONFLICT (user_id, status) DO UPDATE SET n = bot_status_counts.n + EXCLUDED.n;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION bot_status_counts_sync()
+RETURNS trigger AS $$
+BEGIN
+  IF TG_OP = 'INSERT' THEN
+    PERFORM bot_status_counts_bump(NEW.user_id, NEW.status, 1);
+  ELSIF TG_OP = 'DELETE' THEN
+    PERFORM bot_status_counts_bump(OLD.user_id, OLD.status, -1);
+  -- touch both counter rows in key order, so two opposite transitions cannot deadlock
+  ELSIF (OLD.user_id::text, OLD.status) < (NEW.user_id::text, NEW.status) THEN
+    PERFORM bot_status_counts_bump(OLD.user_id, OLD.status, -1);
+    PERFORM bot_status_counts_bump(NEW.user_id, NEW.status, 1);
+  ELSE
+    PERFORM bot_status_counts_bump(NEW.user_id, NEW.status, 1);
+    PERFORM bot_status_counts_bump(OLD.user_id, OLD.status, -1);
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- No writes may slip between the backfill and the triggers
+LOCK TABLE bot_instances IN SHARE ROW EXCLUSIVE MODE;
+
+INSERT INTO bot_status_counts (user_id, status, n)
+SELECT user_id, status, count(*) FROM bot_instances GROUP BY user_id, status
+ON CONFLICT (user_id, status) DO UPDATE SET n = EXCLUDED.n;
+
+DROP TRIGGER IF EXISTS trg_bot_status_counts_ins_del ON bot_instances;
+CREATE TRIGGER trg_bot_status_counts_ins_del
+  AFTER INSERT OR DELETE ON bot_instances
+  FOR EACH ROW EXECUTE FUNCTION bot_status_counts_sync();
+
+-- JPA saves rewrite every column: only real status / owner changes touch the counters
+DROP TRIGGER IF EXISTS trg_bot_status_counts_upd ON bot_instances;
+CREATE TRIGGER trg_bot_status_counts_upd
+  AFTER UPDATE OF status, user_id ON bot_instances
+  FOR EACH ROW
+  WHEN (OLD.status IS DISTINCT FROM NEW.status OR OLD.user_id IS DISTINCT FROM NEW.user_id)
+  EXECUTE FUNCTION bot_status_counts_sync();
+
+-- Latest bot of a user in a given status (diagnostics) without a sort; supersedes (user_id, status)
+CREATE INDEX IF NOT EXISTS idx_bot_instances_user_status_updated
+  ON bot_instances (user_id, status, updated_at DESC);
+DROP INDEX IF EXISTS idx_bot_instances_user_status;
@@ -0,0 +1,51 @@
+-- Hot-table retention for bot_commands / event_log / audit_log (HistoryArchiver in the worker).
+--
+-- 1) The command queue is served by partial indexes that only contain live rows, so claimBatch,
+--    countDuePending, countProcessing and requeueStuck cost the same with 1k or 100M finished commands.
+-- 2) Finished rows older than the retention move (DELETE ... RETURNING -> INSERT) into *_archive tables,
+--    range-partitioned by month on created_at. The archiver creates the monthly partitions it needs
+--    and drops whole partitions past the archive retention.
+
+-- ---- bot_commands: live-row indexes ----
+-- claimBatch / countDuePending: PENDING only, in claim order
+CREATE INDEX IF NOT EXISTS idx_bot_commands_pending_claim
+  ON bot_commands (created_at, next_run_at) WHERE status = 'PENDING';
+
+-- countProcessing / requeueStuck
+CREATE INDEX IF NOT EXISTS idx_bot_commands_processing
+  ON bot_commands (locked_at) WHERE status = 'PROCESSING';
+
+-- enqueueCommandOnce / diagnostics: latest command of a bot in a status
+CREATE INDEX IF NOT EXISTS idx_bot_commands_bot_status_created
+  ON bot_commands (bot_instance_id, status, created_at DESC);
+
+-- archiver scan: oldest finished commands
+CREATE INDEX IF NOT EXISTS idx_bot_commands_finished_created
+  ON bot_commands (created_at) WHERE status IN ('DONE', 'FAILED');
+
+-- full-history indexes replaced by the partial ones above
+DROP INDEX IF EXISTS idx_bot_commands_status_created;
+DROP INDEX IF EXISTS idx_bot_commands_pending_due;
+
+-- event_log archiver scan (the idempotency lookup keeps using uk_event_log_source_event)
+CREATE INDEX IF NOT EXISTS ix_event_log_finished_created
+  ON event_log (created_at) WHERE status IN ('PROCESSED', 'FAILED');
+
+-- ---- archive tables (same columns as the hot tables) ----
+CREATE TABLE IF NOT EXISTS bot_commands_archive (LIKE bot_commands INCLUDING DEFAULTS)
+  PARTITION BY RANGE (created_at);
+CREATE TABLE IF NOT EXISTS bot_commands_archive_default PARTITION OF bot_commands_archive DEFAULT;
+CREATE INDEX IF NOT EXISTS idx_bot_commands_archive_bot_created
+  ON bot_commands_archive (bot_instance_id, created_at);
+
+CREATE TABLE IF NOT EXISTS event_log_archive (LIKE event_log INCLUDING DEFAULTS)
+  PARTITION BY RANGE (created_at);
+CREATE TABLE IF NOT EXISTS event_log_archive_default PARTITION OF event_log_archive DEFAULT;
+CREATE INDEX IF NOT EXISTS ix_event_log_archive_source_event
+  ON event_log_archive (source, event_id);
+
+CREATE TABLE IF NOT EXISTS audit_log_archive (LIKE audit_log INCLUDING DEFAULTS)
+  PARTITION BY RANGE (created_at);
+CREATE TABLE IF NOT EXISTS audit_log_archive_default PARTITION OF audit_log_archive DEFAULT;
+CREATE INDEX IF NOT EXISTS ix_audit_log_archive_target
+  ON audit_log_archive (target_type, target_id);
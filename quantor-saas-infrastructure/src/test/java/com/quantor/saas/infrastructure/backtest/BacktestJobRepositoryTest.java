@@ -0,0 +1,258 @@
+package com.quantor.saas.infrastructure.backtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Backtest chunk queue against a real Postgres (Flyway migrations of this module): claim exclusivity
+ * under SKIP LOCKED, lost-run accounting in requeueStuck and the owner guard on chunk outcomes.
+ * Runs without a test transaction: every repository call commits, as in the worker.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+public class BacktestJobRepositoryTest {
+
+  private static final int MAX_ATTEMPTS = 3;
+
+  @Container
+  @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @SpringBootConfiguration
+  @EnableAutoConfiguration
+  static class TestApp {
+  }
+
+  @Autowired
+  private BacktestJobRepository repo;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private PlatformTransactionManager txManager;
+
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void setUp() {
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.update("DELETE FROM backtest_jobs");
+  }
+
+  @Test
+  void claimTakesDuePendingChunksByPriorityAndEachOnlyOnce() {
+    UUID low = insertJob("PENDING", 0, null, null, 0, null);
+    UUID high = insertJob("PENDING", 5, null, null, 0, null);
+    UUID notDue = insertJob("PENDING", 9, null, null, 0, Instant.now().plusSeconds(60));
+    UUID taken = insertJob("PROCESSING", 9, "w2", Instant.now(), 0, null);
+    UUID done = insertJob("DONE", 9, null, null, 0, null);
+
+    assertEquals(Set.of(high), ids(repo.claimBatch("w1", 1)));
+    assertEquals(Set.of(low), ids(repo.claimBatch("w1", 10)));
+
+    assertEquals("w1", workerId(high));
+    assertEquals("PROCESSING", status(low));
+    assertNotNull(jdbc.queryForObject("SELECT locked_at FROM backtest_jobs WHERE id = ?", Timestamp.class, low));
+    assertEquals("PENDING", status(notDue));
+    assertEquals("w2", workerId(taken));
+    assertEquals("DONE", status(done));
+
+    // nothing is due any more, for this worker or another
+    assertEquals(List.of(), repo.claimBatch("w1", 10));
+    assertEquals(List.of(), repo.claimBatch("w3", 10));
+  }
+
+  @Test
+  void concurrentClaimsSkipLockedChunksInsteadOfSharingThem() throws Exception {
+    for (int i = 0; i < 10; i++) insertJob("PENDING", 0, null, null, 0, null);
+
+    TransactionTemplate tx = new TransactionTemplate(txManager);
+    CountDownLatch aClaimed = new CountDownLatch(1);
+    CountDownLatch bDone = new CountDownLatch(1);
+
+    // worker A claims 5 chunks and keeps its transaction (and row locks) open until B has claimed
+    CompletableFuture<List<BacktestJobEntity>> a = CompletableFuture.supplyAsync(() -> tx.execute(status -> {
+      List<BacktestJobEntity> rows = repo.claimBatch("wA", 5);
+      aClaimed.countDown();
+      try {
+        assertTrue(bDone.await(10, TimeUnit.SECONDS));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return rows;
+    }));
+
+    assertTrue(aClaimed.await(10, TimeUnit.SECONDS));
+    List<BacktestJobEntity> b = repo.claimBatch("wB", 10);
+    bDone.countDown();
+    List<BacktestJobEntity> aRows = a.get(10, TimeUnit.SECONDS);
+
+    assertEquals(5, aRows.size());
+    assertEquals(5, b.size(), "B must skip A's locked chunks, not wait for them or take them");
+    Set<UUID> all = new HashSet<>(ids(aRows));
+    all.addAll(ids(b));
+    assertEquals(10, all.size());
+    assertEquals(Map.of("wA", 5L, "wB", 5L), claimsPerWorker());
+  }
+
+  @Test
+  void requeueStuckCountsTheLostRunAndFailsTheChunkAtTheLimit() {
+    Instant stale = Instant.now().minusSeconds(600);
+    UUID firstLoss = insertJob("PROCESSING", 0, "w-dead", stale, 0, null);
+    UUID lastLoss = insertJob("PROCESSING", 0, "w-dead", stale, MAX_ATTEMPTS - 1, null);
+    UUID alive = insertJob("PROCESSING", 0, "w1", Instant.now(), 0, null);
+    UUID pending = insertJob("PENDING", 0, null, null, 0, null);
+
+    assertEquals(2, repo.requeueStuck(Instant.now().minusSeconds(120), MAX_ATTEMPTS));
+
+    assertEquals("PENDING", status(firstLoss));
+    assertEquals(1, attempts(firstLoss));
+    assertNull(workerId(firstLoss));
+    assertNull(processedAt(firstLoss));
+    assertEquals("worker lost while processing (attempt 1)", error(firstLoss));
+
+    assertEquals("FAILED", status(lastLoss));
+    assertEquals(MAX_ATTEMPTS, attempts(lastLoss));
+    assertNotNull(processedAt(lastLoss));
+    assertEquals("worker lost while processing (attempt " + MAX_ATTEMPTS + ")", error(lastLoss));
+
+    assertEquals("PROCESSING", status(alive));
+    assertEquals("w1", workerId(alive));
+    assertEquals(0, attempts(alive));
+    assertEquals("PENDING", status(pending));
+
+    // the re-queued chunk is claimable again; the failed one is not
+    assertEquals(Set.of(firstLoss, pending), ids(repo.claimBatch("w2", 10)));
+  }
+
+  @Test
+  void outcomeOfALostClaimCannotOverwriteTheNewOwner() {
+    UUID chunk = insertJob("PENDING", 0, null, null, 0, null);
+    assertEquals(Set.of(chunk), ids(repo.claimBatch("w1", 10)));
+
+    // w1 stalls past the deadline, its chunk is re-queued and claimed by w2
+    jdbc.update("UPDATE backtest_jobs SET locked_at = ? WHERE id = ?",
+        Timestamp.from(Instant.now().minusSeconds(600)), chunk);
+    assertEquals(1, repo.requeueStuck(Instant.now().minusSeconds(120), MAX_ATTEMPTS));
+    assertEquals(Set.of(chunk), ids(repo.claimBatch("w2", 10)));
+
+    assertEquals(0, repo.markDone(chunk, "w1"));
+    assertEquals(0, repo.markFailed(chunk, "w1", "late failure"));
+    assertEquals(0, repo.scheduleRetry(chunk, "w1", Instant.now(), "late retry"));
+    assertEquals(0, repo.touch(chunk, "w1"));
+    assertEquals("PROCESSING", status(chunk));
+    assertEquals("w2", workerId(chunk));
+    assertEquals(1, attempts(chunk));
+
+    assertEquals(1, repo.markDone(chunk, "w2"));
+    assertEquals("DONE", status(chunk));
+    assertNull(error(chunk));
+
+    // a terminal chunk stays terminal, even for its owner
+    assertEquals(0, repo.markFailed(chunk, "w2", "after done"));
+    assertEquals("DONE", status(chunk));
+  }
+
+  @Test
+  void ownerCanFailOrRetryItsChunk() {
+    UUID failing = insertJob("PROCESSING", 0, "w1", Instant.now(), 0, null);
+    UUID retrying = insertJob("PROCESSING", 0, "w1", Instant.now(), 0, null);
+
+    assertEquals(1, repo.markFailed(failing, "w1", "x".repeat(600)));
+    assertEquals("FAILED", status(failing));
+    assertEquals(512, error(failing).length());
+
+    Instant next = Instant.now().plusSeconds(30);
+    assertEquals(1, repo.scheduleRetry(retrying, "w1", next, "transient"));
+    assertEquals("PENDING", status(retrying));
+    assertEquals(1, attempts(retrying));
+    assertNull(workerId(retrying));
+    // not due before next_run_at
+    assertEquals(List.of(), repo.claimBatch("w2", 10));
+  }
+
+  private UUID insertJob(String status, int priority, String workerId, Instant lockedAt, int attempts,
+                         Instant nextRunAt) {
+    UUID id = UUID.randomUUID();
+    jdbc.update(
+        "INSERT INTO backtest_jobs (id, sweep_id, chunk_index, status, priority, strategy_type, symbol, " +
+            "\"interval\", candle_limit, data_end_ms, position_usdt, fee_rate, stop_loss_pct, take_profit_pct, " +
+            "params_text, param_count, worker_id, locked_at, attempts, next_run_at, created_at) " +
+            "VALUES (?, ?, 0, ?, ?, 'ema', 'BTC/USDT', '1h', 500, 0, 30, 0.001, 0.006, 0.009, 'fast=9;slow=21', 1, " +
+            "?, ?, ?, ?, ?)",
+        id, UUID.randomUUID(), status, priority, workerId,
+        lockedAt == null ? null : Timestamp.from(lockedAt), attempts,
+        nextRunAt == null ? null : Timestamp.from(nextRunAt), Timestamp.from(Instant.now()));
+    return id;
+  }
+
+  private String status(UUID id) {
+    return jdbc.queryForObject("SELECT status FROM backtest_jobs WHERE id = ?", String.class, id);
+  }
+
+  private String workerId(UUID id) {
+    return jdbc.queryForObject("SELECT worker_id FROM backtest_jobs WHERE id = ?", String.class, id);
+  }
+
+  private int attempts(UUID id) {
+    return jdbc.queryForObject("SELECT attempts FROM backtest_jobs WHERE id = ?", Integer.class, id);
+  }
+
+  private String error(UUID id) {
+    return jdbc.queryForObject("SELECT error_message FROM backtest_jobs WHERE id = ?", String.class, id);
+  }
+
+  private Timestamp processedAt(UUID id) {
+    return jdbc.queryForObject("SELECT processed_at FROM backtest_jobs WHERE id = ?", Timestamp.class, id);
+  }
+
+  private Map<String, Long> claimsPerWorker() {
+    Map<String, Long> out = new HashMap<>();
+    for (Map<String, Object> row : jdbc.queryForList(
+        "SELECT worker_id, count(*) AS n FROM backtest_jobs WHERE status = 'PROCESSING' GROUP BY worker_id")) {
+      out.put((String) row.get("worker_id"), ((Number) row.get("n")).longValue());
+    }
+    return out;
+  }
+
+  private static Set<UUID> ids(List<BacktestJobEntity> rows) {
+    Set<UUID> out = new HashSet<>();
+    for (BacktestJobEntity r : rows) out.add(r.getId());
+    return out;
+  }
+}
@@ -0,0 +1,207 @@
+package com.quantor.saas.infrastructure.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lease semantics of the native SQL against a real Postgres (Flyway migrations of this module):
+ * claim exclusivity under SKIP LOCKED, expiry, renew-by-owner and handoff.
+ * Runs without a test transaction: every repository call commits, as in the worker.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+public class BotInstanceRepositoryImplTest {
+
+  private static final Duration TTL = Duration.ofSeconds(30);
+  private static final Duration GRACE = Duration.ofSeconds(10);
+
+  @Container
+  @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @SpringBootConfiguration
+  @EnableAutoConfiguration
+  static class TestApp {
+  }
+
+  @Autowired
+  private BotInstanceRepository repo;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private PlatformTransactionManager txManager;
+
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void setUp() {
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.update("DELETE FROM bot_instances");
+    jdbc.update("DELETE FROM quantor_workers");
+  }
+
+  @Test
+  void claimTakesOnlyDueLeasesAndEachOnlyOnce() {
+    UUID free = insertBot("RUNNING", null, null);
+    UUID expired = insertBot("PAUSED", "w-dead", Instant.now().minusSeconds(60));
+    UUID leased = insertBot("RUNNING", "w2", Instant.now().plusSeconds(60));
+    UUID stopped = insertBot("STOPPED", null, null);
+
+    List<LeaseRow> claimed = repo.claimDueLeaseRows("w1", TTL, 10);
+
+    assertEquals(Set.of(free, expired), ids(claimed));
+    assertEquals("w1", owner(free));
+    assertEquals("w1", owner(expired));
+    assertEquals("w2", owner(leased));
+    assertNull(owner(stopped));
+    assertTrue(leaseUntil(free).isAfter(Instant.now().plusSeconds(20)));
+
+    // nothing is due any more, for this worker or another
+    assertEquals(List.of(), repo.claimDueLeaseRows("w1", TTL, 10));
+    assertEquals(List.of(), repo.claimDueLeaseRows("w3", TTL, 10));
+  }
+
+  @Test
+  void concurrentClaimsSkipLockedRowsInsteadOfSharingThem() throws Exception {
+    for (int i = 0; i < 10; i++) insertBot("RUNNING", null, null);
+
+    TransactionTemplate tx = new TransactionTemplate(txManager);
+    CountDownLatch aClaimed = new CountDownLatch(1);
+    CountDownLatch bDone = new CountDownLatch(1);
+
+    // worker A claims 5 rows and keeps its transaction (and row locks) open until B has claimed
+    CompletableFuture<List<LeaseRow>> a = CompletableFuture.supplyAsync(() -> tx.execute(status -> {
+      List<LeaseRow> rows = repo.claimDueLeaseRows("wA", TTL, 5);
+      aClaimed.countDown();
+      try {
+        assertTrue(bDone.await(10, TimeUnit.SECONDS));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return rows;
+    }));
+
+    assertTrue(aClaimed.await(10, TimeUnit.SECONDS));
+    List<LeaseRow> b = repo.claimDueLeaseRows("wB", TTL, 10);
+    bDone.countDown();
+    List<LeaseRow> aRows = a.get(10, TimeUnit.SECONDS);
+
+    assertEquals(5, aRows.size());
+    assertEquals(5, b.size(), "B must skip A's locked rows, not wait for them or take them");
+    Set<UUID> all = new HashSet<>(ids(aRows));
+    all.addAll(ids(b));
+    assertEquals(10, all.size());
+    assertEquals(5, (int) jdbc.queryForObject(
+        "SELECT count(*) FROM bot_instances WHERE lease_owner = 'wA'", Integer.class));
+  }
+
+  @Test
+  void renewExtendsOnlyOwnHalfExpiredLeasesWithinGrace() {
+    Instant now = Instant.now();
+    UUID halfExpired = insertBot("RUNNING", "w1", now.plusSeconds(5));
+    Instant freshUntil = now.plusSeconds(25);
+    UUID fresh = insertBot("PAUSED", "w1", freshUntil);
+    UUID inGrace = insertBot("RUNNING", "w1", now.minusSeconds(3));
+    UUID pastGrace = insertBot("RUNNING", "w1", now.minusSeconds(60));
+    UUID foreign = insertBot("RUNNING", "w2", now.plusSeconds(5));
+
+    List<LeaseRow> rows = repo.renewLeaseRows("w1", TTL, GRACE);
+
+    // every live lease of w1 is reported, the expired one is not (it may already be taken over)
+    assertEquals(Set.of(halfExpired, fresh, inGrace), ids(rows));
+    assertTrue(leaseUntil(halfExpired).isAfter(now.plusSeconds(20)));
+    assertTrue(leaseUntil(inGrace).isAfter(now.plusSeconds(20)));
+    // a lease younger than half its TTL is not rewritten
+    assertEquals(freshUntil.toEpochMilli(), leaseUntil(fresh).toEpochMilli(), 1);
+    assertTrue(leaseUntil(pastGrace).isBefore(now));
+    // another owner's lease is never touched
+    assertEquals("w2", owner(foreign));
+    assertTrue(leaseUntil(foreign).isBefore(now.plusSeconds(10)));
+  }
+
+  @Test
+  void expiredLeaseIsStolenAndTheOldOwnerCannotRenewIt() {
+    UUID bot = insertBot("RUNNING", "w1", Instant.now().minusSeconds(60));
+
+    assertEquals(Set.of(bot), ids(repo.claimDueLeaseRows("w2", TTL, 10)));
+    assertEquals("w2", owner(bot));
+
+    assertEquals(List.of(), repo.renewLeaseRows("w1", TTL, GRACE));
+    assertEquals(0, repo.renewLeases("w1", TTL, GRACE));
+    assertEquals("w2", owner(bot));
+  }
+
+  @Test
+  void handOffReleasesOnlyOwnRowsAndLeavesThemClaimable() {
+    UUID mine = insertBot("RUNNING", "w1", Instant.now().plusSeconds(30));
+    UUID theirs = insertBot("RUNNING", "w2", Instant.now().plusSeconds(30));
+
+    List<LeaseRow> handedOff = repo.handOffLeaseRows("w1", List.of(mine, theirs));
+
+    assertEquals(Set.of(mine), ids(handedOff));
+    assertNull(owner(mine));
+    assertEquals("w2", owner(theirs));
+    assertEquals(Set.of(mine), ids(repo.claimDueLeaseRows("w3", TTL, 10)));
+  }
+
+  private UUID insertBot(String status, String leaseOwner, Instant leaseUntil) {
+    UUID id = UUID.randomUUID();
+    Timestamp now = Timestamp.from(Instant.now());
+    jdbc.update(
+        "INSERT INTO bot_instances (id, user_id, job_key, strategy_id, symbol, \"interval\", lookback, period_ms, " +
+            "status, created_at, updated_at, lease_owner, lease_until) " +
+            "VALUES (?, ?, ?, 'ema', 'BTC/USDT', '1h', 200, 60000, ?, ?, ?, ?, ?)",
+        id, UUID.randomUUID(), "job-" + id, status, now, now, leaseOwner,
+        leaseUntil == null ? null : Timestamp.from(leaseUntil));
+    return id;
+  }
+
+  private String owner(UUID id) {
+    return jdbc.queryForObject("SELECT lease_owner FROM bot_instances WHERE id = ?", String.class, id);
+  }
+
+  private Instant leaseUntil(UUID id) {
+    Timestamp t = jdbc.queryForObject("SELECT lease_until FROM bot_instances WHERE id = ?", Timestamp.class, id);
+    return t == null ? null : t.toInstant();
+  }
+
+  private static Set<UUID> ids(List<LeaseRow> rows) {
+    Set<UUID> out = new HashSet<>();
+    for (LeaseRow r : rows) out.add(r.id());
+    return out;
+  }
+}
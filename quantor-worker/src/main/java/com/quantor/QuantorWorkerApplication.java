@@ -1,5 +1,7 @@
 package com.quantor;
 
+import com.quantor.domain.journal.AsyncAppender;
+import com.quantor.infrastructure.db.SqliteAccess;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -9,6 +11,13 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 public class QuantorWorkerApplication {
 
     public static void main(String[] args) {
+        // journals are closed after the context (and every bean that appends) has shut down, then the
+        // SQLite writers commit what is still queued (one handler: the order matters)
+        AsyncAppender.manageLifecycle();
+        SpringApplication.getShutdownHandlers().add(() -> {
+            AsyncAppender.closeAll();
+            SqliteAccess.closeAll();
+        });
         SpringApplication.run(QuantorWorkerApplication.class, args);
     }
 }
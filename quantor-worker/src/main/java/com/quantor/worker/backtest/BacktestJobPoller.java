@@ -0,0 +1,260 @@
+package com.quantor.worker.backtest;
+
+import com.quantor.application.engine.BacktestResult;
+import com.quantor.application.engine.BacktestResultCache;
+import com.quantor.application.engine.BacktestStrategies;
+import com.quantor.application.engine.VectorizedBacktestEngine;
+import com.quantor.application.exchange.ExchangePort;
+import com.quantor.application.exchange.Timeframe;
+import com.quantor.application.ports.ConfigPort;
+import com.quantor.domain.market.Candle;
+import com.quantor.domain.risk.RiskManager;
+import com.quantor.domain.strategy.Strategy;
+import com.quantor.exchange.BinanceClient;
+import com.quantor.infrastructure.exchange.BinanceExchangeAdapter;
+import com.quantor.infrastructure.exchange.UnifiedBinanceExchangeAdapter;
+import com.quantor.saas.infrastructure.backtest.BacktestJobEntity;
+import com.quantor.saas.infrastructure.backtest.BacktestJobRepository;
+import com.quantor.worker.engine.WorkerCapacity;
+import com.quantor.worker.engine.WorkerIdentity;
+import com.quantor.worker.util.JobParsing;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs backtest_jobs chunks on spare worker capacity.
+ *
+ * - claims chunks with the same FOR UPDATE SKIP LOCKED pattern as CommandPoller
+ * - capacity-aware: claims only free slots, and only what WorkerCapacity admits (live sessions first)
+ * - lower priority than live ticks: dedicated MIN_PRIORITY threads, never the session scheduler
+ * - streams results into backtest_results in small JDBC batches while the chunk runs
+ * - results are looked up in BacktestResultCache first (params + risk + candle fingerprint), so
+ *   re-submitted sweeps and overlapping param grids are not recomputed
+ * - retries with exponential backoff, re-queues chunks of crashed workers (a lost run counts as an
+ *   attempt); outcomes are only written while this worker still owns the chunk
+ */
+@Component
+public class BacktestJobPoller {
+
+  private static final Logger log = LoggerFactory.getLogger(BacktestJobPoller.class);
+
+  private static final String INSERT_RESULT = """
+      INSERT INTO backtest_results (job_id, sweep_id, params, trades, wins, final_equity, pnl, max_drawdown_pct)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+      ON CONFLICT (job_id, params) DO UPDATE
+      SET trades = EXCLUDED.trades,
+          wins = EXCLUDED.wins,
+          final_equity = EXCLUDED.final_equity,
+          pnl = EXCLUDED.pnl,
+          max_drawdown_pct = EXCLUDED.max_drawdown_pct,
+          created_at = now()
+      """;
+
+  private final BacktestJobRepository jobs;
+  private final JdbcTemplate jdbc;
+  private final ExchangePort marketData;
+  private final String workerId;
+  private final WorkerCapacity capacity;
+
+  private final boolean enabled;
+  private final int maxConcurrent;
+  private final int resultBatchSize;
+  private final int maxAttempts;
+  private final Duration processingTimeout;
+  private final Duration retryBase;
+
+  private final ExecutorService executor;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  // one candle fetch per (symbol, interval, limit, end) even when many chunks of a sweep land here
+  private final ConcurrentHashMap<String, List<Candle>> candleCache = new ConcurrentHashMap<>();
+  private final BacktestResultCache resultCache;
+
+  public BacktestJobPoller(
+      BacktestJobRepository jobs,
+      JdbcTemplate jdbc,
+      ConfigPort config,
+      WorkerIdentity workerIdentity,
+      WorkerCapacity capacity,
+      @Value("${quantor.worker.backtest.enabled:true}") boolean enabled,
+      @Value("${quantor.worker.backtest.maxConcurrent:0}") int maxConcurrent,
+      @Value("${quantor.worker.backtest.resultBatchSize:25}") int resultBatchSize,
+      @Value("${quantor.worker.backtest.maxAttempts:3}") int maxAttempts,
+      @Value("${quantor.worker.backtest.processingTimeoutSeconds:600}") long processingTimeoutSeconds,
+      @Value("${quantor.worker.backtest.cacheDir:data/backtest-cache}") String cacheDir,
+      @Value("${quantor.worker.retryBaseSeconds:2}") long retryBaseSeconds
+  ) {
+    this.jobs = jobs;
+    this.jdbc = jdbc;
+    this.marketData = new UnifiedBinanceExchangeAdapter(new BinanceExchangeAdapter(new BinanceClient(config)));
+    this.workerId = workerIdentity.id();
+    this.capacity = capacity;
+    this.enabled = enabled;
+    this.maxConcurrent = maxConcurrent > 0
+        ? maxConcurrent
+        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    this.resultBatchSize = Math.max(1, resultBatchSize);
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.processingTimeout = Duration.ofSeconds(processingTimeoutSeconds);
+    this.retryBase = Duration.ofSeconds(retryBaseSeconds);
+    // empty cacheDir = in-memory LRU only
+    this.resultCache = new BacktestResultCache(cacheDir == null || cacheDir.isBlank() ? null : Path.of(cacheDir));
+
+    AtomicInteger seq = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(this.maxConcurrent, r -> {
+      Thread t = new Thread(r, "backtest-" + seq.incrementAndGet());
+      t.setDaemon(true);
+      t.setPriority(Thread.MIN_PRIORITY);
+      return t;
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${quantor.worker.backtest.pollMs:2000}")
+  public void poll() {
+    if (!enabled) return;
+
+    jobs.requeueStuck(Instant.now().minus(processingTimeout), maxAttempts);
+
+    int free = capacity.admissibleBacktests(maxConcurrent - inFlight.get());
+    if (free <= 0) return;
+
+    List<BacktestJobEntity> batch = jobs.claimBatch(workerId, free);
+    for (BacktestJobEntity job : batch) {
+      inFlight.incrementAndGet();
+      executor.execute(() -> {
+        try {
+          process(job);
+        } finally {
+          inFlight.decrementAndGet();
+        }
+      });
+    }
+  }
+
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    // unfinished chunks stay PROCESSING and are re-queued by requeueStuck on another worker
+    executor.shutdownNow();
+  }
+
+  void process(BacktestJobEntity job) {
+    long t0 = System.nanoTime();
+    try {
+      List<Candle> candles = candles(job);
+      double[] close = VectorizedBacktestEngine.closes(candles);
+      String fingerprint = BacktestResultCache.fingerprint(candles);
+      RiskManager rm = new RiskManager(job.getPositionUsdt(), job.getFeeRate(), job.getStopLossPct(), job.getTakeProfitPct());
+
+      List<Object[]> pending = new ArrayList<>(resultBatchSize);
+      for (String line : job.getParamsText().split("\n")) {
+        if (Thread.currentThread().isInterrupted()) return;
+        if (line.isBlank()) continue;
+
+        Strategy strategy = BacktestStrategies.fromParams(job.getStrategyType(), line);
+        String key = BacktestResultCache.key(strategy, rm, job.getSymbol(), job.getInterval(), fingerprint);
+        BacktestResult r = resultCache.getOrCompute(key,
+            () -> new VectorizedBacktestEngine(strategy, rm, job.getSymbol(), job.getInterval()).run(close));
+
+        pending.add(new Object[]{
+            job.getId(), job.getSweepId(), line.trim(),
+            r.trades(), r.wins(), r.finalEquity(), r.pnl(), r.maxDrawdownPct()
+        });
+        if (pending.size() >= resultBatchSize) {
+          flushResults(pending);
+          jobs.touch(job.getId(), workerId);
+        }
+      }
+      flushResults(pending);
+
+      if (jobs.markDone(job.getId(), workerId) == 0) {
+        log.warn("[BACKTEST] chunk lost before done (re-queued by another worker) sweepId={} chunk={}",
+            job.getSweepId(), job.getChunkIndex());
+        return;
+      }
+      log.info("[BACKTEST] chunk done sweepId={} chunk={} params={} ms={}",
+          job.getSweepId(), job.getChunkIndex(), job.getParamCount(), (System.nanoTime() - t0) / 1_000_000);
+
+    } catch (Exception e) {
+      String error = safeError(e);
+      log.warn("[BACKTEST] chunk failed sweepId={} chunk={} attempts={} err={}",
+          job.getSweepId(), job.getChunkIndex(), job.getAttempts(), error);
+
+      if (job.getAttempts() < (maxAttempts - 1)) {
+        jobs.scheduleRetry(job.getId(), workerId, Instant.now().plus(exponentialBackoff(job.getAttempts())), error);
+      } else {
+        jobs.markFailed(job.getId(), workerId, error);
+      }
+    }
+  }
+
+  private void flushResults(List<Object[]> pending) {
+    if (pending.isEmpty()) return;
+    jdbc.batchUpdate(INSERT_RESULT, pending);
+    pending.clear();
+  }
+
+  /**
+   * Candles of the sweep's fixed range: latest candleLimit candles closed at or before data_end_ms.
+   * Over-fetches by the number of bars elapsed since the sweep was created (capped by the exchange limit).
+   */
+  private List<Candle> candles(BacktestJobEntity job) {
+    String key = job.getSymbol() + "|" + job.getInterval() + "|" + job.getCandleLimit() + "|" + job.getDataEndMs();
+    List<Candle> cached = candleCache.get(key);
+    if (cached != null) return cached;
+
+    Timeframe tf = JobParsing.timeframe(job.getInterval());
+    long elapsedBars = Math.max(0, (System.currentTimeMillis() - job.getDataEndMs()) / tf.millis()) + 1;
+    int fetch = (int) Math.min(1000, job.getCandleLimit() + elapsedBars);
+
+    List<Candle> all;
+    try {
+      all = marketData.getCandles(JobParsing.symbol(job.getSymbol()), tf, fetch);
+    } catch (Exception e) {
+      throw new IllegalStateException("Candle fetch failed: " + safeError(e), e);
+    }
+
+    List<Candle> range = new ArrayList<>(all.size());
+    for (Candle c : all) {
+      if (c.closeTime() <= job.getDataEndMs()) range.add(c);
+    }
+    if (range.size() > job.getCandleLimit()) {
+      range = new ArrayList<>(range.subList(range.size() - job.getCandleLimit(), range.size()));
+    }
+    if (range.isEmpty()) throw new IllegalStateException("No candles for " + job.getSymbol() + " " + job.getInterval());
+
+    if (candleCache.size() > 32) candleCache.clear();
+    candleCache.put(key, range);
+    return range;
+  }
+
+  private Duration exponentialBackoff(int attemptsSoFar) {
+    long seconds = retryBase.getSeconds() * (1L << Math.min(attemptsSoFar, 10));
+    return Duration.ofSeconds(Math.min(seconds, 300));
+  }
+
+  private static String safeError(Exception e) {
+    String msg = e.getMessage();
+    if (msg == null || msg.isBlank()) msg = e.getClass().getSimpleName();
+    if (msg.length() > 500) msg = msg.substring(0, 500);
+    return msg;
+  }
+}
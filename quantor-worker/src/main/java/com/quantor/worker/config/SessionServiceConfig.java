@@ -6,6 +6,7 @@ import com.quantor.application.ports.ConfigPort;
 import com.quantor.application.ports.NotifierPort;
 import com.quantor.application.service.PipelineFactory;
 import com.quantor.application.service.SessionService;
+import com.quantor.worker.metrics.TickMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -28,8 +29,11 @@ public class SessionServiceConfig {
             PipelineFactory pipelineFactory,
             JobScheduler scheduler,
             NotifierPort notifier,
-            ConfigPort config
+            ConfigPort config,
+            TickMetrics tickMetrics
     ) {
-        return new SessionService(pipelineFactory, scheduler, notifier, config);
+        SessionService sessions = new SessionService(pipelineFactory, scheduler, notifier, config);
+        sessions.setTickMetrics(tickMetrics);
+        return sessions;
     }
 }
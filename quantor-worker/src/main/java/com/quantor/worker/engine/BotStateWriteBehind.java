@@ -0,0 +1,180 @@
+package com.quantor.worker.engine;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind for the volatile columns of bot_instances (status, lease_owner, lease_until, updated_at).
+ *
+ * submit() only merges the change into the pending patch of that instance, so repeated changes of one
+ * bot between two flushes cost a single row update; flush() writes all pending patches as one JDBC
+ * batch of column-targeted UPDATEs (no entity load, no dirty checking, untouched columns are kept).
+ *
+ * What goes where (CommandPoller):
+ * - submit(): status-only transitions, PAUSE and the terminal ERROR of a failed command. LeaseReconciler
+ *   reads the DB status together with the pending patches (readConsistent) and lets a pending status win,
+ *   so a buffered PAUSE / ERROR is never undone by the reconciler before it is flushed.
+ * - writeNow(): every lease change (START / STOP / RESUME); other workers act on the lease columns, so
+ *   they are never buffered. writeNow() folds in whatever is pending for the instance.
+ * Periodic lease renewal is not a per-instance write at all: it is one set-based statement per cycle
+ * (BotInstanceRepository.renewLeaseRows) that only rewrites leases past half their TTL.
+ *
+ * Flushes, synchronous writes and readConsistent() are serialized, so an older pending patch can never
+ * land after a newer synchronous write, nor between a reconciler read and its pending snapshot.
+ * Pending patches are flushed on shutdown; a failed flush puts them back under any newer change.
+ */
+@Component
+public class BotStateWriteBehind {
+
+  private static final Logger log = LoggerFactory.getLogger(BotStateWriteBehind.class);
+
+  private static final String UPDATE =
+      "UPDATE bot_instances SET " +
+          "status = COALESCE(?, status), " +
+          "lease_owner = CASE WHEN ? THEN ? ELSE lease_owner END, " +
+          "lease_until = CASE WHEN ? THEN ? ELSE lease_until END, " +
+          "updated_at = ? " +
+          "WHERE id = ?";
+
+  /** Change of one instance; null status / leaseSet = false leave that column as it is. */
+  public record Patch(UUID id, String status, boolean leaseSet, String leaseOwner, Instant leaseUntil, Instant at) {
+
+    public static Patch status(UUID id, String status) {
+      return new Patch(id, status, false, null, null, Instant.now());
+    }
+
+    public static Patch statusAndLease(UUID id, String status, String leaseOwner, Instant leaseUntil) {
+      return new Patch(id, status, true, leaseOwner, leaseUntil, Instant.now());
+    }
+
+    /** This patch followed by a later one: the later one wins per column. */
+    Patch then(Patch later) {
+      return new Patch(id,
+          later.status != null ? later.status : status,
+          leaseSet || later.leaseSet,
+          later.leaseSet ? later.leaseOwner : leaseOwner,
+          later.leaseSet ? later.leaseUntil : leaseUntil,
+          later.at.isAfter(at) ? later.at : at);
+    }
+  }
+
+  private final JdbcTemplate jdbc;
+  private final ConcurrentHashMap<UUID, Patch> pending = new ConcurrentHashMap<>();
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  public BotStateWriteBehind(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  /** Queues the change; coalesced with earlier pending changes of the same instance. */
+  public void submit(Patch patch) {
+    pending.merge(patch.id(), patch, Patch::then);
+  }
+
+  /** Writes the change (and anything pending for the instance) before returning. */
+  public void writeNow(Patch patch) {
+    writeLock.lock();
+    try {
+      Patch earlier = pending.remove(patch.id());
+      Patch p = earlier == null ? patch : earlier.then(patch);
+      jdbc.update(UPDATE, ps -> bind(ps, p));
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public int pendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Runs the read with no flush or synchronous write in between. Statuses looked up with pendingStatus()
+   * inside the read are newer than whatever the read's statements returned.
+   */
+  public <T> T readConsistent(Supplier<T> read) {
+    writeLock.lock();
+    try {
+      return read.get();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /** Status of the instance's pending (not yet flushed) patch, or null. */
+  public String pendingStatus(UUID id) {
+    Patch p = pending.get(id);
+    return p == null ? null : p.status();
+  }
+
+  @Scheduled(fixedDelayString = "${quantor.worker.instanceWrites.flushMs:250}")
+  public void flush() {
+    if (pending.isEmpty()) return;
+    writeLock.lock();
+    try {
+      List<Patch> batch = new ArrayList<>(pending.size());
+      for (UUID id : pending.keySet()) {
+        Patch p = pending.remove(id);
+        if (p != null) batch.add(p);
+      }
+      if (batch.isEmpty()) return;
+      // same row order on every worker, so two overlapping flushes cannot deadlock
+      batch.sort(Comparator.comparing(Patch::id));
+
+      try {
+        jdbc.batchUpdate(UPDATE, new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            bind(ps, batch.get(i));
+          }
+
+          @Override
+          public int getBatchSize() {
+            return batch.size();
+          }
+        });
+      } catch (RuntimeException e) {
+        // keep them for the next flush, under anything submitted meanwhile
+        for (Patch p : batch) pending.merge(p.id(), p, (newer, failed) -> failed.then(newer));
+        log.warn("[ENGINE] bot instance write-behind flush failed patches={} err={}", batch.size(), e.getMessage());
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    flush();
+  }
+
+  private static void bind(PreparedStatement ps, Patch p) throws SQLException {
+    if (p.status() != null) ps.setString(1, p.status());
+    else ps.setNull(1, Types.VARCHAR);
+    ps.setBoolean(2, p.leaseSet());
+    if (p.leaseOwner() != null) ps.setString(3, p.leaseOwner());
+    else ps.setNull(3, Types.VARCHAR);
+    ps.setBoolean(4, p.leaseSet());
+    if (p.leaseUntil() != null) ps.setTimestamp(5, Timestamp.from(p.leaseUntil()));
+    else ps.setNull(5, Types.TIMESTAMP_WITH_TIMEZONE);
+    ps.setTimestamp(6, Timestamp.from(p.at()));
+    ps.setObject(7, p.id());
+  }
+}
@@ -0,0 +1,103 @@
+package com.quantor.worker.engine;
+
+import com.quantor.saas.infrastructure.engine.BotCommandRepository;
+import com.quantor.worker.metrics.WorkerMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * LISTENs on BotCommandRepository.NOTIFY_CHANNEL and wakes CommandPoller as soon as the API
+ * commits a command, so START/STOP latency no longer depends on quantor.worker.pollMs.
+ *
+ * Holds one dedicated pooled connection. On connection loss it reconnects with a fixed backoff
+ * and wakes the poller once (notifications sent while disconnected are lost).
+ * CommandPoller keeps a slow scheduled poll as a safety net either way.
+ */
+@Component
+public class CommandNotificationListener {
+
+  private static final Logger log = LoggerFactory.getLogger(CommandNotificationListener.class);
+
+  private final DataSource dataSource;
+  private final CommandPoller poller;
+  private final WorkerMetrics metrics;
+  private final boolean enabled;
+  private final int waitMs;
+  private final long reconnectMs;
+
+  private volatile boolean running = false;
+  private Thread thread;
+
+  public CommandNotificationListener(
+      DataSource dataSource,
+      CommandPoller poller,
+      WorkerMetrics metrics,
+      @Value("${quantor.worker.notify.enabled:true}") boolean enabled,
+      @Value("${quantor.worker.notify.waitMs:10000}") int waitMs,
+      @Value("${quantor.worker.notify.reconnectMs:5000}") long reconnectMs
+  ) {
+    this.dataSource = dataSource;
+    this.poller = poller;
+    this.metrics = metrics;
+    this.enabled = enabled;
+    this.waitMs = Math.max(100, waitMs);
+    this.reconnectMs = Math.max(100, reconnectMs);
+  }
+
+  @PostConstruct
+  void start() {
+    if (!enabled) return;
+    running = true;
+    thread = new Thread(this::loop, "quantor-command-listen");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @PreDestroy
+  void stop() {
+    running = false;
+    if (thread != null) thread.interrupt();
+  }
+
+  private void loop() {
+    while (running) {
+      try (Connection c = dataSource.getConnection()) {
+        c.setAutoCommit(true);
+        try (Statement st = c.createStatement()) {
+          st.execute("LISTEN " + BotCommandRepository.NOTIFY_CHANNEL);
+        }
+        PGConnection pg = c.unwrap(PGConnection.class);
+        log.info("[ENGINE] listening on {}", BotCommandRepository.NOTIFY_CHANNEL);
+
+        // catch up on anything committed while we were not listening
+        poller.wake();
+
+        while (running) {
+          PGNotification[] n = pg.getNotifications(waitMs);
+          if (n != null && n.length > 0) {
+            metrics.incNotified();
+            poller.wake();
+          }
+        }
+      } catch (Exception e) {
+        if (!running) return;
+        log.warn("[ENGINE] command listener error (fallback polling stays active): {}", e.getMessage());
+        try {
+          Thread.sleep(reconnectMs);
+        } catch (InterruptedException ie) {
+          return;
+        }
+      }
+    }
+  }
+}
@@ -18,6 +18,7 @@ import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.context.propagation.TextMapGetter;
 import io.opentelemetry.context.propagation.TextMapPropagator;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -28,13 +29,35 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Production-grade command processor:
  * - claims commands with SELECT FOR UPDATE SKIP LOCKED
+ * - woken immediately by CommandNotificationListener (Postgres NOTIFY after the API commits)
+ * - slow scheduled poll as a safety net (missed notifications, retries with next_run_at)
  * - retries with exponential backoff
- * - re-queues stuck PROCESSING commands (worker crash protection)
+ * - re-queues stuck PROCESSING commands (worker crash protection) in a separate, infrequent sweep
+ * - lease changes (START/STOP/RESUME) write the bot instance's status/lease synchronously through
+ *   BotStateWriteBehind.writeNow before the command is marked done; status-only changes (PAUSE, terminal
+ *   ERROR) are submitted to the write-behind and coalesced into its next batched flush (LeaseReconciler
+ *   reads pending statuses along with the DB, so it does not undo them meanwhile)
+ * - processes a claimed batch in parallel on virtual threads (at most commandParallelism at once):
+ *   commands of one bot instance run strictly in created_at order on one thread, and bots with a
+ *   STOP/PAUSE in the batch are dispatched before bots that only START/RESUME, so a slow START
+ *   (pipeline build, model load) never delays a STOP of another bot
  *
  * DEBUG/OPS:
  * - logs explicit stop/start sources with jobKey + cmdId + requestId + traceparent
@@ -46,6 +69,7 @@ public class CommandPoller {
 
   private final BotCommandRepository commands;
   private final BotInstanceRepository instances;
+  private final BotStateWriteBehind instanceWrites;
   private final SessionService sessions;
   private final String workerId;
   private final int batchSize;
@@ -54,6 +78,18 @@ public class CommandPoller {
   private final Duration retryBase;
   private final Duration leaseTtl;
   private final WorkerMetrics metrics;
+  private final int parallelism;
+  private final ThreadFactory commandThreads = Thread.ofVirtual().name("quantor-command-", 0).factory();
+
+  // one drain at a time keeps per-bot command order across batches; drains run on the wake thread only,
+  // wake-ups (notifications, safety-net poll, stuck sweep) coalesce while one is queued
+  private final Object drainLock = new Object();
+  private final AtomicBoolean wakeQueued = new AtomicBoolean(false);
+  private final ExecutorService wakeExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "quantor-command-wake");
+    t.setDaemon(true);
+    return t;
+  });
 
   // OpenTelemetry tracer (wired via Micrometer -> OTLP exporter)
   private final Tracer otelTracer = GlobalOpenTelemetry.getTracer("quantor-worker");
@@ -72,6 +108,7 @@ public class CommandPoller {
   public CommandPoller(
       BotCommandRepository commands,
       BotInstanceRepository instances,
+      BotStateWriteBehind instanceWrites,
       SessionService sessions,
       WorkerIdentity workerIdentity,
       WorkerMetrics metrics,
@@ -79,10 +116,12 @@ public class CommandPoller {
       @Value("${quantor.worker.maxAttempts:10}") int maxAttempts,
       @Value("${quantor.worker.processingTimeoutSeconds:120}") long processingTimeoutSeconds,
       @Value("${quantor.worker.retryBaseSeconds:2}") long retryBaseSeconds,
-      @Value("${quantor.worker.leaseTtlSeconds:30}") long leaseTtlSeconds
+      @Value("${quantor.worker.leaseTtlSeconds:30}") long leaseTtlSeconds,
+      @Value("${quantor.worker.commandParallelism:8}") int parallelism
   ) {
     this.commands = commands;
     this.instances = instances;
+    this.instanceWrites = instanceWrites;
     this.sessions = sessions;
     this.workerId = workerIdentity.id();
     this.batchSize = batchSize;
@@ -91,21 +130,133 @@ public class CommandPoller {
     this.retryBase = Duration.ofSeconds(retryBaseSeconds);
     this.leaseTtl = Duration.ofSeconds(leaseTtlSeconds);
     this.metrics = metrics;
+    this.parallelism = Math.max(1, parallelism);
   }
 
-  @Scheduled(fixedDelayString = "${quantor.worker.pollMs:1000}")
+  /**
+   * Safety-net poll; normal dispatch is driven by wake(). Only queues a drain on the wake thread, so the
+   * shared scheduler thread never waits on drainLock behind a long drain.
+   */
+  @Scheduled(fixedDelayString = "${quantor.worker.pollMs:15000}")
   public void poll() {
-    // 1) Crash protection: if a worker dies mid-processing, commands will be re-queued.
+    wake();
+  }
+
+  /** Crash protection: if a worker dies mid-processing, its commands are re-queued. */
+  @Scheduled(fixedDelayString = "${quantor.worker.stuckSweepMs:60000}")
+  public void sweepStuck() {
     Instant deadline = Instant.now().minus(processingTimeout);
-    commands.requeueStuck(deadline);
+    int n = commands.requeueStuck(deadline);
+    metrics.addRequeuedStuck(n);
+    if (n > 0) wake();
+  }
+
+  /** Schedules a drain on the wake thread; non-blocking, coalesces bursts of notifications. */
+  public void wake() {
+    if (!wakeQueued.compareAndSet(false, true)) return;
+    try {
+      wakeExecutor.execute(() -> {
+        wakeQueued.set(false);
+        try {
+          drain();
+        } catch (Exception e) {
+          log.error("[ENGINE] command drain failed workerId={} err={}", workerId, e.getMessage(), e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      wakeQueued.set(false);
+    }
+  }
 
-    // 2) Claim a batch safely across multiple workers.
-    List<BotCommandEntity> batch = commands.claimBatch(workerId, batchSize);
-    for (BotCommandEntity cmd : batch) {
-      process(cmd);
+  /** Claims and processes batches until the queue has nothing due. */
+  void drain() {
+    synchronized (drainLock) {
+      List<BotCommandEntity> batch;
+      do {
+        batch = commands.claimBatch(workerId, batchSize);
+        processBatch(batch);
+      } while (batch.size() >= batchSize);
     }
   }
 
+  /**
+   * Runs one claimed batch and returns when every command is done (or rescheduled), so the next
+   * batch cannot overtake a command of the same bot.
+   */
+  private void processBatch(List<BotCommandEntity> batch) {
+    if (batch.isEmpty()) return;
+
+    // RETURNING order is unspecified: restore created_at order, then group per bot instance
+    List<BotCommandEntity> ordered = new ArrayList<>(batch);
+    ordered.sort(Comparator.comparing(BotCommandEntity::getCreatedAt,
+        Comparator.nullsFirst(Comparator.naturalOrder())));
+    Map<UUID, List<BotCommandEntity>> perBot = new LinkedHashMap<>();
+    for (BotCommandEntity cmd : ordered) {
+      perBot.computeIfAbsent(cmd.getBotInstanceId(), k -> new ArrayList<>()).add(cmd);
+    }
+
+    // bots with a STOP/PAUSE first; the sort is stable, so created_at order is kept otherwise
+    List<List<BotCommandEntity>> groups = new ArrayList<>(perBot.values());
+    groups.sort(Comparator.comparingInt(g -> hasStopOrPause(g) ? 0 : 1));
+
+    if (groups.size() == 1 || parallelism == 1) {
+      for (List<BotCommandEntity> g : groups) runGroup(g);
+      return;
+    }
+
+    // a fixed set of runners pulls groups in priority order, so dispatch order is kept under the limit
+    Queue<List<BotCommandEntity>> queue = new ConcurrentLinkedQueue<>(groups);
+    int runners = Math.min(parallelism, groups.size());
+    List<Thread> threads = new ArrayList<>(runners);
+    for (int i = 0; i < runners; i++) {
+      threads.add(commandThreads.newThread(() -> {
+        List<BotCommandEntity> g;
+        while ((g = queue.poll()) != null) runGroup(g);
+      }));
+    }
+    threads.forEach(Thread::start);
+
+    boolean interrupted = false;
+    for (Thread t : threads) {
+      while (true) {
+        try {
+          t.join();
+          break;
+        } catch (InterruptedException e) {
+          // never leave the batch half-tracked; commands still finish (or hit the stuck sweep)
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) Thread.currentThread().interrupt();
+  }
+
+  /** Commands of one bot, strictly in order. process() handles its own failures (retry/backoff). */
+  private void runGroup(List<BotCommandEntity> group) {
+    for (BotCommandEntity cmd : group) {
+      try {
+        process(cmd);
+      } catch (Exception e) {
+        // e.g. bot instance deleted: leave the command PROCESSING for the stuck sweep, as before
+        log.error("[ENGINE] command processing aborted cmdId={} workerId={} err={}",
+            cmd.getId(), workerId, safeError(e), e);
+      }
+    }
+  }
+
+  private static boolean hasStopOrPause(List<BotCommandEntity> group) {
+    for (BotCommandEntity cmd : group) {
+      String c = cmd.getCommand();
+      if ("STOP".equals(c) || "PAUSE".equals(c)) return true;
+    }
+    return false;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    wakeExecutor.shutdownNow();
+  }
+
   @Transactional
   void process(BotCommandEntity cmd) {
     // propagate request correlation into worker logs (API -> DB -> worker)
@@ -154,40 +305,37 @@ public class CommandPoller {
                 jobKey, cmd.getId(), cmd.getStatus(), workerId, safe(rid), safe(traceparent));
 
             sessions.start(job, inst.getPeriodMs());
-            inst.setStatus("RUNNING");
-            inst.setLeaseOwner(workerId);
-            inst.setLeaseUntil(Instant.now().plus(leaseTtl));
+            instanceWrites.writeNow(BotStateWriteBehind.Patch.statusAndLease(
+                inst.getId(), "RUNNING", workerId, Instant.now().plus(leaseTtl)));
           }
           case "STOP" -> {
             log.warn("[ENGINE] STOP via COMMAND_POLL jobKey={} cmdId={} cmdStatus={} workerId={} requestId={} traceparent={}",
                 jobKey, cmd.getId(), cmd.getStatus(), workerId, safe(rid), safe(traceparent));
 
             sessions.stop(job);
-            inst.setStatus("STOPPED");
-            inst.setLeaseOwner(null);
-            inst.setLeaseUntil(null);
+            instanceWrites.writeNow(BotStateWriteBehind.Patch.statusAndLease(inst.getId(), "STOPPED", null, null));
           }
           case "PAUSE" -> {
             log.warn("[ENGINE] PAUSE via COMMAND_POLL jobKey={} cmdId={} cmdStatus={} workerId={} requestId={} traceparent={}",
                 jobKey, cmd.getId(), cmd.getStatus(), workerId, safe(rid), safe(traceparent));
 
+            // keep lease; paused sessions still belong to the same executor. Submitted before pausing: the
+            // reconciler then sees PAUSED (pending) whenever the session is paused, never RUNNING
+            instanceWrites.submit(BotStateWriteBehind.Patch.status(inst.getId(), "PAUSED"));
             sessions.pause(job);
-            inst.setStatus("PAUSED");
-            // keep lease; paused sessions still belong to the same executor
           }
           case "RESUME" -> {
             log.warn("[ENGINE] RESUME via COMMAND_POLL jobKey={} cmdId={} cmdStatus={} workerId={} requestId={} traceparent={}",
                 jobKey, cmd.getId(), cmd.getStatus(), workerId, safe(rid), safe(traceparent));
 
             sessions.resume(job);
-            inst.setStatus("RUNNING");
-            inst.setLeaseOwner(workerId);
-            inst.setLeaseUntil(Instant.now().plus(leaseTtl));
+            // lease ownership changes: written before the command is marked done
+            instanceWrites.writeNow(BotStateWriteBehind.Patch.statusAndLease(
+                inst.getId(), "RUNNING", workerId, Instant.now().plus(leaseTtl)));
           }
           default -> throw new IllegalArgumentException("Unknown command: " + cmd.getCommand());
         }
 
-        instances.save(inst);
         commands.markDone(cmd.getId());
         metrics.incProcessed();
 
@@ -206,8 +354,7 @@ public class CommandPoller {
           metrics.incRetried();
           // keep instance status unchanged for transient errors
         } else {
-          inst.setStatus("ERROR");
-          instances.save(inst);
+          instanceWrites.submit(BotStateWriteBehind.Patch.status(inst.getId(), "ERROR"));
           commands.markFailed(cmd.getId(), error);
           metrics.incFailed();
         }
@@ -17,8 +17,11 @@ import java.util.UUID;
 
 /**
  * Graceful shutdown for production:
- * - stop in-process sessions for instances leased by this worker
- * - release leases so other workers can immediately take over
+ * - drain in-process sessions for instances leased by this worker: each session's runtime state
+ *   (candle window, strategy, cooldown, paper portfolio) is written to session_snapshots, then stopped
+ * - flush buffered bot instance status writes (BotStateWriteBehind)
+ * - release leases so other workers can immediately take over; they restore the snapshot before the
+ *   first tick instead of rebuilding every session cold
  */
 @Component
 public class GracefulShutdownHook {
@@ -26,11 +29,14 @@ public class GracefulShutdownHook {
   private static final Logger log = LoggerFactory.getLogger(GracefulShutdownHook.class);
 
   private final BotInstanceRepository instances;
+  private final BotStateWriteBehind instanceWrites;
   private final SessionService sessions;
   private final String workerId;
 
-  public GracefulShutdownHook(BotInstanceRepository instances, SessionService sessions, WorkerIdentity workerIdentity) {
+  public GracefulShutdownHook(BotInstanceRepository instances, BotStateWriteBehind instanceWrites,
+                              SessionService sessions, WorkerIdentity workerIdentity) {
     this.instances = instances;
+    this.instanceWrites = instanceWrites;
     this.sessions = sessions;
     this.workerId = workerIdentity.id();
   }
@@ -46,6 +52,9 @@ public class GracefulShutdownHook {
 
   @Transactional
   void releaseLeasesAndStopSessions() {
+    // buffered status writes land before the leases are read and released
+    instanceWrites.flush();
+
     List<UUID> leased = instances.findActiveLeasesByOwner(workerId);
     if (leased.isEmpty()) {
       log.info("No active leases to release for worker {}", workerId);
@@ -66,12 +75,13 @@ public class GracefulShutdownHook {
 
       // Stop local execution; desired state remains in DB (RUNNING/PAUSED), so another worker will reclaim and resume.
       if (sessions.isRunning(job)) {
-        sessions.stop(job);
+        sessions.drain(job);
       }
-
-      instances.releaseLease(inst.getId(), workerId);
     }
 
-    log.info("Released {} leases and stopped local sessions for worker {}", leased.size(), workerId);
+    // one set-based statement instead of one UPDATE per bot; sessions are already stopped
+    int released = instances.releaseLeaseRows(workerId).size();
+
+    log.info("Released {} leases and drained {} local sessions for worker {}", released, bots.size(), workerId);
   }
 }
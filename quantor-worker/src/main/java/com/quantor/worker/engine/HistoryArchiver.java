@@ -0,0 +1,228 @@
+package com.quantor.worker.engine;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves finished history out of the hot tables (V27__history_archive.sql).
+ *
+ * Per table, rows that are finished and older than their retention are moved in batches of batchSize:
+ * one DELETE ... RETURNING -> INSERT INTO {table}_archive statement per transaction, oldest first,
+ * FOR UPDATE SKIP LOCKED. Each batch takes a transaction-scoped advisory lock per table, so when every
+ * worker runs the archiver only one of them moves a given table at a time (the others skip it).
+ *
+ * Archive tables are partitioned by month on created_at; the monthly partitions are created before the
+ * rows that need them are moved, and whole partitions older than archiveRetentionMonths are dropped
+ * (0 = archive kept forever). A retention of 0 days disables archiving for that table.
+ *
+ * A run can move a lot of rows, so it never runs on the shared scheduling threads (lease renewal,
+ * heartbeats, command polling): the scheduled trigger only hands the run to the archiver's own thread,
+ * and a run stops after maxRunMs (or maxBatchesPerRun batches per table), whichever comes first.
+ */
+@Component
+public class HistoryArchiver {
+
+  private static final Logger log = LoggerFactory.getLogger(HistoryArchiver.class);
+
+  /** One archived table: the columns moved and what makes a row "finished". */
+  private record Spec(String table, String columns, String finished, long retentionDays) {}
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final boolean enabled;
+  private final int batchSize;
+  private final int maxBatchesPerRun;
+  private final long maxRunMs;
+  private final int archiveRetentionMonths;
+  private final List<Spec> specs;
+
+  private final ExecutorService executor;
+  private final AtomicBoolean running = new AtomicBoolean(false);
+
+  public HistoryArchiver(
+      JdbcTemplate jdbc,
+      PlatformTransactionManager txManager,
+      @Value("${quantor.worker.archive.enabled:true}") boolean enabled,
+      @Value("${quantor.worker.archive.batchSize:5000}") int batchSize,
+      @Value("${quantor.worker.archive.maxBatchesPerRun:100}") int maxBatchesPerRun,
+      @Value("${quantor.worker.archive.maxRunMs:30000}") long maxRunMs,
+      @Value("${quantor.worker.archive.commandsRetentionDays:7}") long commandsRetentionDays,
+      @Value("${quantor.worker.archive.eventsRetentionDays:30}") long eventsRetentionDays,
+      @Value("${quantor.worker.archive.auditRetentionDays:180}") long auditRetentionDays,
+      @Value("${quantor.worker.archive.archiveRetentionMonths:0}") int archiveRetentionMonths
+  ) {
+    this.jdbc = jdbc;
+    this.tx = new TransactionTemplate(txManager);
+    this.enabled = enabled;
+    this.batchSize = Math.max(100, batchSize);
+    this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+    this.maxRunMs = Math.max(1_000, maxRunMs);
+    this.archiveRetentionMonths = Math.max(0, archiveRetentionMonths);
+    this.specs = List.of(
+        new Spec("bot_commands",
+            "id, bot_instance_id, user_id, command, status, worker_id, error_message, created_at, processed_at, " +
+                "locked_at, attempts, next_run_at, request_id, traceparent",
+            "status IN ('DONE', 'FAILED')", commandsRetentionDays),
+        new Spec("event_log",
+            "id, source, event_id, event_type, user_id, payload_json, status, error, created_at, processed_at",
+            "status IN ('PROCESSED', 'FAILED')", eventsRetentionDays),
+        new Spec("audit_log",
+            "id, actor_type, actor_id, action, target_type, target_id, request_id, created_at, user_id",
+            "TRUE", auditRetentionDays)
+    );
+    this.executor = Executors.newSingleThreadExecutor(r -> {
+      Thread t = new Thread(r, "quantor-archiver");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /** Scheduled trigger: never blocks the scheduling thread, skips while the previous run is busy. */
+  @Scheduled(initialDelayString = "${quantor.worker.archive.initialDelayMs:60000}",
+      fixedDelayString = "${quantor.worker.archive.intervalMs:300000}")
+  public void trigger() {
+    if (!enabled || !running.compareAndSet(false, true)) return;
+    try {
+      executor.execute(() -> {
+        try {
+          run();
+        } finally {
+          running.set(false);
+        }
+      });
+    } catch (RuntimeException e) {
+      running.set(false);
+      log.warn("[ARCHIVE] run not started: {}", e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    // batches are single transactions: an interrupted run leaves nothing half-moved
+    executor.shutdownNow();
+  }
+
+  void run() {
+    long deadline = System.currentTimeMillis() + maxRunMs;
+    for (Spec spec : specs) {
+      if (spec.retentionDays() <= 0) continue;
+      if (System.currentTimeMillis() >= deadline || Thread.currentThread().isInterrupted()) {
+        log.info("[ARCHIVE] run budget of {} ms used up, {} and later tables wait for the next run", maxRunMs, spec.table());
+        return;
+      }
+      try {
+        long moved = archive(spec, deadline);
+        if (moved > 0) log.info("[ARCHIVE] moved {} rows from {} to {}_archive", moved, spec.table(), spec.table());
+        if (archiveRetentionMonths > 0) dropExpiredPartitions(spec);
+      } catch (DataAccessException e) {
+        log.warn("[ARCHIVE] {} failed: {}", spec.table(), e.getMessage());
+      }
+    }
+  }
+
+  /** Moves up to maxBatchesPerRun batches until the run deadline; returns the number of rows moved. */
+  private long archive(Spec spec, long deadline) {
+    Timestamp cutoff = Timestamp.from(Instant.now().minus(spec.retentionDays(), ChronoUnit.DAYS));
+    String move =
+        "WITH moved AS (" +
+            "  DELETE FROM " + spec.table() + " WHERE id IN (" +
+            "    SELECT id FROM " + spec.table() +
+            "    WHERE " + spec.finished() + " AND created_at < ?" +
+            "    ORDER BY created_at ASC LIMIT ? FOR UPDATE SKIP LOCKED" +
+            "  ) RETURNING " + spec.columns() +
+            ") " +
+            "INSERT INTO " + spec.table() + "_archive (" + spec.columns() + ") SELECT " + spec.columns() + " FROM moved";
+
+    Boolean prepared = tx.execute(s -> {
+      if (!tryLock(spec)) return false;
+      ensurePartitions(spec, cutoff);
+      return true;
+    });
+    if (!Boolean.TRUE.equals(prepared)) return 0;
+
+    long total = 0;
+    for (int i = 0; i < maxBatchesPerRun && System.currentTimeMillis() < deadline; i++) {
+      if (Thread.currentThread().isInterrupted()) break;
+      Integer n = tx.execute(s -> tryLock(spec) ? jdbc.update(move, cutoff, batchSize) : 0);
+      if (n == null || n == 0) break;
+      total += n;
+      if (n < batchSize) break;
+    }
+    return total;
+  }
+
+  /** Monthly archive partitions from the oldest archivable row up to the cutoff month. */
+  private void ensurePartitions(Spec spec, Timestamp cutoff) {
+    Timestamp oldest = jdbc.queryForObject(
+        "SELECT min(created_at) FROM " + spec.table() + " WHERE " + spec.finished() + " AND created_at < ?",
+        Timestamp.class, cutoff);
+    if (oldest == null) return;
+
+    YearMonth last = YearMonth.from(cutoff.toInstant().atOffset(ZoneOffset.UTC));
+    for (YearMonth m = YearMonth.from(oldest.toInstant().atOffset(ZoneOffset.UTC)); !m.isAfter(last); m = m.plusMonths(1)) {
+      jdbc.execute("CREATE TABLE IF NOT EXISTS " + partitionName(spec.table(), m) +
+          " PARTITION OF " + spec.table() + "_archive " +
+          "FOR VALUES FROM ('" + m.atDay(1) + " 00:00:00+00') TO ('" + m.plusMonths(1).atDay(1) + " 00:00:00+00')");
+    }
+  }
+
+  /** Drops archive partitions whose whole month is older than archiveRetentionMonths. */
+  private void dropExpiredPartitions(Spec spec) {
+    YearMonth keepFrom = YearMonth.now(ZoneOffset.UTC).minusMonths(archiveRetentionMonths);
+    String prefix = spec.table() + "_archive_";
+    List<String> partitions = jdbc.queryForList(
+        "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ?",
+        String.class, spec.table() + "_archive");
+    for (String name : partitions) {
+      YearMonth m = parseMonth(name, prefix);
+      if (m == null || !m.isBefore(keepFrom)) continue;
+      Boolean dropped = tx.execute(s -> {
+        if (!tryLock(spec)) return false;
+        jdbc.execute("DROP TABLE IF EXISTS " + name);
+        return true;
+      });
+      if (Boolean.TRUE.equals(dropped)) log.info("[ARCHIVE] dropped archive partition {}", name);
+    }
+  }
+
+  private boolean tryLock(Spec spec) {
+    Boolean locked = jdbc.queryForObject(
+        "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, "quantor.archive." + spec.table());
+    return Boolean.TRUE.equals(locked);
+  }
+
+  static String partitionName(String table, YearMonth m) {
+    return String.format("%s_archive_%04d_%02d", table, m.getYear(), m.getMonthValue());
+  }
+
+  static YearMonth parseMonth(String partition, String prefix) {
+    if (!partition.startsWith(prefix)) return null;
+    String[] p = partition.substring(prefix.length()).split("_");
+    if (p.length != 2) return null; // e.g. the default partition
+    try {
+      return YearMonth.of(Integer.parseInt(p[0]), Integer.parseInt(p[1]));
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+}
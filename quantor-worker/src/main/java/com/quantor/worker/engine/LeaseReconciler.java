@@ -3,50 +3,102 @@ package com.quantor.worker.engine;
 import com.quantor.application.execution.ExecutionJob;
 import com.quantor.application.exchange.ExchangeId;
 import com.quantor.application.service.SessionService;
+import com.quantor.worker.metrics.WorkerMetrics;
 import com.quantor.worker.util.JobParsing;
-import com.quantor.saas.infrastructure.engine.BotInstanceEntity;
 import com.quantor.saas.infrastructure.engine.BotInstanceRepository;
+import com.quantor.saas.infrastructure.engine.LeaseRow;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 /**
  * Ensures each RUNNING/PAUSED bot instance is executed by exactly one worker.
  *
- * Strategy:
- * - Claim expired/unowned leases using SELECT FOR UPDATE SKIP LOCKED (safe across many workers).
- * - Periodically renew leases for instances this worker owns.
- * - Reconcile in-process sessions with desired state stored in DB.
+ * Strategy (2 statements per cycle, independent of the number of bots):
+ * - Renew the leases this worker owns: one statement that returns the desired state of every owned bot
+ *   but only writes leases past half their TTL. A lease that expired less than leaseTtl / 3 ago is still
+ *   renewed (a slow cycle must not drop bots), unless another worker claimed it meanwhile.
+ * - Claim expired/unowned leases: one CTE with FOR UPDATE SKIP LOCKED + UPDATE ... RETURNING.
+ *   With placement enabled only bots of this worker's rendezvous shard (exchange, symbol) are claimed,
+ *   plus orphans that nobody picked up within orphanGraceSeconds.
+ * - Every rebalanceMs: hand off owned bots whose shard moved to another live, accepting worker
+ *   (join / recovery), at most rebalanceMaxMoves per round. Their sessions are drained (state snapshot
+ *   for a warm start on the new owner) before the leases are released (one read + one release statement).
+ * - Admission control (WorkerCapacity): the claim limit is the remaining capacity budget; a full or
+ *   overloaded worker skips the claim statement, and one that stays overloaded sheds its
+ *   lowest-priority bots to accepting peers (drained like a rebalance; one read + one release statement).
+ * - Diff desired state against in-process sessions in memory; only mismatches touch SessionService.
+ *   Bots no longer returned (STOP command, lease lost to another worker) are stopped locally.
+ * - Renew and claim run inside BotStateWriteBehind.readConsistent: a status change still buffered there
+ *   (PAUSE, terminal ERROR) is newer than the returned DB status and wins, so the reconciler never undoes
+ *   a command whose status write has not been flushed yet.
  */
 @Component
 public class LeaseReconciler {
 
   private final BotInstanceRepository instances;
   private final SessionService sessions;
+  private final WorkerMetrics metrics;
+  private final WorkerCapacity capacity;
+  private final BotStateWriteBehind instanceWrites;
   private final String workerId;
   private final Duration leaseTtl;
+  private final Duration renewGrace;
   private final int batchSize;
 
+  private final boolean placement;
+  private final Duration liveWindow;
+  private final Duration orphanGrace;
+  private final long rebalanceMs;
+  private final int rebalanceMaxMoves;
+  private long nextRebalanceAt;
+
+  private record Leases(List<LeaseRow> renewed, List<LeaseRow> claimed) {}
+
+  // bots this worker executes, as of the last cycle (reconciler thread only)
+  private final Map<UUID, ExecutionJob> owned = new HashMap<>();
+
   public LeaseReconciler(
       BotInstanceRepository instances,
       SessionService sessions,
       WorkerIdentity workerIdentity,
+      WorkerMetrics metrics,
+      WorkerCapacity capacity,
+      BotStateWriteBehind instanceWrites,
       @Value("${quantor.worker.leaseTtlSeconds:30}") long leaseTtlSeconds,
-      @Value("${quantor.worker.leaseBatchSize:50}") int batchSize
+      @Value("${quantor.worker.leaseBatchSize:50}") int batchSize,
+      @Value("${quantor.worker.placement.enabled:true}") boolean placement,
+      @Value("${quantor.worker.placement.liveSeconds:20}") long liveSeconds,
+      @Value("${quantor.worker.placement.orphanGraceSeconds:60}") long orphanGraceSeconds,
+      @Value("${quantor.worker.placement.rebalanceMs:30000}") long rebalanceMs,
+      @Value("${quantor.worker.placement.rebalanceMaxMoves:10}") int rebalanceMaxMoves
   ) {
     this.instances = instances;
     this.sessions = sessions;
+    this.metrics = metrics;
+    this.capacity = capacity;
+    this.instanceWrites = instanceWrites;
     this.workerId = workerIdentity.id();
     this.leaseTtl = Duration.ofSeconds(leaseTtlSeconds);
+    this.renewGrace = leaseTtl.dividedBy(3);
     this.batchSize = batchSize;
+    this.placement = placement;
+    this.liveWindow = Duration.ofSeconds(liveSeconds);
+    this.orphanGrace = Duration.ofSeconds(orphanGraceSeconds);
+    this.rebalanceMs = rebalanceMs;
+    this.rebalanceMaxMoves = rebalanceMaxMoves;
+    // first rebalance only after the fleet had time to heartbeat
+    this.nextRebalanceAt = System.currentTimeMillis() + rebalanceMs;
   }
 
   @Scheduled(fixedDelayString = "${quantor.worker.leasePollMs:1000}")
@@ -54,58 +106,157 @@ public class LeaseReconciler {
     reconcile();
   }
 
-  @Transactional
   void reconcile() {
+    int statements = 0;
+
+    // 0) Hand off bots whose shard moved to another worker; they drop out of the renewed set below.
+    int moved = 0;
+    if (placement && rebalanceMaxMoves > 0 && System.currentTimeMillis() >= nextRebalanceAt) {
+      nextRebalanceAt = System.currentTimeMillis() + rebalanceMs;
+      List<LeaseRow> foreign = instances.findForeignShardRows(workerId, liveWindow, rebalanceMaxMoves);
+      statements++;
+      if (!foreign.isEmpty()) {
+        moved = instances.handOffLeaseRows(workerId, drainLocal(foreign)).size();
+        statements++;
+      }
+    }
+
     // 1) Renew leases for instances already owned by this worker.
-    instances.renewLeases(workerId, leaseTtl);
+    // 2) Claim new leases that are due (unowned/expired), limited by the capacity budget.
+    // Both see the buffered status changes as of the same moment as the DB rows (no flush in between).
+    int admissible = capacity.admissible(batchSize);
+    Leases read = instanceWrites.readConsistent(() -> new Leases(
+        withPendingStatus(instances.renewLeaseRows(workerId, leaseTtl, renewGrace)),
+        admissible <= 0 ? List.of() : withPendingStatus(placement
+            ? instances.claimShardLeaseRows(workerId, leaseTtl, admissible, liveWindow, orphanGrace)
+            : instances.claimDueLeaseRows(workerId, leaseTtl, admissible))));
+    List<LeaseRow> renewed = read.renewed();
+    List<LeaseRow> claimed = read.claimed();
+    statements += admissible > 0 ? 2 : 1;
 
-    // 2) Claim new leases that are due (unowned/expired) to keep desired state running.
-    List<UUID> claimed = instances.claimDueLeases(workerId, leaseTtl, batchSize);
+    // 2b) Still overloaded: hand the lowest-priority bots to peers (they drop out of desired below).
+    // Drained ones that fail to release are renewed next cycle and restart warm from their snapshot.
+    Set<UUID> shed = new HashSet<>();
+    int shedCount = 0;
+    if (capacity.shouldShed()) {
+      List<LeaseRow> candidates = instances.findShedRows(workerId, capacity.shedBatch(), liveWindow);
+      statements++;
+      if (!candidates.isEmpty()) {
+        List<UUID> drained = drainLocal(candidates);
+        shed.addAll(drained);
+        shedCount = instances.shedLeaseRows(workerId, drained).size();
+        statements++;
+      }
+    }
 
-    // 3) Reconcile all active leases (already owned + newly claimed).
-    List<UUID> active = instances.findActiveLeasesByOwner(workerId);
-    Set<UUID> all = new HashSet<>(active);
-    all.addAll(claimed);
+    Map<UUID, LeaseRow> desired = new HashMap<>(renewed.size() + claimed.size());
+    for (LeaseRow r : renewed) desired.put(r.id(), r);
+    for (LeaseRow r : claimed) desired.put(r.id(), r);
+    desired.keySet().removeAll(shed);
 
-    if (all.isEmpty()) return;
+    int changes = 0;
 
-    List<BotInstanceEntity> bots = instances.findAllById(all);
-    for (BotInstanceEntity inst : bots) {
-      ensureDesiredState(inst);
-      // keep lease fresh for long-running processes
-      inst.setLeaseOwner(workerId);
-      inst.setLeaseUntil(Instant.now().plus(leaseTtl));
-      instances.save(inst);
+    // 3) Sessions we still run but no longer own.
+    Iterator<Map.Entry<UUID, ExecutionJob>> it = owned.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<UUID, ExecutionJob> e = it.next();
+      if (!desired.containsKey(e.getKey())) {
+        if (stopLocal(e.getValue())) changes++;
+        it.remove();
+      }
     }
+
+    // 4) Desired vs actual for everything we own.
+    for (LeaseRow r : desired.values()) {
+      ExecutionJob job = toJob(r);
+      ExecutionJob prev = owned.put(r.id(), job);
+      if (prev != null && !prev.equals(job)) {
+        if (stopLocal(prev)) changes++;
+      }
+      if (ensureDesiredState(job, r)) changes++;
+    }
+
+    metrics.recordLeaseCycle(statements, owned.size(), claimed.size(), changes);
+    metrics.addShardMoves(moved);
+    metrics.recordAdmission(admissible);
+    metrics.addShed(shedCount);
   }
 
-  private void ensureDesiredState(BotInstanceEntity inst) {
-    ExecutionJob job = new ExecutionJob(
-        inst.getUserId().toString(),
-        inst.getStrategyId(),
-        ExchangeId.BINANCE,
-        ExchangeId.BINANCE,
-        JobParsing.symbol(inst.getSymbol()),
-        JobParsing.timeframe(inst.getInterval()),
-        inst.getLookback()
-    );
+  /**
+   * Applies buffered status changes over the DB rows. A pending status other than RUNNING / PAUSED
+   * (ERROR) drops the row, exactly as the renew statement will once it is flushed.
+   */
+  private List<LeaseRow> withPendingStatus(List<LeaseRow> rows) {
+    List<LeaseRow> out = new ArrayList<>(rows.size());
+    for (LeaseRow r : rows) {
+      String pending = instanceWrites.pendingStatus(r.id());
+      if (pending == null || pending.equals(r.status())) {
+        out.add(r);
+      } else if ("RUNNING".equals(pending) || "PAUSED".equals(pending)) {
+        out.add(new LeaseRow(r.id(), r.userId(), r.strategyId(), r.symbol(), r.interval(),
+            r.lookback(), r.periodMs(), pending));
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Drains (snapshot, then stop) the local sessions of bots that are about to be released, while this
+   * worker still holds their leases, so the next owner restores the snapshot instead of starting cold.
+   */
+  private List<UUID> drainLocal(List<LeaseRow> rows) {
+    List<UUID> ids = new ArrayList<>(rows.size());
+    for (LeaseRow r : rows) {
+      ExecutionJob job = owned.remove(r.id());
+      if (job == null) job = toJob(r);
+      if (sessions.isRunning(job)) sessions.drain(job);
+      ids.add(r.id());
+    }
+    return ids;
+  }
 
-    String status = inst.getStatus();
+  private boolean stopLocal(ExecutionJob job) {
+    if (!sessions.isRunning(job)) return false;
+    sessions.stop(job);
+    return true;
+  }
+
+  /** @return true when the local session had to be changed */
+  private boolean ensureDesiredState(ExecutionJob job, LeaseRow r) {
+    boolean changed = false;
+    String status = r.status();
     if ("RUNNING".equals(status)) {
       if (!sessions.isRunning(job)) {
-        sessions.start(job, inst.getPeriodMs());
+        sessions.start(job, r.periodMs());
+        changed = true;
       }
       // If it was paused previously, resume it.
       if (sessions.isPaused(job)) {
         sessions.resume(job);
+        changed = true;
       }
     } else if ("PAUSED".equals(status)) {
       if (!sessions.isRunning(job)) {
-        sessions.start(job, inst.getPeriodMs());
+        sessions.start(job, r.periodMs());
+        changed = true;
       }
       if (!sessions.isPaused(job)) {
         sessions.pause(job);
+        changed = true;
       }
     }
+    return changed;
+  }
+
+  private static ExecutionJob toJob(LeaseRow r) {
+    return new ExecutionJob(
+        r.userId().toString(),
+        r.strategyId(),
+        ExchangeId.BINANCE,
+        ExchangeId.BINANCE,
+        JobParsing.symbol(r.symbol()),
+        JobParsing.timeframe(r.interval()),
+        r.lookback()
+    );
   }
 }
@@ -0,0 +1,79 @@
+package com.quantor.worker.engine;
+
+import com.quantor.application.ports.SessionSnapshotStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Session handoff snapshots in Postgres (session_snapshots, one row per job key).
+ *
+ * Written by GracefulShutdownHook via SessionService.drain, taken (DELETE ... RETURNING) by whichever
+ * worker starts the session next. Snapshots older than maxAgeSeconds are ignored and purged:
+ * a session that stayed unclaimed that long starts cold rather than from stale state.
+ */
+@Component
+public class PostgresSessionSnapshotStore implements SessionSnapshotStore {
+
+  private static final Logger log = LoggerFactory.getLogger(PostgresSessionSnapshotStore.class);
+
+  private final JdbcTemplate jdbc;
+  private final String workerId;
+  private final boolean enabled;
+  private final long maxAgeSeconds;
+
+  public PostgresSessionSnapshotStore(
+      JdbcTemplate jdbc,
+      WorkerIdentity workerIdentity,
+      @Value("${quantor.worker.handoff.enabled:true}") boolean enabled,
+      @Value("${quantor.worker.handoff.maxAgeSeconds:900}") long maxAgeSeconds
+  ) {
+    this.jdbc = jdbc;
+    this.workerId = workerIdentity.id();
+    this.enabled = enabled;
+    this.maxAgeSeconds = maxAgeSeconds;
+  }
+
+  public boolean enabled() {
+    return enabled;
+  }
+
+  @Override
+  public void save(String sessionKey, byte[] snapshot) {
+    jdbc.update(
+        "INSERT INTO session_snapshots(job_key, worker_id, payload, created_at) VALUES (?, ?, ?, now()) " +
+            "ON CONFLICT (job_key) DO UPDATE SET worker_id = EXCLUDED.worker_id, payload = EXCLUDED.payload, " +
+            "created_at = EXCLUDED.created_at",
+        sessionKey, workerId, snapshot
+    );
+  }
+
+  @Override
+  public byte[] take(String sessionKey) {
+    List<byte[]> rows = jdbc.query(
+        "DELETE FROM session_snapshots WHERE job_key = ? RETURNING payload, " +
+            "created_at >= now() - (? * interval '1 second') AS fresh",
+        (rs, i) -> rs.getBoolean("fresh") ? rs.getBytes("payload") : null,
+        sessionKey, maxAgeSeconds
+    );
+    if (rows.isEmpty()) return null;
+    byte[] payload = rows.get(0);
+    if (payload != null) log.info("[HANDOFF] restoring snapshot jobKey={} bytes={} workerId={}", sessionKey, payload.length, workerId);
+    return payload;
+  }
+
+  @Scheduled(fixedDelayString = "${quantor.worker.handoff.purgeMs:600000}")
+  public void purgeExpired() {
+    if (!enabled) return;
+    int n = jdbc.update(
+        "DELETE FROM session_snapshots WHERE created_at < now() - (? * interval '1 second')",
+        maxAgeSeconds
+    );
+    if (n > 0) log.info("[HANDOFF] purged {} expired session snapshots", n);
+  }
+}
@@ -0,0 +1,140 @@
+package com.quantor.worker.engine;
+
+import com.quantor.application.execution.ExecutionStats;
+import com.quantor.application.service.SessionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * Measured load of this worker against a configurable capacity budget.
+ *
+ * Signals: active sessions, p99 tick duration and p99 scheduler lag over the last signalWindowMs,
+ * process CPU and heap.
+ * - admissible(n): how many new leases the reconciler may claim now (0 while full or over budget)
+ * - accepting: published to quantor_workers so rendezvous placement skips saturated workers
+ * - shouldShed(): overloaded for shedAfter consecutive evaluations, at most once per shedCooldownMs.
+ *   A worker that is merely full (activeSessions == maxSessions) stops claiming but does not shed.
+ * - admissibleBacktests(free): backtest chunks (BacktestJobPoller) run on what live sessions leave:
+ *   none while over budget or while process CPU is above backtestMaxCpu.
+ */
+@Component
+public class WorkerCapacity {
+
+  /** One reading of the capacity signals. */
+  public record Snapshot(
+      int activeSessions,
+      long tickP99Ms,
+      long schedulerLagP99Ms,
+      double cpuLoad,
+      long heapUsedMb,
+      long heapMaxMb,
+      boolean overloaded,
+      boolean accepting
+  ) {}
+
+  private final SessionService sessions;
+  private final int maxSessions;
+  private final long tickP99SloMs;
+  private final long maxSchedulerLagMs;
+  private final double maxCpu;
+  private final double maxHeapPct;
+  private final int shedBatch;
+  private final int shedAfter;
+  private final long shedCooldownMs;
+  private final long signalWindowMs;
+  private final double backtestMaxCpu;
+
+  // reconciler thread only
+  private int overloadedRuns;
+  private long lastShedAt;
+
+  public WorkerCapacity(
+      SessionService sessions,
+      @Value("${quantor.worker.capacity.maxSessions:500}") int maxSessions,
+      @Value("${quantor.worker.capacity.tickP99SloMs:2000}") long tickP99SloMs,
+      @Value("${quantor.worker.capacity.maxSchedulerLagMs:1000}") long maxSchedulerLagMs,
+      @Value("${quantor.worker.capacity.maxCpu:0.85}") double maxCpu,
+      @Value("${quantor.worker.capacity.maxHeapPct:0.85}") double maxHeapPct,
+      @Value("${quantor.worker.capacity.shedBatch:5}") int shedBatch,
+      @Value("${quantor.worker.capacity.shedAfter:3}") int shedAfter,
+      @Value("${quantor.worker.capacity.shedCooldownMs:15000}") long shedCooldownMs,
+      @Value("${quantor.worker.capacity.signalWindowMs:60000}") long signalWindowMs,
+      @Value("${quantor.worker.capacity.backtestMaxCpu:0.7}") double backtestMaxCpu
+  ) {
+    this.sessions = sessions;
+    this.maxSessions = maxSessions;
+    this.tickP99SloMs = tickP99SloMs;
+    this.maxSchedulerLagMs = maxSchedulerLagMs;
+    this.maxCpu = maxCpu;
+    this.maxHeapPct = maxHeapPct;
+    this.shedBatch = shedBatch;
+    this.shedAfter = Math.max(1, shedAfter);
+    this.shedCooldownMs = shedCooldownMs;
+    this.signalWindowMs = signalWindowMs;
+    this.backtestMaxCpu = backtestMaxCpu;
+  }
+
+  /** Reads all signals and evaluates them against the budget. */
+  public Snapshot measure() {
+    ExecutionStats stats = sessions.stats();
+    int active = sessions.activeSessions();
+    long tickP99 = stats.tickPercentileMs(99, signalWindowMs);
+    long lagP99 = stats.lagPercentileMs(99, signalWindowMs);
+    double cpu = processCpuLoad(); // < 0 = not available
+
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    long usedMb = heap.getUsed() / (1024 * 1024);
+    long maxMb = (heap.getMax() > 0 ? heap.getMax() : heap.getCommitted()) / (1024 * 1024);
+
+    boolean overloaded = active > maxSessions
+        || tickP99 > tickP99SloMs
+        || lagP99 > maxSchedulerLagMs
+        || cpu > maxCpu
+        || (maxMb > 0 && (double) usedMb / maxMb > maxHeapPct);
+    boolean accepting = !overloaded && active < maxSessions;
+
+    return new Snapshot(active, tickP99, lagP99, cpu, usedMb, maxMb, overloaded, accepting);
+  }
+
+  /** Leases the reconciler may claim this cycle: 0 when full or over budget, else the remaining session headroom. */
+  public int admissible(int batchSize) {
+    Snapshot s = measure();
+    overloadedRuns = s.overloaded() ? overloadedRuns + 1 : 0;
+    if (!s.accepting()) return 0;
+    return Math.max(0, Math.min(batchSize, maxSessions - s.activeSessions()));
+  }
+
+  /** True when the worker stayed over budget long enough to hand sessions to peers (call after admissible). */
+  public boolean shouldShed() {
+    if (shedBatch <= 0 || overloadedRuns < shedAfter) return false;
+    long now = System.currentTimeMillis();
+    if (now - lastShedAt < shedCooldownMs) return false;
+    lastShedAt = now;
+    return true;
+  }
+
+  /** Backtest chunks that may start now, given free idle backtest threads. Does not touch the shed state. */
+  public int admissibleBacktests(int free) {
+    if (free <= 0) return 0;
+    Snapshot s = measure();
+    if (s.overloaded() || s.cpuLoad() > backtestMaxCpu) return 0;
+    return free;
+  }
+
+  public int shedBatch() {
+    return shedBatch;
+  }
+
+  private static double processCpuLoad() {
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean sun) {
+      return sun.getProcessCpuLoad();
+    }
+    double avg = os.getSystemLoadAverage();
+    return avg < 0 ? -1 : avg / Math.max(1, os.getAvailableProcessors());
+  }
+}
@@ -1,21 +1,25 @@
 package com.quantor.worker.engine;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
- * Updates worker liveness in Postgres.
+ * Updates worker liveness in Postgres, together with the capacity signals of this worker
+ * (see WorkerCapacity); accepting = false takes the worker out of rendezvous placement.
  */
 @Component
 public class WorkerHeartbeat {
 
   private final JdbcTemplate jdbc;
   private final String workerId;
+  private final WorkerCapacity capacity;
 
-  public WorkerHeartbeat(JdbcTemplate jdbc, WorkerIdentity workerIdentity) {
+  public WorkerHeartbeat(JdbcTemplate jdbc, WorkerIdentity workerIdentity, WorkerCapacity capacity) {
     this.jdbc = jdbc;
     this.workerId = workerIdentity.id();
+    this.capacity = capacity;
 
     // ensure row exists
     jdbc.update(
@@ -26,9 +30,30 @@ public class WorkerHeartbeat {
 
   @Scheduled(fixedDelayString = "${quantor.worker.heartbeatMs:5000}")
   public void heartbeat() {
+    WorkerCapacity.Snapshot c = capacity.measure();
     jdbc.update(
-        "UPDATE quantor_workers SET last_heartbeat_at = now() WHERE worker_id = ?",
+        "UPDATE quantor_workers SET last_heartbeat_at = now(), " +
+            "active_sessions = ?, tick_p99_ms = ?, scheduler_lag_p99_ms = ?, cpu_load = ?, " +
+            "heap_used_mb = ?, heap_max_mb = ?, accepting = ? " +
+            "WHERE worker_id = ?",
+        c.activeSessions(),
+        (double) c.tickP99Ms(),
+        (double) c.schedulerLagP99Ms(),
+        c.cpuLoad() < 0 ? null : c.cpuLoad(),
+        (int) c.heapUsedMb(),
+        (int) c.heapMaxMb(),
+        c.accepting(),
         workerId
     );
   }
+
+  /** Leave the fleet right away so rendezvous placement stops assigning shards to this worker. */
+  @PreDestroy
+  public void leave() {
+    try {
+      jdbc.update("DELETE FROM quantor_workers WHERE worker_id = ?", workerId);
+    } catch (Exception ignore) {
+      // best-effort; the row ages out of the live window anyway
+    }
+  }
 }
@@ -0,0 +1,157 @@
+package com.quantor.worker.metrics;
+
+import com.quantor.application.exchange.ExchangeId;
+import com.quantor.application.exchange.Timeframe;
+import com.quantor.application.ports.TickMetricsPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Micrometer binding of TickMetricsPort.
+ *
+ * Exposes:
+ * - quantor.worker.tick.stage (timer; tags stage, exchange, timeframe)
+ * - quantor.worker.tick.duration (timer; tags exchange, timeframe, outcome)
+ * - quantor.worker.scheduler.lag (summary in ms, histogram; tags exchange, timeframe)
+ * - quantor.worker.tick.overruns / quantor.worker.tick.missed (counters; tags exchange, timeframe)
+ * - quantor.worker.tick.deferred (counter; idle ticks not run in overload mode; tags exchange, timeframe)
+ *
+ * Tags are enums only, so the series count is bounded by
+ * stages x exchanges x timeframes (~400 timers) whether 10 or 10k sessions run.
+ * Meters are created on first use and then looked up by array index (no allocation per tick).
+ */
+@Component
+public class TickMetrics implements TickMetricsPort {
+
+  private static final String NONE = "none";
+
+  private static final int EXCHANGES = ExchangeId.values().length + 1;   // + none
+  private static final int TIMEFRAMES = Timeframe.values().length + 1;   // + none
+  private static final int STAGES = Stage.values().length;
+  private static final int OUTCOMES = Outcome.values().length;
+
+  private final MeterRegistry registry;
+
+  private final AtomicReferenceArray<Timer> stageTimers =
+      new AtomicReferenceArray<>(STAGES * EXCHANGES * TIMEFRAMES);
+  private final AtomicReferenceArray<Timer> tickTimers =
+      new AtomicReferenceArray<>(OUTCOMES * EXCHANGES * TIMEFRAMES);
+  private final AtomicReferenceArray<DistributionSummary> lagSummaries =
+      new AtomicReferenceArray<>(EXCHANGES * TIMEFRAMES);
+  private final AtomicReferenceArray<Counter> overrunCounters =
+      new AtomicReferenceArray<>(EXCHANGES * TIMEFRAMES);
+  private final AtomicReferenceArray<Counter> missedCounters =
+      new AtomicReferenceArray<>(EXCHANGES * TIMEFRAMES);
+  private final AtomicReferenceArray<Counter> deferredCounters =
+      new AtomicReferenceArray<>(EXCHANGES * TIMEFRAMES);
+
+  public TickMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void recordStage(Stage stage, ExchangeId exchange, Timeframe timeframe, long nanos) {
+    int i = (stage.ordinal() * EXCHANGES + ex(exchange)) * TIMEFRAMES + tf(timeframe);
+    Timer t = stageTimers.get(i);
+    if (t == null) {
+      t = Timer.builder("quantor.worker.tick.stage")
+          .description("Duration of one TradingPipeline stage")
+          .tag("stage", stage.name().toLowerCase())
+          .tag("exchange", exName(exchange))
+          .tag("timeframe", tfName(timeframe))
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .register(registry);
+      stageTimers.compareAndSet(i, null, t);
+    }
+    t.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordTick(ExchangeId exchange, Timeframe timeframe, Outcome outcome, long nanos) {
+    int i = (outcome.ordinal() * EXCHANGES + ex(exchange)) * TIMEFRAMES + tf(timeframe);
+    Timer t = tickTimers.get(i);
+    if (t == null) {
+      t = Timer.builder("quantor.worker.tick.duration")
+          .description("Duration of one session tick")
+          .tag("exchange", exName(exchange))
+          .tag("timeframe", tfName(timeframe))
+          .tag("outcome", outcome.name().toLowerCase())
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .register(registry);
+      tickTimers.compareAndSet(i, null, t);
+    }
+    t.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordSchedulerLag(ExchangeId exchange, Timeframe timeframe, long lagMs) {
+    int i = ex(exchange) * TIMEFRAMES + tf(timeframe);
+    DistributionSummary s = lagSummaries.get(i);
+    if (s == null) {
+      s = DistributionSummary.builder("quantor.worker.scheduler.lag")
+          .description("Time between a tick being due and its start")
+          .baseUnit("milliseconds")
+          .tag("exchange", exName(exchange))
+          .tag("timeframe", tfName(timeframe))
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .publishPercentileHistogram()
+          .minimumExpectedValue(1.0)
+          .maximumExpectedValue((double) Duration.ofMinutes(5).toMillis())
+          .register(registry);
+      lagSummaries.compareAndSet(i, null, s);
+    }
+    s.record(lagMs);
+  }
+
+  @Override
+  public void recordOverrun(ExchangeId exchange, Timeframe timeframe, long missedRuns) {
+    counter(overrunCounters, "quantor.worker.tick.overruns", "Ticks that ran past the next due time",
+        exchange, timeframe).increment();
+    counter(missedCounters, "quantor.worker.tick.missed", "Runs dropped or merged after overruns",
+        exchange, timeframe).increment(Math.max(0, missedRuns));
+  }
+
+  @Override
+  public void recordOverloadDeferral(ExchangeId exchange, Timeframe timeframe) {
+    counter(deferredCounters, "quantor.worker.tick.deferred", "Idle session ticks not run in overload mode",
+        exchange, timeframe).increment();
+  }
+
+  private Counter counter(AtomicReferenceArray<Counter> counters, String name, String description,
+                          ExchangeId exchange, Timeframe timeframe) {
+    int i = ex(exchange) * TIMEFRAMES + tf(timeframe);
+    Counter c = counters.get(i);
+    if (c == null) {
+      c = Counter.builder(name)
+          .description(description)
+          .tag("exchange", exName(exchange))
+          .tag("timeframe", tfName(timeframe))
+          .register(registry);
+      counters.compareAndSet(i, null, c);
+    }
+    return c;
+  }
+
+  private static int ex(ExchangeId e) {
+    return e == null ? EXCHANGES - 1 : e.ordinal();
+  }
+
+  private static int tf(Timeframe t) {
+    return t == null ? TIMEFRAMES - 1 : t.ordinal();
+  }
+
+  private static String exName(ExchangeId e) {
+    return e == null ? NONE : e.name().toLowerCase();
+  }
+
+  private static String tfName(Timeframe t) {
+    return t == null ? NONE : t.name().toLowerCase();
+  }
+}
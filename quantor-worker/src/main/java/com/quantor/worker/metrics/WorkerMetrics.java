@@ -4,9 +4,12 @@ import com.quantor.saas.infrastructure.engine.BotCommandRepository;
 import com.quantor.saas.infrastructure.engine.BotInstanceRepository;
 import com.quantor.worker.engine.WorkerIdentity;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Minimal production metrics for the worker.
  *
@@ -15,6 +18,9 @@ import org.springframework.stereotype.Component;
  * - quantor.worker.commands.processing (gauge)
  * - quantor.worker.instances.leased (gauge)
  * - counters for processed/retried/failed commands
+ * - quantor.worker.commands.notified (NOTIFY wake-ups) / requeued_stuck
+ * - lease reconcile cycle: statements per cycle (summary), owned bots (gauge), claimed / session changes (counters)
+ * - capacity: leases admissible per cycle (gauge), bots shed to peers (counter)
  */
 @Component
 public class WorkerMetrics {
@@ -22,6 +28,15 @@ public class WorkerMetrics {
   private final Counter processed;
   private final Counter retried;
   private final Counter failed;
+  private final Counter notified;
+  private final Counter requeuedStuck;
+  private final DistributionSummary leaseStatements;
+  private final Counter leaseClaimed;
+  private final Counter leaseChanges;
+  private final AtomicInteger leaseOwned = new AtomicInteger();
+  private final Counter shardMoves;
+  private final AtomicInteger admissible = new AtomicInteger();
+  private final Counter shed;
 
   public WorkerMetrics(
       MeterRegistry registry,
@@ -44,6 +59,30 @@ public class WorkerMetrics {
     this.failed = Counter.builder("quantor.worker.commands.failed")
         .description("Commands permanently failed")
         .register(registry);
+    this.notified = Counter.builder("quantor.worker.commands.notified")
+        .description("Wake-ups from Postgres NOTIFY")
+        .register(registry);
+    this.requeuedStuck = Counter.builder("quantor.worker.commands.requeued_stuck")
+        .description("PROCESSING commands re-queued by the stuck sweep")
+        .register(registry);
+
+    this.leaseStatements = DistributionSummary.builder("quantor.worker.lease.statements_per_cycle")
+        .description("DB statements issued by one lease reconcile cycle")
+        .register(registry);
+    this.leaseClaimed = Counter.builder("quantor.worker.lease.claimed")
+        .description("Leases claimed by this worker")
+        .register(registry);
+    this.leaseChanges = Counter.builder("quantor.worker.lease.session_changes")
+        .description("Local session start/stop/pause/resume actions taken by the reconciler")
+        .register(registry);
+    registry.gauge("quantor.worker.lease.owned", leaseOwned);
+    this.shardMoves = Counter.builder("quantor.worker.lease.shard_moves")
+        .description("Bots handed off to their rendezvous owner during rebalance")
+        .register(registry);
+    registry.gauge("quantor.worker.capacity.admissible", admissible);
+    this.shed = Counter.builder("quantor.worker.capacity.shed")
+        .description("Bots released to peers because this worker was over its capacity budget")
+        .register(registry);
   }
 
   public void incProcessed() {
@@ -57,4 +96,31 @@ public class WorkerMetrics {
   public void incFailed() {
     failed.increment();
   }
+
+  public void incNotified() {
+    notified.increment();
+  }
+
+  public void addRequeuedStuck(int n) {
+    if (n > 0) requeuedStuck.increment(n);
+  }
+
+  public void recordLeaseCycle(int statements, int owned, int claimed, int changes) {
+    leaseStatements.record(statements);
+    leaseOwned.set(owned);
+    if (claimed > 0) leaseClaimed.increment(claimed);
+    if (changes > 0) leaseChanges.increment(changes);
+  }
+
+  public void addShardMoves(int n) {
+    if (n > 0) shardMoves.increment(n);
+  }
+
+  public void recordAdmission(int n) {
+    admissible.set(n);
+  }
+
+  public void addShed(int n) {
+    if (n > 0) shed.increment(n);
+  }
 }
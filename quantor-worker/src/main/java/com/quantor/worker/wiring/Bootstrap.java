@@ -3,7 +3,7 @@ package com.quantor.worker.wiring;
 import com.quantor.application.engine.LiveEngine;
 import com.quantor.application.execution.ExecutionJob;
 import com.quantor.application.execution.JobScheduler;
-import com.quantor.application.execution.impl.DefaultJobScheduler;
+import com.quantor.application.execution.impl.JobSchedulers;
 import com.quantor.application.exchange.ExchangeId;
 import com.quantor.application.exchange.ExchangePort;
 import com.quantor.application.exchange.MarketSymbol;
@@ -34,6 +34,7 @@ import com.quantor.infrastructure.notification.TelegramNotifier;
 import com.quantor.infrastructure.paper.PaperBrokerState;
 import com.quantor.infrastructure.paper.PaperOrderExecutionAdapter;
 import com.quantor.infrastructure.paper.PaperPortfolioAdapter;
+import com.quantor.infrastructure.paper.PaperStateJournal;
 import com.quantor.infrastructure.paper.SymbolParserMetaAdapter;
 import com.quantor.worker.util.JobParsing;
 
@@ -134,11 +135,19 @@ public final class Bootstrap {
      * New (v2) entrypoint: wires a SessionService with an execution scheduler and pipeline factory.
      */
     public static SessionService createSessionService(ConfigPort config) {
+        return createSessionService(config, new SqliteTradeJournalAdapter());
+    }
+
+    /** Same wiring with an explicit trade journal (each pipeline gets journal.forSession(user, job key)). */
+    public static SessionService createSessionService(ConfigPort config, TradeJournalPort tradeJournal) {
         NotifierPort notifier = createNotifier(config);
-        TradeJournalPort journal = new SqliteTradeJournalAdapter();
-        JobScheduler scheduler = new DefaultJobScheduler(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        JobScheduler scheduler = JobSchedulers.fromConfig(config);
+        // paper.stateDir set: paper accounts survive restarts (snapshot + WAL per session)
+        PaperStateJournal paperState = PaperStateJournal.fromConfig(config);
+
+        PipelineFactory create = job -> {
+            TradeJournalPort journal = tradeJournal.forSession(job.userId(), job.key());
 
-        PipelineFactory factory = job -> {
             // Market data from Binance (klines are public)
             BinanceClient client = new BinanceClient(config);
             BinanceExchangeAdapter legacy = new BinanceExchangeAdapter(client);
@@ -157,7 +166,7 @@ public final class Bootstrap {
                 exchange = marketDataExchange;
             } else {
                 // PAPER mode: simulated execution + portfolio
-                PaperBrokerState state = new PaperBrokerState();
+                PaperBrokerState state = paperState != null ? paperState.open(job.key()) : new PaperBrokerState();
                 portfolio = new PaperPortfolioAdapter(state, config, meta);
                 PaperOrderExecutionAdapter paperExec = new PaperOrderExecutionAdapter(state, legacy, meta, config);
 
@@ -229,7 +238,28 @@ return new TradingPipeline(
 
         };
 
-        return new SessionService(factory, scheduler, notifier, config);
+        return new SessionService(withPaperState(create, paperState), scheduler, notifier, config);
+    }
+
+    /** Stopped sessions release their paper state files; SessionService.close() closes the journal. */
+    private static PipelineFactory withPaperState(PipelineFactory delegate, PaperStateJournal paperState) {
+        if (paperState == null) return delegate;
+        return new PipelineFactory() {
+            @Override
+            public TradingPipeline create(ExecutionJob job) {
+                return delegate.create(job);
+            }
+
+            @Override
+            public void release(ExecutionJob job) {
+                paperState.release(job.key());
+            }
+
+            @Override
+            public void close() {
+                paperState.close();
+            }
+        };
     }
 
     private static NotifierPort createNotifier(ConfigPort config) {
@@ -19,6 +19,7 @@ import com.quantor.infrastructure.exchange.UnifiedBinanceExchangeAdapter;
 import com.quantor.infrastructure.paper.PaperBrokerState;
 import com.quantor.infrastructure.paper.PaperOrderExecutionAdapter;
 import com.quantor.infrastructure.paper.PaperPortfolioAdapter;
+import com.quantor.infrastructure.paper.PaperStateJournal;
 import com.quantor.infrastructure.paper.SymbolParserMetaAdapter;
 import com.quantor.worker.util.JobParsing;
 
@@ -32,11 +33,18 @@ public final class SaasPipelineFactory implements PipelineFactory {
   private final ConfigPort config;
   private final NotifierPort notifier;
   private final TradeJournalPort journal;
+  private final PaperStateJournal paperState; // null = paper accounts in memory only
 
   public SaasPipelineFactory(ConfigPort config, NotifierPort notifier, TradeJournalPort journal) {
+    this(config, notifier, journal, null);
+  }
+
+  public SaasPipelineFactory(ConfigPort config, NotifierPort notifier, TradeJournalPort journal,
+                             PaperStateJournal paperState) {
     this.config = config;
     this.notifier = notifier;
     this.journal = journal;
+    this.paperState = paperState;
   }
 
   @Override
@@ -53,7 +61,7 @@ public final class SaasPipelineFactory implements PipelineFactory {
 
     if (job.exchange() == ExchangeId.PAPER) {
       mode = TradingMode.PAPER;
-      PaperBrokerState state = new PaperBrokerState();
+      PaperBrokerState state = paperState != null ? paperState.open(job.key()) : new PaperBrokerState();
       portfolio = new PaperPortfolioAdapter(state, config, meta);
       PaperOrderExecutionAdapter paperExec = new PaperOrderExecutionAdapter(state, legacy, meta, config);
       exchange = new ExchangePort() {
@@ -109,9 +117,19 @@ String uid = config.get("userId", "local");
 
 
 return new TradingPipeline(
-        mode, exchange, portfolio, meta, strategy, risk, journal, notifier,
+        mode, exchange, portfolio, meta, strategy, risk, journal.forSession(job.userId(), job.key()), notifier,
         subscription, control, cooldown, uid
 );
 
   }
+
+  @Override
+  public void release(ExecutionJob job) {
+    if (paperState != null) paperState.release(job.key());
+  }
+
+  @Override
+  public void close() {
+    if (paperState != null) paperState.close();
+  }
 }
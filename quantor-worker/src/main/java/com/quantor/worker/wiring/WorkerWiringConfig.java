@@ -1,11 +1,22 @@
 package com.quantor.worker.wiring;
 
 import com.quantor.application.ports.ConfigPort;
+import com.quantor.application.ports.EquitySeriesPort;
+import com.quantor.application.ports.TradeJournalPort;
 import com.quantor.application.service.SessionService;
+import com.quantor.domain.journal.AsyncAppender;
 import com.quantor.infrastructure.config.FileConfigService;
+import com.quantor.infrastructure.journal.SqliteTradeJournalAdapter;
+import com.quantor.saas.infrastructure.ledger.PostgresEquitySeries;
+import com.quantor.saas.infrastructure.ledger.PostgresTradeLedger;
+import com.quantor.worker.engine.PostgresSessionSnapshotStore;
+import com.quantor.worker.engine.WorkerIdentity;
+import com.quantor.worker.metrics.TickMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import javax.sql.DataSource;
 import java.io.IOException;
 
 @Configuration
@@ -16,8 +27,49 @@ public class WorkerWiringConfig {
     return FileConfigService.defaultFromWorkingDir();
   }
 
+  /**
+   * Trade journal of the sessions: the shared Postgres ledger (fills buffered and COPY-ed in batches,
+   * spilled to the local SQLite journal while Postgres is down), or the local journal only when disabled.
+   * A bean so that it is closed (drained) before the DataSource on shutdown.
+   */
   @Bean
-  public SessionService sessionService(ConfigPort config) {
-    return Bootstrap.createSessionService(config);
+  public TradeJournalPort tradeJournal(
+      DataSource dataSource,
+      WorkerIdentity workerIdentity,
+      @Value("${quantor.worker.ledger.enabled:true}") boolean enabled,
+      @Value("${quantor.worker.ledger.bufferSize:16384}") int bufferSize,
+      @Value("${quantor.worker.ledger.flushMs:250}") long flushMs
+  ) {
+    TradeJournalPort local = new SqliteTradeJournalAdapter();
+    if (!enabled) return local;
+    return new PostgresTradeLedger(dataSource, workerIdentity.id(), local,
+        new AsyncAppender.Options(bufferSize, flushMs, AsyncAppender.Durability.INTERVAL));
+  }
+
+  /** Per-session equity rollups (1m / 1h / 1d) in Postgres, read by the API dashboards. */
+  @Bean
+  public EquitySeriesPort equitySeries(
+      DataSource dataSource,
+      @Value("${quantor.worker.equity.retainMinuteDays:30}") int retainMinuteDays,
+      @Value("${quantor.worker.equity.retainHourDays:400}") int retainHourDays,
+      @Value("${quantor.worker.equity.flushMs:1000}") long flushMs
+  ) {
+    return new PostgresEquitySeries(dataSource, retainMinuteDays, retainHourDays,
+        new AsyncAppender.Options(8192, flushMs, AsyncAppender.Durability.INTERVAL));
+  }
+
+  @Bean
+  public SessionService sessionService(
+      ConfigPort config,
+      TickMetrics tickMetrics,
+      PostgresSessionSnapshotStore snapshots,
+      TradeJournalPort tradeJournal,
+      EquitySeriesPort equitySeries
+  ) {
+    SessionService sessions = Bootstrap.createSessionService(config, tradeJournal);
+    sessions.setEquitySeries(equitySeries);
+    sessions.setTickMetrics(tickMetrics);
+    if (snapshots.enabled()) sessions.setSnapshotStore(snapshots);
+    return sessions;
   }
 }